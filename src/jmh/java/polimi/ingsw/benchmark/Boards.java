@@ -0,0 +1,42 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.simulation.BotPolicy;
+import polimi.ingsw.simulation.SimulationRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realistic manuscripts for the benchmarks of the model: the boards of the players at the end of games
+ * played by the bots of the {@link SimulationRunner} from a fixed seed, so that every run measures the same boards.
+ */
+final class Boards {
+    /** The games played. */
+    static final int GAMES = 16;
+    /** The bots of the seats of each game. */
+    static final List<String> POLICIES = List.of("greedy", "objective", "random", "greedy");
+    /** The boards of the games, one for each player. */
+    static final int COUNT = GAMES * 4;
+    private static final long SEED = 42;
+
+    private Boards() {
+    }
+
+    /**
+     * Plays the games and collects the manuscripts of their players.
+     *
+     * @return The {@link #COUNT} manuscripts, game after game.
+     */
+    static List<Manuscript> play() {
+        SimulationRunner runner = new SimulationRunner(POLICIES.stream().map(BotPolicy::forName).toList(), SEED);
+        List<Manuscript> boards = new ArrayList<>(COUNT);
+        for (int index = 0; index < GAMES; index++) {
+            for (Player player : runner.replay(index).getPlayers()) {
+                boards.add(player.getManuscript());
+            }
+        }
+        return boards;
+    }
+}
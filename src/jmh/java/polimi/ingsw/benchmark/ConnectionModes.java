@@ -0,0 +1,132 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.message.PingMessage;
+import polimi.ingsw.SocketAndRMI.socket.MessageFrames;
+import polimi.ingsw.SocketAndRMI.socket.NioServer;
+import polimi.ingsw.SocketAndRMI.socket.SktServer;
+import polimi.ingsw.controller.GameRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Comparison of the socket server modes holding idle connections: a platform thread per connection,
+ * a virtual thread per connection and the non-blocking {@link NioServer}.
+ * For every mode and number of connections (1000 and 5000 by default) it reports the platform threads,
+ * the heap and the resident memory of the process, which includes the stacks of the platform threads.
+ * Every mode runs in a new JVM, so the measures do not mix.
+ * <p>
+ * Usage: {@code ConnectionModes [connections...]}, or {@code ConnectionModes <mode> <connections>} for a single run.
+ */
+public class ConnectionModes {
+    private static final String[] MODES = {"platform", "virtual", "nio"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && !args[0].matches("\\d+")) {
+            measure(args[0], Integer.parseInt(args[1]));
+            return;
+        }
+        String[] sizes = args.length > 0 ? args : new String[]{"1000", "5000"};
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (String size : sizes) {
+            for (String mode : MODES) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ConnectionModes.class.getName(), mode, size)
+                        .redirectErrorStream(true)
+                        .start();
+                try (var lines = process.inputReader().lines()) {
+                    lines.filter(line -> line.startsWith("|")).forEach(System.out::println);
+                }
+                process.waitFor();
+            }
+        }
+    }
+
+    private static void measure(String mode, int connections) throws IOException, InterruptedException {
+        Server server = new Server(new GameRegistry());
+        IntSupplier connectionCount;
+        Runnable close;
+        int port;
+        if (mode.equals("nio")) {
+            NioServer nioServer = new NioServer(server, 0);
+            nioServer.bind();
+            port = nioServer.getPort();
+            connectionCount = nioServer::getConnectionCount;
+            close = nioServer::close;
+            start(nioServer);
+        } else {
+            SktServer sktServer = new SktServer(server, 0, mode.equals("virtual"));
+            sktServer.bind();
+            port = sktServer.getPort();
+            connectionCount = sktServer::getConnectionCount;
+            close = sktServer::close;
+            start(sktServer);
+        }
+
+        List<SocketChannel> clients = new ArrayList<>(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            clients.add(SocketChannel.open(new InetSocketAddress("localhost", port)));
+        }
+        while (connectionCount.getAsInt() < connections) {
+            Thread.sleep(10);
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        // a ping on every connection checks that all of them are served
+        byte[] ping = MessageFrames.frame(new PingMessage("idle")).array();
+        for (SocketChannel client : clients) {
+            client.write(ByteBuffer.wrap(ping));
+        }
+        Thread.sleep(1000);
+
+        System.out.printf("| %-8s | %5d connections | %5d ms | %5d platform threads | heap %6.1f MB | rss %7.1f MB |%n",
+                mode, connectionCount.getAsInt(), elapsed, ManagementFactory.getThreadMXBean().getThreadCount(),
+                usedHeap() / 1e6, residentMemory() / 1e6);
+
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        close.run();
+        System.exit(0);
+    }
+
+    private static void start(Runnable socketServer) {
+        Thread thread = new Thread(socketServer);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return The resident memory of the process, read from /proc on Linux, or 0 elsewhere.
+     */
+    private static long residentMemory() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // not on Linux
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,47 @@
+package polimi.ingsw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import polimi.ingsw.model.Game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the decks of a {@link Game}: the four decks created from the catalog and shuffled
+ * from the seed of a new game, and the decks rebuilt in a recorded order, as a game is restored.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="DeckBenchmark"}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeckBenchmark {
+    private long seed;
+    private Game game;
+    private int[][] orders;
+
+    @Setup
+    public void setUp() {
+        game = new Game(0, 4, 42);
+        orders = game.getDeckOrders();
+    }
+
+    /**
+     * A new game, whose constructor creates and shuffles the decks; every game has its own seed.
+     */
+    @Benchmark
+    public Game createDecks() {
+        return new Game(0, 4, seed++);
+    }
+
+    @Benchmark
+    public Game restoreDecks() {
+        game.restoreDecks(orders);
+        return game;
+    }
+}
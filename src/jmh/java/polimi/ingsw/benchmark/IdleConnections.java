@@ -0,0 +1,74 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.message.PingMessage;
+import polimi.ingsw.SocketAndRMI.socket.MessageFrames;
+import polimi.ingsw.SocketAndRMI.socket.NioServer;
+import polimi.ingsw.controller.GameRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the socket server holding many idle connections.
+ * It opens the given number of client connections (10000 by default) to a {@link NioServer} running in the same
+ * process, keeps them alive with pings for a while and reports the threads and the heap used by the process.
+ * Client and server share the process, so the limit of open files must allow twice the connections.
+ * <p>
+ * Usage: {@code IdleConnections [connections] [seconds held]}
+ */
+public class IdleConnections {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+
+        NioServer nioServer = new NioServer(new Server(new GameRegistry()), 0);
+        nioServer.bind();
+        Thread acceptor = new Thread(nioServer);
+        acceptor.setDaemon(true);
+        acceptor.start();
+        long heapBefore = usedHeap();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        List<SocketChannel> clients = new ArrayList<>(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            clients.add(SocketChannel.open(new InetSocketAddress("localhost", nioServer.getPort())));
+        }
+        while (nioServer.getConnectionCount() < connections) {
+            Thread.sleep(10);
+        }
+        System.out.printf("%d connections accepted in %d ms%n", connections, (System.nanoTime() - start) / 1_000_000);
+
+        byte[] ping = MessageFrames.frame(new PingMessage("idle")).array();
+        for (int elapsed = 0; elapsed < seconds; elapsed += 5) {
+            for (SocketChannel client : clients) {
+                client.write(ByteBuffer.wrap(ping));
+            }
+            Thread.sleep(Math.min(5, seconds - elapsed) * 1000L);
+        }
+
+        System.out.printf("open connections: %d%n", nioServer.getConnectionCount());
+        System.out.printf("threads: %d (%d before connecting)%n",
+                ManagementFactory.getThreadMXBean().getThreadCount(), threadsBefore);
+        System.out.printf("heap: %.1f MB (%.1f MB before connecting)%n", usedHeap() / 1e6, heapBefore / 1e6);
+
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        nioServer.close();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
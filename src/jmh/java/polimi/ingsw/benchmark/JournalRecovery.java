@@ -0,0 +1,188 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.message.*;
+import polimi.ingsw.controller.Controller;
+import polimi.ingsw.controller.GameJournal;
+import polimi.ingsw.controller.GameRegistry;
+import polimi.ingsw.log.Log;
+import polimi.ingsw.log.LogLevel;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Color;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.view.VirtualView;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link GameJournal}.
+ * Many games are played at once by scripted clients on a registry recording them, then the server "crashes"
+ * and the games are restored from the journal. It reports the events written per flush (the effect of the
+ * group commit), the write amplification of the journal, compactions included, and the time to restore the games.
+ * Half of the games are played to their end, or as far as the rules let the scripted clients go,
+ * the other half are interrupted after the given number of turns.
+ * <p>
+ * Usage: {@code JournalRecovery [games] [turns] [players] [compactMinBytes]}
+ */
+public class JournalRecovery {
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long compactMinBytes = args.length > 3 ? Long.parseLong(args[3]) : GameJournal.DEFAULT_COMPACT_MIN_BYTES;
+        Path file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+
+        PrintStream out = System.out;
+        LogLevel level = Log.getLevel();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Log.setLevel(LogLevel.OFF);
+        try {
+            GameJournal journal = GameJournal.open(file, compactMinBytes);
+            GameRegistry registry = new GameRegistry(journal);
+            List<Controller> controllers = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                controllers.add(setUp(registry, game, players));
+            }
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int game = 0; game < games; game++) {
+                    Controller controller = controllers.get(game);
+                    int limit = game % 2 == 0 ? Integer.MAX_VALUE : turns;
+                    Random random = new Random(game);
+                    clients.execute(() -> play(controller, limit, random));
+                }
+                clients.shutdown();
+                clients.awaitTermination(10, TimeUnit.MINUTES);
+            }
+            journal.sync();
+            long played = System.nanoTime() - start;
+            journal.close();
+
+            start = System.nanoTime();
+            GameJournal reopened = GameJournal.open(file, compactMinBytes);
+            long read = System.nanoTime() - start;
+            int events = reopened.getRecoveredGames().values().stream().mapToInt(List::size).sum();
+            GameRegistry restoredRegistry = new GameRegistry(reopened);
+            int restored = restoredRegistry.restoreGames();
+            long recovered = System.nanoTime() - start;
+            reopened.close();
+
+            out.printf("%d games of %d players, played in %d ms%n", games, players, played / 1_000_000);
+            out.printf("journal: %d bytes appended in %d flushes (%.1f bytes per flush), %d compactions%n",
+                    journal.getAppendedBytes(), journal.getFlushes(),
+                    (double) journal.getAppendedBytes() / journal.getFlushes(), journal.getCompactions());
+            out.printf("write amplification: %.2f (%d bytes written), file of %d bytes%n",
+                    (double) journal.getWrittenBytes() / journal.getAppendedBytes(), journal.getWrittenBytes(), Files.size(file));
+            out.printf("recovery: %d events of %d live games read in %d ms, %d games restored in %d ms (%.1f us per game)%n",
+                    events, reopened.getRecoveredGames().size(), read / 1_000_000, restored, recovered / 1_000_000,
+                    restored == 0 ? 0.0 : recovered / 1_000.0 / restored);
+        } finally {
+            System.setOut(out);
+            Log.setLevel(level);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Logs the players into a new game and plays its setup.
+     */
+    static Controller setUp(GameRegistry registry, int game, int players) {
+        Controller controller = null;
+        for (int i = 0; i < players; i++) {
+            Controller lobby = registry.getOpenLobby();
+            controller = lobby;
+            String nickname = "g" + game + "p" + i;
+            registry.addPlayer(nickname, lobby.getGameId());
+            lobby.getMailbox().call(() -> {
+                lobby.newLoginSetUp(nickname, new VirtualView(new Discard(), Runnable::run));
+                lobby.onMessageSwith(new ColorRequestMessage(nickname, Color.values()[lobby.getPlayer().size() - 1].toString()));
+                if (lobby.getPlayer().size() == 1) {
+                    lobby.onMessageSwith(new PlayersNumberResponse(nickname, players));
+                }
+                return null;
+            });
+        }
+        Controller started = controller;
+        started.getMailbox().call(() -> {
+            for (Player player : new ArrayList<>(started.getPlayer())) {
+                started.onMessageSwith(new SecretAndStartingResponseMessage(player.getNickname(),
+                        player.getPossibleTargetCard()[0].getID(), true));
+            }
+            return null;
+        });
+        return started;
+    }
+
+    /**
+     * Plays the turns of a game, each move as a task of its mailbox, until the game is over,
+     * a placement is rejected or the limit of turns is reached.
+     */
+    static void play(Controller controller, int limit, Random random) {
+        for (int turn = 0; turn < limit; turn++) {
+            boolean accepted = controller.getMailbox().call(() -> {
+                if (controller.isClosed() || controller.getGameState() != GameState.PLAY_CARD) {
+                    return false;
+                }
+                Player player = controller.getPlayerByNickname(controller.getActivePlayer());
+                List<Cell> cells = player.getAvailableCells();
+                Cell cell = cells.get(random.nextInt(cells.size()));
+                List<AbstractCard> hand = player.getHandCards();
+                int position = 0;
+                while (Game.BLANK_CARD_ID.equals(hand.get(position).getID())) {
+                    position++;
+                }
+                boolean front = Integer.parseInt(hand.get(position).getID()) <= 40;
+                controller.onMessageSwith(new PlaceCardResponse(player.getNickname(), position, cell.getRow(), cell.getColumn(), front));
+                // a rejected placement leaves the player to place a card again
+                return controller.getGameState() != GameState.PLAY_CARD
+                        || !player.getNickname().equals(controller.getActivePlayer());
+            });
+            if (!accepted) {
+                return;
+            }
+            for (int attempt = 0; attempt < 6; attempt++) {
+                boolean drawing = controller.getMailbox().call(() -> {
+                    if (controller.isClosed() || controller.getGameState() != GameState.DRAW_CARD) {
+                        return false;
+                    }
+                    controller.onMessageSwith(new DrawCardResponse(controller.getActivePlayer(), 1 + random.nextInt(6)));
+                    return true;
+                });
+                if (!drawing) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Connection of a scripted client, which reads nothing.
+     */
+    private static final class Discard implements ServerController {
+        @Override
+        public void send(Message messageToSent) {
+        }
+
+        @Override
+        public void disconnectThisClient() {
+        }
+
+        @Override
+        public boolean isClientConnectionOk() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package polimi.ingsw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.Placement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the {@link Manuscript}, on the {@link Boards} of games played by bots: each operation is one board.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ManuscriptBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ManuscriptBenchmark {
+    private Manuscript[] boards;
+    private List<Placement>[] placements;
+    private AbstractCard[] startingCards;
+    private AbstractCard[][][] compressed;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        boards = Boards.play().toArray(new Manuscript[0]);
+        placements = new List[boards.length];
+        startingCards = new AbstractCard[boards.length];
+        compressed = new AbstractCard[boards.length][][];
+        for (int i = 0; i < boards.length; i++) {
+            placements[i] = boards[i].getPlacements();
+            Placement starting = placements[i].get(0);
+            startingCards[i] = CardCatalog.getInstance().get(starting.getDefinition()).newCard();
+            startingCards[i].setFront(starting.isFront());
+            compressed[i] = boards[i].getCompressedManuscript();
+        }
+    }
+
+    /**
+     * A new manuscript with its starting card.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Boards.COUNT)
+    public void construct(Blackhole blackhole) {
+        for (AbstractCard startingCard : startingCards) {
+            blackhole.consume(new Manuscript(startingCard));
+        }
+    }
+
+    /**
+     * A whole board placed again card after card, as restored from its placements:
+     * the new cards and the manuscript included.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Boards.COUNT)
+    public void placeCards(Blackhole blackhole) {
+        for (List<Placement> board : placements) {
+            blackhole.consume(Manuscript.fromPlacements(board));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Boards.COUNT)
+    public void compressedManuscript(Blackhole blackhole) {
+        for (Manuscript board : boards) {
+            blackhole.consume(board.getCompressedManuscript());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Boards.COUNT)
+    public void availableResource(Blackhole blackhole) {
+        for (AbstractCard[][] matrix : compressed) {
+            blackhole.consume(Manuscript.getAvailableResource(matrix));
+        }
+    }
+}
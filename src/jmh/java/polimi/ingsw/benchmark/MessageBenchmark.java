@@ -0,0 +1,68 @@
+package polimi.ingsw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.socket.BinaryMessageCodec;
+import polimi.ingsw.SocketAndRMI.socket.JavaSerializationCodec;
+import polimi.ingsw.SocketAndRMI.socket.MessageCodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the codecs of the socket protocol, on the frames of a {@link RecordedGame} of 4 players:
+ * each operation encodes or decodes the next frame of the game, in the order they were sent.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="MessageBenchmark"}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageBenchmark {
+    @Param({"binary", "java"})
+    public String codecName;
+
+    private MessageCodec codec;
+    private Message[] messages;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = switch (codecName) {
+            case "binary" -> BinaryMessageCodec.INSTANCE;
+            case "java" -> JavaSerializationCodec.INSTANCE;
+            default -> throw new IllegalArgumentException("Unknown codec: " + codecName);
+        };
+        List<Message> frames = new ArrayList<>();
+        RecordedGame.play(4, 42).turns.forEach(frames::addAll);
+        messages = frames.toArray(new Message[0]);
+        payloads = new byte[messages.length][];
+        for (int i = 0; i < messages.length; i++) {
+            payloads[i] = codec.encode(messages[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        Message message = messages[next];
+        next = next + 1 == messages.length ? 0 : next + 1;
+        return codec.encode(message);
+    }
+
+    @Benchmark
+    public Message decode() throws IOException {
+        byte[] payload = payloads[next];
+        next = next + 1 == payloads.length ? 0 : next + 1;
+        return codec.decode(payload, 0, payload.length);
+    }
+}
@@ -0,0 +1,178 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.message.*;
+import polimi.ingsw.SocketAndRMI.socket.MessageFrames;
+import polimi.ingsw.log.Log;
+import polimi.ingsw.log.LogLevel;
+import polimi.ingsw.controller.Controller;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Color;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.view.VirtualView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A whole game played through a {@link Controller} by scripted clients, recording every message of each turn:
+ * the messages the clients send and the ones the server sends to each of them, as they travel,
+ * so the messages produced by one step of the game are recorded as one batch per client.
+ * Clients place resource cards on their front and gold cards on their back, so every placement is accepted,
+ * and draw from a random deck. The game is recorded until it ends, or until the server rejects a placement:
+ * once a deck is empty the game does not accept the placements of the last lap.
+ */
+final class RecordedGame {
+    private static final int MAX_TURNS = 500;
+
+    /** The messages sent before the first turn, the snapshot of the board included. */
+    final List<Message> setup;
+    /** The messages of each turn, in the order they were sent. */
+    final List<List<Message>> turns;
+
+    private RecordedGame(List<Message> setup, List<List<Message>> turns) {
+        this.setup = setup;
+        this.turns = turns;
+    }
+
+    /**
+     * Plays a game.
+     *
+     * @param players The number of players.
+     * @param seed    The seed of the choices of the clients.
+     * @return The recorded game.
+     */
+    static RecordedGame play(int players, long seed) {
+        PrintStream out = System.out;
+        LogLevel level = Log.getLevel();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Log.setLevel(LogLevel.OFF);
+        try {
+            return record(players, new Random(seed));
+        } finally {
+            System.setOut(out);
+            Log.setLevel(level);
+        }
+    }
+
+    private static RecordedGame record(int players, Random random) {
+        List<Message> traffic = new ArrayList<>();
+        Controller controller = new Controller();
+        List<String> nicknames = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            String nickname = "player" + i;
+            nicknames.add(nickname);
+            VirtualView virtualView = new VirtualView(new Recorder(traffic), Runnable::run);
+            controller.getMailbox().execute(() -> controller.newLoginSetUp(nickname, virtualView));
+            send(controller, traffic, new ColorRequestMessage(nickname, Color.values()[i].toString()));
+            if (i == 0) {
+                send(controller, traffic, new PlayersNumberResponse(nickname, players));
+            }
+        }
+        for (String nickname : nicknames) {
+            Player player = player(controller, nickname);
+            send(controller, traffic, new SecretAndStartingResponseMessage(nickname,
+                    player.getPossibleTargetCard()[random.nextInt(2)].getID(), random.nextBoolean()));
+        }
+
+        List<Message> setup = new ArrayList<>(traffic);
+        List<List<Message>> turns = new ArrayList<>();
+        while (isPlaying(controller) && turns.size() < MAX_TURNS) {
+            traffic.clear();
+            Player player = player(controller, controller.getActivePlayer());
+            List<Cell> cells = player.getAvailableCells();
+            Cell cell = cells.get(random.nextInt(cells.size()));
+            int position = handPosition(player);
+            boolean front = Integer.parseInt(player.getHandCardByHandPosition(position).getID()) <= 40;
+            send(controller, traffic, new PlaceCardResponse(player.getNickname(), position, cell.getRow(), cell.getColumn(), front));
+            for (int attempt = 0; attempt < 6 && controller.getGameState() == GameState.DRAW_CARD; attempt++) {
+                send(controller, traffic, new DrawCardResponse(player.getNickname(), 1 + random.nextInt(6)));
+            }
+            if (!isAccepted(traffic)) {
+                break;
+            }
+            turns.add(new ArrayList<>(traffic));
+        }
+        return new RecordedGame(setup, turns);
+    }
+
+    private static boolean isPlaying(Controller controller) {
+        return controller.getGameState() == GameState.PLAY_CARD && controller.getActivePlayer() != null;
+    }
+
+    private static boolean isAccepted(List<Message> traffic) {
+        for (Message message : traffic) {
+            if (message.getMessageType() == MessageType.BOARD_DELTA) {
+                return true;
+            }
+            if (message instanceof MessageBatch batch && isAccepted(batch.getMessages())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void send(Controller controller, List<Message> traffic, Message message) {
+        traffic.add(message);
+        controller.getMailbox().execute(() -> controller.onMessageSwith(message));
+    }
+
+    private static Player player(Controller controller, String nickname) {
+        for (Player player : controller.getPlayer()) {
+            if (player.getNickname().equals(nickname)) {
+                return player;
+            }
+        }
+        throw new IllegalStateException("No player " + nickname);
+    }
+
+    private static int handPosition(Player player) {
+        List<AbstractCard> hand = player.getHandCards();
+        for (int i = 0; i < hand.size(); i++) {
+            if (hand.get(i) != null && !Game.BLANK_CARD_ID.equals(hand.get(i).getID())) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Empty hand");
+    }
+
+    /**
+     * Connection of a scripted client, recording what the server sends to it.
+     * Messages share the cards and manuscripts of the game, so each one is recorded as a copy of what it was
+     * when it was sent.
+     */
+    private static final class Recorder implements ServerController {
+        private final List<Message> traffic;
+
+        Recorder(List<Message> traffic) {
+            this.traffic = traffic;
+        }
+
+        @Override
+        public void send(Message messageToSent) {
+            try {
+                byte[] payload = MessageFrames.encode(messageToSent);
+                traffic.add(MessageFrames.decode(payload, 0, payload.length));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void disconnectThisClient() {
+        }
+
+        @Override
+        public boolean isClientConnectionOk() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.controller.Controller;
+import polimi.ingsw.controller.GameRegistry;
+import polimi.ingsw.controller.GameSnapshot;
+import polimi.ingsw.log.Log;
+import polimi.ingsw.log.LogLevel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link GameSnapshot}.
+ * Many games are played by scripted clients, then written to a snapshot, read back and restored by a new registry,
+ * as a server taking over the games of another one would. The snapshot is compared with the Java serialization
+ * of the controllers, which was how games were saved before.
+ * <p>
+ * Usage: {@code SnapshotFailover [games] [turns] [players] [rounds]}
+ */
+public class SnapshotFailover {
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        Path file = Files.createTempFile("games", ".snapshot");
+
+        PrintStream out = System.out;
+        LogLevel level = Log.getLevel();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Log.setLevel(LogLevel.OFF);
+        try {
+            GameRegistry registry = new GameRegistry();
+            List<Controller> controllers = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                controllers.add(JournalRecovery.setUp(registry, game, players));
+            }
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int game = 0; game < games; game++) {
+                    Controller controller = controllers.get(game);
+                    Random random = new Random(game);
+                    clients.execute(() -> JournalRecovery.play(controller, turns, random));
+                }
+                clients.shutdown();
+                clients.awaitTermination(10, TimeUnit.MINUTES);
+            }
+
+            long best = Long.MAX_VALUE;
+            int written = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                written = registry.writeSnapshot(file);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long size = Files.size(file);
+
+            long start = System.nanoTime();
+            GameSnapshot snapshot = GameSnapshot.open(file);
+            long points = 0;
+            for (int gameId : snapshot.getGameIds()) {
+                for (int score : snapshot.getScores(gameId).values()) {
+                    points += score;
+                }
+            }
+            long summaries = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int restored = new GameRegistry().restoreSnapshot(snapshot);
+            long restoring = System.nanoTime() - start;
+
+            long serialized = 0;
+            long serializing = Long.MAX_VALUE;
+            String serialization = "";
+            for (int round = 0; round < Math.min(rounds, 3); round++) {
+                start = System.nanoTime();
+                try {
+                    serialized = serialize(controllers);
+                    serializing = Math.min(serializing, System.nanoTime() - start);
+                } catch (IOException e) {
+                    serialization = " (failed: " + e + ")";
+                }
+            }
+
+            out.printf("%d games of %d players, %d turns each%n", games, players, turns);
+            out.printf("snapshot: %d games in %.2f ms, %d bytes (%.0f bytes per game)%n",
+                    written, best / 1e6, size, (double) size / Math.max(1, written));
+            out.printf("summaries: scores of %d games read in %.2f ms (%d points)%n", snapshot.size(), summaries / 1e6, points);
+            out.printf("restore: %d games in %.2f ms (%.1f us per game)%n",
+                    restored, restoring / 1e6, restored == 0 ? 0.0 : restoring / 1e3 / restored);
+            out.printf("java serialization: %d bytes (%.0f bytes per game) in %.2f ms%s%n",
+                    serialized, (double) serialized / games, serializing / 1e6, serialization);
+        } finally {
+            System.setOut(out);
+            Log.setLevel(level);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Serializes every controller on its own mailbox, as the games were once saved.
+     *
+     * @return The number of bytes of the serialized games.
+     */
+    private static long serialize(List<Controller> controllers) throws IOException {
+        long size = 0;
+        for (Controller controller : controllers) {
+            byte[] bytes = controller.getMailbox().call(() -> {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (ObjectOutputStream stream = new ObjectOutputStream(buffer)) {
+                    stream.writeObject(controller);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return buffer.toByteArray();
+            });
+            size += bytes.length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,68 @@
+package polimi.ingsw.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.strategy.PointStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the {@link PointStrategy} of the cards, each scoring a card on the {@link Boards}
+ * of games played by bots: each operation is one board.
+ * The strategies of the gold cards score a gold card, the others score a target card.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="StrategyBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StrategyBenchmark {
+    @Param({"Diagonals", "LconfigurationOne", "LconfigurationTwo", "LconfigurationThree", "LconfigurationFour",
+            "AnglesCovered", "ThreePiece"})
+    public String strategy;
+
+    private Manuscript[] boards;
+    private AbstractCard card;
+    private PointStrategy pointStrategy;
+
+    @Setup
+    public void setUp() {
+        String id = switch (strategy) {
+            case "Diagonals" -> "87";
+            case "LconfigurationOne" -> "91";
+            case "LconfigurationTwo" -> "92";
+            case "LconfigurationThree" -> "93";
+            case "LconfigurationFour" -> "94";
+            case "AnglesCovered" -> "44";
+            case "ThreePiece" -> "95";
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        };
+        card = CardCatalog.getInstance().get(id).newCard();
+        pointStrategy = card.getPointStrategy();
+        if (!pointStrategy.getClass().getSimpleName().equals(strategy)) {
+            throw new IllegalStateException("Card " + id + " scores with " + pointStrategy.getClass().getSimpleName()
+                    + ", not " + strategy);
+        }
+        boards = Boards.play().toArray(new Manuscript[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Boards.COUNT)
+    public int calculatePoint() {
+        int points = 0;
+        for (Manuscript board : boards) {
+            points += pointStrategy.calculatePoint(board, card);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,62 @@
+package polimi.ingsw.benchmark;
+
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.socket.BinaryMessageCodec;
+import polimi.ingsw.SocketAndRMI.socket.JavaSerializationCodec;
+import polimi.ingsw.SocketAndRMI.socket.MessageCodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of the codecs of the socket protocol.
+ * It records a whole game among scripted clients (4 players by default) and reports, for each codec,
+ * the bytes sent in an average turn and the time to encode and decode a frame of the game,
+ * which is a message or the batch of messages produced for a client by a step of the game.
+ * <p>
+ * Usage: {@code WireProtocol [players] [rounds]}
+ */
+public class WireProtocol {
+    public static void main(String[] args) throws IOException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<List<Message>> turns = RecordedGame.play(players, 42).turns;
+        List<Message> messages = new ArrayList<>();
+        turns.forEach(messages::addAll);
+        System.out.printf("%d players, %d turns, %d frames (%.1f per turn)%n", players, turns.size(), messages.size(),
+                (double) messages.size() / turns.size());
+
+        for (MessageCodec codec : List.of(JavaSerializationCodec.INSTANCE, BinaryMessageCodec.INSTANCE)) {
+            long bytes = 0;
+            for (Message message : messages) {
+                bytes += codec.encode(message).length;
+            }
+            for (int i = 0; i < rounds; i++) {
+                measure(codec, messages);
+            }
+            long[] nanos = measure(codec, messages);
+            System.out.printf("%-20s %8d bytes/turn %8d ns encode %8d ns decode%n", codec.getClass().getSimpleName(),
+                    bytes / turns.size(), nanos[0] / messages.size(), nanos[1] / messages.size());
+        }
+    }
+
+    /**
+     * Encodes and then decodes every message once.
+     *
+     * @return The nanoseconds spent encoding and decoding.
+     */
+    private static long[] measure(MessageCodec codec, List<Message> messages) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(messages.size());
+        long start = System.nanoTime();
+        for (Message message : messages) {
+            payloads.add(codec.encode(message));
+        }
+        long encoded = System.nanoTime();
+        for (byte[] payload : payloads) {
+            codec.decode(payload, 0, payload.length);
+        }
+        return new long[]{encoded - start, System.nanoTime() - encoded};
+    }
+}
@@ -0,0 +1,119 @@
+package polimi.ingsw.SocketAndRMI;
+
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.model.CardDefinition;
+import polimi.ingsw.model.Manuscript;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copy, kept by a client, of the manuscripts of all the players of its game.
+ * It is built from a snapshot of the cards played and then follows the placements sent by the server,
+ * which are numbered: a placement arriving out of order means that the copy missed one,
+ * so it stops following them until a new snapshot arrives.
+ */
+public class BoardReplica {
+    /**
+     * Outcome of a placement sent by the server.
+     */
+    public enum Result {
+        /** The placement has been applied. */
+        APPLIED,
+        /** The placement has already been applied, or the copy is waiting for a snapshot. */
+        IGNORED,
+        /** The copy missed a placement and needs a snapshot. */
+        GAP
+    }
+
+    private final Map<String, Manuscript> manuscripts = new LinkedHashMap<>();
+    private int sequence;
+    private boolean awaitingSnapshot;
+
+    /**
+     * Rebuilds every manuscript from the cards played in the game.
+     *
+     * @param sequence    The sequence number of the last placement of the snapshot.
+     * @param cardsPlayed The cards played, in order; the first card of each player is the starting one.
+     * @throws IllegalArgumentException if a card is not in the catalog or can not be placed.
+     */
+    public void reset(int sequence, List<CardsPlayed> cardsPlayed) throws IllegalArgumentException {
+        manuscripts.clear();
+        for (CardsPlayed cardPlayed : cardsPlayed) {
+            place(cardPlayed);
+        }
+        this.sequence = sequence;
+        this.awaitingSnapshot = false;
+    }
+
+    /**
+     * Applies a placement sent by the server.
+     *
+     * @param sequence   The sequence number of the placement.
+     * @param cardPlayed The card placed.
+     * @return {@link Result#GAP} the first time a placement is missed, then {@link Result#IGNORED}
+     * until the next snapshot.
+     */
+    public Result apply(int sequence, CardsPlayed cardPlayed) {
+        if (awaitingSnapshot || sequence <= this.sequence) {
+            return Result.IGNORED;
+        }
+        if (sequence == this.sequence + 1) {
+            try {
+                place(cardPlayed);
+                this.sequence = sequence;
+                return Result.APPLIED;
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+        awaitingSnapshot = true;
+        return Result.GAP;
+    }
+
+    /**
+     * Places a card in the manuscript of its player, starting the manuscript if it is the first card.
+     *
+     * @param cardPlayed The card placed.
+     * @throws IllegalArgumentException if the card is not in the catalog or the cell is not available.
+     */
+    private void place(CardsPlayed cardPlayed) throws IllegalArgumentException {
+        CardDefinition definition = CardCatalog.getInstance().get(cardPlayed.getId());
+        if (definition == null || cardPlayed.getCell() == null) {
+            throw new IllegalArgumentException("Invalid card played: " + cardPlayed);
+        }
+        AbstractCard card = definition.newCard();
+        card.setFront(cardPlayed.isFront());
+        Manuscript manuscript = manuscripts.get(cardPlayed.getPlayerNickname());
+        if (manuscript == null) {
+            manuscripts.put(cardPlayed.getPlayerNickname(), new Manuscript(card));
+        } else {
+            manuscript.placeCard(card, cardPlayed.getCell().getRow(), cardPlayed.getCell().getColumn());
+        }
+    }
+
+    /**
+     * @param nickname The nickname of the player.
+     * @return The manuscript of the player, or null if they have not placed their starting card.
+     */
+    public Manuscript getManuscript(String nickname) {
+        return manuscripts.get(nickname);
+    }
+
+    /**
+     * @return The nicknames of the players with a manuscript, in the order they placed their starting card.
+     */
+    public Set<String> getNicknames() {
+        return manuscripts.keySet();
+    }
+
+    /**
+     * @return The sequence number of the last placement applied.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+}
@@ -4,6 +4,7 @@ import polimi.ingsw.SocketAndRMI.message.*;
 import polimi.ingsw.SocketAndRMI.rmi.RmiClientImpl;
 import java.io.IOException;
 import polimi.ingsw.SocketAndRMI.socket.SktClient;
+import polimi.ingsw.model.Manuscript;
 import polimi.ingsw.view.View;
 
 public class ClientController {
@@ -11,6 +12,7 @@ public class ClientController {
     private View view;
     private Client client;
     private String nickname;
+    private final BoardReplica board = new BoardReplica();
 
     /**
      * Constructs client manager.
@@ -185,6 +187,33 @@ public class ClientController {
                         playerMessage.getStringManuscript()
                 );
             }
+            case BOARD_DELTA -> {
+                BoardDeltaMessage boardDeltaMessage = (BoardDeltaMessage) message;
+                switch (board.apply(boardDeltaMessage.getSequence(), boardDeltaMessage.getCardPlayed())) {
+                    case APPLIED -> displayManuscript(boardDeltaMessage.getCardPlayed().getPlayerNickname());
+                    case GAP -> client.send(new BoardSnapshotRequest(this.nickname));
+                    case IGNORED -> {
+                    }
+                }
+            }
+            case BOARD_SNAPSHOT -> {
+                BoardSnapshotMessage boardSnapshotMessage = (BoardSnapshotMessage) message;
+                try {
+                    board.reset(boardSnapshotMessage.getSequence(), boardSnapshotMessage.getCardsPlayed());
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    return;
+                }
+                // the own manuscript first, as the first one displayed is the one of the player
+                if (board.getManuscript(this.nickname) != null) {
+                    displayManuscript(this.nickname);
+                }
+                for (String player : board.getNicknames()) {
+                    if (!player.equals(this.nickname)) {
+                        displayManuscript(player);
+                    }
+                }
+            }
             case COMMON_TARGET_CARD -> {
                 CommonTargetCardMessage commonTargetCardMessage = (CommonTargetCardMessage) message;
                 view.displayCommonTargetCard(commonTargetCardMessage.getFirstCommonTargetCard(), commonTargetCardMessage.getSecondCommonTargetCard());
@@ -229,6 +258,12 @@ public class ClientController {
                 ReconnectedManuscriptMessage reconnectedManuscriptMessage = (ReconnectedManuscriptMessage) message;
                 view.updateReconnectedPlayerManuscript(reconnectedManuscriptMessage.getNickname(), reconnectedManuscriptMessage.getCardsPlayedByPlayer());
             }
+            case MESSAGE_BATCH -> {
+                MessageBatch messageBatch = (MessageBatch) message;
+                for (Message batched : messageBatch.getMessages()) {
+                    updateCorrespondingClient(batched);
+                }
+            }
             case WAITING_ROOM_REQUEST -> {
                 view.inWaiting();
             }
@@ -241,6 +276,16 @@ public class ClientController {
         }
     }
 
+    /**
+     * Displays the manuscript of a player, as kept by the copy of the board of the client.
+     *
+     * @param player The nickname of the player.
+     */
+    private void displayManuscript(String player) {
+        Manuscript manuscript = board.getManuscript(player);
+        view.displayManuscript(player, manuscript.getView(), manuscript.getCompressedManuscriptWithIndexToString());
+    }
+
     /**
      * @param ipAddress
      * @return true if the ipAddress is valid.
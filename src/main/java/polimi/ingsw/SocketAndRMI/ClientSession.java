@@ -0,0 +1,133 @@
+package polimi.ingsw.SocketAndRMI;
+
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.controller.Controller;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.view.VirtualView;
+
+/**
+ * Session of a connection with a client, created when it connects and bound to its player once, at login.
+ * It carries every reference needed to route the messages of the client, so that the server reaches
+ * the game, the player and the view of a connection directly, without looking them up by nickname.
+ * It also limits the rate of the messages of the client, see {@link InboundLimiter}.
+ */
+public class ClientSession {
+    private final ServerController serverController;
+    private final VirtualView virtualView;
+    private final InboundLimiter limiter;
+    private volatile boolean throttled;
+    private volatile String nickname;
+    private volatile Controller controller;
+    private volatile Player player;
+
+    /**
+     * Creates the session of a new connection, not bound to any player yet, with the default limits.
+     *
+     * @param serverController The connection with the client.
+     * @param virtualView      The view sending to the client.
+     */
+    public ClientSession(ServerController serverController, VirtualView virtualView) {
+        this(serverController, virtualView, InboundLimits.defaults());
+    }
+
+    /**
+     * Creates the session of a new connection, not bound to any player yet.
+     *
+     * @param serverController The connection with the client.
+     * @param virtualView      The view sending to the client.
+     * @param limits           The limits to the rate of the messages of the client.
+     */
+    public ClientSession(ServerController serverController, VirtualView virtualView, InboundLimits limits) {
+        this.serverController = serverController;
+        this.virtualView = virtualView;
+        this.limiter = new InboundLimiter(limits);
+    }
+
+    /**
+     * Checks a message of the client against its rate limits. The first message rejected after one let through
+     * tells the client to slow down, so that a flood costs the server one answer only.
+     *
+     * @param message The message received.
+     * @return Whether the message may be handled.
+     */
+    public boolean admit(Message message) {
+        if (limiter.tryAcquire(message.getMessageType())) {
+            throttled = false;
+            return true;
+        }
+        if (!throttled) {
+            throttled = true;
+            virtualView.displayText("You are sending messages too fast: some of them have been ignored.");
+        }
+        return false;
+    }
+
+    /**
+     * @return The rate limiter of the messages of the client, with its counters.
+     */
+    public InboundLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Binds the session to the player who logged in, or reconnected, through it.
+     *
+     * @param controller The controller of the game of the player.
+     * @param player     The player, whose nickname is the one stored by the game, whatever its case at login.
+     */
+    public void bind(Controller controller, Player player) {
+        this.nickname = player.getNickname();
+        this.player = player;
+        this.controller = controller;
+    }
+
+    /**
+     * @return Whether a player has logged in through the session.
+     */
+    public boolean isBound() {
+        return controller != null;
+    }
+
+    /**
+     * @return The connection with the client.
+     */
+    public ServerController getServerController() {
+        return serverController;
+    }
+
+    /**
+     * @return The view sending to the client.
+     */
+    public VirtualView getVirtualView() {
+        return virtualView;
+    }
+
+    /**
+     * @return The nickname of the player, or null before the login.
+     */
+    public String getNickname() {
+        return nickname;
+    }
+
+    /**
+     * @return The controller of the game of the player, or null before the login.
+     */
+    public Controller getController() {
+        return controller;
+    }
+
+    /**
+     * @return The ID of the game of the player, or null before the login.
+     */
+    public Integer getGameId() {
+        Controller bound = controller;
+        return bound == null ? null : bound.getGameId();
+    }
+
+    /**
+     * @return The player, or null before the login.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+}
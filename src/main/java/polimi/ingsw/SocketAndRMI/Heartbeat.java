@@ -0,0 +1,206 @@
+package polimi.ingsw.SocketAndRMI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Heartbeat of the connections of the process, socket and RMI alike, kept by a single hashed timing wheel.
+ * Each connection registers a {@link Watch} and stamps it whenever it sends or receives a message:
+ * stamping costs a write of a field, and the wheel looks at a connection only when one of its deadlines is due.
+ * A connection is pinged only when it has sent nothing for its ping interval, so pings flow only on idle
+ * connections, and it times out when it has received nothing for its timeout.
+ * Pings and timeouts run on virtual threads, so that a slow connection never delays the wheel.
+ */
+public final class Heartbeat {
+    /** Milliseconds between two ticks of the shared wheel. */
+    public static final long TICK = 250;
+    /** Slots of the shared wheel: a turn of the wheel lasts longer than any timeout of the connections. */
+    private static final int SLOTS = 64;
+    private static final Heartbeat SHARED = new Heartbeat(TICK, SLOTS, System::currentTimeMillis,
+            Executors.newThreadPerTaskExecutor(SharedScheduler.virtualThreads("heartbeat")));
+
+    private final long tick;
+    private final List<Watch>[] wheel;
+    private final LongSupplier clock;
+    private final Executor actions;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private int cursor;
+
+    /**
+     * Creates a wheel, which turns only when {@link #tick()} is called.
+     *
+     * @param tick    Milliseconds between two ticks.
+     * @param slots   The number of slots of the wheel.
+     * @param clock   The current time, in milliseconds.
+     * @param actions The executor running pings and timeouts.
+     */
+    @SuppressWarnings("unchecked")
+    Heartbeat(long tick, int slots, LongSupplier clock, Executor actions) {
+        this.tick = tick;
+        this.wheel = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.clock = clock;
+        this.actions = actions;
+    }
+
+    /**
+     * @return The wheel shared by every connection of the process, turned by the {@link SharedScheduler}.
+     */
+    public static Heartbeat shared() {
+        if (SHARED.started.compareAndSet(false, true)) {
+            SharedScheduler.scheduleAtFixedRate(SHARED::tick, TICK);
+        }
+        return SHARED;
+    }
+
+    /**
+     * Starts watching a connection.
+     *
+     * @param pingInterval Milliseconds without sending after which the connection is pinged, 0 for no pings.
+     * @param ping         Sends a ping on the connection, or null for no pings.
+     * @param timeout      Milliseconds without receiving after which the connection times out, 0 for no timeout.
+     * @param onTimeout    Closes the connection when it times out, or null for no timeout.
+     * @return The watch of the connection, to be stamped at every message and cancelled once it is closed.
+     */
+    public Watch watch(long pingInterval, Runnable ping, long timeout, Runnable onTimeout) {
+        Watch watch = new Watch(ping == null ? 0 : pingInterval, ping, onTimeout == null ? 0 : timeout, onTimeout);
+        lock.lock();
+        try {
+            schedule(watch, clock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+        return watch;
+    }
+
+    /**
+     * Turns the wheel by one slot, checking the connections whose deadline is due.
+     */
+    void tick() {
+        List<Watch> due = new ArrayList<>();
+        long now;
+        lock.lock();
+        try {
+            now = clock.getAsLong();
+            List<Watch> slot = wheel[cursor];
+            cursor = (cursor + 1) % wheel.length;
+            List<Watch> waiting = new ArrayList<>();
+            for (Watch watch : slot) {
+                if (watch.cancelled) {
+                    continue;
+                }
+                if (watch.rounds > 0) {
+                    watch.rounds--;
+                    waiting.add(watch);
+                } else {
+                    due.add(watch);
+                }
+            }
+            slot.clear();
+            slot.addAll(waiting);
+            for (Watch watch : due) {
+                if (check(watch, now)) {
+                    schedule(watch, now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pings a connection idle for too long, or times it out. Requires the lock.
+     *
+     * @return Whether the connection is still watched.
+     */
+    private boolean check(Watch watch, long now) {
+        if (watch.timeout > 0 && now - watch.lastReceived >= watch.timeout) {
+            watch.cancelled = true;
+            actions.execute(watch.onTimeout);
+            return false;
+        }
+        if (watch.pingInterval > 0 && now - watch.lastSent >= watch.pingInterval
+                && watch.pinging.compareAndSet(false, true)) {
+            watch.lastSent = now;
+            actions.execute(() -> {
+                try {
+                    watch.ping.run();
+                } finally {
+                    watch.pinging.set(false);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Puts a watch in the slot of its next deadline. Requires the lock.
+     */
+    private void schedule(Watch watch, long now) {
+        long deadline = Long.MAX_VALUE;
+        if (watch.timeout > 0) {
+            deadline = watch.lastReceived + watch.timeout;
+        }
+        if (watch.pingInterval > 0) {
+            deadline = Math.min(deadline, watch.lastSent + watch.pingInterval);
+        }
+        if (deadline == Long.MAX_VALUE) {
+            return;
+        }
+        long ticks = Math.max(1, (deadline - now + tick - 1) / tick);
+        watch.rounds = (ticks - 1) / wheel.length;
+        wheel[(int) ((cursor + ticks - 1) % wheel.length)].add(watch);
+    }
+
+    /**
+     * The heartbeat of a connection.
+     */
+    public final class Watch {
+        private final long pingInterval;
+        private final Runnable ping;
+        private final long timeout;
+        private final Runnable onTimeout;
+        private final AtomicBoolean pinging = new AtomicBoolean();
+        private volatile long lastSent;
+        private volatile long lastReceived;
+        private volatile boolean cancelled;
+        private long rounds;
+
+        private Watch(long pingInterval, Runnable ping, long timeout, Runnable onTimeout) {
+            this.pingInterval = pingInterval;
+            this.ping = ping;
+            this.timeout = timeout;
+            this.onTimeout = onTimeout;
+            this.lastSent = this.lastReceived = clock.getAsLong();
+        }
+
+        /**
+         * Records that a message has been sent on the connection, which therefore needs no ping for a while.
+         */
+        public void sent() {
+            lastSent = clock.getAsLong();
+        }
+
+        /**
+         * Records that a message has been received from the connection, which is therefore alive.
+         */
+        public void received() {
+            lastReceived = clock.getAsLong();
+        }
+
+        /**
+         * Stops watching the connection.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package polimi.ingsw.SocketAndRMI;
+
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter of the messages sent by a client, with a token bucket for each type of message.
+ * It counts, for each type, the messages let through and the ones rejected.
+ */
+public class InboundLimiter {
+    private final InboundLimits limits;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<MessageType, Bucket> buckets = new EnumMap<>(MessageType.class);
+    private final long[] accepted = new long[MessageType.values().length];
+    private final long[] rejected = new long[MessageType.values().length];
+
+    /**
+     * Creates the limiter of a client.
+     *
+     * @param limits The limits of the messages.
+     */
+    public InboundLimiter(InboundLimits limits) {
+        this(limits, System::nanoTime);
+    }
+
+    /**
+     * Creates the limiter of a client on the given clock.
+     *
+     * @param limits The limits of the messages.
+     * @param clock  The current time, in nanoseconds.
+     */
+    InboundLimiter(InboundLimits limits, LongSupplier clock) {
+        this.limits = limits;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes a token for a message, if the client has not exceeded the limit of its type.
+     *
+     * @param type The type of the message.
+     * @return Whether the message may be handled.
+     */
+    public boolean tryAcquire(MessageType type) {
+        lock.lock();
+        try {
+            Bucket bucket = buckets.computeIfAbsent(type, t -> new Bucket(limits.get(t), clock.getAsLong()));
+            if (bucket.tryTake(clock.getAsLong())) {
+                accepted[type.ordinal()]++;
+                return true;
+            }
+            rejected[type.ordinal()]++;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param type The type of a message.
+     * @return The messages of that type let through.
+     */
+    public long getAccepted(MessageType type) {
+        lock.lock();
+        try {
+            return accepted[type.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param type The type of a message.
+     * @return The messages of that type rejected because the client sent them too fast.
+     */
+    public long getRejected(MessageType type) {
+        lock.lock();
+        try {
+            return rejected[type.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Token bucket, starting full.
+     */
+    private static final class Bucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long last;
+
+        Bucket(InboundLimits.Limit limit, long now) {
+            this.capacity = limit.burst();
+            this.tokensPerNano = limit.perSecond() / 1e9;
+            this.tokens = capacity;
+            this.last = now;
+        }
+
+        boolean tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - last) * tokensPerNano);
+            last = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
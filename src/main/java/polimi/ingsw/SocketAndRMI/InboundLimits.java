@@ -0,0 +1,99 @@
+package polimi.ingsw.SocketAndRMI;
+
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limits to the rate of the messages a client may send, for each type of message.
+ * Each limit is a token bucket: a client may send {@code burst} messages at once,
+ * then {@code perSecond} messages every second. The types without a limit of their own share the default one.
+ */
+public final class InboundLimits {
+    /**
+     * Limit of a type of message.
+     *
+     * @param burst     The messages that may be sent at once.
+     * @param perSecond The messages that may be sent every second, on average.
+     */
+    public record Limit(int burst, double perSecond) {
+        /**
+         * @throws IllegalArgumentException if the burst is not positive or the rate is negative.
+         */
+        public Limit {
+            if (burst <= 0 || perSecond < 0 || Double.isNaN(perSecond)) {
+                throw new IllegalArgumentException("Invalid limit: " + burst + "/" + perSecond);
+            }
+        }
+    }
+
+    private final Map<MessageType, Limit> limits;
+    private final Limit defaultLimit;
+
+    private InboundLimits(Map<MessageType, Limit> limits, Limit defaultLimit) {
+        this.limits = Collections.unmodifiableMap(limits);
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * The limits of the server unless configured: far above what a player does by hand, so that only a
+     * misbehaving client meets them. Chat and moves, which make the server answer every player or resend
+     * a request, are limited the most, and so are logins, which are handled one at a time by the whole server;
+     * pings never reach the limits.
+     *
+     * @return The default limits.
+     */
+    public static InboundLimits defaults() {
+        Map<MessageType, Limit> limits = new EnumMap<>(MessageType.class);
+        limits.put(MessageType.CHAT_MESSAGE, new Limit(5, 1));
+        limits.put(MessageType.PLACE_CARD_RESPONSE, new Limit(5, 1));
+        limits.put(MessageType.DRAW_CARD_RESPONSE, new Limit(5, 1));
+        limits.put(MessageType.BOARD_SNAPSHOT_REQUEST, new Limit(2, 0.2));
+        limits.put(MessageType.LOGIN_REQUEST, new Limit(5, 0.5));
+        return new InboundLimits(limits, new Limit(20, 5));
+    }
+
+    /**
+     * Reads limits written as {@code TYPE=burst/perSecond} separated by commas, like
+     * {@code CHAT_MESSAGE=3/0.5,default=50/10}, on top of the {@link #defaults()}.
+     *
+     * @param spec The limits.
+     * @return The limits read.
+     * @throws IllegalArgumentException if the limits are not valid.
+     */
+    public static InboundLimits parse(String spec) throws IllegalArgumentException {
+        InboundLimits defaults = defaults();
+        Map<MessageType, Limit> limits = new EnumMap<>(defaults.limits);
+        Limit defaultLimit = defaults.defaultLimit;
+        for (String entry : spec.split(",")) {
+            String[] keyAndValue = entry.trim().split("=");
+            String[] burstAndRate = keyAndValue.length == 2 ? keyAndValue[1].split("/") : new String[0];
+            if (burstAndRate.length != 2) {
+                throw new IllegalArgumentException("Invalid limit: " + entry);
+            }
+            Limit limit;
+            try {
+                limit = new Limit(Integer.parseInt(burstAndRate[0].trim()), Double.parseDouble(burstAndRate[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid limit: " + entry);
+            }
+            String key = keyAndValue[0].trim();
+            if (key.equalsIgnoreCase("default")) {
+                defaultLimit = limit;
+            } else {
+                limits.put(MessageType.valueOf(key.toUpperCase()), limit);
+            }
+        }
+        return new InboundLimits(limits, defaultLimit);
+    }
+
+    /**
+     * @param type The type of a message.
+     * @return The limit of the messages of that type.
+     */
+    public Limit get(MessageType type) {
+        return limits.getOrDefault(type, defaultLimit);
+    }
+}
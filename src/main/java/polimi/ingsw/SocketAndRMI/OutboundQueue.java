@@ -0,0 +1,403 @@
+package polimi.ingsw.SocketAndRMI;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.message.MessageBatch;
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of the messages to a client, sent in order by a virtual thread,
+ * so that the thread of a game never waits for a slow client.
+ * While a step of a game is running on a thread, from {@link #beginStep()} to {@link #endStep()},
+ * the messages sent from that thread are collected and, at the end of the step, each client gets all of its
+ * messages in a single {@link MessageBatch}: one serialization, one frame and, for RMI, one remote call.
+ * <p>
+ * A queue holds at most {@link #getCapacity()} messages; when a client falls that far behind,
+ * its {@link OverflowPolicy} decides what to give up. The depth of the queue, its maximum and the messages
+ * dropped are kept for each client, and a warning is printed when a client is lagging behind.
+ */
+public class OutboundQueue {
+    /**
+     * What a queue does when a message would exceed its capacity.
+     */
+    public enum OverflowPolicy {
+        /** Disconnects the client, which may then reconnect to its game. */
+        DISCONNECT,
+        /** Drops every queued message and asks the game to send its whole state to the client again. */
+        DROP_AND_RESYNC,
+        /**
+         * Keeps only the latest of the queued messages that replace the previous ones, like hands, decks and scores;
+         * when that does not make room, behaves like {@link #DROP_AND_RESYNC}.
+         */
+        COALESCE_LATEST
+    }
+
+    /**
+     * The default maximum number of messages queued for a client.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * Messages carrying a whole piece of state, so that a newer one makes the older ones of the same type useless.
+     */
+    private static final Set<MessageType> LATEST_WINS = Collections.unmodifiableSet(EnumSet.of(
+            MessageType.HANDS_RESPONSE_CARD, MessageType.COMMON_TARGET_CARD, MessageType.SECRET_TARGET_CARD,
+            MessageType.SCORE_BOARD, MessageType.DISPLAY_DECKS, MessageType.PLAYERS_LIST));
+    private static final Executor SENDERS = Executors.newThreadPerTaskExecutor(SharedScheduler.virtualThreads("client-sender"));
+    private static final ThreadLocal<Step> STEP = new ThreadLocal<>();
+
+    private final ServerController serverController;
+    private final Executor sender;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Message> pending = new ArrayDeque<>();
+    private int depth;
+    private int maxDepth;
+    private long dropped;
+    private boolean lagging;
+    private boolean scheduled;
+    private boolean closing;
+    private volatile String clientName = "client";
+    private volatile Runnable resync;
+
+    /**
+     * Creates the queue of a client, sending on virtual threads, disconnecting the client when it is full.
+     *
+     * @param serverController The connection with the client.
+     */
+    public OutboundQueue(ServerController serverController) {
+        this(serverController, SENDERS);
+    }
+
+    /**
+     * Creates the queue of a client, disconnecting the client when it is full.
+     *
+     * @param serverController The connection with the client.
+     * @param sender           The executor running the sends.
+     */
+    public OutboundQueue(ServerController serverController, Executor sender) {
+        this(serverController, sender, OverflowPolicy.DISCONNECT, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates the queue of a client, sending on virtual threads.
+     *
+     * @param serverController The connection with the client.
+     * @param policy           What to do when the queue is full.
+     * @param capacity         The maximum number of messages queued.
+     */
+    public OutboundQueue(ServerController serverController, OverflowPolicy policy, int capacity) {
+        this(serverController, SENDERS, policy, capacity);
+    }
+
+    /**
+     * Creates the queue of a client.
+     *
+     * @param serverController The connection with the client.
+     * @param sender           The executor running the sends.
+     * @param policy           What to do when the queue is full.
+     * @param capacity         The maximum number of messages queued.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public OutboundQueue(ServerController serverController, Executor sender, OverflowPolicy policy, int capacity)
+            throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.serverController = serverController;
+        this.sender = sender;
+        this.policy = policy;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Binds the queue to a player of a game.
+     *
+     * @param clientName The name of the client in the warnings.
+     * @param resync     Sends the whole state of the game to the client again, after its messages were dropped;
+     *                   without it, a client whose messages must be dropped is disconnected.
+     */
+    public void bind(String clientName, Runnable resync) {
+        this.clientName = clientName;
+        this.resync = resync;
+    }
+
+    /**
+     * Sends a message to the client, at the end of the current step if a step is running on this thread.
+     *
+     * @param message The message to send.
+     */
+    public void send(Message message) {
+        Step step = STEP.get();
+        if (step != null) {
+            step.add(this, message);
+        } else {
+            enqueue(message, 1);
+        }
+    }
+
+    /**
+     * Disconnects the client once the messages sent before have been sent.
+     */
+    public void disconnect() {
+        Step step = STEP.get();
+        if (step != null) {
+            step.flush(this);
+        }
+        lock.lock();
+        try {
+            closing = true;
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a message, applying the policy of the queue if it does not fit.
+     *
+     * @param message The message, maybe a batch.
+     * @param size    The number of messages it carries.
+     */
+    private void enqueue(Message message, int size) {
+        Runnable afterwards = null;
+        lock.lock();
+        try {
+            if (closing) {
+                return;
+            }
+            if (depth + size > capacity) {
+                afterwards = overflow(message, size);
+            } else {
+                pending.add(message);
+                depth += size;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+            if (!lagging && depth > capacity / 2) {
+                lagging = true;
+                Log.warn("Client " + clientName + " is lagging behind: " + depth + " messages queued.");
+            }
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+        if (afterwards != null) {
+            sender.execute(afterwards);
+        }
+    }
+
+    /**
+     * Makes room for a message that does not fit, as the policy of the queue says. Requires the lock.
+     *
+     * @return What to run once the lock has been released, or null.
+     */
+    private Runnable overflow(Message message, int size) {
+        if (policy == OverflowPolicy.COALESCE_LATEST) {
+            List<Message> messages = new ArrayList<>(depth + size);
+            pending.forEach(m -> unpack(m, messages));
+            unpack(message, messages);
+            List<Message> latest = coalesce(messages);
+            if (latest.size() <= capacity) {
+                pending.clear();
+                pending.add(latest.size() == 1 ? latest.get(0) : new MessageBatch(latest));
+                dropped += messages.size() - latest.size();
+                depth = latest.size();
+                return null;
+            }
+        }
+        dropped += depth + size;
+        pending.clear();
+        depth = 0;
+        Runnable action = resync;
+        if (policy != OverflowPolicy.DISCONNECT && action != null) {
+            Log.warn("Client " + clientName + " is too slow: its messages were dropped and the game is sent again.");
+            return action;
+        }
+        Log.warn("Client " + clientName + " is too slow: disconnecting.");
+        closing = true;
+        return serverController::disconnectThisClient;
+    }
+
+    private static void unpack(Message message, List<Message> messages) {
+        if (message instanceof MessageBatch batch) {
+            messages.addAll(batch.getMessages());
+        } else {
+            messages.add(message);
+        }
+    }
+
+    /**
+     * Removes the messages replaced by a later message of the same type.
+     *
+     * @param messages The messages, in order.
+     * @return The remaining messages, in order.
+     */
+    static List<Message> coalesce(List<Message> messages) {
+        Set<MessageType> seen = EnumSet.noneOf(MessageType.class);
+        List<Message> latest = new ArrayList<>(messages.size());
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            Message message = messages.get(i);
+            MessageType type = message.getMessageType();
+            if (!LATEST_WINS.contains(type) || seen.add(type)) {
+                latest.add(message);
+            }
+        }
+        Collections.reverse(latest);
+        return latest;
+    }
+
+    /**
+     * Starts the sender of the queue, unless it is running. Requires the lock.
+     */
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            sender.execute(this::drain);
+        }
+    }
+
+    /**
+     * Sends the queued messages, then disconnects the client if it was asked to.
+     */
+    private void drain() {
+        while (true) {
+            Message message;
+            lock.lock();
+            try {
+                message = pending.poll();
+                if (message == null) {
+                    scheduled = false;
+                    lagging = false;
+                    if (!closing) {
+                        return;
+                    }
+                } else {
+                    depth -= message instanceof MessageBatch batch ? batch.getMessages().size() : 1;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (message == null) {
+                    serverController.disconnectThisClient();
+                    return;
+                }
+                serverController.send(message);
+            } catch (RuntimeException e) {
+                Log.warn("Error while sending to a client: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return The number of messages waiting to be sent.
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The largest number of messages that have been waiting at once.
+     */
+    public int getMaxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of messages dropped because the client was too slow.
+     */
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The maximum number of messages queued.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return What the queue does when it is full.
+     */
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Starts collecting the messages sent from this thread. Steps may be nested: only the outermost one sends.
+     */
+    public static void beginStep() {
+        Step step = STEP.get();
+        if (step == null) {
+            step = new Step();
+            STEP.set(step);
+        }
+        step.depth++;
+    }
+
+    /**
+     * Ends the step started by the last {@link #beginStep()}; at the end of the outermost step,
+     * sends to each client the messages collected for it.
+     */
+    public static void endStep() {
+        Step step = STEP.get();
+        if (step != null && --step.depth == 0) {
+            STEP.remove();
+            step.flushAll();
+        }
+    }
+
+    /**
+     * Messages collected during a step, for each client in the order they were first addressed.
+     */
+    private static final class Step {
+        private final Map<OutboundQueue, List<Message>> messages = new LinkedHashMap<>();
+        private int depth;
+
+        void add(OutboundQueue queue, Message message) {
+            messages.computeIfAbsent(queue, q -> new ArrayList<>()).add(message);
+        }
+
+        void flush(OutboundQueue queue) {
+            List<Message> pending = messages.remove(queue);
+            if (pending != null) {
+                queue.enqueue(pending.size() == 1 ? pending.get(0) : new MessageBatch(pending), pending.size());
+            }
+        }
+
+        void flushAll() {
+            for (OutboundQueue queue : new ArrayList<>(messages.keySet())) {
+                flush(queue);
+            }
+        }
+    }
+}
@@ -1,129 +1,311 @@
 
 package polimi.ingsw.SocketAndRMI;
 
+import polimi.ingsw.log.Log;
 import polimi.ingsw.controller.Controller;
+import polimi.ingsw.controller.GameRegistry;
+import polimi.ingsw.model.Game;
 import polimi.ingsw.model.GameState;
-import java.util.Collections;
-import java.util.HashMap;
+import polimi.ingsw.model.Player;
 import polimi.ingsw.SocketAndRMI.message.Message;
 import polimi.ingsw.view.VirtualView;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class represents the server implementation.
  * Depending on the network technology (socket or RMI), a class will extend these functionalities.
+ * The server hosts many games at once: messages are routed to the game of their sender through the {@link GameRegistry}.
+ * Network threads never touch a game directly: they enqueue its handling in the mailbox of the game.
+ * Every connection has a {@link ClientSession}, created when it connects and bound to its player at login,
+ * through which its messages and its disconnection reach the game directly. Its rate limits apply to every
+ * message of the client, logins included.
+ * Nicknames are compared ignoring case: a player logs in again with its nickname in any case.
  */
 public class Server {
-    private final Controller controller;
-    private final Map<String, ServerController> serverControllerMap; //nickname,his server controller
+    private final GameRegistry gameRegistry;
+    private final Map<ServerController, ClientSession> sessions = new ConcurrentHashMap<>(); // connections are compared by identity
+    private final Map<String, ClientSession> boundSessions = new ConcurrentHashMap<>(); // nickname key, session of the player
+    private final LongAdder rejectedMessages = new LongAdder();
     public static final String SERVER_NAME = "CodexNaturalisServer";
-    private final Object lockObject = new Object();
+    private final ReentrantLock loginLock = new ReentrantLock();
+    private final OutboundQueue.OverflowPolicy overflowPolicy;
+    private final int outboundCapacity;
+    private final InboundLimits inboundLimits;
+
+    /**
+     * Creates an instance of the server, which keeps only the latest state for a client too slow.
+     * @param gameRegistry The registry of the games hosted by the server.
+     */
+    public Server(GameRegistry gameRegistry) {
+        this(gameRegistry, OutboundQueue.OverflowPolicy.COALESCE_LATEST, OutboundQueue.DEFAULT_CAPACITY, InboundLimits.defaults());
+    }
 
     /**
      * Creates an instance of the server.
-     * @param controller
+     * @param gameRegistry     The registry of the games hosted by the server.
+     * @param overflowPolicy   What to do when a client falls behind the messages sent to it.
+     * @param outboundCapacity The maximum number of messages queued for a client.
+     * @param inboundLimits    The limits to the rate of the messages of each client.
+     */
+    public Server(GameRegistry gameRegistry, OutboundQueue.OverflowPolicy overflowPolicy, int outboundCapacity,
+                  InboundLimits inboundLimits) {
+        this.gameRegistry = gameRegistry;
+        this.overflowPolicy = overflowPolicy;
+        this.outboundCapacity = outboundCapacity;
+        this.inboundLimits = inboundLimits;
+    }
+
+    /**
+     * @return The registry of the games hosted by the server.
+     */
+    public GameRegistry getGameRegistry() {
+        return gameRegistry;
+    }
+
+    /**
+     * Opens the session of a new connection, so that the rate limits of the client apply from its first message.
+     * The connections that can not be told apart before the login, like the RMI ones, get their session at login.
+     * @param serverController The new connection.
+     */
+    public void connect(ServerController serverController) {
+        sessions.computeIfAbsent(serverController, this::newSession);
+    }
+
+    private ClientSession newSession(ServerController serverController) {
+        return new ClientSession(serverController,
+                new VirtualView(new OutboundQueue(serverController, overflowPolicy, outboundCapacity)), inboundLimits);
+    }
+
+    /**
+     * Checks a login request against the rate limits of the session of its connection, before joining the client.
+     * @param serverController The connection the request came from.
+     * @param message          The login request.
+     * @return Whether the login may be handled.
+     */
+    public boolean admitLogin(ServerController serverController, Message message) {
+        ClientSession session = sessions.get(serverController);
+        return session == null || admit(session, message);
+    }
+
+    /**
+     * Checks a message against the rate limits of the session of its sender, counting the messages rejected.
+     * @param session The session of the sender.
+     * @param message The message.
+     * @return Whether the message may be handled.
      */
-    public Server(Controller controller) {
-        this.controller = controller;
-        this.serverControllerMap = Collections.synchronizedMap(new HashMap<>());
+    private boolean admit(ClientSession session, Message message) {
+        if (session.admit(message)) {
+            return true;
+        }
+        rejectedMessages.increment();
+        Log.debug(() -> "Rejected message from " + (session.isBound() ? session.getNickname() : "a client not logged in")
+                + ", sent too fast: " + message.getMessageType());
+        return false;
     }
 
     /**
-     * Forwards a message to the controller.
+     * Forwards a message to the controller of the game of its sender, through the mailbox of the game.
+     * The session is found by the nickname in the message, for the connections that can not tell their session.
      * @param message The message to be forwarded to the Controller.
      */
     public void onAcquiredMessage(Message message) {
-        controller.onMessageSwith(message);
+        forward(message.getNickname() == null ? null : boundSessions.get(Game.nicknameKey(message.getNickname())), message);
     }
 
     /**
-     * Returns the nickname of the client associated with the specified {@code ClientHandler}.
-     * @param serverController The ServerController of the client.
-     * @return The nickname of the client associated with the {@code clientHandler}.
+     * Forwards a message to the controller of the game of the player bound to the connection it came from.
+     * @param serverController The connection the message came from.
+     * @param message          The message to be forwarded to the Controller.
      */
-    private String fromServerControllerToNickname(ServerController serverController) {
-        return serverControllerMap.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(serverController))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+    public void onAcquiredMessage(ServerController serverController, Message message) {
+        forward(sessions.get(serverController), message);
     }
 
     /**
-     * Adds a new client with the specified nickname and the associated Server controller
+     * Forwards a message like {@link #onAcquiredMessage(ServerController, Message)}, but never waits for room
+     * in the mailbox of the game: for the threads serving many connections, which must never wait.
+     * @param serverController The connection the message came from.
+     * @param message          The message to be forwarded to the Controller.
+     * @return false if the mailbox of the game is full and the message was not forwarded.
+     */
+    public boolean offerMessage(ServerController serverController, Message message) {
+        return forward(sessions.get(serverController), message, false);
+    }
+
+    private void forward(ClientSession session, Message message) {
+        forward(session, message, true);
+    }
+
+    /**
+     * Enqueues the handling of a message in the mailbox of the game of its sender, unless the sender exceeded
+     * the rate limits of its session or the game is over.
+     * @param session The session of the sender, or null if it is not known.
+     * @param message The message.
+     * @param wait    Whether to wait for room in a full mailbox.
+     * @return false if the mailbox of the game is full and the message was not enqueued.
+     */
+    private boolean forward(ClientSession session, Message message, boolean wait) {
+        if (session != null && !admit(session, message)) {
+            return true;
+        }
+        Controller controller = session == null ? null : session.getController();
+        if (controller == null || controller.isClosed()) {
+            Log.warn("Cannot find the game of: " + message.getNickname());
+            return true;
+        }
+        Runnable task = () -> controller.onMessageSwith(message);
+        if (wait) {
+            controller.getMailbox().execute(task);
+            return true;
+        }
+        return controller.getMailbox().tryExecute(task);
+    }
+
+    /**
+     * @param serverController The connection with a client.
+     * @return The session of the connection, or null if the connection is closed or has never been opened.
+     */
+    public ClientSession getSession(ServerController serverController) {
+        return sessions.get(serverController);
+    }
+
+    /**
+     * @return The messages rejected because their client sent them too fast, since the server started.
+     */
+    public long getRejectedMessages() {
+        return rejectedMessages.sum();
+    }
+
+    /**
+     * Adds a new client with the specified nickname and the associated Server controller.
+     * The socket connections check the login with {@link #admitLogin(ServerController, Message)} first.
      * @param playernick The client's nickname.
      * @param serverController The ServerController of the client.
      */
     public void joinClient(String playernick, ServerController serverController) {
-        VirtualView virtualView = new VirtualView(serverController);
-        if (controller.getGameState() == GameState.STARTING) {
-            NewClientConnection(playernick, serverController, virtualView);
-        } else {
-            ClientReconnection(playernick, serverController, virtualView);
+        ClientSession session = sessions.computeIfAbsent(serverController, this::newSession);
+        if (session.isBound()) {
+            Log.warn("Client " + session.getNickname() + " tried to log in twice.");
+            return;
+        }
+        String nicknameKey = playernick == null ? null : Game.nicknameKey(playernick);
+        // logins are rare, so a single lock keeps two players from taking the last seat of a lobby at once;
+        // not a monitor, so that a virtual thread waiting for the game does not pin its carrier
+        loginLock.lock();
+        try {
+            Controller controller = gameRegistry.getControllerOf(nicknameKey);
+            if (controller == null || controller.getGameState() == GameState.STARTING) {
+                NewClientConnection(playernick, nicknameKey, session);
+            } else {
+                ClientReconnection(nicknameKey, session, controller);
+            }
+        } finally {
+            loginLock.unlock();
         }
     }
 
     /**
      * Adds a new client connection to the server. Requires the Controller in LOBBY_STATE.
-     * Checks if a player with the same nickname exists; if not, associates the ServerController with the nickname.
-     * @param nickname The nickname of the new client.
-     * @param serverController The ServerController of the new client.
-     * @param virtualView The {@code VirtualView} of the new client.
-     */
-    private void NewClientConnection(String nickname, ServerController serverController, VirtualView virtualView) {
-        if (controller.checkNickname(nickname, virtualView)) {
-            serverControllerMap.put(nickname, serverController);
-            virtualView.displayLoginResponse(true, true);
-            controller.newLoginSetUp(nickname, virtualView);
-        } else {
+     * Checks if a player with the same nickname exists; if not, binds the session of the client to the new player.
+     * @param nickname    The nickname of the new client.
+     * @param nicknameKey The nickname of the new client in lower case, by which the player is routed.
+     * @param session     The session of the new client.
+     */
+    private void NewClientConnection(String nickname, String nicknameKey, ClientSession session) {
+        VirtualView virtualView = session.getVirtualView();
+        if (gameRegistry.getGameId(nicknameKey) != null) {
+            virtualView.displayText("Nickname '" + nickname + "' already.");
             virtualView.displayLoginResponse(false, true);
+            return;
         }
+        Controller controller = gameRegistry.getOpenLobby();
+        // waits for the login to be handled, so that the next login sees the seat as taken
+        controller.getMailbox().call(() -> {
+            if (controller.checkNickname(nickname, virtualView)) {
+                gameRegistry.addPlayer(nicknameKey, controller.getGameId());
+                virtualView.displayLoginResponse(true, true);
+                controller.newLoginSetUp(nickname, virtualView);
+                session.bind(controller, controller.getPlayerByNickname(nickname));
+                boundSessions.put(nicknameKey, session);
+                return true;
+            }
+            virtualView.displayLoginResponse(false, true);
+            return false;
+        });
     }
 
 
-    private void ClientReconnection(String nickname, ServerController serverController, VirtualView virtualView) {
-        if (controller.getOfflinePlayers().contains(nickname)) {
-            serverControllerMap.put(nickname, serverController);
-            System.out.println("Player reconnected: " + nickname);
-            controller.Reconnection(nickname, virtualView);
-        } else {
-            virtualView.displayLoginResponse(true, false);
-            serverController.disconnectThisClient();
-        }
+    /**
+     * Reconnects a client to the game it left, binding its session to its player, if the player is offline.
+     * The player keeps the nickname it chose first, whatever its case in the new login.
+     * @param nicknameKey The nickname of the client in lower case.
+     * @param session     The session of the client.
+     * @param controller  The controller of the game of the player.
+     */
+    private void ClientReconnection(String nicknameKey, ClientSession session, Controller controller) {
+        VirtualView virtualView = session.getVirtualView();
+        controller.getMailbox().execute(() -> {
+            Player player = controller.getPlayerByNickname(nicknameKey);
+            if (player != null && !player.isOnlinePlayer()) {
+                String nickname = player.getNickname();
+                session.bind(controller, player);
+                boundSessions.put(nicknameKey, session);
+                Log.info("Player reconnected: " + nickname);
+                controller.Reconnection(nickname, virtualView);
+            } else {
+                virtualView.displayLoginResponse(true, false);
+                virtualView.disconnect();
+            }
+        });
     }
 
     /**
-     * Handles client disconnection, removing references from the {@code ClientHandler} map and the {@code VirtualView} map.
+     * Handles client disconnection, closing its session and removing its {@code VirtualView} from its game.
      * Depending on the game status, removes the client from the player list or marks them as "offline".
      * @param serverController The ServerController of the disconnected client.
      */
     public void onDisconnectionFromClient(ServerController serverController) {
-        String nicknameOfDisconnectedClient = fromServerControllerToNickname(serverController);
-
-        if (nicknameOfDisconnectedClient != null) {
-            serverControllerMap.remove(nicknameOfDisconnectedClient);
-
-            VirtualView virtualView = controller.getVirtualViewMap().get(nicknameOfDisconnectedClient);
-            if (virtualView != null) {
-                controller.removeVirtualView(nicknameOfDisconnectedClient, virtualView);
-            }
+        ClientSession session = sessions.remove(serverController);
+        if (session == null || !session.isBound()) {
+            Log.info("A client disconnected before logging in.");
+            return;
+        }
+        boundSessions.remove(Game.nicknameKey(session.getNickname()), session);
+        Controller controller = session.getController();
+        if (controller.isClosed()) {
+            // the game of the client is already over
+            Log.info("Client " + session.getNickname() + " disconnected.");
+            return;
+        }
+        controller.getMailbox().execute(() -> onDisconnection(controller, session));
+    }
 
-            controller.transmissionMessage("Player " + nicknameOfDisconnectedClient + " disconnected.");
-            System.out.println("Client " + nicknameOfDisconnectedClient + " disconnected.");
+    /**
+     * Removes a disconnected client from its game. Runs in the mailbox of the game.
+     * @param controller The controller of the game of the client.
+     * @param session    The session of the disconnected client.
+     */
+    private void onDisconnection(Controller controller, ClientSession session) {
+        String nickname = session.getNickname();
+        controller.removeVirtualView(nickname, session.getVirtualView());
 
-            if (controller.getGameState() == GameState.STARTING) {
-                controller.removePlayer(nicknameOfDisconnectedClient);
-            } else {
-                controller.setPlayerOffline(nicknameOfDisconnectedClient);
-            }
+        controller.transmissionMessage("Player " + nickname + " disconnected.");
+        Log.info("Client " + nickname + " disconnected.");
 
-            if (serverControllerMap.isEmpty()) {
-                System.out.println("There aren't players connected: game ends!");
-                //System.exit(0);
-            }
+        if (controller.getGameState() == GameState.STARTING) {
+            controller.removePlayer(nickname);
+            gameRegistry.removePlayer(nickname);
         } else {
-            System.out.println("Cannot find a player: " + serverController.toString());
+            controller.setPlayerOffline(nickname);
         }
-    }
 
+        if (controller.getOnlinePlayers().isEmpty() && controller.getGameState() != GameState.STARTING) {
+            Log.info("There aren't players connected in game " + controller.getGameId()
+                    + ": the game is closed unless a player reconnects.");
+            controller.watchAbandoned();
+        }
+    }
 }
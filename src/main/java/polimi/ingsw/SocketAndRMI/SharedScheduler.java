@@ -0,0 +1,70 @@
+package polimi.ingsw.SocketAndRMI;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scheduler shared by every connection of the process, for the periodic tasks such as pings
+ * and the timers of the games.
+ * A single platform thread keeps the time; at every tick the task runs on a new virtual thread,
+ * so that a ping blocked on a slow connection delays neither the clock nor the other connections.
+ * A tick is skipped if the previous run of the same task has not finished yet.
+ */
+public final class SharedScheduler {
+    private static final ScheduledExecutorService CLOCK = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "shared-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadFactory TASKS = Thread.ofVirtual().name("scheduled-task").factory();
+
+    private SharedScheduler() {
+    }
+
+    /**
+     * Runs a task periodically, the first time immediately.
+     *
+     * @param task   The task to run.
+     * @param period The time between two runs, in milliseconds.
+     * @return The future of the task, to be cancelled once the task is no longer needed.
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        AtomicBoolean running = new AtomicBoolean();
+        return CLOCK.scheduleAtFixedRate(() -> {
+            if (running.compareAndSet(false, true)) {
+                TASKS.newThread(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.set(false);
+                    }
+                }).start();
+            }
+        }, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a task once, after a delay, on a new virtual thread.
+     *
+     * @param task  The task to run.
+     * @param delay The delay, in milliseconds.
+     * @return The future of the task, to be cancelled if the task is no longer needed.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return CLOCK.schedule(() -> TASKS.newThread(task).start(), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a factory of virtual threads, for the tasks that wait on a connection most of the time.
+     *
+     * @param name The name of the threads.
+     * @return The factory.
+     */
+    public static ThreadFactory virtualThreads(String name) {
+        return Thread.ofVirtual().name(name).factory();
+    }
+}
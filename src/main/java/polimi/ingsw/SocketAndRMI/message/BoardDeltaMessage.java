@@ -0,0 +1,46 @@
+package polimi.ingsw.SocketAndRMI.message;
+
+import polimi.ingsw.SocketAndRMI.CardsPlayed;
+import polimi.ingsw.SocketAndRMI.Server;
+
+/**
+ * This message is sent from the server to every client when a card is placed in a manuscript.
+ * The sequence number is the position of the placement in the history of the game, so a client can tell
+ * whether it missed a placement and has to ask for a {@link BoardSnapshotMessage}.
+ */
+public class BoardDeltaMessage extends Message {
+    private final int sequence;
+    private final CardsPlayed cardPlayed;
+
+    /**
+     * @param sequence   The sequence number of the placement, starting from 1.
+     * @param cardPlayed The card placed, with its player, cell and side.
+     */
+    public BoardDeltaMessage(int sequence, CardsPlayed cardPlayed) {
+        super(Server.SERVER_NAME, MessageType.BOARD_DELTA);
+        this.sequence = sequence;
+        this.cardPlayed = cardPlayed;
+    }
+
+    /**
+     * @return The sequence number of the placement.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The card placed.
+     */
+    public CardsPlayed getCardPlayed() {
+        return cardPlayed;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardDeltaMessage{" +
+                "sequence=" + sequence +
+                ", cardPlayed=" + cardPlayed +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package polimi.ingsw.SocketAndRMI.message;
+
+import polimi.ingsw.SocketAndRMI.CardsPlayed;
+import polimi.ingsw.SocketAndRMI.Server;
+
+import java.util.List;
+
+/**
+ * This message is sent from the server to a client with every card placed in the game, in order,
+ * so that the client can rebuild the manuscripts of all the players.
+ * It is sent when the game starts, when a player reconnects and when a client asks for it.
+ */
+public class BoardSnapshotMessage extends Message {
+    private final int sequence;
+    private final List<CardsPlayed> cardsPlayed;
+
+    /**
+     * @param sequence    The sequence number of the last placement of the snapshot.
+     * @param cardsPlayed The cards placed in the game, starting cards included, in order.
+     */
+    public BoardSnapshotMessage(int sequence, List<CardsPlayed> cardsPlayed) {
+        super(Server.SERVER_NAME, MessageType.BOARD_SNAPSHOT);
+        this.sequence = sequence;
+        this.cardsPlayed = cardsPlayed;
+    }
+
+    /**
+     * @return The sequence number of the last placement of the snapshot.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The cards placed in the game, in order.
+     */
+    public List<CardsPlayed> getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSnapshotMessage{" +
+                "sequence=" + sequence +
+                ", cardsPlayed=" + cardsPlayed.size() +
+                '}';
+    }
+}
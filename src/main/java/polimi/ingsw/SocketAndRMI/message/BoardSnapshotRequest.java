@@ -0,0 +1,11 @@
+package polimi.ingsw.SocketAndRMI.message;
+
+/**
+ * This message is sent from the client to the server when its copy of the manuscripts missed a placement,
+ * asking for a {@link BoardSnapshotMessage}.
+ */
+public class BoardSnapshotRequest extends Message {
+    public BoardSnapshotRequest(String nickname) {
+        super(nickname, MessageType.BOARD_SNAPSHOT_REQUEST);
+    }
+}
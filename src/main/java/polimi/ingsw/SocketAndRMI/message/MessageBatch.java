@@ -0,0 +1,35 @@
+package polimi.ingsw.SocketAndRMI.message;
+
+import polimi.ingsw.SocketAndRMI.Server;
+
+import java.util.List;
+
+/**
+ * This message carries all the messages produced for a client by one step of the game,
+ * so that they are serialized and sent together; the client handles them in order.
+ */
+public class MessageBatch extends Message {
+    private final List<Message> messages;
+
+    /**
+     * @param messages The messages of the batch, in the order they were produced.
+     */
+    public MessageBatch(List<Message> messages) {
+        super(Server.SERVER_NAME, MessageType.MESSAGE_BATCH);
+        this.messages = messages;
+    }
+
+    /**
+     * @return The messages of the batch, in order.
+     */
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBatch{" +
+                "messages=" + messages +
+                '}';
+    }
+}
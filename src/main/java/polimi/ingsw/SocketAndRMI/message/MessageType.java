@@ -24,6 +24,9 @@ public enum MessageType {
     PLACE_CARD_RESPONSE,
     SCORE_BOARD,
     PLAYER_INFORMATION,
+    BOARD_DELTA,
+    BOARD_SNAPSHOT_REQUEST,
+    BOARD_SNAPSHOT,
     DRAW_CARD_REQUEST,
     DRAW_CARD_RESPONSE,
     DISPLAY_DECKS,
@@ -36,5 +39,6 @@ public enum MessageType {
     PING_MESSAGE,
     PLAYERS_LIST,
     RECONNECTED_MANUSCRIPT_MESSAGE,
-    CHAT_MESSAGE
+    CHAT_MESSAGE,
+    MESSAGE_BATCH
 }
@@ -1,6 +1,6 @@
 package polimi.ingsw.SocketAndRMI.message;
 
-import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.ManuscriptView;
 import polimi.ingsw.SocketAndRMI.Server;
 
 /**
@@ -8,8 +8,8 @@ import polimi.ingsw.SocketAndRMI.Server;
  * including their {@code Manuscript} and other relevant details.
  */
 public class PlayerInformation extends Message {
-    /** Matrix of {@code ShelfCell} containing the shelf content of the player. */
-    private final AbstractCard[][] manuscript;
+    /** View of the player's manuscript. */
+    private final ManuscriptView manuscript;
     /** Nickname of the player. */
     private final String nickname;
 
@@ -19,7 +19,7 @@ public class PlayerInformation extends Message {
      * @param nickname Nickname of the player.
      * @param manuscript Manuscript representing the player's information.
      */
-    public PlayerInformation(String nickname, AbstractCard[][] manuscript, String stringManuscript) {
+    public PlayerInformation(String nickname, ManuscriptView manuscript, String stringManuscript) {
         super(Server.SERVER_NAME, MessageType.PLAYER_INFORMATION);
         this.nickname = nickname;
         this.manuscript = manuscript;
@@ -29,7 +29,7 @@ public class PlayerInformation extends Message {
     /**
      * @return Manuscript representing the player's information.
      */
-    public AbstractCard[][] getManuscript() {
+    public ManuscriptView getManuscript() {
         return manuscript;
     }
 
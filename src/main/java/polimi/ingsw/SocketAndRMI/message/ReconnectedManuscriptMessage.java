@@ -17,6 +17,8 @@ public class ReconnectedManuscriptMessage extends Message {
 
     public List<CardsPlayed> getCardsPlayedByPlayer() { return cardsPlayedByPlayer; }
 
+    public String getPlayerNickname() { return playerNickname; }
+
     @Override
     public String toString() {
         return "PlayerInformation{" +
@@ -2,7 +2,9 @@ package polimi.ingsw.SocketAndRMI.rmi;
 
 import polimi.ingsw.SocketAndRMI.Client;
 import polimi.ingsw.SocketAndRMI.ClientController;
+import polimi.ingsw.SocketAndRMI.Heartbeat;
 import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.SharedScheduler;
 import polimi.ingsw.SocketAndRMI.message.Message;
 import polimi.ingsw.SocketAndRMI.message.MessageType;
 import polimi.ingsw.SocketAndRMI.message.PingMessage;
@@ -13,14 +15,12 @@ import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 
 public class RmiClientImpl extends Client implements RmiClient, Runnable {
     private RmiServer rmiServer;
-    private final ExecutorService readProgramme = Executors.newSingleThreadExecutor();
-    private final ScheduledExecutorService pingProgramme = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService readProgramme = Executors.newSingleThreadExecutor(SharedScheduler.virtualThreads("rmi-reader"));
+    private Heartbeat.Watch heartbeat;
     public static final int RMI_TO = 10000;
     private String ipAddress;
     private int port;
@@ -67,6 +67,9 @@ public class RmiClientImpl extends Client implements RmiClient, Runnable {
     public void send(Message message) {
         try {
             handleSend(message);
+            if (heartbeat != null) {
+                heartbeat.sent();
+            }
         } catch (RemoteException ex) {
             disconnect();
         }
@@ -126,31 +129,23 @@ public class RmiClientImpl extends Client implements RmiClient, Runnable {
     }
 
     /**
-     * Initiates a periodic ping to maintain connection with the client.
-     * Pings are scheduled at a fixed rate using {@link #pingProgramme}.
-     *
-     * @throws RemoteException If a remote communication error occurs during the ping operation.
+     * Initiates the pings that maintain the connection with the server.
+     * The shared {@link Heartbeat} pings only when nothing else has been sent for a while.
      */
     @Override
     public void letsPing() {
-        pingProgramme.scheduleAtFixedRate(
-                () -> {
-                    PingMessage pingMessage = new PingMessage(clientController.getNickname());
-                    send(pingMessage);
-                },
-                0,
-                RMI_TO / 2,
-                TimeUnit.MILLISECONDS
-        );
+        heartbeat = Heartbeat.shared().watch(RMI_TO / 2, () -> send(new PingMessage(clientController.getNickname())), 0, null);
     }
 
 
     /**
-     * Stops the periodic pinging scheduled with {@link #pingProgramme}.
+     * Stops the pings started by {@link #letsPing()}.
      */
     @Override
     public void stopPing() {
-        pingProgramme.shutdownNow();
+        if (heartbeat != null) {
+            heartbeat.cancel();
+        }
     }
 
     @Override
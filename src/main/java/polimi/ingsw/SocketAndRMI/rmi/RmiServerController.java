@@ -1,14 +1,13 @@
 package polimi.ingsw.SocketAndRMI.rmi;
 
+import polimi.ingsw.log.Log;
+import polimi.ingsw.SocketAndRMI.Heartbeat;
 import polimi.ingsw.SocketAndRMI.ServerController;
 import polimi.ingsw.SocketAndRMI.Server;
 import polimi.ingsw.SocketAndRMI.message.Message;
 import polimi.ingsw.SocketAndRMI.message.PingMessage;
 
 import java.rmi.RemoteException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import static polimi.ingsw.SocketAndRMI.rmi.RmiClientImpl.RMI_TO;
 
@@ -16,12 +15,13 @@ import static polimi.ingsw.SocketAndRMI.rmi.RmiClientImpl.RMI_TO;
 /**
  * Represents a controller for managing communication with a remote RMI client.
  * Handles message sending, client disconnection, and ping scheduling.
+ * The client is pinged through the {@link Heartbeat} only when nothing has been sent to it for a while.
  */
 public class RmiServerController implements ServerController {
     private RmiClient rmiClient;
     private final RmiServerImpl remoteServer;
-    private boolean isConnected;
-    private final ScheduledExecutorService pingProgramme = Executors.newSingleThreadScheduledExecutor();
+    private volatile boolean isConnected;
+    private Heartbeat.Watch heartbeat;
 
     /**
      * Constructs a new RmiServerController with the given client reference and server.
@@ -48,9 +48,10 @@ public class RmiServerController implements ServerController {
     public void send(Message message) {
         try {
             rmiClient.sendToClient(message);
-            System.out.println("Message sent: " + message.toString());
+            heartbeat.sent();
+            Log.trace(() -> "Message sent: " + message.toString());
         } catch (RemoteException e) {
-            System.out.println("Unable to communicate with the client: disconnecting...");
+            Log.warn("Unable to communicate with the client: disconnecting...");
             this.disconnectThisClient();
         }
     }
@@ -83,24 +84,35 @@ public class RmiServerController implements ServerController {
     }
 
     /**
-     * Initiates the ping mechanism to the client at regular intervals.
-     * Sends a PingMessage to monitor client connectivity.
+     * Starts watching the connection on the shared {@link Heartbeat}:
+     * a PingMessage is sent to monitor client connectivity when nothing else has been sent for a while.
      */
     private void letsPing() {
-        pingProgramme.scheduleAtFixedRate(
-                () -> send(new PingMessage(Server.SERVER_NAME)),
-                0,
-                RMI_TO / 2,
-                TimeUnit.MILLISECONDS);
+        heartbeat = Heartbeat.shared().watch(RMI_TO / 2, this::ping, 0, null);
+    }
+
+    /**
+     * Pings the client, disconnecting it if it can not be reached.
+     */
+    private void ping() {
+        RmiClient client = rmiClient;
+        if (client == null) {
+            return;
+        }
+        try {
+            client.sendToClient(new PingMessage(Server.SERVER_NAME));
+        } catch (RemoteException e) {
+            Log.warn("Unable to communicate with the client: disconnecting...");
+            this.disconnectThisClient();
+        }
     }
 
     /**
      * Stops the ping mechanism.
-     * Shuts down the ping scheduling service.
      */
     private void stopPing() {
-        if (!pingProgramme.isShutdown()) {
-            pingProgramme.shutdownNow();
+        if (heartbeat != null) {
+            heartbeat.cancel();
         }
     }
 }
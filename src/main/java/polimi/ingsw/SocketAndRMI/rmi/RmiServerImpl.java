@@ -1,5 +1,6 @@
 package polimi.ingsw.SocketAndRMI.rmi;
 
+import polimi.ingsw.log.Log;
 import polimi.ingsw.SocketAndRMI.ServerController;
 import polimi.ingsw.SocketAndRMI.Server;
 import polimi.ingsw.SocketAndRMI.message.Message;
@@ -49,7 +50,7 @@ public class RmiServerImpl extends UnicastRemoteObject implements RmiServer {
     private void createRegistryAndBind() throws RemoteException, AlreadyBoundException {
         Registry registry = LocateRegistry.createRegistry(DEFAULT_RMI_PORT);
         registry.bind(Server.SERVER_NAME, this);
-        System.out.println("RMI server created on port " + DEFAULT_RMI_PORT + "...");
+        Log.info("RMI server created on port " + DEFAULT_RMI_PORT + "...");
     }
 
     /**
@@ -59,7 +60,7 @@ public class RmiServerImpl extends UnicastRemoteObject implements RmiServer {
      * @throws RemoteException The rethrown RemoteException.
      */
     private void handleRemoteException(RemoteException e) throws RemoteException {
-        System.out.println("Unable to instantiate RMI server.");
+        Log.warn("Unable to instantiate RMI server.");
         throw e; // Rethrow RemoteException to caller
     }
 
@@ -69,7 +70,7 @@ public class RmiServerImpl extends UnicastRemoteObject implements RmiServer {
      * @param e The AlreadyBoundException to handle.
      */
     private void handleAlreadyBoundException(AlreadyBoundException e) {
-        System.out.println("RMI server already bound: " + e.getMessage());
+        Log.warn("RMI server already bound: " + e.getMessage());
     }
 
 
@@ -93,7 +94,7 @@ public class RmiServerImpl extends UnicastRemoteObject implements RmiServer {
      * @throws RemoteException If a remote communication error occurs during message transmission.
      */
     public void sendToServer(Message message) throws RemoteException {
-        System.out.println("Received message: " + message.toString());
+        Log.trace(() -> "Received message: " + message.toString());
         if (message.getMessageType() != MessageType.PING_MESSAGE) {
             server.onAcquiredMessage(message);
         }
@@ -0,0 +1,615 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.SocketAndRMI.CardsPlayed;
+import polimi.ingsw.SocketAndRMI.message.*;
+import polimi.ingsw.log.Log;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.model.CardDefinition;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.ManuscriptView;
+import polimi.ingsw.model.Placement;
+import polimi.ingsw.model.StartingCard;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written binary codec, version 1 of the protocol.
+ * A payload is the tag of the message type followed by its fields, in the order of the constructor of the message:
+ * integers are variable-length, strings are UTF-8 and cards are the index of their definition in the
+ * {@link CardCatalog} together with their side, or the code of the blank card of a hand. A manuscript is sent as its placements and is placed again
+ * by the receiver. A message holding something the format can not express, such as a card that is not in the
+ * catalog, is sent as a Java serialized object under the fallback tag, so every message can be sent.
+ */
+public final class BinaryMessageCodec implements MessageCodec {
+    /** The only instance of the codec, which has no state. */
+    public static final BinaryMessageCodec INSTANCE = new BinaryMessageCodec();
+
+    /** Code of the blank card of a hand; 0 is a missing card and the codes of the catalog start after it. */
+    private static final int BLANK_CARD = 1;
+    private static final int FIRST_CARD = 2;
+
+    /** Message types in the order of their tags; new types must be added at the end. */
+    private static final MessageType[] TAGS = {
+            MessageType.LOGIN_REQUEST,
+            MessageType.LOGIN_REPLY,
+            MessageType.PLAYERS_NUMBER_REQUEST,
+            MessageType.WAITING_ROOM_REQUEST,
+            MessageType.GAME_ROOM_REQUEST,
+            MessageType.PLAYERSNUMBER_REPLY,
+            MessageType.COLOR_REQUEST,
+            MessageType.COLOR_RESPONSE,
+            MessageType.SECRET_STARTING_REQUEST,
+            MessageType.SECRET_STARTING_RESPONSE,
+            MessageType.HANDS_RESPONSE_CARD,
+            MessageType.COMMON_TARGET_CARD,
+            MessageType.SECRET_TARGET_CARD,
+            MessageType.PLACE_CARD_REQUEST,
+            MessageType.PLACE_CARD_RESPONSE,
+            MessageType.SCORE_BOARD,
+            MessageType.PLAYER_INFORMATION,
+            MessageType.DRAW_CARD_REQUEST,
+            MessageType.DRAW_CARD_RESPONSE,
+            MessageType.DISPLAY_DECKS,
+            MessageType.FINAL_SCORE_BOARD,
+            MessageType.GENERIC_MESSAGE,
+            MessageType.ERROR_MESSAGE,
+            MessageType.PING_MESSAGE,
+            MessageType.PLAYERS_LIST,
+            MessageType.RECONNECTED_MANUSCRIPT_MESSAGE,
+            MessageType.CHAT_MESSAGE,
+            MessageType.BOARD_DELTA,
+            MessageType.BOARD_SNAPSHOT_REQUEST,
+            MessageType.BOARD_SNAPSHOT,
+            MessageType.MESSAGE_BATCH,
+    };
+    private static final int[] TAG_OF_TYPE = new int[MessageType.values().length];
+    /** Tag of the messages sent as Java serialized objects. */
+    private static final int FALLBACK = 0xFF;
+
+    static {
+        Arrays.fill(TAG_OF_TYPE, FALLBACK);
+        for (int i = 0; i < TAGS.length; i++) {
+            TAG_OF_TYPE[TAGS[i].ordinal()] = i;
+        }
+    }
+
+    private BinaryMessageCodec() {
+    }
+
+    @Override
+    public int getVersion() {
+        return ProtocolHandshake.BINARY_V1;
+    }
+
+    @Override
+    public byte[] encode(Message message) throws IOException {
+        int tag = TAG_OF_TYPE[message.getMessageType().ordinal()];
+        if (tag != FALLBACK) {
+            try {
+                Writer out = new Writer();
+                out.writeByte(tag);
+                encodeFields(message, out);
+                return out.toByteArray();
+            } catch (InexpressibleException e) {
+                Log.debug(() -> message.getMessageType() + " sent as a Java serialized object: " + e.getMessage());
+            }
+        }
+        byte[] serialized = MessageFrames.encode(message);
+        byte[] payload = new byte[serialized.length + 1];
+        payload[0] = (byte) FALLBACK;
+        System.arraycopy(serialized, 0, payload, 1, serialized.length);
+        return payload;
+    }
+
+    @Override
+    public Message decode(byte[] payload, int offset, int length) throws IOException {
+        if (length < 1) {
+            throw new StreamCorruptedException("Empty message.");
+        }
+        int tag = payload[offset] & 0xFF;
+        if (tag == FALLBACK) {
+            return MessageFrames.decode(payload, offset + 1, length - 1);
+        }
+        if (tag >= TAGS.length) {
+            throw new StreamCorruptedException("Unknown message tag: " + tag);
+        }
+        Reader in = new Reader(payload, offset + 1, offset + length);
+        try {
+            Message message = decodeFields(TAGS[tag], in);
+            if (in.position != in.end) {
+                throw new StreamCorruptedException("Trailing bytes after " + TAGS[tag]);
+            }
+            return message;
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new StreamCorruptedException("Invalid " + TAGS[tag] + ": " + e.getMessage());
+        }
+    }
+
+    private static void encodeFields(Message message, Writer out) throws IOException {
+        switch (message.getMessageType()) {
+            case LOGIN_REQUEST, PING_MESSAGE -> out.writeString(message.getNickname());
+            case LOGIN_REPLY -> {
+                LoginResponseMessage m = (LoginResponseMessage) message;
+                out.writeBoolean(m.isNicknameAccepted());
+                out.writeBoolean(m.isConnectionEstablished());
+            }
+            case PLAYERS_NUMBER_REQUEST, WAITING_ROOM_REQUEST, GAME_ROOM_REQUEST, PLACE_CARD_REQUEST, DRAW_CARD_REQUEST -> {
+            }
+            case PLAYERSNUMBER_REPLY -> {
+                out.writeString(message.getNickname());
+                out.writeInt(((PlayersNumberResponse) message).getPlayersNumber());
+            }
+            case COLOR_REQUEST -> {
+                out.writeString(message.getNickname());
+                out.writeString(((ColorRequestMessage) message).getColor());
+            }
+            case COLOR_RESPONSE -> {
+                ColorResponseMessage m = (ColorResponseMessage) message;
+                out.writeBoolean(m.isColorAccepted());
+                out.writeStrings(m.getAvailableColor() == null ? null : Arrays.asList(m.getAvailableColor()));
+            }
+            case SECRET_STARTING_REQUEST -> {
+                SecretTargetAndStartingRequest m = (SecretTargetAndStartingRequest) message;
+                out.writeCard(m.getStartingCard());
+                out.writeCard(m.getFirstPossibleTargetCard());
+                out.writeCard(m.getSecondPossibleTargetCard());
+            }
+            case SECRET_STARTING_RESPONSE -> {
+                SecretAndStartingResponseMessage m = (SecretAndStartingResponseMessage) message;
+                out.writeString(m.getNickname());
+                out.writeString(m.getChoice());
+                out.writeBoolean(m.getSide());
+            }
+            case HANDS_RESPONSE_CARD -> {
+                HandsResponseMessage m = (HandsResponseMessage) message;
+                out.writeCard(m.getFirstHandCard());
+                out.writeCard(m.getSecondHandCard());
+                out.writeCard(m.getThirdHandCard());
+            }
+            case COMMON_TARGET_CARD -> {
+                CommonTargetCardMessage m = (CommonTargetCardMessage) message;
+                out.writeCard(m.getFirstCommonTargetCard());
+                out.writeCard(m.getSecondCommonTargetCard());
+            }
+            case SECRET_TARGET_CARD -> {
+                SecretTargetCardMessage m = (SecretTargetCardMessage) message;
+                out.writeCard(m.getSecretTargetCard());
+                out.writeString(m.getCardOwner());
+            }
+            case PLACE_CARD_RESPONSE -> {
+                PlaceCardResponse m = (PlaceCardResponse) message;
+                out.writeString(m.getNickname());
+                out.writeInt(m.getCardPositionToPlace());
+                out.writeInt(m.getRow());
+                out.writeInt(m.getColumn());
+                out.writeBoolean(m.getSide());
+            }
+            case SCORE_BOARD -> out.writeScores(((ScoreBoardMessage) message).getScoreBoardMap());
+            case PLAYER_INFORMATION -> {
+                PlayerInformation m = (PlayerInformation) message;
+                out.writeString(m.getNickname());
+                out.writeManuscript(m.getManuscript());
+                out.writeString(m.getStringManuscript());
+            }
+            case DRAW_CARD_RESPONSE -> {
+                out.writeString(message.getNickname());
+                out.writeInt(((DrawCardResponse) message).getDrawnCard());
+            }
+            case DISPLAY_DECKS -> out.writeStrings(((ShowDecksMessage) message).getCards());
+            case FINAL_SCORE_BOARD -> {
+                FinalScoreBoardMessage m = (FinalScoreBoardMessage) message;
+                out.writeScores(m.getScoreBoardMap());
+                out.writeScores(m.getCompletedObjectives());
+            }
+            case GENERIC_MESSAGE -> out.writeString(((GenericMessage) message).getGenericMessage());
+            case ERROR_MESSAGE -> {
+                out.writeString(message.getNickname());
+                out.writeString(((ErrorMessage) message).getErrorDescription());
+            }
+            case PLAYERS_LIST -> out.writeStrings(((PlayersListMessage) message).getPlayers());
+            case RECONNECTED_MANUSCRIPT_MESSAGE -> {
+                ReconnectedManuscriptMessage m = (ReconnectedManuscriptMessage) message;
+                out.writeString(m.getPlayerNickname());
+                out.writeCardsPlayed(m.getCardsPlayedByPlayer());
+            }
+            case CHAT_MESSAGE -> {
+                ChatMessage m = (ChatMessage) message;
+                out.writeString(m.getSenderNickname());
+                out.writeString(m.getRecipientNickname());
+                out.writeString(m.getText());
+            }
+            case BOARD_DELTA -> {
+                BoardDeltaMessage m = (BoardDeltaMessage) message;
+                out.writeUnsigned(m.getSequence());
+                out.writeCardPlayed(m.getCardPlayed());
+            }
+            case BOARD_SNAPSHOT_REQUEST -> out.writeString(message.getNickname());
+            case BOARD_SNAPSHOT -> {
+                BoardSnapshotMessage m = (BoardSnapshotMessage) message;
+                out.writeUnsigned(m.getSequence());
+                out.writeCardsPlayed(m.getCardsPlayed());
+            }
+            case MESSAGE_BATCH -> {
+                List<Message> messages = ((MessageBatch) message).getMessages();
+                out.writeUnsigned(messages.size());
+                for (Message m : messages) {
+                    out.writeBytes(INSTANCE.encode(m));
+                }
+            }
+            default -> throw new IllegalStateException("No binary format for " + message.getMessageType());
+        }
+    }
+
+    private static Message decodeFields(MessageType type, Reader in) throws IOException {
+        return switch (type) {
+            case LOGIN_REQUEST -> new LoginRequestMessage(in.readString());
+            case PING_MESSAGE -> new PingMessage(in.readString());
+            case LOGIN_REPLY -> new LoginResponseMessage(in.readBoolean(), in.readBoolean());
+            case PLAYERS_NUMBER_REQUEST -> new PlayersNumberRequest();
+            case WAITING_ROOM_REQUEST -> new WaitingRoomRequest();
+            case GAME_ROOM_REQUEST -> new GameRoomRequest();
+            case PLACE_CARD_REQUEST -> new PlaceCardRequest();
+            case DRAW_CARD_REQUEST -> new DrawCardRequest();
+            case PLAYERSNUMBER_REPLY -> new PlayersNumberResponse(in.readString(), in.readInt());
+            case COLOR_REQUEST -> new ColorRequestMessage(in.readString(), in.readString());
+            case COLOR_RESPONSE -> {
+                boolean accepted = in.readBoolean();
+                List<String> colors = in.readStrings();
+                yield new ColorResponseMessage(accepted, colors == null ? null : colors.toArray(new String[0]));
+            }
+            case SECRET_STARTING_REQUEST -> new SecretTargetAndStartingRequest(in.readCard(), in.readCard(), in.readCard());
+            case SECRET_STARTING_RESPONSE -> new SecretAndStartingResponseMessage(in.readString(), in.readString(), in.readBoolean());
+            case HANDS_RESPONSE_CARD -> new HandsResponseMessage(in.readCard(), in.readCard(), in.readCard());
+            case COMMON_TARGET_CARD -> {
+                AbstractCard first = in.readCard();
+                AbstractCard second = in.readCard();
+                // the constructor takes the cards the other way round
+                yield new CommonTargetCardMessage(second, first);
+            }
+            case SECRET_TARGET_CARD -> new SecretTargetCardMessage(in.readCard(), in.readString());
+            case PLACE_CARD_RESPONSE -> new PlaceCardResponse(in.readString(), in.readInt(), in.readInt(), in.readInt(), in.readBoolean());
+            case SCORE_BOARD -> new ScoreBoardMessage(in.readScores());
+            case PLAYER_INFORMATION -> new PlayerInformation(in.readString(), in.readManuscript(), in.readString());
+            case DRAW_CARD_RESPONSE -> new DrawCardResponse(in.readString(), in.readInt());
+            case DISPLAY_DECKS -> {
+                List<String> cards = in.readStrings();
+                yield new ShowDecksMessage(cards == null ? null : new ArrayList<>(cards));
+            }
+            case FINAL_SCORE_BOARD -> new FinalScoreBoardMessage(in.readScores(), in.readScores());
+            case GENERIC_MESSAGE -> new GenericMessage(in.readString());
+            case ERROR_MESSAGE -> new ErrorMessage(in.readString(), in.readString());
+            case PLAYERS_LIST -> new PlayersListMessage(in.readStrings());
+            case RECONNECTED_MANUSCRIPT_MESSAGE -> new ReconnectedManuscriptMessage(in.readString(), in.readCardsPlayed());
+            case CHAT_MESSAGE -> new ChatMessage(in.readString(), in.readString(), in.readString());
+            case BOARD_DELTA -> new BoardDeltaMessage(in.readUnsigned(), in.readCardPlayed());
+            case BOARD_SNAPSHOT_REQUEST -> new BoardSnapshotRequest(in.readString());
+            case BOARD_SNAPSHOT -> new BoardSnapshotMessage(in.readUnsigned(), in.readCardsPlayed());
+            case MESSAGE_BATCH -> new MessageBatch(in.readMessages());
+            default -> throw new StreamCorruptedException("Unexpected message type: " + type);
+        };
+    }
+
+    /**
+     * Thrown while writing a message that holds something the format can not express, so that the message is sent
+     * under the fallback tag instead; any other failure is a bug and is not caught.
+     */
+    private static final class InexpressibleException extends RuntimeException {
+        InexpressibleException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Growing buffer the fields of a message are written to.
+     */
+    private static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        void writeByte(int value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeUnsigned(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeInt(int value) {
+            writeUnsigned((value << 1) ^ (value >> 31));
+        }
+
+        /**
+         * Writes the size of a value that may be null: 0 for null, the size plus one otherwise.
+         */
+        void writeSize(int length, boolean isNull) {
+            writeUnsigned(isNull ? 0 : length + 1);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeSize(0, true);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeSize(bytes.length, false);
+            append(bytes);
+        }
+
+        /**
+         * Writes a nested payload, preceded by its length.
+         */
+        void writeBytes(byte[] bytes) {
+            writeUnsigned(bytes.length);
+            append(bytes);
+        }
+
+        private void append(byte[] bytes) {
+            if (size + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeStrings(List<String> values) {
+            writeSize(values == null ? 0 : values.size(), values == null);
+            if (values != null) {
+                for (String value : values) {
+                    writeString(value);
+                }
+            }
+        }
+
+        void writeScores(Map<String, Integer> scores) {
+            writeSize(scores == null ? 0 : scores.size(), scores == null);
+            if (scores != null) {
+                for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                    writeString(entry.getKey());
+                    writeInt(entry.getValue());
+                }
+            }
+        }
+
+        /**
+         * Writes a card as 0 for null, or its catalog index and side.
+         */
+        void writeCard(AbstractCard card) {
+            if (card == null) {
+                writeUnsigned(0);
+                return;
+            }
+            if (card.getDefinition() == null && Game.BLANK_CARD_ID.equals(card.getID())) {
+                writeUnsigned(BLANK_CARD);
+                return;
+            }
+            if (!card.isPristine()) {
+                throw new InexpressibleException("Card " + card.getID() + " can not be sent as a reference.");
+            }
+            writeUnsigned((card.getDefinition().getIndex() << 1 | (card.isFront() ? 1 : 0)) + FIRST_CARD);
+        }
+
+        void writeManuscript(ManuscriptView manuscript) {
+            List<Placement> placements = manuscript == null ? null : manuscript.getPlacements();
+            writeSize(placements == null ? 0 : placements.size(), placements == null);
+            if (placements != null) {
+                for (Placement placement : placements) {
+                    if (placement.getDefinition() < 0) {
+                        throw new InexpressibleException("Placed card is not in the catalog.");
+                    }
+                    writeUnsigned(placement.getDefinition() << 1 | (placement.isFront() ? 1 : 0));
+                    writeInt(placement.getRow());
+                    writeInt(placement.getColumn());
+                }
+            }
+        }
+
+        void writeCardsPlayed(List<CardsPlayed> cards) {
+            writeSize(cards == null ? 0 : cards.size(), cards == null);
+            if (cards != null) {
+                for (CardsPlayed card : cards) {
+                    writeCardPlayed(card);
+                }
+            }
+        }
+
+        void writeCardPlayed(CardsPlayed card) {
+            writeString(card.getPlayerNickname());
+            writeString(card.getId());
+            writeBoolean(card.isFront());
+            writeBoolean(card.getCell() != null);
+            if (card.getCell() != null) {
+                writeInt(card.getCell().getRow());
+                writeInt(card.getCell().getColumn());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    /**
+     * Cursor over the fields of a received message.
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private final int end;
+        private int position;
+
+        Reader(byte[] buffer, int position, int end) {
+            this.buffer = buffer;
+            this.position = position;
+            this.end = end;
+        }
+
+        int readByte() {
+            if (position >= end) {
+                throw new ArrayIndexOutOfBoundsException("Message too short");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        int readUnsigned() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Integer too long");
+        }
+
+        int readInt() {
+            int value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads the size of a value that may be null.
+         *
+         * @return The size, or -1 for null.
+         */
+        int readSize() {
+            int size = readUnsigned() - 1;
+            if (size > end - position) {
+                throw new IllegalArgumentException("Size " + size + " beyond the message");
+            }
+            return size;
+        }
+
+        String readString() {
+            int length = readSize();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        List<String> readStrings() {
+            int size = readSize();
+            if (size < 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        Map<String, Integer> readScores() {
+            int size = readSize();
+            if (size < 0) {
+                return null;
+            }
+            Map<String, Integer> scores = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                scores.put(readString(), readInt());
+            }
+            return scores;
+        }
+
+        AbstractCard readCard() {
+            int value = readUnsigned();
+            if (value == 0) {
+                return null;
+            }
+            if (value == BLANK_CARD) {
+                return new StartingCard(Game.BLANK_CARD_ID, "", "");
+            }
+            AbstractCard card = definition((value - FIRST_CARD) >>> 1).newCard();
+            card.setFront(((value - FIRST_CARD) & 1) != 0);
+            return card;
+        }
+
+        ManuscriptView readManuscript() {
+            int size = readSize();
+            if (size < 0) {
+                return null;
+            }
+            List<Placement> placements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int card = readUnsigned();
+                definition(card >>> 1);
+                placements.add(new Placement(card >>> 1, (card & 1) != 0, readInt(), readInt(), 0));
+            }
+            return Manuscript.fromPlacements(placements).getView();
+        }
+
+        /**
+         * Reads the messages of a batch, each one a nested payload preceded by its length.
+         */
+        List<Message> readMessages() throws IOException {
+            int count = readUnsigned();
+            if (count > end - position) {
+                throw new IllegalArgumentException("Batch of " + count + " messages beyond the message");
+            }
+            List<Message> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readUnsigned();
+                if (length > end - position) {
+                    throw new IllegalArgumentException("Message of " + length + " bytes beyond the batch");
+                }
+                messages.add(INSTANCE.decode(buffer, position, length));
+                position += length;
+            }
+            return messages;
+        }
+
+        List<CardsPlayed> readCardsPlayed() {
+            int size = readSize();
+            if (size < 0) {
+                return null;
+            }
+            List<CardsPlayed> cards = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cards.add(readCardPlayed());
+            }
+            return cards;
+        }
+
+        CardsPlayed readCardPlayed() {
+            String player = readString();
+            String id = readString();
+            boolean front = readBoolean();
+            Cell cell = readBoolean() ? new Cell(readInt(), readInt()) : null;
+            return new CardsPlayed(player, id, cell, front);
+        }
+
+        private static CardDefinition definition(int index) {
+            if (index >= CardCatalog.getInstance().size()) {
+                throw new IllegalArgumentException("Unknown card " + index);
+            }
+            return CardCatalog.getInstance().get(index);
+        }
+    }
+}
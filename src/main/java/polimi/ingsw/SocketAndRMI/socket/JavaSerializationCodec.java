@@ -0,0 +1,32 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.SocketAndRMI.message.Message;
+
+import java.io.IOException;
+
+/**
+ * Codec sending every message as a Java serialized object graph.
+ * It is the first version of the protocol, used by the clients that do not ask for another one.
+ */
+public final class JavaSerializationCodec implements MessageCodec {
+    /** The only instance of the codec, which has no state. */
+    public static final JavaSerializationCodec INSTANCE = new JavaSerializationCodec();
+
+    private JavaSerializationCodec() {
+    }
+
+    @Override
+    public int getVersion() {
+        return ProtocolHandshake.JAVA_SERIALIZATION;
+    }
+
+    @Override
+    public byte[] encode(Message message) throws IOException {
+        return MessageFrames.encode(message);
+    }
+
+    @Override
+    public Message decode(byte[] payload, int offset, int length) throws IOException {
+        return MessageFrames.decode(payload, offset, length);
+    }
+}
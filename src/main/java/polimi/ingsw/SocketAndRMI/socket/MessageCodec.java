@@ -0,0 +1,37 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.SocketAndRMI.message.Message;
+
+import java.io.IOException;
+
+/**
+ * Encoding of the messages into the payload of the frames, agreed by client and server when they connect.
+ * See {@link ProtocolHandshake} for the available versions.
+ */
+public interface MessageCodec {
+
+    /**
+     * @return The version of the protocol implemented by the codec, as sent in the handshake.
+     */
+    int getVersion();
+
+    /**
+     * Encodes a message into the payload of a frame.
+     *
+     * @param message The message to encode.
+     * @return The payload.
+     * @throws IOException If the message can not be encoded.
+     */
+    byte[] encode(Message message) throws IOException;
+
+    /**
+     * Decodes the payload of a frame.
+     *
+     * @param payload The buffer holding the payload.
+     * @param offset  The position of the payload in the buffer.
+     * @param length  The length of the payload.
+     * @return The message.
+     * @throws IOException If the payload is not a valid message.
+     */
+    Message decode(byte[] payload, int offset, int length) throws IOException;
+}
@@ -0,0 +1,185 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.SocketAndRMI.message.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * Framing of the messages exchanged over a socket.
+ * Every message travels in its own frame: a 4 bytes length followed by the message encoded by the
+ * {@link MessageCodec} of the connection. The methods without a codec use Java serialization.
+ * Frames are independent from each other, so a reader never has to keep the state of a stream
+ * and the server can read them without blocking.
+ */
+public final class MessageFrames {
+    /** Length of the header of a frame. */
+    public static final int HEADER_LENGTH = Integer.BYTES;
+    /** Maximum length of the payload of a frame; longer frames are treated as a broken connection. */
+    public static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    private MessageFrames() {
+    }
+
+    /**
+     * Serializes a message into the payload of a Java serialized frame.
+     *
+     * @param message The message to serialize.
+     * @return The payload of the frame.
+     * @throws IOException If the message can not be serialized.
+     */
+    public static byte[] encode(Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes the payload of a Java serialized frame.
+     *
+     * @param payload The buffer holding the payload.
+     * @param offset  The position of the payload in the buffer.
+     * @param length  The length of the payload.
+     * @return The message.
+     * @throws IOException If the payload is not a valid message.
+     */
+    public static Message decode(byte[] payload, int offset, int length) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload, offset, length))) {
+            return (Message) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new StreamCorruptedException("Invalid message: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a whole Java serialized frame, header included, ready to be written on a channel.
+     *
+     * @param message The message to send.
+     * @return The frame, positioned at its beginning.
+     * @throws IOException If the message can not be serialized.
+     */
+    public static ByteBuffer frame(Message message) throws IOException {
+        return frame(encode(message));
+    }
+
+    /**
+     * Builds a whole frame, header included, ready to be written on a channel.
+     *
+     * @param codec   The codec of the connection.
+     * @param message The message to send.
+     * @return The frame, positioned at its beginning.
+     * @throws IOException If the message can not be encoded.
+     */
+    public static ByteBuffer frame(MessageCodec codec, Message message) throws IOException {
+        return frame(codec.encode(message));
+    }
+
+    /**
+     * Builds a whole frame around a payload.
+     *
+     * @param payload The payload of the frame.
+     * @return The frame, positioned at its beginning.
+     */
+    public static ByteBuffer frame(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        frame.putInt(payload.length).put(payload).flip();
+        return frame;
+    }
+
+    /**
+     * Writes a message as a Java serialized frame on a stream.
+     *
+     * @param out     The stream to write on.
+     * @param message The message to send.
+     * @throws IOException If the stream can not be written.
+     */
+    public static void write(DataOutputStream out, Message message) throws IOException {
+        writePayload(out, encode(message));
+    }
+
+    /**
+     * Writes a message as a frame on a stream.
+     *
+     * @param out     The stream to write on.
+     * @param codec   The codec of the connection.
+     * @param message The message to send.
+     * @throws IOException If the stream can not be written.
+     */
+    public static void write(DataOutputStream out, MessageCodec codec, Message message) throws IOException {
+        writePayload(out, codec.encode(message));
+    }
+
+    /**
+     * Writes a frame on a stream.
+     *
+     * @param out     The stream to write on.
+     * @param payload The payload of the frame.
+     * @throws IOException If the stream can not be written.
+     */
+    public static void writePayload(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Reads the next Java serialized frame of a stream.
+     *
+     * @param in The stream to read from.
+     * @return The message in the frame.
+     * @throws IOException If the stream can not be read or the frame is not valid.
+     */
+    public static Message read(DataInputStream in) throws IOException {
+        byte[] payload = readPayload(in);
+        return decode(payload, 0, payload.length);
+    }
+
+    /**
+     * Reads the next frame of a stream.
+     *
+     * @param in    The stream to read from.
+     * @param codec The codec of the connection.
+     * @return The message in the frame.
+     * @throws IOException If the stream can not be read or the frame is not valid.
+     */
+    public static Message read(DataInputStream in, MessageCodec codec) throws IOException {
+        byte[] payload = readPayload(in);
+        return codec.decode(payload, 0, payload.length);
+    }
+
+    /**
+     * Reads the payload of the next frame of a stream.
+     *
+     * @param in The stream to read from.
+     * @return The payload.
+     * @throws IOException If the stream can not be read or the frame is not valid.
+     */
+    public static byte[] readPayload(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Checks the length read from the header of a frame.
+     *
+     * @param length The length of the payload.
+     * @throws StreamCorruptedException If the length is not valid.
+     */
+    public static void checkLength(int length) throws StreamCorruptedException {
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new StreamCorruptedException("Invalid frame length: " + length);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.message.Message;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Socket server based on non-blocking channels.
+ * One thread accepts the connections and hands them, in turn, to a small pool of reactors:
+ * every reactor waits on its own selector for the connections it owns, reads their frames and writes the queued ones.
+ * A connection therefore costs a channel and a few buffers instead of a thread, so that thousands of idle
+ * clients can stay connected. Clients use the same frames of {@link SktServer}, see {@link MessageFrames}.
+ */
+public class NioServer implements Runnable {
+    private final Server server;
+    private final int port;
+    private final Reactor[] reactors;
+    private int nextReactor;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * Creates a server with one reactor for each processor.
+     *
+     * @param server The server object associated with this NioServer instance.
+     * @param port   The port number on which the server listens, 0 for any free port.
+     */
+    public NioServer(Server server, int port) {
+        this(server, port, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * Creates a server.
+     *
+     * @param server       The server object associated with this NioServer instance.
+     * @param port         The port number on which the server listens, 0 for any free port.
+     * @param reactorCount The number of threads serving the connections.
+     */
+    public NioServer(Server server, int port, int reactorCount) {
+        this.server = server;
+        this.port = port;
+        this.reactors = new Reactor[reactorCount];
+    }
+
+    /**
+     * Binds the server to its port and starts the reactors.
+     * Called by {@link #run()} if the server is not bound yet.
+     *
+     * @throws IOException If the server can not be bound.
+     */
+    public synchronized void bind() throws IOException {
+        if (serverChannel != null) {
+            return;
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(Selector.open());
+            Thread thread = new Thread(reactors[i], "socket-reactor-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Accepts the incoming connections and assigns each of them to a reactor.
+     */
+    @Override
+    public void run() {
+        try {
+            bind();
+            Log.info("Socket server running on port " + getPort());
+
+            while (!Thread.currentThread().isInterrupted() && serverChannel.isOpen()) {
+                try {
+                    SocketChannel channel = serverChannel.accept();
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    Reactor reactor = reactors[nextReactor];
+                    nextReactor = (nextReactor + 1) % reactors.length;
+                    NioServerController connection = new NioServerController(this, channel, reactor);
+                    server.connect(connection);
+                    reactor.register(connection);
+                } catch (ClosedChannelException ex) {
+                    break;
+                } catch (IOException ex) {
+                    Log.warn(ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            Log.warn(ex.getMessage());
+            Log.warn("Unable to start socket server.");
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the ones that are open.
+     */
+    public synchronized void close() {
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            Log.warn(e.getMessage());
+        }
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                reactor.close();
+            }
+        }
+    }
+
+    /**
+     * @return The port the server is bound to, or the configured one if the server is not bound yet.
+     */
+    public int getPort() {
+        try {
+            if (serverChannel != null && serverChannel.isOpen()) {
+                return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+            }
+        } catch (IOException e) {
+            Log.warn(e.getMessage());
+        }
+        return port;
+    }
+
+    /**
+     * @return The number of open connections.
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                count += reactor.getConnectionCount();
+            }
+        }
+        return count;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    /**
+     * Forwards a received message to the server without waiting, see {@link Server#offerMessage(ServerController, Message)}.
+     *
+     * @param serverController The connection the message came from.
+     * @param message          The message received from a client.
+     * @return false if the game of the client is too busy to take the message.
+     */
+    public boolean offerMessage(ServerController serverController, Message message) {
+        return server.offerMessage(serverController, message);
+    }
+
+    /**
+     * Handles disconnection from a client by forwarding the event to the server.
+     *
+     * @param serverController The server controller associated with the disconnected client.
+     */
+    public void onDisconnectionFromClient(ServerController serverController) {
+        server.onDisconnectionFromClient(serverController);
+    }
+
+    /**
+     * Checks a login request against the rate limits of the client, see {@link Server#admitLogin(ServerController, Message)}.
+     *
+     * @param serverController The connection the request came from.
+     * @param message          The login request.
+     * @return Whether the login may be handled.
+     */
+    public boolean admitLogin(ServerController serverController, Message message) {
+        return server.admitLogin(serverController, message);
+    }
+
+    /**
+     * Requests the server to add a client with the specified nickname, managed by the given server controller.
+     *
+     * @param nickname         The nickname of the client to be added.
+     * @param serverController The server controller managing operations for the client.
+     */
+    public void joinClient(String nickname, ServerController serverController) {
+        server.joinClient(nickname, serverController);
+    }
+
+    /**
+     * Forwards a received message to the server for processing, through the session of its connection.
+     *
+     * @param serverController The connection the message came from.
+     * @param message          The message received from a client.
+     */
+    public void onAcquiredMessage(ServerController serverController, Message message) {
+        server.onAcquiredMessage(serverController, message);
+    }
+
+    /**
+     * Thread serving a share of the connections through its own selector.
+     * Other threads never touch the selector: they queue their requests and wake the reactor up.
+     */
+    static final class Reactor implements Runnable {
+        private final Selector selector;
+        private final Queue<NioServerController> registrations = new ConcurrentLinkedQueue<>();
+        private final Queue<NioServerController> writes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private volatile boolean closing;
+        private volatile Thread thread;
+
+        private Reactor(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Hands a new connection to the reactor.
+         *
+         * @param controller The controller of the connection.
+         */
+        void register(NioServerController controller) {
+            connections.incrementAndGet();
+            registrations.add(controller);
+            selector.wakeup();
+        }
+
+        /**
+         * Asks the reactor to write the frames queued by a connection.
+         *
+         * @param controller The controller of the connection.
+         */
+        void requestWrite(NioServerController controller) {
+            writes.add(controller);
+            selector.wakeup();
+        }
+
+        /**
+         * Called by a connection of the reactor once it is closed.
+         */
+        void onClosed() {
+            connections.decrementAndGet();
+        }
+
+        /**
+         * @return Whether the calling thread is the one of the reactor, which must never wait.
+         */
+        boolean isReactorThread() {
+            return Thread.currentThread() == thread;
+        }
+
+        int getConnectionCount() {
+            return connections.get();
+        }
+
+        /**
+         * Asks the reactor to close its connections and stop.
+         */
+        void close() {
+            closing = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                while (!closing) {
+                    selector.select();
+                    NioServerController controller;
+                    while ((controller = registrations.poll()) != null) {
+                        controller.register(selector);
+                    }
+                    while ((controller = writes.poll()) != null) {
+                        controller.enableWrite();
+                    }
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        controller = (NioServerController) key.attachment();
+                        if (key.isValid() && key.isReadable()) {
+                            controller.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            controller.onWritable();
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                Log.warn("Socket reactor stopped: " + e.getMessage());
+            }
+            shutdown();
+        }
+
+        private void shutdown() {
+            NioServerController controller;
+            while ((controller = registrations.poll()) != null) {
+                controller.disconnectThisClient();
+            }
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    ((NioServerController) key.attachment()).disconnectThisClient();
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException e) {
+                Log.warn(e.getMessage());
+            }
+        }
+    }
+}
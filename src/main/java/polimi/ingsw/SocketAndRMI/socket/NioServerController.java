@@ -0,0 +1,342 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.SocketAndRMI.Heartbeat;
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection with a socket client served by a {@link NioServer}.
+ * Reads and writes happen on the thread of the reactor owning the connection: any other thread sending a message
+ * only queues its frame. The first frame of a client may be a {@link ProtocolHandshake}, which chooses the codec
+ * of the connection; otherwise messages are Java serialized. An idle connection keeps just the buffer of the next
+ * frame header, and a client that sends nothing, pings included, for {@link SktClient#SOCKET_TO} milliseconds
+ * is disconnected by the shared {@link Heartbeat}. At most {@link #MAX_PENDING_BYTES} bytes wait for a slow client: beyond them, the thread sending
+ * waits for the reactor to write, so that the backlog shows in the outbound queue of the client.
+ * <p>
+ * The reactor never waits for a game either: the login and the disconnection of the client, which wait for the games,
+ * run one after the other on virtual threads, together with the messages received while they are pending;
+ * any other message is offered to the mailbox of the game, and a client whose game can not take it is disconnected.
+ */
+public class NioServerController implements ServerController {
+    /**
+     * The bytes queued for a client beyond which a sending thread waits for the reactor.
+     */
+    public static final int MAX_PENDING_BYTES = 1 << 20;
+    /**
+     * The tasks of a client waiting to run off the reactor beyond which the client is disconnected.
+     */
+    private static final int MAX_PENDING_TASKS = 64;
+    private static final Executor OFF_REACTOR = task -> Thread.ofVirtual().name("socket-task").start(task);
+
+    private final NioServer nioServer;
+    private final SocketChannel channel;
+    private final NioServer.Reactor reactor;
+    private final AtomicBoolean connected = new AtomicBoolean(true);
+    private final AtomicBoolean writeRequested = new AtomicBoolean();
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final ReentrantLock writtenLock = new ReentrantLock();
+    private final Condition written = writtenLock.newCondition();
+    private final ByteBuffer header = ByteBuffer.allocate(MessageFrames.HEADER_LENGTH);
+    private ByteBuffer payload;
+    private SelectionKey key;
+    private final Heartbeat.Watch heartbeat;
+    private volatile MessageCodec codec;
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private CompletableFuture<Void> tasks = CompletableFuture.completedFuture(null); // guarded by this
+
+    /**
+     * Constructs a NioServerController for a connection accepted by the server.
+     *
+     * @param nioServer The NioServer instance associated with this controller.
+     * @param channel   The non-blocking channel connected to the client.
+     * @param reactor   The reactor serving the connection.
+     */
+    NioServerController(NioServer nioServer, SocketChannel channel, NioServer.Reactor reactor) {
+        this.nioServer = nioServer;
+        this.channel = channel;
+        this.reactor = reactor;
+        this.heartbeat = Heartbeat.shared().watch(0, null, SktClient.SOCKET_TO, () -> {
+            Log.warn("Connection timed out.");
+            disconnectThisClient();
+        });
+    }
+
+    /**
+     * Registers the connection to the selector of its reactor.
+     *
+     * @param selector The selector of the reactor.
+     */
+    void register(Selector selector) {
+        try {
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            if (!outbound.isEmpty()) {
+                enableWrite();
+            }
+        } catch (ClosedChannelException e) {
+            disconnectThisClient();
+        }
+    }
+
+    /**
+     * Reads the available bytes, handling every frame completed by them.
+     */
+    void onReadable() {
+        try {
+            while (true) {
+                if (payload == null) {
+                    if (channel.read(header) < 0) {
+                        disconnectThisClient();
+                        return;
+                    }
+                    if (header.hasRemaining()) {
+                        return;
+                    }
+                    header.flip();
+                    int length = header.getInt();
+                    header.clear();
+                    MessageFrames.checkLength(length);
+                    payload = ByteBuffer.allocate(length);
+                }
+                if (channel.read(payload) < 0) {
+                    disconnectThisClient();
+                    return;
+                }
+                if (payload.hasRemaining()) {
+                    return;
+                }
+                byte[] bytes = payload.array();
+                payload = null;
+                heartbeat.received();
+                if (codec == null) {
+                    if (ProtocolHandshake.isHello(bytes, 0, bytes.length)) {
+                        codec = ProtocolHandshake.choose(bytes, 0, bytes.length);
+                        queue(MessageFrames.frame(ProtocolHandshake.reply(codec)));
+                        continue;
+                    }
+                    codec = JavaSerializationCodec.INSTANCE;
+                }
+                handleMessage(codec.decode(bytes, 0, bytes.length));
+                if (!connected.get()) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            Log.warn(e.getMessage());
+            disconnectThisClient();
+        } catch (RuntimeException e) {
+            // a frame that breaks the decoder or the server must not stop the reactor of the other connections
+            Log.error("Error while handling a frame, the client is disconnected: " + e.getMessage(), e);
+            disconnectThisClient();
+        }
+    }
+
+    /**
+     * Handles a received message based on its type.
+     * Login requests within the rate limits of the client join it to a game, pings just keep the connection alive,
+     * every other message is forwarded to the server.
+     *
+     * @param message The message received from the client.
+     */
+    private void handleMessage(Message message) {
+        if (message.getMessageType() == MessageType.PING_MESSAGE) {
+            return;
+        }
+        Log.trace(() -> "Received message: " + message.toString());
+        if (message.getMessageType() == MessageType.LOGIN_REQUEST) {
+            // checked on the reactor, so that a flood of logins never queues a task
+            if (nioServer.admitLogin(this, message)) {
+                runOffReactor(() -> nioServer.joinClient(message.getNickname(), this));
+            }
+        } else if (pendingTasks.get() > 0) {
+            // a login is still pending: the message must reach the server after it
+            runOffReactor(() -> nioServer.onAcquiredMessage(this, message));
+        } else if (!nioServer.offerMessage(this, message)) {
+            Log.warn("The game of " + message.getNickname() + " is too busy: the client is disconnected.");
+            disconnectThisClient();
+        }
+    }
+
+    /**
+     * Runs a task of the client that may wait for a game on a virtual thread, after the previous ones.
+     * A client with too many of them waiting is disconnected.
+     *
+     * @param task The task.
+     */
+    private synchronized void runOffReactor(Runnable task) {
+        if (pendingTasks.get() >= MAX_PENDING_TASKS && connected.get()) {
+            Log.warn("Too many requests waiting for the server: the client is disconnected.");
+            disconnectThisClient();
+            return;
+        }
+        pendingTasks.incrementAndGet();
+        tasks = tasks.thenRunAsync(task, OFF_REACTOR)
+                .exceptionally(e -> {
+                    Log.error("Error while handling a client: " + e.getCause().getMessage(), e.getCause());
+                    return null;
+                })
+                .whenComplete((ignored, e) -> pendingTasks.decrementAndGet());
+    }
+
+    /**
+     * Adds the interest in writing to the key of the connection, once it is registered.
+     */
+    void enableWrite() {
+        if (key != null && key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Writes the queued frames until the channel accepts bytes, then stops asking to write once the queue is empty.
+     */
+    void onWritable() {
+        try {
+            ByteBuffer frame;
+            while ((frame = outbound.peek()) != null) {
+                channel.write(frame);
+                if (frame.hasRemaining()) {
+                    return;
+                }
+                outbound.poll();
+                if (pendingBytes.addAndGet(-frame.capacity()) <= MAX_PENDING_BYTES) {
+                    signalWritten();
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            writeRequested.set(false);
+            if (!outbound.isEmpty() && writeRequested.compareAndSet(false, true)) {
+                enableWrite();
+            }
+        } catch (IOException e) {
+            handleIOException(e);
+        } catch (RuntimeException e) {
+            Log.error("Error while writing to a client, the client is disconnected: " + e.getMessage(), e);
+            disconnectThisClient();
+        }
+    }
+
+    /**
+     * Queues a message for the client; the reactor writes it as soon as the channel is ready.
+     *
+     * @param message The message to be sent.
+     */
+    @Override
+    public void send(Message message) {
+        if (!connected.get()) {
+            return;
+        }
+        MessageCodec current = codec;
+        try {
+            queue(MessageFrames.frame(current == null ? JavaSerializationCodec.INSTANCE : current, message));
+        } catch (IOException e) {
+            handleIOException(e);
+            return;
+        }
+        Log.trace(() -> "Message sent: " + message.toString());
+        if (!reactor.isReactorThread()) {
+            awaitWritten();
+        }
+    }
+
+    /**
+     * Waits while too many bytes are queued for the client, unless it disconnects.
+     */
+    private void awaitWritten() {
+        writtenLock.lock();
+        try {
+            while (pendingBytes.get() > MAX_PENDING_BYTES && connected.get()) {
+                written.await(SktClient.SOCKET_TO, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up the threads waiting for the reactor to write.
+     */
+    private void signalWritten() {
+        writtenLock.lock();
+        try {
+            written.signalAll();
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a frame and asks the reactor to write it.
+     *
+     * @param frame The frame to send.
+     */
+    private void queue(ByteBuffer frame) {
+        pendingBytes.addAndGet(frame.capacity());
+        outbound.add(frame);
+        if (writeRequested.compareAndSet(false, true)) {
+            reactor.requestWrite(this);
+        }
+    }
+
+    /**
+     * Handles an IOException by logging an error message and disconnecting the client.
+     *
+     * @param e The IOException that occurred.
+     */
+    private void handleIOException(IOException e) {
+        Log.warn("I/O error with a client: " + e.getMessage());
+        disconnectThisClient();
+    }
+
+    /**
+     * Disconnects the client by closing its channel and notifying the server of the disconnection.
+     * If the client is already disconnected, this method returns immediately.
+     */
+    @Override
+    public void disconnectThisClient() {
+        if (!connected.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Log.warn("Cannot close the connection with a client: " + e.getMessage());
+        }
+        heartbeat.cancel();
+        outbound.clear();
+        signalWritten();
+        reactor.onClosed();
+        runOffReactor(() -> nioServer.onDisconnectionFromClient(this));
+    }
+
+    /**
+     * Checks if the client is currently connected to the server.
+     *
+     * @return {@code true} if the client is connected, {@code false} otherwise.
+     */
+    @Override
+    public boolean isClientConnectionOk() {
+        return connected.get();
+    }
+}
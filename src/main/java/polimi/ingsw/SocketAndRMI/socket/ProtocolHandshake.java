@@ -0,0 +1,114 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import java.io.StreamCorruptedException;
+
+/**
+ * Negotiation of the codec of a connection.
+ * The first frame sent by a client lists the versions of the protocol it supports, the preferred first;
+ * the server answers with a frame holding the version chosen, the first one of the list it supports.
+ * A first frame which is not a handshake is a message of a client that does not negotiate,
+ * so the connection keeps using Java serialization.
+ * A Java serialized payload always starts with the stream magic number, which never matches the handshake.
+ */
+public final class ProtocolHandshake {
+    /** Version of the protocol sending Java serialized messages. */
+    public static final int JAVA_SERIALIZATION = 0;
+    /** Version of the protocol sending binary encoded messages. */
+    public static final int BINARY_V1 = 1;
+
+    private static final byte MAGIC_0 = 'C';
+    private static final byte MAGIC_1 = 'N';
+
+    private ProtocolHandshake() {
+    }
+
+    /**
+     * Gets the codec of a version of the protocol.
+     *
+     * @param version The version.
+     * @return The codec, or null if the version is not supported.
+     */
+    public static MessageCodec forVersion(int version) {
+        return switch (version) {
+            case JAVA_SERIALIZATION -> JavaSerializationCodec.INSTANCE;
+            case BINARY_V1 -> BinaryMessageCodec.INSTANCE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Builds the payload of the first frame of a client.
+     *
+     * @param versions The supported versions, the preferred first.
+     * @return The payload.
+     */
+    public static byte[] hello(int... versions) {
+        byte[] payload = new byte[3 + versions.length];
+        payload[0] = MAGIC_0;
+        payload[1] = MAGIC_1;
+        payload[2] = (byte) versions.length;
+        for (int i = 0; i < versions.length; i++) {
+            payload[3 + i] = (byte) versions[i];
+        }
+        return payload;
+    }
+
+    /**
+     * Checks whether the first frame of a client is a handshake.
+     *
+     * @param payload The buffer holding the payload.
+     * @param offset  The position of the payload in the buffer.
+     * @param length  The length of the payload.
+     * @return true if the payload is a handshake.
+     */
+    public static boolean isHello(byte[] payload, int offset, int length) {
+        return length >= 3 && payload[offset] == MAGIC_0 && payload[offset + 1] == MAGIC_1
+                && length == 3 + (payload[offset + 2] & 0xFF);
+    }
+
+    /**
+     * Chooses the codec of a connection from the handshake of its client.
+     *
+     * @param payload The buffer holding the payload of the handshake.
+     * @param offset  The position of the payload in the buffer.
+     * @param length  The length of the payload.
+     * @return The codec of the first supported version, Java serialization if none is supported.
+     */
+    public static MessageCodec choose(byte[] payload, int offset, int length) {
+        for (int i = offset + 3; i < offset + length; i++) {
+            MessageCodec codec = forVersion(payload[i] & 0xFF);
+            if (codec != null) {
+                return codec;
+            }
+        }
+        return JavaSerializationCodec.INSTANCE;
+    }
+
+    /**
+     * Builds the payload of the answer of the server.
+     *
+     * @param codec The codec chosen.
+     * @return The payload.
+     */
+    public static byte[] reply(MessageCodec codec) {
+        return new byte[]{MAGIC_0, MAGIC_1, (byte) codec.getVersion()};
+    }
+
+    /**
+     * Reads the answer of the server.
+     *
+     * @param payload The payload of the answer.
+     * @return The codec chosen by the server.
+     * @throws StreamCorruptedException If the payload is not an answer or the version is not supported.
+     */
+    public static MessageCodec fromReply(byte[] payload) throws StreamCorruptedException {
+        MessageCodec codec = null;
+        if (payload.length == 3 && payload[0] == MAGIC_0 && payload[1] == MAGIC_1) {
+            codec = forVersion(payload[2] & 0xFF);
+        }
+        if (codec == null) {
+            throw new StreamCorruptedException("Invalid handshake.");
+        }
+        return codec;
+    }
+}
@@ -6,11 +6,14 @@ import polimi.ingsw.SocketAndRMI.message.PingMessage;
 
 import polimi.ingsw.SocketAndRMI.Client;
 import polimi.ingsw.SocketAndRMI.ClientController;
+import polimi.ingsw.SocketAndRMI.Heartbeat;
+import polimi.ingsw.SocketAndRMI.SharedScheduler;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.concurrent.ExecutorService;
@@ -18,14 +21,17 @@ import java.util.concurrent.Executors;
 
 /**
  * Represents a client using a socket to communicate with a server.
+ * Messages are exchanged as frames, see {@link MessageFrames}, encoded by the codec negotiated when connecting.
  */
 public class SktClient extends Client {
     private final Socket socket;
     public static final int SOCKET_TO = 10000;
-    private final ExecutorService readService = Executors.newSingleThreadExecutor();
-    private final ScheduledExecutorService pingProgramme = Executors.newSingleThreadScheduledExecutor();
-    private final ObjectInputStream inSTR;
-    private final ObjectOutputStream outSTR;
+    private final ExecutorService readService = Executors.newSingleThreadExecutor(SharedScheduler.virtualThreads("socket-reader"));
+    private final ReentrantLock outLock = new ReentrantLock();
+    private Heartbeat.Watch heartbeat;
+    private final DataInputStream inSTR;
+    private final DataOutputStream outSTR;
+    private final MessageCodec codec;
 
     /**
      * Constructs a SocketClient instance and establishes a connection to the server.
@@ -39,24 +45,47 @@ public class SktClient extends Client {
         setClientController(controller);
         this.socket = new Socket();
         this.socket.connect(new InetSocketAddress(ipAddress, port), SOCKET_TO);
-        this.inSTR = new ObjectInputStream(socket.getInputStream());
-        this.outSTR = new ObjectOutputStream(socket.getOutputStream());
+        this.inSTR = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.outSTR = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.codec = negotiate();
         letsPing();
     }
 
+    /**
+     * Offers the binary protocol to the server, falling back to Java serialization, and waits for its choice.
+     *
+     * @return The codec chosen by the server.
+     * @throws IOException If the server does not answer in time or the answer is not valid.
+     */
+    private MessageCodec negotiate() throws IOException {
+        MessageFrames.writePayload(outSTR, ProtocolHandshake.hello(ProtocolHandshake.BINARY_V1, ProtocolHandshake.JAVA_SERIALIZATION));
+        socket.setSoTimeout(SOCKET_TO);
+        try {
+            return ProtocolHandshake.fromReply(MessageFrames.readPayload(inSTR));
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
     /**
      * Sends a message to the server.
+     * Pings and the messages of the client are sent by different threads, so frames are written one at a time.
      *
      * @param msg The message to be sent.
      */
     @Override
     public void send(Message msg) {
+        outLock.lock();
         try {
-            this.outSTR.writeObject(msg);
-            this.outSTR.reset();
+            MessageFrames.write(outSTR, codec, msg);
+            if (heartbeat != null) {
+                heartbeat.sent();
+            }
         } catch (IOException e) {
             this.disconnect();
             getClientController().updateCorrespondingClient(new ErrorMessage(null, "message fail. disconnected."));
+        } finally {
+            outLock.unlock();
         }
     }
 
@@ -72,11 +101,9 @@ public class SktClient extends Client {
                 Message message = null;
                 boolean disconnected = false;
                 try {
-                    message = (Message) inSTR.readObject();
+                    message = MessageFrames.read(inSTR, codec);
                 } catch (IOException e) {
                     disconnected = true;
-                } catch (ClassNotFoundException e) {
-                    disconnected = true;
                 }
 
                 if (disconnected) {
@@ -111,25 +138,24 @@ public class SktClient extends Client {
     }
 
     /**
-     * Initiates periodic ping messages to the server.
-     * Pings are scheduled at a fixed rate using {@code pingProgramme}, sending a {@code PingMessage}
-     * containing the client's nickname obtained from the client controller.
+     * Initiates the ping messages to the server, which disconnects a client silent for {@link #SOCKET_TO} milliseconds.
+     * The shared {@link Heartbeat} sends a {@code PingMessage}, containing the client's nickname obtained
+     * from the client controller, only when nothing else has been sent for a while.
      */
     @Override
     public void letsPing() {
-        pingProgramme.scheduleAtFixedRate(() -> {
-            PingMessage pingMessage = new PingMessage(getClientController().getNickname());
-            send(pingMessage);
-        }, 0, SOCKET_TO / 2, TimeUnit.MILLISECONDS);
+        heartbeat = Heartbeat.shared().watch(SOCKET_TO / 2,
+                () -> send(new PingMessage(getClientController().getNickname())), 0, null);
     }
 
     /**
-     * Stops sending periodic ping messages to the server.
-     * Shuts down the {@code pingProgramme} immediately.
+     * Stops sending ping messages to the server.
      */
     @Override
     public void stopPing() {
-        pingProgramme.shutdownNow();
+        if (heartbeat != null) {
+            heartbeat.cancel();
+        }
     }
 }
 
@@ -1,8 +1,10 @@
 package polimi.ingsw.SocketAndRMI.socket;
 
+import polimi.ingsw.log.Log;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 
@@ -11,21 +13,52 @@ import polimi.ingsw.SocketAndRMI.message.Message;
 import polimi.ingsw.SocketAndRMI.ServerController;
 
 
+/**
+ * Socket server serving every connection with its own blocking thread.
+ * The threads are platform threads, or virtual threads if requested: a virtual thread waiting on its socket
+ * does not hold an operating system thread, so many idle clients cost little more than their stacks.
+ */
 public class SktServer implements Runnable {
     private final int port;
     private final Server server;
+    private final boolean virtualThreads;
+    private final AtomicInteger connections = new AtomicInteger();
     public static final int SOCKET_SERVER_PORT = 5033;
     private ServerSocket serverSocket;
 
     /**
-     * Constructor for initializing a SktServer instance with a given server and port.
+     * Constructor for initializing a SktServer instance with a given server and port, using platform threads.
      *
      * @param server The server object associated with this SktServer instance.
      * @param port   The port number on which the server listens.
      */
     public SktServer(Server server, int port) {
+        this(server, port, false);
+    }
+
+    /**
+     * Constructor for initializing a SktServer instance with a given server and port.
+     *
+     * @param server         The server object associated with this SktServer instance.
+     * @param port           The port number on which the server listens, 0 for any free port.
+     * @param virtualThreads true to serve every connection with a virtual thread.
+     */
+    public SktServer(Server server, int port, boolean virtualThreads) {
         this.server = server;
         this.port = port;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Binds the server to its port.
+     * Called by {@link #run()} if the server is not bound yet.
+     *
+     * @throws IOException If the server can not be bound.
+     */
+    public synchronized void bind() throws IOException {
+        if (serverSocket == null) {
+            serverSocket = new ServerSocket(this.port, 1024);
+        }
     }
 
     /**
@@ -35,28 +68,63 @@ public class SktServer implements Runnable {
      */
     @Override
     public void run() {
-        try (ServerSocket serverSocket = new ServerSocket(this.port)) {
-            System.out.println("Socket server running on port " + this.port);
+        try {
+            bind();
+            Log.info("Socket server running on port " + getPort() + (virtualThreads ? " (virtual threads)" : ""));
 
-            while (!Thread.currentThread().isInterrupted()) {
+            while (!Thread.currentThread().isInterrupted() && !serverSocket.isClosed()) {
                 try {
                     Socket clientSocket = serverSocket.accept();
-                    System.out.println("New connection request from: " + clientSocket.getInetAddress());
+                    Log.info("New connection request from: " + clientSocket.getInetAddress());
                     clientSocket.setSoTimeout(SktClient.SOCKET_TO);
 
                     SktServerController sktServerController = new SktServerController(this, clientSocket);
-                    Thread thread = new Thread(sktServerController);
-                    thread.start();
+                    server.connect(sktServerController);
+                    connections.incrementAndGet();
+                    Runnable connection = () -> {
+                        try {
+                            sktServerController.run();
+                        } finally {
+                            connections.decrementAndGet();
+                        }
+                    };
+                    if (virtualThreads) {
+                        Thread.ofVirtual().name("socket-client").start(connection);
+                    } else {
+                        new Thread(connection).start();
+                    }
                 } catch (IOException ex) {
-                    System.out.println(ex.getMessage());
+                    if (!serverSocket.isClosed()) {
+                        Log.warn(ex.getMessage());
+                    }
                 }
             }
         } catch (IOException ex) {
-            System.out.println(ex.getMessage());
-            System.out.println("Unable to start socket server.");
+            Log.warn(ex.getMessage());
+            Log.warn("Unable to start socket server.");
+        }
+    }
+
+    /**
+     * Stops accepting connections. The open connections end with their clients.
+     */
+    public synchronized void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            Log.warn(e.getMessage());
         }
     }
 
+    /**
+     * @return The number of connections being served.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
     /**
      * Handles disconnection from a client by forwarding the event to the server.
      *
@@ -66,6 +134,17 @@ public class SktServer implements Runnable {
         server.onDisconnectionFromClient(serverController);
     }
 
+    /**
+     * Checks a login request against the rate limits of the client, see {@link Server#admitLogin(ServerController, Message)}.
+     *
+     * @param serverController The connection the request came from.
+     * @param message          The login request.
+     * @return Whether the login may be handled.
+     */
+    public boolean admitLogin(ServerController serverController, Message message) {
+        return server.admitLogin(serverController, message);
+    }
+
     /**
      * Requests the server to add a client with the specified nickname, managed by the given server controller.
      *
@@ -77,15 +156,20 @@ public class SktServer implements Runnable {
     }
 
     /**
-     * Forwards a received message to the server for processing.
+     * Forwards a received message to the server for processing, through the session of its connection.
      *
-     * @param message The message received from a client.
+     * @param serverController The connection the message came from.
+     * @param message          The message received from a client.
      */
-    public void onAcquiredMessage(Message message) {
-        server.onAcquiredMessage(message);
+    public void onAcquiredMessage(ServerController serverController, Message message) {
+        server.onAcquiredMessage(serverController, message);
     }
+    /**
+     * @return The port the server is bound to, or the configured one if the server is not bound yet.
+     */
     public int getPort() {
-        return port;
+        ServerSocket socket = serverSocket;
+        return socket != null && socket.isBound() ? socket.getLocalPort() : port;
     }
     public Server getServer() {
         return server;
@@ -1,5 +1,6 @@
 package polimi.ingsw.SocketAndRMI.socket;
 
+import polimi.ingsw.log.Log;
 import polimi.ingsw.SocketAndRMI.message.Message;
 import polimi.ingsw.SocketAndRMI.ServerController;
 import polimi.ingsw.SocketAndRMI.message.MessageType;
@@ -10,18 +11,23 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.io.EOFException;
 import java.net.SocketTimeoutException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 public class SktServerController implements ServerController, Runnable {
     private final Socket clientSocket;
     private final SktServer sktServer;
     private boolean isConnected;
-    private final Object inLock;
-    private final Object outLock;
-    private ObjectInputStream inSTR;
-    private ObjectOutputStream outSTR;
+    private final ReentrantLock inLock;
+    private final ReentrantLock outLock;
+    private DataInputStream inSTR;
+    private DataOutputStream outSTR;
+    private volatile MessageCodec codec;
 
     /**
      * Constructs a SktServerController instance for managing communication with a client over a socket.
@@ -33,14 +39,14 @@ public class SktServerController implements ServerController, Runnable {
         this.clientSocket = clientSocket;
         this.sktServer = server;
         this.isConnected = true;
-        this.inLock = new Object();
-        this.outLock = new Object();
+        this.inLock = new ReentrantLock();
+        this.outLock = new ReentrantLock();
 
         try {
-            this.outSTR = new ObjectOutputStream(this.clientSocket.getOutputStream());
-            this.inSTR = new ObjectInputStream(this.clientSocket.getInputStream());
+            this.outSTR = new DataOutputStream(new BufferedOutputStream(this.clientSocket.getOutputStream()));
+            this.inSTR = new DataInputStream(new BufferedInputStream(this.clientSocket.getInputStream()));
         } catch (IOException e) {
-            System.out.println(e.getMessage());
+            Log.warn(e.getMessage());
         }
     }
     /**
@@ -50,41 +56,69 @@ public class SktServerController implements ServerController, Runnable {
      */
     public void run() {
         try {
-            System.out.println("Established new client connection with: " + clientSocket.getInetAddress().toString());
+            Log.info("Established new client connection with: " + clientSocket.getInetAddress().toString());
 
             while (!Thread.currentThread().isInterrupted()) {
+                inLock.lock();
                 try {
-                    synchronized (inLock) {
-                        Message message = null;
-                        try {
-                            message = (Message) inSTR.readObject();
-                            System.out.println("Received message: " + message.toString());
-                        } catch (SocketException | SocketTimeoutException | EOFException se) {
-                            handleSocketException(se);
+                    Message message = null;
+                    try {
+                        message = readMessage();
+                        if (message != null) {
+                            Message received = message;
+                            Log.trace(() -> "Received message: " + received.toString());
                         }
+                    } catch (SocketException | SocketTimeoutException | EOFException | StreamCorruptedException se) {
+                        handleSocketException(se);
+                    }
 
-                        if (message != null && message.getMessageType() != MessageType.PING_MESSAGE) {
-                            handleMessageType(message);
-                        }
+                    if (message != null && message.getMessageType() != MessageType.PING_MESSAGE) {
+                        handleMessageType(message);
                     }
-                } catch (ClassNotFoundException | ClassCastException e) {
-                    System.out.println("Invalid stream.");
-                    e.printStackTrace();
+                } catch (ClassCastException e) {
+                    Log.warn("Invalid stream: " + e.getMessage());
+                } finally {
+                    inLock.unlock();
                 }
             }
 
             handleDisconnection();
         } catch (IOException e) {
-            System.out.println("Unable to handle Socket client handler.");
-            e.printStackTrace();
+            Log.warn("Unable to handle Socket client handler: " + e.getMessage());
         } finally {
             try {
                 clientSocket.close();
             } catch (IOException e) {
-                System.out.println("Error closing client socket.");
-                e.printStackTrace();
+                Log.warn("Error closing client socket: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the next frame of the client.
+     * If it is the first one and it is a {@link ProtocolHandshake}, answers it choosing the codec of the connection;
+     * if it is the first one and it is not, the client does not negotiate and Java serialization is used.
+     *
+     * @return The message read, or null if the frame was the handshake.
+     * @throws IOException If the frame can not be read or is not valid.
+     */
+    private Message readMessage() throws IOException {
+        byte[] payload = MessageFrames.readPayload(inSTR);
+        if (codec == null) {
+            if (ProtocolHandshake.isHello(payload, 0, payload.length)) {
+                MessageCodec chosen = ProtocolHandshake.choose(payload, 0, payload.length);
+                outLock.lock();
+                try {
+                    MessageFrames.writePayload(outSTR, ProtocolHandshake.reply(chosen));
+                    codec = chosen;
+                } finally {
+                    outLock.unlock();
+                }
+                return null;
             }
+            codec = JavaSerializationCodec.INSTANCE;
         }
+        return codec.decode(payload, 0, payload.length);
     }
 
     /**
@@ -102,16 +136,18 @@ public class SktServerController implements ServerController, Runnable {
 
     /**
      * Handles a received message based on its type.
-     * If the message is a LOGIN_REQUEST, requests the server to add the client with the specified nickname.
-     * Otherwise, forwards the message to the server for further processing.
+     * If the message is a LOGIN_REQUEST within the rate limits of the client, requests the server to add the client
+     * with the specified nickname. Otherwise, forwards the message to the server for further processing.
      *
      * @param message The message received from the client.
      */
     private void handleMessageType(Message message) {
         if (message.getMessageType() == MessageType.LOGIN_REQUEST) {
-            sktServer.joinClient(message.getNickname(), this);
+            if (sktServer.admitLogin(this, message)) {
+                sktServer.joinClient(message.getNickname(), this);
+            }
         } else {
-            sktServer.onAcquiredMessage(message);
+            sktServer.onAcquiredMessage(this, message);
         }
     }
 
@@ -128,14 +164,15 @@ public class SktServerController implements ServerController, Runnable {
      * @param message The message to be sent.
      */
     public void send(Message message) {
+        outLock.lock();
         try {
-            synchronized (outLock) {
-                outSTR.writeObject(message);
-                outSTR.reset();
-                System.out.println("Message sent: " + message.toString());
-            }
+            MessageCodec current = codec;
+            MessageFrames.write(outSTR, current == null ? JavaSerializationCodec.INSTANCE : current, message);
+            Log.trace(() -> "Message sent: " + message.toString());
         } catch (IOException e) {
             handleIOException(e);
+        } finally {
+            outLock.unlock();
         }
     }
 
@@ -145,7 +182,7 @@ public class SktServerController implements ServerController, Runnable {
      * @param e The IOException that occurred.
      */
     private void handleIOException(IOException e) {
-        System.err.println("I/O Error.");
+        Log.warn("I/O error with a client: " + e.getMessage());
         disconnectThisClient();
     }
 
@@ -166,7 +203,7 @@ public class SktServerController implements ServerController, Runnable {
                 clientSocket.close();
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.warn("Error closing client socket: " + e.getMessage());
         }
 
         Thread.currentThread().interrupt();
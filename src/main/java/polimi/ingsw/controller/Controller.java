@@ -1,6 +1,7 @@
 package polimi.ingsw.controller;
 
 
+import polimi.ingsw.log.Log;
 import polimi.ingsw.exception.LackResourceException;
 import polimi.ingsw.exception.NotPlayerTurnException;
 import polimi.ingsw.model.*;
@@ -8,12 +9,17 @@ import polimi.ingsw.model.*;
 import polimi.ingsw.model.strategy.*;
 import polimi.ingsw.SocketAndRMI.CardsPlayed;
 import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.SharedScheduler;
 import polimi.ingsw.SocketAndRMI.message.*;
 import polimi.ingsw.view.VirtualView;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * This class represents the controller for the game.
@@ -21,15 +27,55 @@ import java.util.*;
  */
 public class Controller implements Serializable {
 
+    /**
+     * The ID of the game, assigned by the registry.
+     */
+    private final int gameId;
+
+    /**
+     * The registry hosting the game, null for a game outside of a server.
+     */
+    private final transient GameRegistry registry;
+
+    /**
+     * The mailbox of the game: every change to the game runs as one of its tasks.
+     */
+    private final transient GameMailbox mailbox;
+
+    /**
+     * The journal where the events of the game are recorded, null when the game is not recorded.
+     */
+    private transient GameJournal journal;
+
+    /**
+     * The first player of a game played again from its events, null otherwise.
+     */
+    private transient String replayedFirstPlayer;
+
     /**
      * The instance of the game model.
      */
     private Game game;
 
     /**
-     * The state of the game.
+     * The state of the game, also read by the threads routing new players.
      */
-    private GameState gameState;
+    private volatile GameState gameState;
+
+    /**
+     * Whether the game is over and has been removed from its registry.
+     */
+    private transient volatile boolean closed;
+
+    /**
+     * The timer closing the game once all its players have been offline for too long, null while a player is online.
+     */
+    private transient ScheduledFuture<?> abandonedTimer;
+
+    /**
+     * Counts the timers started, so that a timer that fires after a player has reconnected does nothing.
+     */
+    private transient int abandonedWatch;
 
     /**
      * The name of the current active player.
@@ -76,7 +122,134 @@ public class Controller implements Serializable {
      *  Initialization is made by a private method.
      */
     public Controller() {
+        this(0, null);
+    }
+
+    /**
+     * Constructor for the Controller of a game hosted by a registry.
+     * The tasks of the game run on the executor of the registry; without a registry they run on the calling thread.
+     * @param gameId   The ID of the game.
+     * @param registry The registry hosting the game, notified when the game is over.
+     */
+    public Controller(int gameId, GameRegistry registry) {
+        this(gameId, registry, null);
+    }
+
+    /**
+     * Constructor for the Controller of a game hosted by a registry, played again from its events when given.
+     * The events are not recorded again: the journal of the registry records only what happens next.
+     * @param gameId   The ID of the game.
+     * @param registry The registry hosting the game, notified when the game is over.
+     * @param events   The events of the game, or null for a new game.
+     */
+    private Controller(int gameId, GameRegistry registry, List<GameEvent> events) {
+        this.gameId = gameId;
+        this.registry = registry;
+        this.mailbox = new GameMailbox(registry == null ? Runnable::run : registry.getExecutor());
         initializeController();
+        if (events != null) {
+            replay(events);
+        }
+        this.journal = registry == null ? null : registry.getJournal();
+        if (events == null) {
+            record(GameEvent.seeded(gameId, game.getSeed()));
+        }
+    }
+
+    /**
+     * Rebuilds a game from the events recorded in the journal of its registry.
+     * Every player of the rebuilt game is offline, and the game is suspended until two of them reconnect.
+     * @param gameId   The ID of the game.
+     * @param registry The registry hosting the game.
+     * @param events   The events of the game, in order.
+     * @return The controller of the game.
+     * @throws IllegalStateException if the events do not make a game.
+     */
+    static Controller restore(int gameId, GameRegistry registry, List<GameEvent> events) throws IllegalStateException {
+        return new Controller(gameId, registry, events);
+    }
+
+    /**
+     * Rebuilds a game from its snapshot, written by {@link #writeSnapshot(ByteBuffer)}.
+     * The snapshot is recorded in the journal of the registry as the first event of the game, so that the journal
+     * can restore the game again.
+     * Every player of the rebuilt game is offline, and the game is suspended until two of them reconnect.
+     * @param gameId   The ID of the game.
+     * @param registry The registry hosting the game.
+     * @param snapshot The snapshot of the game.
+     * @return The controller of the game.
+     * @throws IllegalArgumentException if the bytes are not a snapshot of a game.
+     */
+    static Controller restore(int gameId, GameRegistry registry, byte[] snapshot) throws IllegalArgumentException {
+        GameEvent event = GameEvent.restored(gameId, snapshot);
+        Controller controller = new Controller(gameId, registry, List.of(event));
+        controller.record(event);
+        return controller;
+    }
+
+    /**
+     * Writes the state of the game, the state of the {@link Game} followed by the state of the turns
+     * and the history of the placements. Must run on the mailbox of the game.
+     * @param buffer The buffer, positioned where the game is written.
+     * @throws java.nio.BufferOverflowException if the game does not fit in the buffer.
+     */
+    void writeSnapshot(ByteBuffer buffer) {
+        game.writeSnapshot(buffer);
+        List<Player> players = game.getPlayers();
+        buffer.put((byte) gameState.ordinal());
+        buffer.put((byte) ((gameSuspended ? 1 : 0) | (colorSet ? 2 : 0)));
+        buffer.put((byte) players.indexOf(game.getPlayerByNickname(activePlayer)));
+        buffer.put((byte) players.indexOf(firstPlayerToReach20Points));
+        buffer.put((byte) players.indexOf(firstPlayerToFinishDeck));
+        buffer.putShort((short) cardsPlayedHistory.size());
+        for (CardsPlayed cardPlayed : cardsPlayedHistory) {
+            CardDefinition definition = CardCatalog.getInstance().get(cardPlayed.getId());
+            buffer.put((byte) players.indexOf(game.getPlayerByNickname(cardPlayed.getPlayerNickname())));
+            buffer.put((byte) (definition == null ? -1 : definition.getIndex()));
+            buffer.put((byte) cardPlayed.getCell().getRow());
+            buffer.put((byte) cardPlayed.getCell().getColumn());
+            buffer.put((byte) (cardPlayed.isFront() ? 1 : 0));
+        }
+    }
+
+    /**
+     * Replaces the state of the game with a snapshot written by {@link #writeSnapshot(ByteBuffer)}.
+     * @param buffer The buffer, positioned at the snapshot.
+     * @throws IllegalArgumentException if the bytes are not a snapshot of a game.
+     */
+    private void loadSnapshot(ByteBuffer buffer) throws IllegalArgumentException {
+        game = Game.readSnapshot(buffer);
+        try {
+            List<Player> players = game.getPlayers();
+            setGameState(GameState.values()[buffer.get()]);
+            int flags = buffer.get();
+            gameSuspended = (flags & 1) != 0;
+            colorSet = (flags & 2) != 0;
+            int active = buffer.get();
+            activePlayer = active < 0 ? null : players.get(active).getNickname();
+            int first = buffer.get();
+            firstPlayerToReach20Points = first < 0 ? null : players.get(first);
+            first = buffer.get();
+            firstPlayerToFinishDeck = first < 0 ? null : players.get(first);
+            int count = buffer.getShort();
+            cardsPlayedHistory = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String nickname = players.get(buffer.get()).getNickname();
+                String id = CardCatalog.getInstance().get(buffer.get()).getID();
+                int row = buffer.get() & 0xFF;
+                int column = buffer.get() & 0xFF;
+                cardsPlayedHistory.add(new CardsPlayed(nickname, id, new Cell(row, column), buffer.get() == 1));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or invalid snapshot of game " + gameId);
+        }
+    }
+
+    /**
+     * @return The mailbox of the game, where network threads enqueue the handling of their messages.
+     */
+    public GameMailbox getMailbox() {
+        return mailbox;
     }
 
 
@@ -84,7 +257,7 @@ public class Controller implements Serializable {
      * It initializes the Controller.
      */
     private void initializeController() {
-            this.game = Game.getNewGame();
+            this.game = new Game(gameId, 0);
             this.virtualViewMap = new HashMap<>();
             this.gameSuspended = false;
             this.firstPlayerToFinishDeck = null;
@@ -95,14 +268,19 @@ public class Controller implements Serializable {
 
     /**
      * It receives message and do an action based on the game state and not on the message type that remains unknown.
+     * Only the requests of a snapshot of the board are answered in any state, even while the game is suspended.
      * @param message The message that is sent by the client.
      */
     public void onMessageSwith(Message message) {
+      if (message.getMessageType() == MessageType.BOARD_SNAPSHOT_REQUEST) {
+            sendBoardSnapshot(message.getNickname());
+            return;
+        }
       if (isGameSuspended()) {
-            System.out.println("Can't receive message since the game is suspended.");
+            Log.warn("Can't receive message since the game is suspended.");
             return;
         }
-      System.out.println("GameState: " + gameState.toString());
+      Log.debug(() -> "GameState: " + gameState.toString());
       if (gameState == GameState.STARTING) {
             lobbySwitch(message);
       } else if (gameState == GameState.PLAY_CARD ||
@@ -133,7 +311,7 @@ public class Controller implements Serializable {
                 handleSecretAndStarting(secretStartingResponseMessage.getNickname(), secretStartingResponseMessage.getChoice(), secretStartingResponseMessage.getSide());
                 break;
             default:
-                System.out.println("ERROR MESSAGE (correct: PLAYERS_NUMBER_REPLY or COLOR_REQUEST or SECRET/STARTING, actual: " + message.getMessageType().toString() + ")");
+                Log.warn("ERROR MESSAGE (correct: PLAYERS_NUMBER_REPLY or COLOR_REQUEST or SECRET/STARTING, actual: " + message.getMessageType().toString() + ")");
                 break;
         }
     }
@@ -149,6 +327,7 @@ public class Controller implements Serializable {
         game.addPlayerByNickname(nickname);
         // Starting player and set his starting card and possible target card
         game.startingPlayer(nickname);
+        record(GameEvent.of(gameId, GameEvent.Kind.LOGIN, nickname));
     }
 
     /**
@@ -158,7 +337,8 @@ public class Controller implements Serializable {
      */
     public void NumPlayersSetUp(int numPlayer) {
         game.setNumPlayer(numPlayer);
-        System.out.println("This game will have " + game.getNumPlayer() + " players.");
+        record(new GameEvent(gameId, GameEvent.Kind.PLAYERS, null, null, new int[]{numPlayer}));
+        Log.info("This game will have " + game.getNumPlayer() + " players.");
         if (virtualViewMap.size() == numPlayer) {
             transmissionMessage("Players connected: " + virtualViewMap.size() + "/" + game.getNumPlayer());
         }
@@ -175,8 +355,9 @@ public class Controller implements Serializable {
             // Sets the chosen color for the player.
             Player player = game.getPlayerByNickname(nickname);
             game.setPlayerColor(player, color);
+            record(new GameEvent(gameId, GameEvent.Kind.COLOR, nickname, color, null));
             // Color accepted
-            System.out.println("Player \"" + nickname + "\" has chosen the color: " + color);
+            Log.info("Player \"" + nickname + "\" has chosen the color: " + color);
             // Notifies the player's virtual view about the successful color selection.
             virtualViewMap.get(nickname).displayColorResponse(true, game.getAvailableColorString());
 
@@ -220,10 +401,11 @@ public class Controller implements Serializable {
                     }
                 }
             } catch (IllegalArgumentException e) {
-                e.printStackTrace();
+                Log.warn("Cannot set the secret target card of " + nickname + ": " + e.getMessage());
             }
+            record(new GameEvent(gameId, GameEvent.Kind.SECRET, nickname, choice, new int[]{side ? 1 : 0}));
 
-            System.out.println("Player \"" + nickname + "\" has chosen : " + choice + " card and " +
+            Log.debug(() -> "Player \"" + nickname + "\" has chosen : " + choice + " card and " +
                     ((side) ? ("front") : ("back")) + " side of starting card.");
 
             if (virtualViewMap.size() != 1) {
@@ -245,7 +427,7 @@ public class Controller implements Serializable {
                 transmissionMessage("All players are connected. Waiting for other players .");
             }
         } catch (IllegalArgumentException e) {
-            System.out.println("An exception occurred.");
+            Log.warn("An exception occurred.");
         }
     }
     /**
@@ -259,13 +441,21 @@ public class Controller implements Serializable {
         }
 
         setGameState(GameState.STARTING);
-        game.startingGame();
-        System.out.println("Starting game with " + game.getPlayers().size() + " players.");
+        if (replayedFirstPlayer != null) {
+            game.startingGame(replayedFirstPlayer);
+        } else {
+            game.startingGame();
+        }
+        record(GameEvent.of(gameId, GameEvent.Kind.STARTED, game.getActivePlayerNickname()));
+        Log.info("Starting game with " + game.getPlayers().size() + " players.");
         setActivePlayer(game.getActivePlayerNickname());
         game.getPlayerByNickname(getActivePlayer()).setFirstPlayer(true);
 
         displayPlayersNicknames();
 
+        for (String nickname : virtualViewMap.keySet()) {
+            sendBoardSnapshot(nickname);
+        }
         displayGame();
         //showScoreBoard(sortScoreMap());
         transmissionMessage("It's " + getActivePlayer() + "'s turn");
@@ -293,7 +483,7 @@ public class Controller implements Serializable {
                 controlDrawCardResponse(message, currentVirtualView);
                 break;
             default:
-                System.out.println("ERROR: Wrong message type (expected: PLACE_CARD_REPLY, actual: " + message.getMessageType().toString() + ")");
+                Log.warn("ERROR: Wrong message type (expected: PLACE_CARD_REPLY, actual: " + message.getMessageType().toString() + ")");
         }
     }
 
@@ -341,13 +531,14 @@ public class Controller implements Serializable {
 
             try {
                 placeCard(messageReceived, activePlayer);
+                displayBoardDelta();
                 controlPostCardPlacement(activePlayer, currentVirtualView);
             } catch (IllegalStateException | NotPlayerTurnException | LackResourceException | IllegalArgumentException e) {
                 currentVirtualView.displayText(e.getMessage());
                 askToPlaceCard();
             }
         } else {
-            System.out.println("ERROR: Message from the wrong client (expected: " + getActivePlayer() + ", actual: " + message.getNickname() + ")");
+            Log.warn("ERROR: Message from the wrong client (expected: " + getActivePlayer() + ", actual: " + message.getNickname() + ")");
         }
     }
 
@@ -366,8 +557,7 @@ public class Controller implements Serializable {
         cardToPlace.setFront(messageReceived.getSide());
         game.playCard(activePlayer, cardToPlace, row, column);
         cardsPlayedHistory.add(new CardsPlayed(activePlayer.getNickname(), cardToPlace.getID(), new Cell(row, column), cardToPlace.isFront()));
-
-        Manuscript.getAvailableResource(activePlayer.getCompressedManuscript());
+        record(GameEvent.placed(gameId, cardsPlayedHistory.get(cardsPlayedHistory.size() - 1)));
         game.removePlayerCardFromHand(activePlayer, cardToPlace);
     }
 
@@ -426,6 +616,8 @@ public class Controller implements Serializable {
                 DrawCardResponse messageReceived = (DrawCardResponse) message;
                 Player player = game.getPlayerByNickname(getActivePlayer());
                 game.drawingCard(player, messageReceived.getDrawnCard());
+                record(new GameEvent(gameId, GameEvent.Kind.DRAWN, player.getNickname(), null,
+                        new int[]{messageReceived.getDrawnCard()}));
                 displayGame();
                 nextTurn();
             } catch (IllegalStateException e) {
@@ -443,7 +635,7 @@ public class Controller implements Serializable {
     private void youMustDraw(Player player){
         drawnCardNotificationMessage(player.getNickname() + " has to draw a card");
         VirtualView virtualView = virtualViewMap.get(getActivePlayer());
-        System.out.println(getActivePlayer() + " is required to choose the deck from where he is gonna draw his card");
+        Log.debug(() -> getActivePlayer() + " is required to choose the deck from where he is gonna draw his card");
         virtualView.requestToDraw();
     }
     /**
@@ -455,13 +647,13 @@ public class Controller implements Serializable {
                 try {
                     endGame();
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    Log.error("Cannot end game " + gameId + ": " + e.getMessage(), e);
                 }
             } else if ( firstPlayerToFinishDeck != null && getNextPlayer().equalsIgnoreCase(firstPlayerToFinishDeck.getNickname())) {
                 try {
                     endGame();
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    Log.error("Cannot end game " + gameId + ": " + e.getMessage(), e);
                 }
             } else{
                 //showScoreBoard(sortScoreMap());
@@ -487,14 +679,19 @@ public class Controller implements Serializable {
     }
 
     /**
-     * Closes the current game session, resets the game instance, initializes the controller,
-     * sends a transmission message to all players, and concludes the game session gracefully.
+     * Closes the current game session: sends a transmission message to all players, then removes the game
+     * from its registry, or initializes the controller again when the game is not hosted by a registry.
      */
     private void closeGame() {
-        Game.resetGameInstance();
-        initializeController();
-        //new Persistence().delete();
+        stopWatchingAbandoned();
         transmissionMessage("Game over! Thanks for playing with us.");
+        if (registry != null) {
+            record(GameEvent.of(gameId, GameEvent.Kind.ENDED, null));
+            closed = true;
+            registry.removeGame(gameId);
+        } else {
+            initializeController();
+        }
         //System.exit(0);
     }
 
@@ -536,44 +733,97 @@ public class Controller implements Serializable {
             completedObjectives = 0;
             AbstractCard[] targetCards = getTargetCards(player);
 
-            for (AbstractCard card : targetCards) {
-                int cardId = Integer.parseInt(card.getID());
-                PointStrategy strategy = getPointStrategy(cardId);
-                if (strategy != null) {
-                    int points = strategy.calculatePoint(player.getManuscript(), card);
-                    if (points != 0) {
-                        completedObjectives++;
-                    }
-                    player.addPoints(points);
+            Objective[] objectives = new Objective[targetCards.length];
+            for (int i = 0; i < targetCards.length; i++) {
+                objectives[i] = Objective.forTargetCard(targetCards[i].getNumericID());
+            }
+
+            // all the objectives of the player are evaluated in a single pass over the manuscript
+            for (int points : PatternEngine.evaluate(player.getManuscript(), objectives)) {
+                if (points != 0) {
+                    completedObjectives++;
                 }
+                player.addPoints(points);
             }
             completedObjectivesMap.put(player.getNickname(), completedObjectives);
         }
 
         for (Player player : game.getPlayers()) {
-            System.out.println(player.getPoints());
+            Log.debug(() -> player.getNickname() + ": " + player.getPoints() + " points");
         }
         return completedObjectivesMap;
     }
 
     /**
-     * Restores the state of the current game to match the state of a previous game.
-     * This method copies the game state, active player, and game suspension status from
-     * the provided previous game controller to the current controller, and restores the
-     * previous game's state within the current game.
-     * @param previousGame The controller of the previous game whose state is to be restored.
+     * Records an event of the game in the journal, if the game is recorded.
+     * @param event The event.
      */
-    private void reinstateBackGame(Controller previousGame) {
-        // Copying game state, active player, and game suspension status
-        this.gameState = previousGame.gameState;
-        this.activePlayer = previousGame.activePlayer;
-        this.gameSuspended = previousGame.gameSuspended;
+    private void record(GameEvent event) {
+        if (journal != null) {
+            journal.append(event);
+        }
+    }
 
-        // Displaying information for debugging purposes
-        System.out.println("Game State: " + this.gameState + ", active player: " + this.activePlayer + ", suspended: " + this.gameSuspended);
+    /**
+     * Plays the game again from its events, with every player on a view that sends nothing,
+     * then leaves every player offline and the game suspended, waiting for the players to reconnect.
+     * @param events The events of the game, in order.
+     * @throws IllegalStateException if the events do not make a game.
+     */
+    private void replay(List<GameEvent> events) throws IllegalStateException {
+        VirtualView replayView = new VirtualView(new ReplayConnection(), Runnable::run);
+        for (GameEvent event : events) {
+            if (event.kind() == GameEvent.Kind.STARTED) {
+                replayedFirstPlayer = event.nickname();
+            }
+        }
+        for (GameEvent event : events) {
+            switch (event.kind()) {
+                case SEEDED -> game = new Game(gameId, 0, event.seed());
+                case RESTORED -> loadSnapshot(ByteBuffer.wrap(event.snapshot()));
+                case CREATED -> game.restoreDecks(event.decks());
+                case LOGIN -> newLoginSetUp(event.nickname(), replayView);
+                case LEAVE -> {
+                    virtualViewMap.remove(event.nickname());
+                    removePlayer(event.nickname());
+                }
+                case PLAYERS -> NumPlayersSetUp(event.number(0));
+                case COLOR -> ColorSetUp(event.nickname(), event.value());
+                case SECRET -> handleSecretAndStarting(event.nickname(), event.value(), event.number(0) == 1);
+                case PLACED -> controlPlaceCardResponse(new PlaceCardResponse(event.nickname(),
+                        handPosition(event.nickname(), event.value()), event.number(0), event.number(1), event.number(2) == 1),
+                        virtualViewMap.get(getActivePlayer()));
+                case DRAWN -> controlDrawCardResponse(new DrawCardResponse(event.nickname(), event.number(0)),
+                        virtualViewMap.get(getActivePlayer()));
+                case OFFLINE -> setPlayerOffline(event.nickname());
+                case ONLINE -> Reconnection(event.nickname(), replayView);
+                case STARTED, ENDED -> {
+                }
+            }
+        }
+        replayedFirstPlayer = null;
+        virtualViewMap.clear();
+        for (Player player : game.getPlayers()) {
+            player.setOnlinePlayer(false);
+        }
+        gameSuspended = true;
+    }
 
-        // Restoring the previous game's state within the current game
-        this.game.restorePreviousGame(previousGame.game);
+    /**
+     * @param nickname The nickname of a player.
+     * @param cardId   The ID of a card in the hand of the player.
+     * @return The position of the card in the hand of the player.
+     * @throws IllegalStateException if the player does not hold the card.
+     */
+    private int handPosition(String nickname, String cardId) throws IllegalStateException {
+        Player player = game.getPlayerByNickname(nickname);
+        List<AbstractCard> handCards = player == null ? List.of() : player.getHandCards();
+        for (int i = 0; i < handCards.size(); i++) {
+            if (handCards.get(i) != null && handCards.get(i).getID().equals(cardId)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Player " + nickname + " does not hold card " + cardId);
     }
 
     /**
@@ -583,11 +833,14 @@ public class Controller implements Serializable {
      * @param virtualView The virtual view of the reconnected player.
      */
     public void Reconnection(String nickname, VirtualView virtualView) {
+        stopWatchingAbandoned();
+        record(GameEvent.of(gameId, GameEvent.Kind.ONLINE, nickname));
         addVirtualView(nickname, virtualView);
         game.getPlayerByNickname(nickname).setOnlinePlayer(true);
         transmissionMessage("Player reconnected: " + nickname);
         virtualView.inGame();
         displayPlayersNicknames();
+        sendBoardSnapshot(nickname);
         displayGame();
         updateReconnectedPlayerManuscript(nickname, getCardPlaysByPlayer(nickname));
         if (virtualViewMap.size() == 2) {
@@ -654,6 +907,45 @@ public class Controller implements Serializable {
      */
     public void addVirtualView(String nickname, VirtualView virtualView) {
         this.virtualViewMap.put(nickname, virtualView);
+        if (virtualView != null) {
+            virtualView.getOutboundQueue().bind(nickname, () -> mailbox.execute(() -> resync(nickname)));
+        }
+    }
+
+    /**
+     * Sends again to a player the state of the game, after the messages to them were dropped
+     * because they were too slow. In the lobby there is nothing to send again.
+     * @param nickname The nickname of the player.
+     */
+    private void resync(String nickname) {
+        VirtualView virtualView = virtualViewMap.get(nickname);
+        if (virtualView == null || (gameState != GameState.PLAY_CARD && gameState != GameState.DRAW_CARD
+                && gameState != GameState.LAST_LAP)) {
+            return;
+        }
+        virtualView.displayPlayersList(getNicknamePlayers());
+        sendBoardSnapshot(nickname);
+        displayGame();
+        if (nickname.equals(activePlayer)) {
+            if (gameState == GameState.PLAY_CARD) {
+                virtualView.requestCardToPlace();
+            } else if (gameState == GameState.DRAW_CARD) {
+                virtualView.requestToDraw();
+            }
+        }
+    }
+
+    /**
+     * @return The number of messages waiting to be sent to each player, to spot the ones lagging behind.
+     */
+    public Map<String, Integer> getOutboundDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        for (Map.Entry<String, VirtualView> entry : virtualViewMap.entrySet()) {
+            if (entry.getValue() != null) {
+                depths.put(entry.getKey(), entry.getValue().getOutboundQueue().getDepth());
+            }
+        }
+        return depths;
     }
 
     /**
@@ -691,10 +983,10 @@ public class Controller implements Serializable {
     }
 
     /**
-     * Shows to each player: manuscripts, public cards, decks and score.
+     * Shows to each player: public cards, hands, decks and score.
+     * Manuscripts are not sent again: each placement is sent once by {@link #displayBoardDelta()}.
      */
     private void displayGame() {
-        displayManuscript();
         displayCommonTargetCards();
         showPersonalGoalCards();
         displayHandsCard();
@@ -703,16 +995,23 @@ public class Controller implements Serializable {
     }
 
     /**
-     * Shows to each player the updated manuscript.
+     * Sends to each player the last card placed, numbered with its position in the history of the cards played.
      */
-    private void displayManuscript() {
-        for (Player player : game.getPlayers()) {
-            VirtualView virtualView = virtualViewMap.get(player.getNickname());
-            if (virtualView != null) {
-                String nickname = player.getNickname();
-                Manuscript m = player.getManuscript();
-                virtualView.displayManuscript(nickname, m.getCompressedManuscript(), m.getCompressedManuscriptWithIndexToString());
-            }
+    private void displayBoardDelta() {
+        CardsPlayed cardPlayed = cardsPlayedHistory.get(cardsPlayedHistory.size() - 1);
+        for (VirtualView virtualView : virtualViewMap.values()) {
+            virtualView.displayBoardDelta(cardsPlayedHistory.size(), cardPlayed);
+        }
+    }
+
+    /**
+     * Sends to a player every card placed in the game, so that the client can rebuild all the manuscripts.
+     * @param nickname The nickname of the player.
+     */
+    private void sendBoardSnapshot(String nickname) {
+        VirtualView virtualView = virtualViewMap.get(nickname);
+        if (virtualView != null) {
+            virtualView.displayBoardSnapshot(cardsPlayedHistory.size(), new ArrayList<>(cardsPlayedHistory));
         }
     }
 
@@ -885,7 +1184,7 @@ public class Controller implements Serializable {
      */
     private void askToPlaceCard() {
         VirtualView virtualView = virtualViewMap.get(getActivePlayer());
-        System.out.println(getActivePlayer() + " is required to select column and position.");
+        Log.debug(() -> getActivePlayer() + " is required to select column and position.");
         virtualView.requestCardToPlace();
     }
 
@@ -895,11 +1194,13 @@ public class Controller implements Serializable {
      * @param nickname The nickname of the offline player.
      */
     public void setPlayerOffline(String nickname) {
+        record(GameEvent.of(gameId, GameEvent.Kind.OFFLINE, nickname));
         virtualViewMap.remove(nickname);
         if (game.getPlayerByNickname(nickname) != null) {
             game.getPlayerByNickname(nickname).setOnlinePlayer(false);
         }
-        if (game.getOnlinePlayersNumber() == 1) {
+        if (game.getOnlinePlayersNumber() <= 1) {
+            // with nobody else online there is no next player to look for
             gameSuspended = true;
             transmissionMessage("Game suspended: there's only " + game.getOnlinePlayersNumber() + " player connected.");
         } else {
@@ -911,6 +1212,68 @@ public class Controller implements Serializable {
         }
     }
 
+    /**
+     * Closes the game, with the ENDED event that frees its events in the journal, if all its players are still
+     * offline once the grace time of its registry is over. Does nothing for a lobby, a game outside of a registry
+     * or a game with a player online. Must run on the mailbox of the game.
+     */
+    public void watchAbandoned() {
+        if (registry == null || closed || gameState == GameState.STARTING || !getOnlinePlayers().isEmpty()) {
+            return;
+        }
+        stopWatchingAbandoned();
+        int watch = abandonedWatch;
+        abandonedTimer = SharedScheduler.schedule(() -> mailbox.execute(() -> {
+            if (watch == abandonedWatch && !closed && getOnlinePlayers().isEmpty()) {
+                Log.info("Nobody came back to game " + gameId + ": the game is closed.");
+                closeGame();
+            }
+        }), registry.getAbandonedGameTimeout());
+    }
+
+    /**
+     * Stops the timer closing the game, once a player is back or the game is over.
+     */
+    private void stopWatchingAbandoned() {
+        abandonedWatch++;
+        if (abandonedTimer != null) {
+            abandonedTimer.cancel(false);
+            abandonedTimer = null;
+        }
+    }
+
+    /**
+     * @return The ID of the game.
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @return Whether the game is over and has been removed from its registry.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @param nickname The nickname of a player, in any case.
+     * @return The player, or null if there is no such player in the game.
+     */
+    public Player getPlayerByNickname(String nickname) {
+        return game.getPlayerByNickname(nickname);
+    }
+
+    /**
+     * Checks if new players can join the game: the game must be in the lobby
+     * and the number of players chosen by the first player must not be reached yet.
+     * @return true if a new player can join the game.
+     */
+    public boolean acceptsNewPlayers() {
+        int maxPlayers = game.getNumPlayer() == 0 ? GameRegistry.MAX_PLAYERS : game.getNumPlayer();
+        return gameState == GameState.STARTING && game.getPlayers().size() < maxPlayers;
+    }
+
     /**
      * @return The state of the game.
      */
@@ -987,9 +1350,10 @@ public class Controller implements Serializable {
     public void removePlayer(String nickname) {
         Player playerToRemove = game.getPlayerByNickname(nickname);
         if (playerToRemove != null) {
-            game.getPlayers().remove(playerToRemove);
+            game.removePlayer(playerToRemove);
+            record(GameEvent.of(gameId, GameEvent.Kind.LEAVE, nickname));
         } else {
-            System.out.println("Can't remove the player " + nickname + " because it doesn't exist!");
+            Log.warn("Can't remove the player " + nickname + " because it doesn't exist!");
         }
     }
 
@@ -1008,28 +1372,6 @@ public class Controller implements Serializable {
         };
     }
 
-    /**
-     * Returns the appropriate PointStrategy for a given card ID.
-     * This method uses a map to associate card IDs with their corresponding point calculation strategies.
-     * @param cardId The ID of the card for which the point strategy is being retrieved.
-     * @return The PointStrategy corresponding to the specified card ID, or null if no strategy is found.
-     */
-    private PointStrategy getPointStrategy(int cardId) {
-        Map<Integer, PointStrategy> strategyMap = new HashMap<>();
-        strategyMap.put(87, new Diagonals());
-        strategyMap.put(88, new Diagonals());
-        strategyMap.put(89, new Diagonals());
-        strategyMap.put(90, new Diagonals());
-        strategyMap.put(91, new LconfigurationOne());
-        strategyMap.put(92, new LconfigurationTwo());
-        strategyMap.put(93, new LconfigurationThree());
-        strategyMap.put(94, new LconfigurationFour());
-        for (int i = 95; i <= 102; i++) {
-            strategyMap.put(i, new ThreePiece());
-        }
-        return strategyMap.get(cardId);
-    }
-
     /**
      * Filters out all cards played by a specific player
      * identified by their nickname.
@@ -1043,4 +1385,22 @@ public class Controller implements Serializable {
         }
         return cards;
     }
+
+    /**
+     * Connection of the players of a game played again from its events: the game was already sent to them.
+     */
+    private static final class ReplayConnection implements ServerController {
+        @Override
+        public void send(Message messageToSent) {
+        }
+
+        @Override
+        public void disconnectThisClient() {
+        }
+
+        @Override
+        public boolean isClientConnectionOk() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package polimi.ingsw.controller;
+
+import polimi.ingsw.SocketAndRMI.CardsPlayed;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An event of a game, as written in the {@link GameJournal}: replaying the events of a game in order
+ * on a new {@link Controller} rebuilds the game. Only the moves accepted by the game are events,
+ * together with the seed of the game, from which the replay draws the same decks and the same first player.
+ *
+ * @param gameId   The ID of the game.
+ * @param kind     What happened.
+ * @param nickname The nickname of the player, or null for the events of the whole game.
+ * @param value    The color or the card of the event, or null.
+ * @param numbers  The numbers of the event: the seed, the cell of a placement, the deck of a draw, a snapshot.
+ */
+public record GameEvent(int gameId, Kind kind, String nickname, String value, int[] numbers) {
+    private static final int[] NONE = new int[0];
+
+    /**
+     * The kinds of events.
+     */
+    public enum Kind {
+        /**
+         * The game was created with the decks in {@link #numbers()}, one after the other, each with its length first:
+         * the creation of a game in the journals written before games had a seed.
+         */
+        CREATED,
+        /** A player joined the lobby. */
+        LOGIN,
+        /** A player left the lobby. */
+        LEAVE,
+        /** The first player chose the number of players, in {@link #numbers()}. */
+        PLAYERS,
+        /** A player chose the color in {@link #value()}. */
+        COLOR,
+        /** A player chose the secret target card in {@link #value()} and the side of the starting card. */
+        SECRET,
+        /** The game started with {@link #nickname()} as first player. */
+        STARTED,
+        /** A player placed the card in {@link #value()} on the row, column and side in {@link #numbers()}. */
+        PLACED,
+        /** A player drew from the deck in {@link #numbers()}. */
+        DRAWN,
+        /** A player went offline. */
+        OFFLINE,
+        /** A player reconnected. */
+        ONLINE,
+        /** The game is over: its events are no longer needed. */
+        ENDED,
+        /** The game was created with the seed in {@link #numbers()}. */
+        SEEDED,
+        /** The game was restored from the snapshot in {@link #numbers()}, its length first. */
+        RESTORED
+    }
+
+    public GameEvent {
+        numbers = numbers == null ? NONE : numbers;
+    }
+
+    /**
+     * @param gameId The ID of the game.
+     * @param decks  The catalog indices of the cards of each deck, from the top.
+     * @return The creation of a game.
+     */
+    public static GameEvent created(int gameId, int[][] decks) {
+        int length = 0;
+        for (int[] deck : decks) {
+            length += 1 + deck.length;
+        }
+        int[] numbers = new int[length];
+        int position = 0;
+        for (int[] deck : decks) {
+            numbers[position++] = deck.length;
+            System.arraycopy(deck, 0, numbers, position, deck.length);
+            position += deck.length;
+        }
+        return new GameEvent(gameId, Kind.CREATED, null, null, numbers);
+    }
+
+    /**
+     * @param gameId The ID of the game.
+     * @param seed   The seed of the game.
+     * @return The creation of a game.
+     */
+    public static GameEvent seeded(int gameId, long seed) {
+        return new GameEvent(gameId, Kind.SEEDED, null, null, new int[]{(int) (seed >>> 32), (int) seed});
+    }
+
+    /**
+     * @param gameId   The ID of the game.
+     * @param snapshot The snapshot of the game, as written by {@link GameSnapshot}.
+     * @return The restoration of a game from its snapshot.
+     */
+    public static GameEvent restored(int gameId, byte[] snapshot) {
+        int[] numbers = new int[1 + (snapshot.length + 3) / 4];
+        numbers[0] = snapshot.length;
+        ByteBuffer.wrap(Arrays.copyOf(snapshot, 4 * (numbers.length - 1))).asIntBuffer().get(numbers, 1, numbers.length - 1);
+        return new GameEvent(gameId, Kind.RESTORED, null, null, numbers);
+    }
+
+    /**
+     * @param gameId   The ID of the game.
+     * @param kind     A kind of event about a player and nothing else.
+     * @param nickname The nickname of the player.
+     * @return The event.
+     */
+    public static GameEvent of(int gameId, Kind kind, String nickname) {
+        return new GameEvent(gameId, kind, nickname, null, null);
+    }
+
+    /**
+     * @param gameId     The ID of the game.
+     * @param cardPlayed The card placed.
+     * @return The placement of a card.
+     */
+    public static GameEvent placed(int gameId, CardsPlayed cardPlayed) {
+        return new GameEvent(gameId, Kind.PLACED, cardPlayed.getPlayerNickname(), cardPlayed.getId(),
+                new int[]{cardPlayed.getCell().getRow(), cardPlayed.getCell().getColumn(), cardPlayed.isFront() ? 1 : 0});
+    }
+
+    /**
+     * @return The seed of a {@link Kind#SEEDED} event.
+     */
+    public long seed() {
+        return ((long) number(0) << 32) | (number(1) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The snapshot of a {@link Kind#RESTORED} event.
+     */
+    public byte[] snapshot() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (numbers.length - 1));
+        buffer.asIntBuffer().put(numbers, 1, numbers.length - 1);
+        return Arrays.copyOf(buffer.array(), number(0));
+    }
+
+    /**
+     * @return The decks of a {@link Kind#CREATED} event.
+     */
+    public int[][] decks() {
+        int count = 0;
+        for (int position = 0; position < numbers.length; position += 1 + numbers[position]) {
+            count++;
+        }
+        int[][] decks = new int[count][];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            decks[i] = new int[numbers[position]];
+            System.arraycopy(numbers, position + 1, decks[i], 0, decks[i].length);
+            position += 1 + decks[i].length;
+        }
+        return decks;
+    }
+
+    /**
+     * @param index The position of a number.
+     * @return The number, or 0 if the event has fewer numbers.
+     */
+    public int number(int index) {
+        return index < numbers.length ? numbers[index] : 0;
+    }
+
+    /**
+     * @return The number of bytes of the event once encoded.
+     */
+    int encodedSize() {
+        return 4 + 1 + size(nickname) + size(value) + 4 + 4 * numbers.length;
+    }
+
+    /**
+     * Writes the event at the position of the buffer.
+     *
+     * @param buffer A buffer with at least {@link #encodedSize()} bytes remaining.
+     */
+    void encode(ByteBuffer buffer) {
+        buffer.putInt(gameId);
+        buffer.put((byte) kind.ordinal());
+        putString(buffer, nickname);
+        putString(buffer, value);
+        buffer.putInt(numbers.length);
+        for (int number : numbers) {
+            buffer.putInt(number);
+        }
+    }
+
+    /**
+     * Reads an event written by {@link #encode(ByteBuffer)}.
+     *
+     * @param buffer The buffer, positioned at the event.
+     * @return The event.
+     * @throws IllegalArgumentException if the bytes are not an event.
+     */
+    static GameEvent decode(ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            int gameId = buffer.getInt();
+            int kind = buffer.get();
+            if (kind < 0 || kind >= Kind.values().length) {
+                throw new IllegalArgumentException("Unknown event: " + kind);
+            }
+            String nickname = getString(buffer);
+            String value = getString(buffer);
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() / 4) {
+                throw new IllegalArgumentException("Invalid event length: " + length);
+            }
+            int[] numbers = new int[length];
+            for (int i = 0; i < length; i++) {
+                numbers[i] = buffer.getInt();
+            }
+            return new GameEvent(gameId, Kind.values()[kind], nickname, value, numbers);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event");
+        }
+    }
+
+    static int size(String string) {
+        return 2 + (string == null ? 0 : string.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    static void putString(ByteBuffer buffer, String string) {
+        if (string == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,429 @@
+package polimi.ingsw.controller;
+
+import polimi.ingsw.log.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the {@link GameEvent}s of the games hosted by the server, so that the games
+ * survive the server: on restart, the events of the games that were not over are replayed.
+ * <p>
+ * Appending an event never waits for the disk. A writer thread takes every event appended since its last write
+ * and writes them with one write and one {@code force} of the file (group commit): under load, one flush
+ * carries the moves of many games. {@link #sync()} waits until what has been appended is on disk.
+ * Each record carries its length and a checksum, so that a record torn by a crash is found and cut off on open.
+ * A write that fails is cut off at once, and the journal stops recording: the events after a lost one
+ * could not be replayed anyway, and the file keeps only the games as they were before the failure.
+ * <p>
+ * The events of the games that are over are useless; once they take most of the file, the writer compacts it,
+ * writing the events of the live games to a new file that atomically replaces the journal.
+ */
+public class GameJournal implements Closeable {
+    /** The default size under which the journal is never compacted. */
+    public static final long DEFAULT_COMPACT_MIN_BYTES = 1 << 20;
+    /** The journal is compacted when it is this many times larger than the events of the live games. */
+    private static final int COMPACT_RATIO = 4;
+    /** "CNJ1": the first bytes of the file, which change with the layout of the records. */
+    private static final int MAGIC = 0x434E4A31;
+    private static final int RECORD_HEADER = 8;
+
+    private final Path file;
+    private final long compactMinBytes;
+    private final Map<Integer, List<GameEvent>> recovered;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedCondition = lock.newCondition();
+    private final Condition flushedCondition = lock.newCondition();
+    private final Thread writer;
+    private List<GameEvent> pending = new ArrayList<>();
+    private long appended;
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+
+    // owned by the writer thread once the journal is open
+    private FileChannel channel;
+    private final Map<Integer, List<byte[]>> live = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    private long liveBytes;
+    private long fileBytes;
+    private volatile long appendedBytes;
+    private volatile long writtenBytes;
+    private volatile long flushes;
+    private volatile long compactions;
+
+    private GameJournal(Path file, long compactMinBytes) throws IOException {
+        this.file = file;
+        this.compactMinBytes = compactMinBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recovered = read();
+        this.writer = new Thread(this::write, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a journal, creating it if it does not exist.
+     *
+     * @param file The file of the journal.
+     * @return The journal, with the events of the games that were not over.
+     * @throws IOException if the file can not be read or is not a journal.
+     */
+    public static GameJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_COMPACT_MIN_BYTES);
+    }
+
+    /**
+     * Opens a journal, creating it if it does not exist.
+     *
+     * @param file            The file of the journal.
+     * @param compactMinBytes The size under which the journal is never compacted.
+     * @return The journal, with the events of the games that were not over.
+     * @throws IOException if the file can not be read or is not a journal.
+     */
+    public static GameJournal open(Path file, long compactMinBytes) throws IOException {
+        return new GameJournal(file, compactMinBytes);
+    }
+
+    /**
+     * Reads the records of the file, cutting off the ones torn by a crash, and keeps those of the live games.
+     *
+     * @return The events of the games that were not over, by game.
+     */
+    private Map<Integer, List<GameEvent>> read() throws IOException {
+        long size = channel.size();
+        if (size < 4) {
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            channel.position(4);
+            fileBytes = 4;
+            return new TreeMap<>();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // reads the whole file
+        }
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a game journal");
+        }
+        Map<Integer, List<GameEvent>> games = new TreeMap<>();
+        int end = buffer.position();
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(buffer.position(), length));
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            GameEvent event;
+            try {
+                event = GameEvent.decode(buffer.slice(buffer.position(), length));
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            byte[] record = new byte[RECORD_HEADER + length];
+            buffer.get(end, record);
+            buffer.position(end + record.length);
+            end = buffer.position();
+            keep(event, record);
+            if (event.kind() == GameEvent.Kind.ENDED) {
+                games.remove(event.gameId());
+            } else {
+                games.computeIfAbsent(event.gameId(), id -> new ArrayList<>()).add(event);
+            }
+        }
+        if (end < size) {
+            Log.warn("Cutting off " + (size - end) + " bytes torn at the end of the journal.");
+            channel.truncate(end);
+            channel.force(true);
+        }
+        channel.position(end);
+        fileBytes = end;
+        return games;
+    }
+
+    /**
+     * @return The events of the games that were not over when the journal was opened, by game, in order.
+     */
+    public Map<Integer, List<GameEvent>> getRecoveredGames() {
+        return Collections.unmodifiableMap(recovered);
+    }
+
+    /**
+     * Appends an event, without waiting for it to be written.
+     *
+     * @param event The event.
+     * @return Whether the event has been appended, false once the journal is closed or a write has failed.
+     */
+    public boolean append(GameEvent event) {
+        lock.lock();
+        try {
+            if (closed || failure != null) {
+                return false;
+            }
+            pending.add(event);
+            appended++;
+            appendedCondition.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets a game that will not be played again, so that its events are compacted away.
+     *
+     * @param gameId The ID of the game.
+     */
+    public void discard(int gameId) {
+        append(GameEvent.of(gameId, GameEvent.Kind.ENDED, null));
+    }
+
+    /**
+     * Waits until every event appended so far is on disk.
+     *
+     * @throws IOException if the events could not be written.
+     */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = appended;
+            while (durable < target && writer.isAlive()) {
+                flushedCondition.await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the events appended so far and closes the journal.
+     *
+     * @throws IOException if the events could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appendedCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Loop of the writer thread: each turn writes every event appended since the previous one.
+     */
+    private void write() {
+        while (true) {
+            List<GameEvent> batch;
+            long target;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    appendedCondition.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                target = appended;
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                flush(batch);
+                if (fileBytes > compactMinBytes && fileBytes > COMPACT_RATIO * liveBytes) {
+                    compact();
+                }
+            } catch (IOException e) {
+                Log.error("Cannot write the journal, the games are no longer recorded: " + e.getMessage(), e);
+                error = e;
+            }
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    // the events appended meanwhile follow the ones lost
+                    pending = new ArrayList<>();
+                    target = appended;
+                }
+                durable = target;
+                flushedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of events with a single write and a single force.
+     * If the write fails, the file is cut back to its last complete batch, so that the records written
+     * in part are not taken on open for a torn end that hides the records after them.
+     */
+    private void flush(List<GameEvent> batch) throws IOException {
+        int size = 0;
+        for (GameEvent event : batch) {
+            size += RECORD_HEADER + event.encodedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        byte[][] records = new byte[batch.size()][];
+        for (int i = 0; i < records.length; i++) {
+            GameEvent event = batch.get(i);
+            int start = buffer.position();
+            buffer.position(start + RECORD_HEADER);
+            event.encode(buffer);
+            int length = buffer.position() - start - RECORD_HEADER;
+            crc.reset();
+            crc.update(buffer.slice(start + RECORD_HEADER, length));
+            buffer.putInt(start, length);
+            buffer.putInt(start + 4, (int) crc.getValue());
+            records[i] = new byte[RECORD_HEADER + length];
+            buffer.get(start, records[i]);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(fileBytes);
+                channel.position(fileBytes);
+            } catch (IOException truncation) {
+                e.addSuppressed(truncation);
+            }
+            throw e;
+        }
+        for (int i = 0; i < records.length; i++) {
+            keep(batch.get(i), records[i]);
+        }
+        fileBytes += size;
+        appendedBytes += size;
+        writtenBytes += size;
+        flushes++;
+    }
+
+    /**
+     * Keeps the record of an event of a live game, for the next compaction, or forgets the game once it is over.
+     */
+    private void keep(GameEvent event, byte[] record) {
+        if (event.kind() == GameEvent.Kind.ENDED) {
+            List<byte[]> records = live.remove(event.gameId());
+            if (records != null) {
+                for (byte[] r : records) {
+                    liveBytes -= r.length;
+                }
+            }
+        } else {
+            live.computeIfAbsent(event.gameId(), id -> new ArrayList<>()).add(record);
+            liveBytes += record.length;
+        }
+    }
+
+    /**
+     * Writes the events of the live games to a new file, which then replaces the journal.
+     */
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        long size = 4;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<ByteBuffer> buffers = new ArrayList<>();
+            buffers.add(ByteBuffer.allocate(4).putInt(MAGIC).flip());
+            for (List<byte[]> records : live.values()) {
+                for (byte[] record : records) {
+                    buffers.add(ByteBuffer.wrap(record));
+                    size += record.length;
+                }
+            }
+            ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+            long written = 0;
+            while (written < size) {
+                written += out.write(array);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(size);
+        long before = fileBytes;
+        long after = size;
+        Log.debug(() -> "Journal compacted from " + before + " to " + after + " bytes.");
+        fileBytes = size;
+        writtenBytes += size;
+        compactions++;
+    }
+
+    /**
+     * @return The bytes of the events appended, as framed in the journal.
+     */
+    public long getAppendedBytes() {
+        return appendedBytes;
+    }
+
+    /**
+     * @return The bytes written to disk, compactions included: divided by {@link #getAppendedBytes()},
+     * the write amplification of the journal.
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * @return The number of writes of the journal, each one followed by a force.
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * @return The number of compactions of the journal.
+     */
+    public long getCompactions() {
+        return compactions;
+    }
+}
@@ -0,0 +1,160 @@
+package polimi.ingsw.controller;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.SocketAndRMI.OutboundQueue;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Mailbox of a game: the tasks of the game run one at a time, in the order they were submitted,
+ * on a thread borrowed from an executor shared by all the games.
+ * The model of a game is therefore only touched by one thread at a time and needs no locks,
+ * while network threads just enqueue their tasks.
+ * Each task is a step of the game: the messages it sends reach each client together, once the task is over
+ * (see {@link OutboundQueue}).
+ * The mailbox is bounded: a thread submitting to a full mailbox waits until there is room,
+ * except for the tasks submitted by the game itself, which never wait, and those submitted through
+ * {@link #tryExecute(Runnable)}, which are refused instead.
+ */
+public class GameMailbox implements Executor {
+    /** Default number of tasks waiting in a mailbox. */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** Tasks run before the thread is given back to the executor, so that busy games do not starve the others. */
+    private static final int BATCH_SIZE = 64;
+
+    private final Executor executor;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Semaphore room;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Thread runner;
+
+    /**
+     * Creates a mailbox with the default capacity.
+     * @param executor The executor running the tasks of the game.
+     */
+    public GameMailbox(Executor executor) {
+        this(executor, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a mailbox.
+     * @param executor The executor running the tasks of the game.
+     * @param capacity The number of tasks that can wait in the mailbox.
+     */
+    public GameMailbox(Executor executor, int capacity) {
+        this.executor = executor;
+        this.room = new Semaphore(capacity);
+    }
+
+    /**
+     * Enqueues a task of the game.
+     * @param task The task to run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (isGameThread()) {
+            tasks.add(task);
+        } else {
+            room.acquireUninterruptibly();
+            tasks.add(() -> {
+                room.release();
+                task.run();
+            });
+        }
+        schedule();
+    }
+
+    /**
+     * Enqueues a task of the game unless the mailbox is full, for the threads that must never wait.
+     * @param task The task to run.
+     * @return false if the mailbox is full and the task was not enqueued.
+     */
+    public boolean tryExecute(Runnable task) {
+        if (isGameThread()) {
+            tasks.add(task);
+        } else {
+            if (!room.tryAcquire()) {
+                return false;
+            }
+            tasks.add(() -> {
+                room.release();
+                task.run();
+            });
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Runs a task of the game and waits for its result.
+     * If called by the game itself, the task runs immediately.
+     * @param task The task to run.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     */
+    public <T> T call(Supplier<T> task) {
+        if (isGameThread()) {
+            return task.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(task.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.join();
+    }
+
+    /**
+     * @return The number of tasks waiting in the mailbox.
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * @return true if the current thread is running the tasks of this game.
+     */
+    public boolean isGameThread() {
+        return runner == Thread.currentThread();
+    }
+
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs a batch of tasks, then schedules the mailbox again if more tasks arrived.
+     */
+    private void drain() {
+        Thread previous = runner;
+        runner = Thread.currentThread();
+        try {
+            Runnable task;
+            for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+                OutboundQueue.beginStep();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Log.error("Error while handling a game task: " + e.getMessage(), e);
+                } finally {
+                    OutboundQueue.endStep();
+                }
+            }
+        } finally {
+            runner = previous;
+            scheduled.set(false);
+        }
+        schedule();
+    }
+}
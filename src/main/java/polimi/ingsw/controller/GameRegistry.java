@@ -0,0 +1,313 @@
+package polimi.ingsw.controller;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.model.Color;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the games hosted by the server.
+ * Every game has its own {@link Controller}, and every logged player is routed to the game it joined.
+ * New players are assigned to the lobby that is still waiting for players, or to a new one.
+ * Players are routed by their nickname ignoring case, see {@link Game#nicknameKey(String)}.
+ * The games share one executor, which runs the tasks queued in the {@link GameMailbox} of every game.
+ * With a {@link GameJournal}, the events of every game are recorded, and the games that were being played
+ * when the server stopped can be restored. A {@link GameSnapshot} of every game can be written at any time,
+ * for another server to take the games over.
+ * A game that has started is closed once all its players have been offline for longer than a grace time,
+ * so that the games nobody comes back to do not stay hosted, recorded and restored forever.
+ */
+public class GameRegistry {
+    /** Maximum number of players of a game, one for each color. */
+    public static final int MAX_PLAYERS = Color.values().length;
+    /** Default time a started game is kept with all its players offline, in milliseconds. */
+    public static final long DEFAULT_ABANDONED_GAME_TIMEOUT = 10 * 60 * 1000;
+
+    private final Map<Integer, Controller> games = new ConcurrentHashMap<>();
+    private final Map<String, Integer> gameOfPlayer = new ConcurrentHashMap<>();
+    private final AtomicInteger nextGameId = new AtomicInteger(1);
+    private final Executor executor;
+    private final GameJournal journal;
+    private volatile long abandonedGameTimeout = DEFAULT_ABANDONED_GAME_TIMEOUT;
+
+    /**
+     * Creates a registry whose games run on a pool with one thread per processor.
+     */
+    public GameRegistry() {
+        this((GameJournal) null);
+    }
+
+    /**
+     * Creates a registry whose games run on a pool with one thread per processor.
+     *
+     * @param journal The journal recording the games, or null.
+     */
+    public GameRegistry(GameJournal journal) {
+        this(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "game");
+            thread.setDaemon(true);
+            return thread;
+        }), journal);
+    }
+
+    /**
+     * Creates a registry whose games run on the given executor.
+     *
+     * @param executor The executor shared by the games.
+     */
+    public GameRegistry(Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * Creates a registry whose games run on the given executor.
+     *
+     * @param executor The executor shared by the games.
+     * @param journal  The journal recording the games, or null.
+     */
+    public GameRegistry(Executor executor, GameJournal journal) {
+        this.executor = executor;
+        this.journal = journal;
+    }
+
+    /**
+     * @return The executor shared by the games.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return The journal recording the games, or null if the games are not recorded.
+     */
+    public GameJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return The time a started game is kept with all its players offline, in milliseconds.
+     */
+    public long getAbandonedGameTimeout() {
+        return abandonedGameTimeout;
+    }
+
+    /**
+     * Sets the time a started game is kept with all its players offline.
+     * Must be called before the games are restored and the server accepts players.
+     *
+     * @param abandonedGameTimeout The time, in milliseconds.
+     * @throws IllegalArgumentException if the time is negative.
+     */
+    public void setAbandonedGameTimeout(long abandonedGameTimeout) throws IllegalArgumentException {
+        if (abandonedGameTimeout < 0) {
+            throw new IllegalArgumentException("Invalid timeout: " + abandonedGameTimeout);
+        }
+        this.abandonedGameTimeout = abandonedGameTimeout;
+    }
+
+    /**
+     * Restores the games recorded in the journal that had started and were not over, replaying their events.
+     * Their players are offline, and get back into their game when they log in again with their nickname,
+     * before the game is closed as abandoned. The lobbies are not restored: their players left them when the server stopped.
+     * A game whose events can not be replayed is not restored either, but its events are kept, and its ID is not reused.
+     * Must be called before the server accepts players.
+     *
+     * @return The number of games restored.
+     */
+    public int restoreGames() {
+        if (journal == null) {
+            return 0;
+        }
+        int restored = 0;
+        for (Map.Entry<Integer, List<GameEvent>> entry : journal.getRecoveredGames().entrySet()) {
+            int gameId = entry.getKey();
+            nextGameId.accumulateAndGet(gameId + 1, Math::max);
+            if (entry.getValue().stream().noneMatch(event -> event.kind() == GameEvent.Kind.STARTED
+                    || event.kind() == GameEvent.Kind.RESTORED)) {
+                journal.discard(gameId);
+                continue;
+            }
+            try {
+                Controller controller = Controller.restore(gameId, this, entry.getValue());
+                if (controller.isClosed()) {
+                    journal.discard(gameId);
+                    continue;
+                }
+                games.put(gameId, controller);
+                for (Player player : controller.getPlayer()) {
+                    gameOfPlayer.put(Game.nicknameKey(player.getNickname()), gameId);
+                }
+                controller.getMailbox().execute(controller::watchAbandoned);
+                restored++;
+            } catch (RuntimeException e) {
+                // the events stay in the journal, for the game to be restored once the cause is fixed
+                Log.error("Cannot restore game " + gameId + ", its events are kept in the journal: " + e.getMessage(), e);
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Writes the snapshot of every hosted game to a file, for another server to take over the games.
+     *
+     * @param file The file of the snapshot, replaced atomically.
+     * @return The number of games written.
+     * @throws IOException if the file can not be written.
+     */
+    public int writeSnapshot(Path file) throws IOException {
+        return GameSnapshot.write(file, games.values());
+    }
+
+    /**
+     * Restores the games of a snapshot that had started and are not hosted yet, such as the games of another server.
+     * Their players are offline, and get back into their game when they log in again with their nickname,
+     * before the game is closed as abandoned. With a journal, the snapshot of each restored game is recorded as its first event.
+     * Must be called before the server accepts players.
+     *
+     * @param snapshot The snapshot.
+     * @return The number of games restored.
+     */
+    public int restoreSnapshot(GameSnapshot snapshot) {
+        int restored = 0;
+        for (int gameId : snapshot.getGameIds()) {
+            nextGameId.accumulateAndGet(gameId + 1, Math::max);
+            if (games.containsKey(gameId) || snapshot.getState(gameId) == GameState.STARTING) {
+                continue;
+            }
+            try {
+                Controller controller = Controller.restore(gameId, this, snapshot.getSnapshot(gameId));
+                games.put(gameId, controller);
+                for (Player player : controller.getPlayer()) {
+                    gameOfPlayer.put(Game.nicknameKey(player.getNickname()), gameId);
+                }
+                controller.getMailbox().execute(controller::watchAbandoned);
+                restored++;
+            } catch (RuntimeException e) {
+                Log.warn("Cannot restore game " + gameId + " from the snapshot: " + e.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Gets the lobby that new players join, creating a new game if no lobby is waiting for players.
+     * The lobbies are asked through their mailbox, so logins must be serialized by the caller
+     * for two players not to take the last seat of a lobby at once.
+     *
+     * @return The controller of the lobby.
+     */
+    public Controller getOpenLobby() {
+        for (Controller controller : games.values()) {
+            if (controller.getGameState() == GameState.STARTING && controller.getMailbox().call(controller::acceptsNewPlayers)) {
+                return controller;
+            }
+        }
+        int gameId = nextGameId.getAndIncrement();
+        Controller controller = new Controller(gameId, this);
+        games.put(gameId, controller);
+        return controller;
+    }
+
+    /**
+     * Routes a player to a game.
+     *
+     * @param nickname The nickname of the player, in any case.
+     * @param gameId   The ID of the game joined by the player.
+     */
+    public void addPlayer(String nickname, int gameId) {
+        gameOfPlayer.put(Game.nicknameKey(nickname), gameId);
+    }
+
+    /**
+     * Removes the route of a player that left a lobby.
+     * A lobby left without players stays open and is given to the next player.
+     *
+     * @param nickname The nickname of the player, in any case.
+     */
+    public void removePlayer(String nickname) {
+        gameOfPlayer.remove(Game.nicknameKey(nickname));
+    }
+
+    /**
+     * Removes a game that is over, together with the routes of its players.
+     *
+     * @param gameId The ID of the game.
+     */
+    public void removeGame(int gameId) {
+        games.remove(gameId);
+        gameOfPlayer.values().removeIf(id -> id == gameId);
+    }
+
+    /**
+     * Gets the ID of the game joined by a player.
+     *
+     * @param nickname The nickname of the player, in any case.
+     * @return The ID of the game, or null if the player is not in any game.
+     */
+    public Integer getGameId(String nickname) {
+        return nickname == null ? null : gameOfPlayer.get(Game.nicknameKey(nickname));
+    }
+
+    /**
+     * Gets the controller of a game.
+     *
+     * @param gameId The ID of the game.
+     * @return The controller of the game, or null if there is no such game.
+     */
+    public Controller getController(int gameId) {
+        return games.get(gameId);
+    }
+
+    /**
+     * Gets the controller of the game joined by a player.
+     *
+     * @param nickname The nickname of the player, in any case.
+     * @return The controller of the game, or null if the player is not in any game.
+     */
+    public Controller getControllerOf(String nickname) {
+        Integer gameId = getGameId(nickname);
+        return gameId == null ? null : games.get(gameId);
+    }
+
+    /**
+     * @return The IDs of the hosted games.
+     */
+    public List<Integer> getGameIds() {
+        return new ArrayList<>(games.keySet());
+    }
+
+    /**
+     * @return The number of hosted games, lobbies included.
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    /**
+     * @return The number of players of every hosted game.
+     */
+    public int getPlayerCount() {
+        return gameOfPlayer.size();
+    }
+
+    /**
+     * Gets the number of players of a game.
+     *
+     * @param gameId The ID of the game.
+     * @return The number of players of the game, 0 if there is no such game.
+     */
+    public int getPlayerCount(int gameId) {
+        return (int) gameOfPlayer.values().stream().filter(id -> id == gameId).count();
+    }
+}
@@ -0,0 +1,303 @@
+package polimi.ingsw.controller;
+
+import polimi.ingsw.log.Log;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of many games in one file, for the failover of the server: a binary layout of the state of each game
+ * instead of the serialization of its whole object graph.
+ * <p>
+ * The file starts with a header and an index of the games sorted by ID, each entry with the position, the length
+ * and the checksum of the game. Each game starts with a summary, its state and the scores of its players,
+ * followed by the snapshot written by {@link Controller#writeSnapshot(ByteBuffer)}: cards as catalog indices,
+ * decks as the order of the cards left, manuscripts as their placements.
+ * <p>
+ * The file is written with a single write and read through a {@link MappedByteBuffer}: the summary of a game
+ * is read without reading the other games, and a game is rebuilt only when restored.
+ */
+public class GameSnapshot {
+    /** "CNS1": the first bytes of the file. */
+    private static final int MAGIC = 0x434E5331;
+    /** The version of the layout of the games, which changes with the layout of {@link Game#writeSnapshot(ByteBuffer)}. */
+    private static final int VERSION = 1;
+    private static final int HEADER = 12;
+    private static final int INDEX_ENTRY = 16;
+    private static final int INITIAL_GAME_BYTES = 2048;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private GameSnapshot(MappedByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Writes the snapshot of the games that are not over to a file, replacing it atomically.
+     * Each game writes its snapshot on its own mailbox, all the games at once.
+     *
+     * @param file  The file of the snapshot.
+     * @param games The controllers of the games.
+     * @return The number of games written.
+     * @throws IOException if the file can not be written.
+     */
+    public static int write(Path file, Collection<Controller> games) throws IOException {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+        List<Controller> controllers = new ArrayList<>(games);
+        controllers.sort(Comparator.comparingInt(Controller::getGameId));
+        for (Controller controller : controllers) {
+            CompletableFuture<byte[]> future = new CompletableFuture<>();
+            controller.getMailbox().execute(() -> {
+                try {
+                    future.complete(controller.isClosed() ? null : encode(controller));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            futures.add(future);
+        }
+        List<Integer> ids = new ArrayList<>();
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                byte[] record = futures.get(i).join();
+                if (record != null) {
+                    ids.add(controllers.get(i).getGameId());
+                    records.add(record);
+                }
+            } catch (CompletionException e) {
+                Log.warn("Cannot write the snapshot of game " + controllers.get(i).getGameId() + ": " + e.getCause().getMessage());
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER + INDEX_ENTRY * records.size());
+        header.putInt(MAGIC).putInt(VERSION).putInt(records.size());
+        CRC32 crc = new CRC32();
+        long size = header.capacity();
+        ByteBuffer[] buffers = new ByteBuffer[1 + records.size()];
+        buffers[0] = header;
+        for (int i = 0; i < records.size(); i++) {
+            byte[] record = records.get(i);
+            crc.reset();
+            crc.update(record);
+            header.putInt(ids.get(i)).putInt((int) size).putInt(record.length).putInt((int) crc.getValue());
+            buffers[1 + i] = ByteBuffer.wrap(record);
+            size += record.length;
+        }
+        header.flip();
+
+        Path written = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(written, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long done = 0;
+            while (done < size) {
+                done += channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records.size();
+    }
+
+    /**
+     * Encodes the summary and the snapshot of a game. Must run on the mailbox of the game.
+     */
+    private static byte[] encode(Controller controller) {
+        for (int capacity = INITIAL_GAME_BYTES; ; capacity *= 2) {
+            ByteBuffer record = ByteBuffer.allocate(capacity);
+            try {
+                List<Player> players = controller.getPlayer();
+                record.put((byte) controller.getGameState().ordinal());
+                record.put((byte) (controller.isGameSuspended() ? 1 : 0));
+                record.put((byte) players.size());
+                for (Player player : players) {
+                    GameEvent.putString(record, player.getNickname());
+                    record.putShort((short) player.getPoints());
+                }
+                controller.writeSnapshot(record);
+                byte[] bytes = new byte[record.position()];
+                record.get(0, bytes);
+                return bytes;
+            } catch (BufferOverflowException e) {
+                // the game is larger than expected: written again in a larger buffer
+            }
+        }
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write(Path, Collection)}, reading only its header and its index.
+     *
+     * @param file The file of the snapshot.
+     * @return The snapshot.
+     * @throws IOException if the file can not be read or is not a snapshot.
+     */
+    public static GameSnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a game snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " is a snapshot of version " + buffer.getInt(4) + ", not " + VERSION);
+        }
+        int count = buffer.getInt(8);
+        if (count < 0 || count > (buffer.capacity() - HEADER) / INDEX_ENTRY) {
+            throw new IOException(file + " has an invalid index");
+        }
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER + INDEX_ENTRY * i;
+            long end = (long) buffer.getInt(entry + 4) + buffer.getInt(entry + 8);
+            if (buffer.getInt(entry + 4) < HEADER + INDEX_ENTRY * count || buffer.getInt(entry + 8) < 0 || end > buffer.capacity()) {
+                throw new IOException(file + " has an invalid index");
+            }
+        }
+        return new GameSnapshot(buffer, count);
+    }
+
+    /**
+     * @return The number of games in the snapshot.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The IDs of the games in the snapshot, in order.
+     */
+    public List<Integer> getGameIds() {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(buffer.getInt(HEADER + INDEX_ENTRY * i));
+        }
+        return ids;
+    }
+
+    /**
+     * @param gameId The ID of a game.
+     * @return Whether the game is in the snapshot.
+     */
+    public boolean contains(int gameId) {
+        return indexOf(gameId) >= 0;
+    }
+
+    /**
+     * @param gameId The ID of a game of the snapshot.
+     * @return The state of the game.
+     * @throws IllegalArgumentException if the game is not in the snapshot.
+     */
+    public GameState getState(int gameId) throws IllegalArgumentException {
+        return GameState.values()[buffer.get(offset(gameId))];
+    }
+
+    /**
+     * @param gameId The ID of a game of the snapshot.
+     * @return Whether the game was suspended, waiting for its players.
+     * @throws IllegalArgumentException if the game is not in the snapshot.
+     */
+    public boolean isSuspended(int gameId) throws IllegalArgumentException {
+        return buffer.get(offset(gameId) + 1) == 1;
+    }
+
+    /**
+     * @param gameId The ID of a game of the snapshot.
+     * @return The points of the players of the game by nickname, in the order of the turns.
+     * @throws IllegalArgumentException if the game is not in the snapshot.
+     */
+    public Map<String, Integer> getScores(int gameId) throws IllegalArgumentException {
+        ByteBuffer summary = buffer.slice(offset(gameId), length(gameId));
+        summary.position(2);
+        int players = summary.get();
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < players; i++) {
+            String nickname = GameEvent.getString(summary);
+            scores.put(nickname, (int) summary.getShort());
+        }
+        return scores;
+    }
+
+    /**
+     * Reads the snapshot of a game, as written by {@link Controller#writeSnapshot(ByteBuffer)}, checking it was not damaged.
+     *
+     * @param gameId The ID of a game of the snapshot.
+     * @return The snapshot of the game, without its summary.
+     * @throws IllegalArgumentException if the game is not in the snapshot or is damaged.
+     */
+    byte[] getSnapshot(int gameId) throws IllegalArgumentException {
+        ByteBuffer record = buffer.slice(offset(gameId), length(gameId));
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(HEADER + INDEX_ENTRY * indexOf(gameId) + 12)) {
+            throw new IllegalArgumentException("The snapshot of game " + gameId + " is damaged");
+        }
+        record.position(2);
+        int players = record.get();
+        for (int i = 0; i < players; i++) {
+            GameEvent.getString(record);
+            record.getShort();
+        }
+        byte[] snapshot = new byte[record.remaining()];
+        record.get(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Finds a game in the index, sorted by ID.
+     *
+     * @return The position of the game in the index, or -1.
+     */
+    private int indexOf(int gameId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = buffer.getInt(HEADER + INDEX_ENTRY * middle);
+            if (id < gameId) {
+                low = middle + 1;
+            } else if (id > gameId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int offset(int gameId) throws IllegalArgumentException {
+        return buffer.getInt(entry(gameId) + 4);
+    }
+
+    private int length(int gameId) throws IllegalArgumentException {
+        return buffer.getInt(entry(gameId) + 8);
+    }
+
+    private int entry(int gameId) throws IllegalArgumentException {
+        int index = indexOf(gameId);
+        if (index < 0) {
+            throw new IllegalArgumentException("Game " + gameId + " is not in the snapshot");
+        }
+        return HEADER + INDEX_ENTRY * index;
+    }
+}
@@ -1,27 +0,0 @@
-package polimi.ingsw.controller;
-
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-
-
-/*public class Persistence {
-
-    private Controller Controller;
-
-
-    public static final String SAVED_MATCH_FILENAME = "match.data";
-
-    public Persistence () {
-        this.Controller = new Controller();
-    }
-
-    public Persistence (Controller gameController) {
-        this.Controller = gameController;
-    }
-
-    public Controller getGameController () {
-        return this.Controller;
-    }
-
-}*/
\ No newline at end of file
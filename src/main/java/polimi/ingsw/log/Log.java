@@ -0,0 +1,144 @@
+package polimi.ingsw.log;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.function.Supplier;
+
+/**
+ * Logging of the server, gated by level and written asynchronously through a {@link RingBufferAppender},
+ * so that the threads serving the clients never serialize on the console.
+ * Lines are built only when their level is enabled: the verbose ones take a {@link Supplier}, as in
+ * {@code Log.trace(() -> "Received message: " + message)}.
+ * The level is {@link LogLevel#INFO} unless set by {@link #setLevel(LogLevel)} or by the system property
+ * {@value #LEVEL_PROPERTY}: tracing of messages and pings is off by default.
+ */
+public final class Log {
+    /** The system property with the starting level. */
+    public static final String LEVEL_PROPERTY = "codex.log";
+    private static final int BUFFER_LINES = 8192;
+    private static final RingBufferAppender APPENDER = new RingBufferAppender(System.out, BUFFER_LINES);
+    private static volatile LogLevel level = parse(System.getProperty(LEVEL_PROPERTY), LogLevel.INFO);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(APPENDER::flush, "log-flush"));
+    }
+
+    private Log() {
+    }
+
+    /**
+     * Reads a level by its name, ignoring case.
+     *
+     * @param name     The name of the level, maybe null.
+     * @param fallback The level when the name is null or unknown.
+     * @return The level.
+     */
+    public static LogLevel parse(String name, LogLevel fallback) {
+        if (name != null) {
+            for (LogLevel candidate : LogLevel.values()) {
+                if (candidate.name().equalsIgnoreCase(name)) {
+                    return candidate;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * @param newLevel The least severe level that is written.
+     */
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * @return The least severe level that is written.
+     */
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * @param lineLevel The level of a line.
+     * @return Whether the lines of that level are written.
+     */
+    public static boolean isEnabled(LogLevel lineLevel) {
+        return lineLevel.compareTo(level) >= 0 && lineLevel != LogLevel.OFF;
+    }
+
+    /**
+     * Writes a line about the messages exchanged, built only if tracing is enabled.
+     *
+     * @param line Builds the line.
+     */
+    public static void trace(Supplier<String> line) {
+        if (isEnabled(LogLevel.TRACE)) {
+            APPENDER.append(line.get());
+        }
+    }
+
+    /**
+     * Writes a line about the state of a game, built only if debugging is enabled.
+     *
+     * @param line Builds the line.
+     */
+    public static void debug(Supplier<String> line) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            APPENDER.append(line.get());
+        }
+    }
+
+    /**
+     * Writes an informative line.
+     *
+     * @param line The line.
+     */
+    public static void info(String line) {
+        if (isEnabled(LogLevel.INFO)) {
+            APPENDER.append(line);
+        }
+    }
+
+    /**
+     * Writes a warning.
+     *
+     * @param line The line.
+     */
+    public static void warn(String line) {
+        if (isEnabled(LogLevel.WARN)) {
+            APPENDER.append(line);
+        }
+    }
+
+    /**
+     * Writes an error.
+     *
+     * @param line The line.
+     */
+    public static void error(String line) {
+        if (isEnabled(LogLevel.ERROR)) {
+            APPENDER.append(line);
+        }
+    }
+
+    /**
+     * Writes an error with the stack trace of its cause.
+     *
+     * @param line  The line.
+     * @param error The cause of the error.
+     */
+    public static void error(String line, Throwable error) {
+        if (isEnabled(LogLevel.ERROR)) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            APPENDER.append(line + System.lineSeparator() + trace.toString().stripTrailing());
+        }
+    }
+
+    /**
+     * Writes the lines logged so far, from the calling thread.
+     */
+    public static void flush() {
+        APPENDER.flush();
+    }
+}
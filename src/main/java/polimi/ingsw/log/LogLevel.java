@@ -0,0 +1,19 @@
+package polimi.ingsw.log;
+
+/**
+ * Levels of the lines written through {@link Log}, from the most verbose one.
+ */
+public enum LogLevel {
+    /** Every message received and sent, pings included. */
+    TRACE,
+    /** The state of the games at every step. */
+    DEBUG,
+    /** Connections, games and players coming and going. */
+    INFO,
+    /** Something a client or the server did not expect, like a client lagging behind. */
+    WARN,
+    /** Something that should never happen. */
+    ERROR,
+    /** Nothing is written. */
+    OFF
+}
@@ -0,0 +1,127 @@
+package polimi.ingsw.log;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes lines on a stream from a thread of its own, so that the threads logging never wait for the console.
+ * Lines are kept in a ring buffer with a fixed number of slots: a thread logging claims a slot and fills it,
+ * the writer empties the slots in order. When the writer falls behind and the buffer is full,
+ * new lines are dropped and counted rather than making the threads logging wait.
+ */
+public class RingBufferAppender {
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final PrintStream out;
+    private final Thread writer;
+    private volatile long written;
+    private volatile boolean waiting;
+
+    /**
+     * Creates the appender and starts its writer.
+     *
+     * @param out      The stream to write on.
+     * @param capacity The number of lines the buffer holds, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public RingBufferAppender(PrintStream out, int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.out = out;
+        this.writer = new Thread(this::write, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a line for the writer.
+     *
+     * @param line The line to write.
+     * @return Whether the line has been queued, false if the buffer was full and the line has been dropped.
+     */
+    public boolean append(String line) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - written >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, line);
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the lines queued so far, from the calling thread, stopping at the first slot not filled yet.
+     */
+    public void flush() {
+        synchronized (out) {
+            drainAvailable();
+            out.flush();
+        }
+    }
+
+    /**
+     * @return The number of lines dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Empties the slots in order, waiting when the next one is not filled yet.
+     */
+    private void write() {
+        while (true) {
+            boolean wrote;
+            synchronized (out) {
+                wrote = drainAvailable();
+                if (wrote) {
+                    out.flush();
+                }
+            }
+            if (!wrote) {
+                waiting = true;
+                if (slots.get((int) written & mask) == null) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    /**
+     * Writes the filled slots. Requires the monitor of the stream, the only lock of this class,
+     * which is never taken by a thread logging.
+     *
+     * @return Whether at least one line has been written.
+     */
+    private boolean drainAvailable() {
+        boolean wrote = false;
+        long next = written;
+        String line;
+        while ((line = slots.get((int) next & mask)) != null) {
+            slots.set((int) next & mask, null);
+            out.println(line);
+            written = ++next;
+            wrote = true;
+        }
+        return wrote;
+    }
+}
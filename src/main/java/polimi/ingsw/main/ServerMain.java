@@ -1,25 +1,129 @@
 package polimi.ingsw.main;
 
+import polimi.ingsw.SocketAndRMI.InboundLimits;
+import polimi.ingsw.SocketAndRMI.OutboundQueue;
+import polimi.ingsw.SocketAndRMI.SharedScheduler;
 import polimi.ingsw.SocketAndRMI.rmi.RmiServerImpl;
-import polimi.ingsw.controller.Controller;
+import polimi.ingsw.SocketAndRMI.socket.NioServer;
+import polimi.ingsw.controller.GameJournal;
+import polimi.ingsw.controller.GameRegistry;
+import polimi.ingsw.controller.GameSnapshot;
+import polimi.ingsw.log.Log;
 import polimi.ingsw.SocketAndRMI.Server;
 import polimi.ingsw.SocketAndRMI.socket.SktServer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.rmi.RemoteException;
 
 public class ServerMain {
+    /** Time between two snapshots of the games, in milliseconds. */
+    private static final long SNAPSHOT_PERIOD = 60_000;
+
     public static void main(String[] args) {
-        System.out.println("Starting server");
-        Controller controller = new Controller();
-        Server server = new Server(controller);
-        SktServer sktServer = new SktServer(server, SktServer.SOCKET_SERVER_PORT);
-        Thread thread = new Thread(sktServer);
+        boolean blockingRequested = false;
+        boolean virtualRequested = false;
+        OutboundQueue.OverflowPolicy overflowPolicy = OutboundQueue.OverflowPolicy.COALESCE_LATEST;
+        InboundLimits inboundLimits = InboundLimits.defaults();
+        String journalFile = "games.journal";
+        String snapshotFile = null;
+        long abandonedGameTimeout = GameRegistry.DEFAULT_ABANDONED_GAME_TIMEOUT;
+
+        for (String param : args) {
+            if (param.equalsIgnoreCase("--blocking") || param.equalsIgnoreCase("-b")) {
+                blockingRequested = true;
+            } else if (param.equalsIgnoreCase("--virtual") || param.equalsIgnoreCase("-v")) {
+                virtualRequested = true;
+            } else if (param.toLowerCase().startsWith("--log=")) {
+                Log.setLevel(Log.parse(param.substring("--log=".length()), Log.getLevel()));
+            } else if (param.toLowerCase().startsWith("--journal=")) {
+                journalFile = param.substring("--journal=".length());
+            } else if (param.toLowerCase().startsWith("--snapshot=")) {
+                snapshotFile = param.substring("--snapshot=".length());
+            } else if (param.toLowerCase().startsWith("--abandoned-after=")) {
+                try {
+                    abandonedGameTimeout = Long.parseLong(param.substring("--abandoned-after=".length())) * 1000;
+                } catch (NumberFormatException e) {
+                    Log.warn("Invalid time: " + param + ", closing abandoned games after "
+                            + abandonedGameTimeout / 1000 + " seconds.");
+                }
+            } else if (param.toLowerCase().startsWith("--limits=")) {
+                try {
+                    inboundLimits = InboundLimits.parse(param.substring("--limits=".length()));
+                } catch (IllegalArgumentException e) {
+                    Log.warn(e.getMessage() + ", keeping the default limits.");
+                }
+            } else if (param.toLowerCase().startsWith("--slow-client=")) {
+                switch (param.substring("--slow-client=".length()).toLowerCase()) {
+                    case "disconnect" -> overflowPolicy = OutboundQueue.OverflowPolicy.DISCONNECT;
+                    case "resync" -> overflowPolicy = OutboundQueue.OverflowPolicy.DROP_AND_RESYNC;
+                    case "coalesce" -> overflowPolicy = OutboundQueue.OverflowPolicy.COALESCE_LATEST;
+                    default -> Log.warn("Unknown slow client policy: " + param + ", keeping " + overflowPolicy);
+                }
+            }
+        }
+        Log.info("Starting server");
+        GameJournal journal = null;
+        if (!journalFile.equalsIgnoreCase("none")) {
+            try {
+                journal = GameJournal.open(Path.of(journalFile));
+                GameJournal opened = journal;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        opened.close();
+                    } catch (IOException e) {
+                        Log.error("Cannot close the journal: " + e.getMessage());
+                    }
+                }));
+            } catch (IOException e) {
+                Log.error("Cannot open the journal " + journalFile + ": " + e.getMessage() + ", games will not be recorded.");
+            }
+        }
+        GameRegistry gameRegistry = new GameRegistry(journal);
+        try {
+            gameRegistry.setAbandonedGameTimeout(abandonedGameTimeout);
+        } catch (IllegalArgumentException e) {
+            Log.warn(e.getMessage() + ", keeping the default time.");
+        }
+        int restored = gameRegistry.restoreGames();
+        if (restored > 0) {
+            Log.info("Restored " + restored + " games, waiting for their players to reconnect.");
+        }
+        if (snapshotFile != null) {
+            Path snapshot = Path.of(snapshotFile);
+            if (Files.exists(snapshot)) {
+                try {
+                    int taken = gameRegistry.restoreSnapshot(GameSnapshot.open(snapshot));
+                    Log.info("Restored " + taken + " games from the snapshot " + snapshotFile + ".");
+                } catch (IOException e) {
+                    Log.error("Cannot read the snapshot " + snapshotFile + ": " + e.getMessage());
+                }
+            }
+            SharedScheduler.scheduleAtFixedRate(() -> {
+                try {
+                    gameRegistry.writeSnapshot(snapshot);
+                } catch (IOException e) {
+                    Log.error("Cannot write the snapshot " + snapshot + ": " + e.getMessage());
+                }
+            }, SNAPSHOT_PERIOD);
+        }
+        Server server = new Server(gameRegistry, overflowPolicy, OutboundQueue.DEFAULT_CAPACITY, inboundLimits);
+        Runnable socketServer;
+        if (virtualRequested) {
+            socketServer = new SktServer(server, SktServer.SOCKET_SERVER_PORT, true);
+        } else if (blockingRequested) {
+            socketServer = new SktServer(server, SktServer.SOCKET_SERVER_PORT);
+        } else {
+            socketServer = new NioServer(server, SktServer.SOCKET_SERVER_PORT);
+        }
+        Thread thread = new Thread(socketServer);
         thread.start();
-        System.out.println("Server started");
+        Log.info("Server started");
         try {
             RmiServerImpl remoteServer = new RmiServerImpl(server);
         } catch (RemoteException e) {
-            System.out.println("Cannot start RMI server.");
+            Log.error("Cannot start RMI server: " + e.getMessage());
         }
     }
 }
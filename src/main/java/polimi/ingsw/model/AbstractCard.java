@@ -1,10 +1,9 @@
 package polimi.ingsw.model;
 
-import polimi.ingsw.model.strategy.AnglesCovered;
-import polimi.ingsw.model.strategy.EmptyStrategy;
 import polimi.ingsw.model.strategy.PointStrategy;
-import polimi.ingsw.model.strategy.ThreePiece;
+import polimi.ingsw.model.strategy.StrategyRegistry;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Objects;
@@ -12,10 +11,18 @@ import java.util.Objects;
 /**
  * Abstract class representing a generic card in the game.
  * This class provides methods and properties common to all types of cards.
+ * Cards created from the {@link CardCatalog} refer to their shared {@link CardDefinition},
+ * while the side and the covered corners are the state of the card in its own game.
  */
 public abstract class AbstractCard implements Serializable {
 
     private final String ID;
+    // shared printed data, null for cards that are not in the catalog
+    private CardDefinition definition;
+    // ID parsed once, -1 for cards without a numeric ID
+    private final int numericID;
+    // resolved when the deck is loaded, looked up again after deserialization
+    private transient PointStrategy pointStrategy;
     private final Corner[] frontCorner;
     private final Corner[] backCorner;
     private boolean front;
@@ -36,6 +43,7 @@ public abstract class AbstractCard implements Serializable {
      */
     public AbstractCard(String ID, String pathFrontImage, String pathBackImage, int point, Corner[] frontCorner, Corner[] backCorner) {
         this.ID = ID;
+        this.numericID = parseID(ID);
         this.pathFrontImage = pathFrontImage;
         this.pathBackImage = pathBackImage;
         this.point = point;
@@ -56,6 +64,7 @@ public abstract class AbstractCard implements Serializable {
      */
     public AbstractCard(String ID, String pathFrontImage, String pathBackImage, int point, Corner[] frontCorner, Corner[] backCorner, Resources resources) {
         this.ID = ID;
+        this.numericID = parseID(ID);
         this.pathFrontImage = pathFrontImage;
         this.pathBackImage = pathBackImage;
         this.point = point;
@@ -64,6 +73,69 @@ public abstract class AbstractCard implements Serializable {
         this.attachedResource = resources;
     }
 
+    /**
+     * Parses a card ID made only of digits.
+     *
+     * @param ID The ID of the card.
+     * @return The numeric value of the ID, or -1 if the ID is not numeric.
+     */
+    private static int parseID(String ID) {
+        if (ID == null || ID.isEmpty() || ID.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < ID.length(); i++) {
+            char digit = ID.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return The numeric ID of the card, or -1 if the ID is not numeric.
+     */
+    public int getNumericID() {
+        return numericID;
+    }
+
+    /**
+     * @return The definition of the card, or null if the card is not in the catalog.
+     */
+    public CardDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Binds the card to its definition, when the card is created from the catalog.
+     *
+     * @param definition The definition of the card.
+     */
+    void setDefinition(CardDefinition definition) {
+        this.definition = definition;
+    }
+
+    /**
+     * @return The strategy used to calculate the points of the card.
+     */
+    public PointStrategy getPointStrategy() {
+        if (pointStrategy == null) {
+            pointStrategy = StrategyRegistry.forCard(numericID);
+        }
+        return pointStrategy;
+    }
+
+    /**
+     * Sets the strategy used to calculate the points of the card, resolved when the deck is loaded.
+     *
+     * @param pointStrategy The strategy of the card.
+     */
+    public void setPointStrategy(PointStrategy pointStrategy) {
+        this.pointStrategy = pointStrategy;
+    }
+
     /**
      * @return The ID of the card.
      */
@@ -143,6 +215,18 @@ public abstract class AbstractCard implements Serializable {
         return true;
     }
 
+    /**
+     * Dummy method to be overridden in subclasses.
+     * Checks if a manuscript shows the resources needed to place the card on its front side, whatever the side
+     * the card is facing.
+     *
+     * @param manuscript The manuscript object to check against.
+     * @return Always returns true.
+     */
+    boolean hasResourcesForFront(Manuscript manuscript) {
+        return true;
+    }
+
      /**
       *  @return The top left attached card.
      */
@@ -305,6 +389,9 @@ public abstract class AbstractCard implements Serializable {
         int[] availableResources = new int[4];
 
         if (!isFront()) {
+            if (getAttachedResource() == null) {
+                return availableResources;
+            }
             switch (getAttachedResource()) {
                 case PLANT:    //position 0
                     availableResources[0]++;
@@ -393,28 +480,14 @@ public abstract class AbstractCard implements Serializable {
     }
 
     /**
-     * Calculates the points for a given card based on its ID and the strategy associated with the ID's last digit.
+     * Calculates the points for a given card with the strategy associated with the card.
      *
      * @param p    The player whose manuscript will be used to calculate the points.
      * @param card The card for which the points are being calculated.
      * @return The calculated points based on the specific strategy.
      */
     public int calculatePointStrategy(Player p, AbstractCard card){
-        int points = 0;
-        int id = Integer.parseInt(card.getID());
-        int check = id % 10;
-
-        if(check == 1 || check == 2|| check == 3) {
-            PointStrategy strategy = new ThreePiece();
-            points = strategy.calculatePoint(p.getManuscript(), card);
-        }else if(check == 4 || check == 5 || check == 6){
-            PointStrategy strategy = new AnglesCovered();
-            points = strategy.calculatePoint(p.getManuscript(), card);
-        }else{
-            PointStrategy strategy = new EmptyStrategy();
-            points = strategy.calculatePoint(p.getManuscript(), card);
-        }
-        return points;
+        return card.getPointStrategy().calculatePoint(p.getManuscript(), card);
     }
 
     public Corner[] getBackCorner() {
@@ -431,13 +504,77 @@ public abstract class AbstractCard implements Serializable {
     }
 
 
+    /**
+     * Two cards are equal if they face the same side and have the same definition.
+     * Cards that are not in the catalog are compared field by field.
+     */
+    @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AbstractCard that = (AbstractCard) o;
+        if (definition != null || that.definition != null) {
+            return definition == that.definition && front == that.front;
+        }
         return front == that.front && point == that.point && Objects.equals(ID, that.ID) && Arrays.equals(frontCorner, that.frontCorner) && Arrays.equals(backCorner, that.backCorner) && Objects.equals(pathFrontImage, that.pathFrontImage) && Objects.equals(pathBackImage, that.pathBackImage);
     }
 
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}, which does not change when the card is turned.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(ID);
+    }
+
+    /**
+     * Serializes a catalog card that is not on a manuscript as a reference to its definition and side,
+     * instead of the whole card.
+     *
+     * @return The object to serialize in place of the card.
+     * @throws ObjectStreamException never
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return isPristine() ? new CardDefinition.CardReference(definition.getIndex(), front) : this;
+    }
+
+    /**
+     * Copies the card for a message, which another thread sends later while the game may still turn or cover the card.
+     *
+     * @return A new card of the same definition and side if the card is pristine, otherwise this card.
+     */
+    public AbstractCard detach() {
+        if (!isPristine()) {
+            return this;
+        }
+        AbstractCard copy = definition.newCard();
+        copy.setFront(front);
+        return copy;
+    }
+
+    /**
+     * Checks whether the card can be rebuilt from its definition and side alone:
+     * it comes from the catalog, is not attached to other cards and its corners were not changed.
+     *
+     * @return true if the card is equal to a new card of its definition, turned on the same side.
+     */
+    public boolean isPristine() {
+        if (definition == null || attachedResource != definition.getAttachedResource()) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (!isUnchanged(frontCorner, true, i) || !isUnchanged(backCorner, false, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isUnchanged(Corner[] corners, boolean frontSide, int corner) {
+        return corners == null || (corners[corner].getAttachedCard() == null
+                && corners[corner].existCorner() == definition.cornerExists(frontSide, corner));
+    }
+
     public Corner getAttachedCorner(int corner) {
         if (corner < 0 || corner >= 4) {
             throw new IllegalArgumentException("Illegal argument passed");
@@ -2,15 +2,23 @@ package polimi.ingsw.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents an abstract deck of cards.
+ * A deck built from the {@link CardCatalog} only holds the order of its cards, as catalog indices,
+ * and creates each card when it is drawn; operations that need the whole list create the remaining cards.
  */
 public abstract class AbstractDeck implements Serializable {
     protected List<AbstractCard> cards;
     protected int maxSize;
+    // catalog indices of the cards not created yet, from position top on; null once the cards are created
+    private int[] indices;
+    private int top;
 
     /**
      * Constructs an abstract deck with the specified maximum size.
@@ -31,19 +39,63 @@ public abstract class AbstractDeck implements Serializable {
         this.maxSize = maxSize;
     }
 
+    /**
+     * Constructs an abstract deck with the cards of the catalog at the given indices.
+     * @param indices The catalog indices of the cards, from the top of the deck.
+     * @param maxSize The maximum size of the deck.
+     */
+    public AbstractDeck(int[] indices, int maxSize) {
+        this.cards = new ArrayList<>();
+        this.indices = indices.clone();
+        this.maxSize = maxSize;
+    }
+
     /**
      * Gets the list of cards in the deck.
      * @return The list of cards in the deck.
      */
     public List<AbstractCard> getCards() {
+        createCards();
         return cards;
     }
 
+    /**
+     * Gets the order of the cards left in the deck.
+     * @return A new array with the catalog indices of the cards, from the top of the deck.
+     */
+    public int[] getOrder() {
+        if (indices != null) {
+            return Arrays.copyOfRange(indices, top, indices.length);
+        }
+        CardCatalog catalog = CardCatalog.getInstance();
+        int[] order = new int[cards.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = catalog.get(cards.get(i).getID()).getIndex();
+        }
+        return order;
+    }
+
+    /**
+     * Creates the cards that are still only catalog indices, keeping the order of the deck.
+     */
+    private void createCards() {
+        if (indices != null) {
+            CardCatalog catalog = CardCatalog.getInstance();
+            for (int i = top; i < indices.length; i++) {
+                cards.add(catalog.get(indices[i]).newCard());
+            }
+            indices = null;
+        }
+    }
+
     /**
      * Retrieves the ID of the top card in the list.
      * @return the ID of the top card if the list is not empty; otherwise, returns "null"
      */
     public String getTopCardID(){
+        if (indices != null && top < indices.length) {
+            return CardCatalog.getInstance().get(indices[top]).getID();
+        }
         if (cards.isEmpty()){
             return "null";
         }
@@ -64,7 +116,24 @@ public abstract class AbstractDeck implements Serializable {
      * Shuffles the deck.
      */
     public void shuffle() {
-        Collections.shuffle(cards);
+        shuffle(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Shuffles the deck with the given source of randomness, so that the same source gives the same order.
+     * @param random The source of randomness.
+     */
+    public void shuffle(RandomGenerator random) {
+        if (indices != null) {
+            for (int i = indices.length - 1; i > top; i--) {
+                int j = top + random.nextInt(i - top + 1);
+                int swap = indices[i];
+                indices[i] = indices[j];
+                indices[j] = swap;
+            }
+            return;
+        }
+        Collections.shuffle(cards, random);
     }
 
     /**
@@ -74,6 +143,7 @@ public abstract class AbstractDeck implements Serializable {
      * @throws IllegalStateException if the deck is full.
      */
     public void addCard(AbstractCard card) {
+        createCards();
         if (cards.size() < maxSize) {
             cards.add(card);
         } else {
@@ -87,6 +157,7 @@ public abstract class AbstractDeck implements Serializable {
      * @param card The card to remove from the deck.
      */
     public void removeCard(AbstractCard card) {
+        createCards();
         cards.remove(card);
     }
 
@@ -97,6 +168,9 @@ public abstract class AbstractDeck implements Serializable {
      * @throws IllegalStateException if the deck is empty.
      */
     public AbstractCard drawCard() throws IllegalStateException {
+        if (indices != null && top < indices.length) {
+            return CardCatalog.getInstance().get(indices[top++]).newCard();
+        }
         if (!isEmpty()) {
             return cards.remove(0);
         } else {
@@ -110,7 +184,7 @@ public abstract class AbstractDeck implements Serializable {
      * @return true if the deck is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return getSize() == 0;
     }
 
     /**
@@ -119,6 +193,9 @@ public abstract class AbstractDeck implements Serializable {
      * @return The current size of the deck.
      */
     public int getSize() {
+        if (indices != null) {
+            return indices.length - top;
+        }
         return cards.size();
     }
 }
@@ -0,0 +1,189 @@
+package polimi.ingsw.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import polimi.ingsw.log.Log;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog of every card of the game, parsed from the JSON deck files once per process.
+ * The catalog is immutable and shared by all the games: a game only keeps the order of its decks,
+ * as indices into the catalog, and creates its own card instances when they are drawn.
+ * Definitions are stored deck after deck: resource, gold, starting and target cards.
+ */
+public final class CardCatalog {
+    private static final String DECKS_PATH = "src/main/java/polimi/ingsw/json/decks/";
+    private static final int NUMCORNERS = 4;
+
+    private final List<CardDefinition> definitions;
+    private final Map<String, CardDefinition> definitionsByID;
+    private final int[][] decks = new int[CardDefinition.Kind.values().length][];
+
+    /**
+     * Lazy holder of the catalog, loaded the first time it is needed.
+     */
+    private static final class Holder {
+        private static final CardCatalog INSTANCE = new CardCatalog();
+    }
+
+    private CardCatalog() {
+        List<CardDefinition> loaded = new ArrayList<>();
+        loadDeck(loaded, CardDefinition.Kind.RESOURCE, "DeckResources");
+        loadDeck(loaded, CardDefinition.Kind.GOLD, "DeckGold");
+        loadDeck(loaded, CardDefinition.Kind.STARTING, "DeckStarting");
+        loadDeck(loaded, CardDefinition.Kind.TARGET, "DeckTarget");
+        definitions = Collections.unmodifiableList(loaded);
+
+        Map<String, CardDefinition> byID = new HashMap<>();
+        for (CardDefinition definition : loaded) {
+            byID.put(definition.getID(), definition);
+        }
+        definitionsByID = Collections.unmodifiableMap(byID);
+    }
+
+    /**
+     * @return The catalog of the cards, shared by the whole process.
+     */
+    public static CardCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return The number of cards in the catalog.
+     */
+    public int size() {
+        return definitions.size();
+    }
+
+    /**
+     * Gets the definition at the given position of the catalog.
+     *
+     * @param index The position of the definition.
+     * @return The definition of the card.
+     */
+    public CardDefinition get(int index) {
+        return definitions.get(index);
+    }
+
+    /**
+     * Gets the definition of the card with the given ID.
+     *
+     * @param ID The ID of the card.
+     * @return The definition of the card, or null if there is no card with the given ID.
+     */
+    public CardDefinition get(String ID) {
+        return definitionsByID.get(ID);
+    }
+
+    /**
+     * Gets the catalog indices of the cards of a deck, in the order of the deck file.
+     *
+     * @param kind The deck.
+     * @return A new array with the indices of the cards of the deck.
+     */
+    public int[] getDeck(CardDefinition.Kind kind) {
+        return decks[kind.ordinal()].clone();
+    }
+
+    /**
+     * Reads a deck file and appends the definitions of its cards to the catalog.
+     * A deck that can not be read is left empty, as the decks of the game always were.
+     */
+    private void loadDeck(List<CardDefinition> loaded, CardDefinition.Kind kind, String name) {
+        int first = loaded.size();
+        try (Reader reader = new FileReader(DECKS_PATH + name + ".json")) {
+            JsonObject rootObject = JsonParser.parseReader(reader).getAsJsonObject();
+            for (JsonElement element : rootObject.getAsJsonArray(name)) {
+                loaded.add(parseCard(loaded.size(), kind, element.getAsJsonObject()));
+            }
+        } catch (IOException e) {
+            Log.error("Cannot read the deck " + name + ": " + e.getMessage());
+        }
+        int[] indices = new int[loaded.size() - first];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = first + i;
+        }
+        decks[kind.ordinal()] = indices;
+    }
+
+    /**
+     * Builds the definition of a card from its JSON object.
+     */
+    private static CardDefinition parseCard(int index, CardDefinition.Kind kind, JsonObject cardObject) {
+        String ID = cardObject.get("ID").getAsString();
+        String imagePathToFront = cardObject.get("imagePathToFront").getAsString();
+        String imagePathToBack = cardObject.get("imagePathToBack").getAsString();
+        int point = cardObject.get("point").getAsInt();
+
+        switch (kind) {
+            case RESOURCE:
+                return new CardDefinition(index, kind, ID, imagePathToFront, imagePathToBack, point,
+                        parseCorners(ID, cardObject.getAsJsonArray("frontCorner")),
+                        parseCorners(ID, cardObject.getAsJsonArray("backCorner")),
+                        Resources.valueOf(cardObject.get("attachedResource").getAsString().toUpperCase()),
+                        null, null, null, null, null);
+            case GOLD:
+                JsonArray requests = cardObject.getAsJsonArray("requests");
+                int[] resourceRequested = new int[NUMCORNERS];
+                for (int i = 0; i < NUMCORNERS; i++) {
+                    resourceRequested[i] = requests.get(i).getAsInt();
+                }
+                return new CardDefinition(index, kind, ID, imagePathToFront, imagePathToBack, point,
+                        parseCorners(ID, cardObject.getAsJsonArray("frontCorner")),
+                        parseCorners(ID, cardObject.getAsJsonArray("backCorner")),
+                        Resources.valueOf(cardObject.get("attachedResource").getAsString().toUpperCase()),
+                        null, resourceRequested, cardObject.get("forEach").getAsString(), null, null);
+            case STARTING:
+                List<Resources> attachedResources = new ArrayList<>();
+                for (JsonElement resource : cardObject.getAsJsonArray("attachedResource")) {
+                    attachedResources.add(Resources.valueOf(resource.getAsString().toUpperCase()));
+                }
+                return new CardDefinition(index, kind, ID, imagePathToFront, imagePathToBack, point,
+                        parseCorners(ID, cardObject.getAsJsonArray("frontCorner")),
+                        parseCorners(ID, cardObject.getAsJsonArray("backCorner")),
+                        null, attachedResources, null, null, null, null);
+            default:
+                return new CardDefinition(index, kind, ID, imagePathToFront, imagePathToBack, point,
+                        null, null, null, null, null, null,
+                        cardObject.get("color").getAsString().toUpperCase(),
+                        cardObject.get("strategy").getAsString());
+        }
+    }
+
+    /**
+     * Parses the four corners of a side of a card.
+     */
+    private static Corner[] parseCorners(String ID, JsonArray corners) {
+        Corner[] parsed = new Corner[NUMCORNERS];
+        for (int i = 0; i < NUMCORNERS; i++) {
+            parsed[i] = parseCorner(ID, corners.get(i).getAsString().toUpperCase());
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses a corner: "NULL" for a missing corner, "FREE" for an empty one, otherwise a resource or a piece.
+     */
+    private static Corner parseCorner(String ID, String cornerContent) {
+        if (cornerContent.equals("NULL")) {
+            return new Corner(ID, false, null, null);
+        } else if (cornerContent.equals("FREE")) {
+            return new Corner(ID, true, Resources.FREE, Piece.FREE);
+        }
+        try {
+            return new Corner(ID, true, Resources.valueOf(cornerContent), null);
+        } catch (IllegalArgumentException e) {
+            return new Corner(ID, true, null, Piece.valueOf(cornerContent));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package polimi.ingsw.model;
+
+import polimi.ingsw.model.strategy.PointStrategy;
+import polimi.ingsw.model.strategy.StrategyRegistry;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a card as it is printed, loaded once by the {@link CardCatalog}
+ * and shared by every game of the server.
+ * The state that changes during a game, such as the side the card is facing and the cards
+ * attached to its corners, belongs to the card instances created by {@link #newCard()}.
+ */
+public final class CardDefinition implements Serializable {
+
+    /**
+     * The deck a card belongs to.
+     */
+    public enum Kind {
+        RESOURCE, GOLD, STARTING, TARGET
+    }
+
+    private final int index;
+    private final Kind kind;
+    private final String ID;
+    private final String pathFrontImage;
+    private final String pathBackImage;
+    private final int point;
+    // templates of the corners, never handed out: every new card gets its own copies
+    private final Corner[] frontCorner;
+    private final Corner[] backCorner;
+    // resource and gold cards
+    private final Resources attachedResource;
+    // starting cards
+    private final List<Resources> startingResources;
+    // gold cards
+    private final int[] resourceRequested;
+    private final String forEach;
+    // target cards
+    private final String color;
+    private final String strategy;
+
+    /**
+     * Constructs a card definition. Fields that do not apply to the kind of card are null.
+     *
+     * @param index             The position of the definition in the catalog.
+     * @param kind              The deck the card belongs to.
+     * @param ID                The identifier of the card.
+     * @param pathFrontImage    The file path to the front image of the card.
+     * @param pathBackImage     The file path to the back image of the card.
+     * @param point             The point value of the card.
+     * @param frontCorner       The corners on the front side.
+     * @param backCorner        The corners on the back side.
+     * @param attachedResource  The resource of a resource or gold card.
+     * @param startingResources The resources on the back of a starting card.
+     * @param resourceRequested The resources needed to play a gold card.
+     * @param forEach           The scoring rule of a gold card.
+     * @param color             The color of a target card.
+     * @param strategy          The strategy code of a target card.
+     */
+    CardDefinition(int index, Kind kind, String ID, String pathFrontImage, String pathBackImage, int point,
+                   Corner[] frontCorner, Corner[] backCorner, Resources attachedResource, List<Resources> startingResources,
+                   int[] resourceRequested, String forEach, String color, String strategy) {
+        this.index = index;
+        this.kind = kind;
+        this.ID = ID;
+        this.pathFrontImage = pathFrontImage;
+        this.pathBackImage = pathBackImage;
+        this.point = point;
+        this.frontCorner = frontCorner;
+        this.backCorner = backCorner;
+        this.attachedResource = attachedResource;
+        this.startingResources = startingResources == null ? null : Collections.unmodifiableList(new ArrayList<>(startingResources));
+        this.resourceRequested = resourceRequested;
+        this.forEach = forEach;
+        this.color = color;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return The position of the definition in the catalog.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The deck the card belongs to.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The identifier of the card.
+     */
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * @return The resource of a resource or gold card, null for the other cards.
+     */
+    public Resources getAttachedResource() {
+        return attachedResource;
+    }
+
+    /**
+     * Checks whether a corner is printed on the card, before any other card covers it.
+     *
+     * @param front  true for the front side.
+     * @param corner The index of the corner, from 0 (top left) to 3 (bottom right).
+     * @return true if the corner exists.
+     */
+    boolean cornerExists(boolean front, int corner) {
+        Corner[] corners = front ? frontCorner : backCorner;
+        return corners != null && corners[corner].existCorner();
+    }
+
+    /**
+     * @return The point value of the card.
+     */
+    public int getPoint() {
+        return point;
+    }
+
+    /**
+     * @return The strategy used to calculate the points of the card.
+     */
+    public PointStrategy getPointStrategy() {
+        if (kind == Kind.TARGET) {
+            return StrategyRegistry.forTargetStrategy(Integer.parseInt(strategy));
+        }
+        return StrategyRegistry.forCard(Integer.parseInt(ID));
+    }
+
+    /**
+     * Creates a new card with this definition, facing the back side and with no attached cards.
+     * Every game must use its own cards, since they hold the state of the game.
+     *
+     * @return The new card.
+     */
+    public AbstractCard newCard() {
+        AbstractCard card;
+        switch (kind) {
+            case RESOURCE:
+                card = new ResourceCard(ID, pathFrontImage, pathBackImage, point, copy(frontCorner), copy(backCorner), attachedResource);
+                break;
+            case GOLD:
+                card = new GoldCard(ID, pathFrontImage, pathBackImage, point, copy(frontCorner), copy(backCorner), resourceRequested.clone(), attachedResource, forEach);
+                break;
+            case STARTING:
+                card = new StartingCard(ID, pathFrontImage, pathBackImage, point, copy(frontCorner), copy(backCorner), new ArrayList<>(startingResources));
+                break;
+            default:
+                card = new TargetCard(ID, pathFrontImage, pathBackImage, point, null, null, color, strategy);
+        }
+        card.setPointStrategy(getPointStrategy());
+        card.setDefinition(this);
+        return card;
+    }
+
+    private Corner[] copy(Corner[] corners) {
+        Corner[] copy = new Corner[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            copy[i] = new Corner(ID, corners[i].existCorner(), corners[i].getAttachedResource(), corners[i].getAttachedPiece());
+        }
+        return copy;
+    }
+
+    /**
+     * Serializes the definition as its catalog index, since every process loads the same catalog.
+     *
+     * @return The object to serialize in place of the definition.
+     * @throws ObjectStreamException never
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new DefinitionReference(index);
+    }
+
+    /**
+     * Gets the definition of a catalog index read from a stream, which may come from another process.
+     *
+     * @param index The catalog index.
+     * @return The definition.
+     * @throws InvalidObjectException if the index is not in the catalog.
+     */
+    private static CardDefinition resolve(int index) throws InvalidObjectException {
+        CardCatalog catalog = CardCatalog.getInstance();
+        if (index < 0 || index >= catalog.size()) {
+            throw new InvalidObjectException("Card " + index + " is not in the catalog");
+        }
+        return catalog.get(index);
+    }
+
+    /**
+     * Serialized form of a definition.
+     */
+    private static final class DefinitionReference implements Serializable {
+        private final int index;
+
+        DefinitionReference(int index) {
+            this.index = index;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return resolve(index);
+        }
+    }
+
+    /**
+     * Serialized form of a card of the catalog that is not on a manuscript: the definition and the side
+     * are enough to create the card again on the other side of the connection.
+     */
+    static final class CardReference implements Serializable {
+        private final int index;
+        private final boolean front;
+
+        CardReference(int index, boolean front) {
+            this.index = index;
+            this.front = front;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            AbstractCard card = resolve(index).newCard();
+            card.setFront(front);
+            return card;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CardDefinition{" +
+                "ID='" + ID + '\'' +
+                ", kind=" + kind +
+                '}';
+    }
+}
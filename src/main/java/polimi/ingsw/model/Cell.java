@@ -51,6 +51,16 @@ public class Cell implements Serializable{
         return row == cell.row && column == cell.column;
     }
 
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of this Cell
+     */
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
     /**
      * Returns a string representation of the Cell object.
      * The format is "{row, column}".
@@ -16,6 +16,14 @@ public class DeckGold extends AbstractDeck {
      */
     public DeckGold(List<AbstractCard> cards, int maxSize) {super(cards, maxSize);}
 
+    /**
+     * Constructs a gold deck with the cards of the catalog at the given indices.
+     *
+     * @param indices The catalog indices of the cards, from the top of the deck.
+     * @param maxSize The maximum size limit of the deck.
+     */
+    public DeckGold(int[] indices, int maxSize) {super(indices, maxSize);}
+
     /**
      * Constructs a gold deck with the given maximum size limit.
      * @param maxSize The maximum size limit of the deck.
@@ -15,6 +15,14 @@ public class DeckResources extends AbstractDeck{
      */
     public DeckResources(List<AbstractCard> cards, int maxSize) {super(cards, maxSize);}
 
+    /**
+     * Constructs a resource deck with the cards of the catalog at the given indices.
+     *
+     * @param indices The catalog indices of the cards, from the top of the deck.
+     * @param maxSize The maximum size limit of the deck.
+     */
+    public DeckResources(int[] indices, int maxSize) {super(indices, maxSize);}
+
     /**
      * Constructs a resource deck with the given maximum size limit.
      *
@@ -14,6 +14,14 @@ public class DeckStarting extends AbstractDeck{
      */
     public DeckStarting(List<AbstractCard> cards, int maxSize) {super(cards, maxSize);}
 
+    /**
+     * Constructs a starting deck with the cards of the catalog at the given indices.
+     *
+     * @param indices The catalog indices of the cards, from the top of the deck.
+     * @param maxSize The maximum size limit of the deck.
+     */
+    public DeckStarting(int[] indices, int maxSize) {super(indices, maxSize);}
+
     /**
      * Constructs a starting deck with the given maximum size limit.
      *
@@ -16,6 +16,14 @@ public class DeckTarget extends AbstractDeck {
      */
     public DeckTarget(List<AbstractCard> cards, int maxSize) {super(cards, maxSize);}
 
+    /**
+     * Constructs a target deck with the cards of the catalog at the given indices.
+     *
+     * @param indices The catalog indices of the cards, from the top of the deck.
+     * @param maxSize The maximum size limit of the deck.
+     */
+    public DeckTarget(int[] indices, int maxSize) {super(indices, maxSize);}
+
     /**
      * Constructs a target deck with the given maximum size limit.
      *
@@ -1,27 +1,31 @@
 package polimi.ingsw.model;
 
-import com.google.gson.*;
 import polimi.ingsw.exception.*;
 import polimi.ingsw.model.strategy.*;
 import polimi.ingsw.model.strategy.EmptyStrategy;
 
-import java.io.FileReader;
-import java.io.IOException;
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a game instance that manages players, decks, cards, and game state.
  * It's the interface that connect model to controller.
  * Implements functionality for game initialization, player management, card handling,
  * and game flow control including turn management and card playing.
+ * Everything a game draws at random, the order of its decks and its first player, derives from its seed:
+ * two games with the same seed and the same moves are the same game.
  */
 public class Game implements Serializable {
     private int GAME_ID;
     private int numPlayer;
     private List<Player> players;
+    private Map<String, Player> playersByNickname = new HashMap<>();   // nickname in lower case, player
     private Player activePlayer;
     private String nicknameFirstPlayer;
     private int numGameTurn;
@@ -39,18 +43,27 @@ public class Game implements Serializable {
     private static final int GOLDCARDNUMBER = 40;
     private static final int STARTINGCARDNUMBER = 6;
     private static final int TARGETCARDNUMBER = 16;
-    private static final int NUMCORNERS = 4;
-    private AbstractCard blankCard = new StartingCard("blank", "", "");
-
-    private static Game gameInstance;
+    // streams split from the seed, one for each thing drawn at random
+    private static final int RESOURCE_STREAM = 0;
+    private static final int GOLD_STREAM = 1;
+    private static final int TARGET_STREAM = 2;
+    private static final int STARTING_STREAM = 3;
+    private static final int FIRST_PLAYER_STREAM = 4;
+
+    /** Codes of the cards in a snapshot that are not catalog cards: see {@link #writeSnapshot(ByteBuffer)}. */
+    private static final short NO_CARD = -1;
+    private static final short BLANK_CARD = -2;
+    private long seed;
+    /** ID of the card filling the place of the card played until the player draws a new one. */
+    public static final String BLANK_CARD_ID = "blank";
+    private AbstractCard blankCard = new StartingCard(BLANK_CARD_ID, "", "");
 
     /**
      * Default constructor for creating a new game instance.
      * Initializes an empty list of players and calls the method to create decks.
      */
     public Game() {
-        this.players = new ArrayList<>();
-        createDeck();
+        this(0, 0);
     }
 
     /**
@@ -62,9 +75,22 @@ public class Game implements Serializable {
      * @param numPlayer The number of players in the game.
      */
     public Game(int GAME_ID, int numPlayer) {
+        this(GAME_ID, numPlayer, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructor for creating a new game instance with specified game ID, number of players and seed.
+     * The same seed gives the same decks and the same first player.
+     *
+     * @param GAME_ID The unique identifier of the game.
+     * @param numPlayer The number of players in the game.
+     * @param seed The seed of everything the game draws at random.
+     */
+    public Game(int GAME_ID, int numPlayer, long seed) {
         this.players = new ArrayList<>();
         this.GAME_ID = GAME_ID;
         this.numPlayer = numPlayer;
+        this.seed = seed;
         createDeck();
     }
 
@@ -83,6 +109,28 @@ public class Game implements Serializable {
         return GAME_ID;
     }
 
+    /**
+     * @return The seed of everything the game draws at random.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets one of the independent streams of random numbers derived from the seed of the game.
+     *
+     * @param index The index of the stream.
+     * @return A new generator of the stream, at its start.
+     */
+    private SplittableRandom stream(int index) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom stream = root.split();
+        for (int i = 0; i < index; i++) {
+            stream = root.split();
+        }
+        return stream;
+    }
+
     /**
      * @param numPlayer The number of players to set.
      */
@@ -223,12 +271,31 @@ public class Game implements Serializable {
      * @return The Player object with the matching nickname, or null if not found.
      */
     public Player getPlayerByNickname(String nickname) {
-        for (Player player : players) {
-            if (player.getNickname().equalsIgnoreCase(nickname)) {
-                return player;
+        return nickname == null ? null : playersIndex().get(nicknameKey(nickname));
+    }
+
+    /**
+     * @return The players by their nickname in lower case, rebuilt if missing from a game saved before it existed.
+     */
+    private Map<String, Player> playersIndex() {
+        if (playersByNickname == null) {
+            playersByNickname = new HashMap<>();
+            for (Player player : players) {
+                playersByNickname.put(nicknameKey(player.getNickname()), player);
             }
         }
-        return null;
+        return playersByNickname;
+    }
+
+    /**
+     * Normalizes a nickname once, so that nicknames are compared ignoring case.
+     * Every map of the server keyed by nickname uses this key.
+     *
+     * @param nickname The nickname.
+     * @return The nickname in lower case.
+     */
+    public static String nicknameKey(String nickname) {
+        return nickname.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -243,7 +310,9 @@ public class Game implements Serializable {
             throw new DuplicatePlayerException("Player with nickname '" + newPlayer + "' already exists!");
         }
 
-        players.add(new Player(newPlayer));
+        Player player = new Player(newPlayer);
+        players.add(player);
+        playersIndex().put(nicknameKey(newPlayer), player);
     }
 
     /**
@@ -258,6 +327,7 @@ public class Game implements Serializable {
             throw new DuplicatePlayerException("Player with nickname '" + newPlayer.getNickname() + "' already exists!");
         }
         players.add(newPlayer);
+        playersIndex().put(nicknameKey(newPlayer.getNickname()), newPlayer);
     }
 
     /**
@@ -272,28 +342,54 @@ public class Game implements Serializable {
 
     /**
      * Creates and initializes the decks (resource, gold, target, and starting decks) for the game.
-     * Also creates and shuffles the cards for each deck.
+     * The decks are shuffled permutations of the shared {@link CardCatalog}, each by its own stream of the seed:
+     * the cards of this game are created only when they are drawn.
      */
     private void createDeck() {
-        resourceDeck = new DeckResources(RESOURCECARDNUMBER);
-        goldDeck = new DeckGold(GOLDCARDNUMBER);
-        targetDeck = new DeckTarget(TARGETCARDNUMBER);
-        startingDeck = new DeckStarting(STARTINGCARDNUMBER);
-        createResourceCards();
-        createGoldCards();
-        createTargetCards();
-        createStartingCards();
-        resourceDeck.shuffle();
-        goldDeck.shuffle();
-        targetDeck.shuffle();
-        startingDeck.shuffle();
+        CardCatalog catalog = CardCatalog.getInstance();
+        restoreDecks(new int[][]{catalog.getDeck(CardDefinition.Kind.RESOURCE), catalog.getDeck(CardDefinition.Kind.GOLD),
+                catalog.getDeck(CardDefinition.Kind.TARGET), catalog.getDeck(CardDefinition.Kind.STARTING)});
+        resourceDeck.shuffle(stream(RESOURCE_STREAM));
+        goldDeck.shuffle(stream(GOLD_STREAM));
+        targetDeck.shuffle(stream(TARGET_STREAM));
+        startingDeck.shuffle(stream(STARTING_STREAM));
+    }
+
+    /**
+     * Gets the order of the decks left.
+     * @return The catalog indices of the cards left in the resource, gold, target and starting decks, from the top.
+     */
+    public int[][] getDeckOrders() {
+        return new int[][]{resourceDeck.getOrder(), goldDeck.getOrder(), targetDeck.getOrder(), startingDeck.getOrder()};
+    }
+
+    /**
+     * Replaces the decks with decks in the given order, to play again a game whose decks were recorded
+     * instead of its seed.
+     * @param orders The catalog indices of the cards of the resource, gold, target and starting decks, from the top,
+     *               as given by {@link #getDeckOrders()}.
+     */
+    public void restoreDecks(int[][] orders) {
+        resourceDeck = new DeckResources(orders[0], RESOURCECARDNUMBER);
+        goldDeck = new DeckGold(orders[1], GOLDCARDNUMBER);
+        targetDeck = new DeckTarget(orders[2], TARGETCARDNUMBER);
+        startingDeck = new DeckStarting(orders[3], STARTINGCARDNUMBER);
     }
 
     /**
      * Initializes the game by creating and shuffling all necessary decks (resource, gold, target, starting).
-     * Sets the game status to STARTING and performs initial setup such as placing initial cards and selecting the first player.
+     * Sets the game status to STARTING and performs initial setup such as placing initial cards and selecting the first player from the seed.
      */
     public void startingGame() {
+        startingGame(players.get(stream(FIRST_PLAYER_STREAM).nextInt(players.size())).getNickname());
+    }
+
+    /**
+     * Initializes the game like {@link #startingGame()}, with the given first player instead of a random one.
+     *
+     * @param firstPlayer The nickname of the first player.
+     */
+    public void startingGame(String firstPlayer) {
         // * - Creates the deck of cards containing resource, gold and objects by calling private method.
         status = GameState.STARTING;
 
@@ -308,8 +404,8 @@ public class Game implements Serializable {
         commonTargetCard[0] = targetDeck.drawCard();
         commonTargetCard[1] = targetDeck.drawCard();
 
-        // * - Randomly selects the first player (and make it activePlayer) and sorts the player list accordingly.
-        activePlayer = players.get(new Random().nextInt(players.size()));
+        // * - Makes the first player the activePlayer and sorts the player list accordingly.
+        activePlayer = getPlayerByNickname(firstPlayer);
         Collections.rotate(players, -players.indexOf(activePlayer));
 
         activePlayer.setFirstPlayer(true);
@@ -336,7 +432,7 @@ public class Game implements Serializable {
         if (!player.equals(activePlayer)) {
             throw new NotPlayerTurnException("It's not turn of player: " + activePlayer + "!");
         }
-        if (!cardToPlace.checkResourceRequested(player.getManuscript()) && cardToPlace.isFront()) {
+        if (cardToPlace.isFront() && !canPlayFront(player, cardToPlace)) {
             throw new LackResourceException("It's not possible to play card " + cardToPlace + " due to lack of resources!");
         }
         if (!player.getHandCards().contains(cardToPlace)) {
@@ -353,6 +449,19 @@ public class Game implements Serializable {
 
     }
 
+    /**
+     * Checks whether a player has the resources requested to place a card on its front side.
+     * A card can always be placed on its back side. The card is checked whatever the side it is facing,
+     * and is left as it is.
+     *
+     * @param player The player.
+     * @param card A card of the hand of the player.
+     * @return true if the manuscript of the player shows the resources requested by the card.
+     */
+    public boolean canPlayFront(Player player, AbstractCard card) {
+        return card.hasResourcesForFront(player.getManuscript());
+    }
+
     /**
      * Removes a specified card from a player's hand during the PLAY_CARD phase.
      * Replaces the removed card with a blank card, indicating the player needs to draw a replacement card.
@@ -567,312 +676,10 @@ public class Game implements Serializable {
     }
 
     public int addPointWithStrategy(Player p, AbstractCard card) {
-        int points = 0;
-        int CardId = Integer.parseInt(card.getID());
-
-        if (CardId >= 1 && CardId <= 40) {
-            if (card.isFront()) {
-                PointStrategy strategy = new EmptyStrategy();
-                points = strategy.calculatePoint(p.getManuscript(), card);
-            }
-        } else {
-            if (card.isFront()) {
-                points = card.calculatePointStrategy(p, card);
-            }
-        }
-
-        return points;
-    }
-
-    /**
-     * Reads card data from a JSON file and initializes the starting deck with the parsed information.
-     * Each card is constructed based on the JSON data, including its ID, image paths, attached resources,
-     * points, front and back corners with associated resources or pieces.
-     */
-    private void createResourceCards() {
-        String path_to_jsonfile = "src/main/java/polimi/ingsw/json/decks/DeckResources.json";
-        //List<AbstractCard> resourceCards = new ArrayList<>();
-        try {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            JsonParser parser = new JsonParser();
-            JsonElement jsonElement = parser.parse(new FileReader(path_to_jsonfile));
-            JsonObject rootObject = jsonElement.getAsJsonObject();
-            JsonArray deckResources = rootObject.getAsJsonArray("DeckResources");
-
-            for (JsonElement element : deckResources) {
-                JsonObject resourceObject = element.getAsJsonObject();
-                String ID = resourceObject.get("ID").getAsString();
-                JsonArray frontCorner = resourceObject.getAsJsonArray("frontCorner");
-                JsonArray backCorner = resourceObject.getAsJsonArray("backCorner");
-                String imagePathToFront = resourceObject.get("imagePathToFront").getAsString();
-                String imagePathToBack = resourceObject.get("imagePathToBack").getAsString();
-                String attachedResource = resourceObject.get("attachedResource").getAsString().toUpperCase();
-                int point = resourceObject.get("point").getAsInt();
-
-                Corner[] frontCorners = new Corner[NUMCORNERS];
-                Corner[] backCorners = new Corner[NUMCORNERS];
-                for (int i = 0; i < NUMCORNERS; i++) {
-                    //Elaboration of frontCorners[i]
-                    String cornerContent = frontCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        frontCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        frontCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                    //Elaboration of backCorners[i]
-                    cornerContent = backCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        backCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        backCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                }
-                Resources enumResourcesVal = Resources.valueOf(attachedResource);
-                ResourceCard card = new ResourceCard(ID, imagePathToFront, imagePathToBack, point, frontCorners, backCorners, enumResourcesVal);
-                //resourceCards.add(card);
-                resourceDeck.addCard(card);
-            }
-            //return resourceCards;
-        } catch (IOException e) {
-            System.out.println("IOException.");
-            //return null;
+        if (!card.isFront()) {
+            return 0;
         }
-    }
-
-    /**
-     * Reads card data from a JSON file and initializes the starting deck with the parsed information.
-     * Each card is constructed based on the JSON data, including its ID, image paths, attached resources,
-     * points, front and back corners with associated resources or pieces.
-     */
-    private void createGoldCards() {
-        String path_to_jsonfile = "src/main/java/polimi/ingsw/json/decks/DeckGold.json";
-        //List<AbstractCard> goldCards = new ArrayList<>();
-        try {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            JsonParser parser = new JsonParser();
-            JsonElement jsonElement = parser.parse(new FileReader(path_to_jsonfile));
-            JsonObject rootObject = jsonElement.getAsJsonObject();
-            JsonArray deckGold = rootObject.getAsJsonArray("DeckGold");
-
-            for (JsonElement element : deckGold) {
-                JsonObject goldObject = element.getAsJsonObject();
-                String ID = goldObject.get("ID").getAsString();
-                JsonArray frontCorner = goldObject.getAsJsonArray("frontCorner");
-                JsonArray backCorner = goldObject.getAsJsonArray("backCorner");
-                String imagePathToFront = goldObject.get("imagePathToFront").getAsString();
-                String imagePathToBack = goldObject.get("imagePathToBack").getAsString();
-                String attachedResource = goldObject.get("attachedResource").getAsString().toUpperCase();
-                int point = goldObject.get("point").getAsInt();
-                String forEach = goldObject.get("forEach").getAsString();
-                JsonArray requests = goldObject.getAsJsonArray("requests");
-
-                Corner[] frontCorners = new Corner[NUMCORNERS];
-                Corner[] backCorners = new Corner[NUMCORNERS];
-                int[] resourceRequested = new int[NUMCORNERS];
-                for (int i = 0; i < NUMCORNERS; i++) {
-                    //Elaboration of resourceRequested[i]
-                    resourceRequested[i] = requests.get(i).getAsInt();
-                    //Elaboration of frontCorners[i]
-                    String cornerContent = frontCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        frontCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        frontCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                    //Elaboration of backCorners[i]
-                    cornerContent = backCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        backCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        backCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                }
-                Resources enumResourcesVal = Resources.valueOf(attachedResource);
-                GoldCard card = new GoldCard(ID, imagePathToFront, imagePathToBack, point, frontCorners, backCorners, resourceRequested, enumResourcesVal, forEach);
-                goldDeck.addCard(card);
-                //goldCards.add(card);
-            }
-            //return goldCards;
-        } catch (IOException e) {
-            System.out.println("IOException.");
-            //return null;
-        }
-    }
-
-    /**
-     * Reads card data from a JSON file and initializes the starting deck with the parsed information.
-     * Each card is constructed based on the JSON data, including its ID, image paths, attached resources,
-     * points, front and back corners with associated resources or pieces.
-     */
-    private void createStartingCards() {
-        String path_to_jsonfile = "src/main/java/polimi/ingsw/json/decks/DeckStarting.json";
-        //List<AbstractCard> startingCards = new ArrayList<>();
-        List<Resources> attachedResources = new ArrayList<>();
-        try {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            JsonParser parser = new JsonParser();
-            JsonElement jsonElement = parser.parse(new FileReader(path_to_jsonfile));
-            JsonObject rootObject = jsonElement.getAsJsonObject();
-            JsonArray deckResources = rootObject.getAsJsonArray("DeckStarting");
-
-            for (JsonElement element : deckResources) {
-                JsonObject resourceObject = element.getAsJsonObject();
-                String ID = resourceObject.get("ID").getAsString();
-                JsonArray frontCorner = resourceObject.getAsJsonArray("frontCorner");
-                JsonArray backCorner = resourceObject.getAsJsonArray("backCorner");
-                String imagePathToFront = resourceObject.get("imagePathToFront").getAsString();
-                String imagePathToBack = resourceObject.get("imagePathToBack").getAsString();
-                JsonArray attachedResource = resourceObject.getAsJsonArray("attachedResource");
-                int point = resourceObject.get("point").getAsInt();
-
-                //Elaboration of attachedResources
-                for (int i = 0; i < attachedResource.size(); i++) {
-                    try {
-                        Resources enumResourcesVal = Resources.valueOf(attachedResource.get(i).getAsString().toUpperCase());
-                        attachedResources.add(enumResourcesVal);
-                    } catch (IllegalArgumentException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-
-                Corner[] frontCorners = new Corner[NUMCORNERS];
-                Corner[] backCorners = new Corner[NUMCORNERS];
-                for (int i = 0; i < NUMCORNERS; i++) {
-                    //Elaboration of frontCorners[i]
-                    String cornerContent = frontCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        frontCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        frontCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            frontCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                    //Elaboration of backCorners[i]
-                    cornerContent = backCorner.get(i).getAsString().toUpperCase();
-                    if (cornerContent.equals("NULL")) {
-                        backCorners[i] = new Corner(ID, false, null, null);
-                    } else if (cornerContent.equals("FREE")) {
-                        backCorners[i] = new Corner(ID, true, Resources.FREE, Piece.FREE);
-                    } else {
-                        try {
-                            Resources enumResourcesVal = Resources.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, enumResourcesVal, null);
-                        } catch (IllegalArgumentException e) {
-                            Piece enumPieceVal = Piece.valueOf(cornerContent);
-                            backCorners[i] = new Corner(ID, true, null, enumPieceVal);
-                        }
-                    }
-                }
-
-                StartingCard card = new StartingCard(ID, imagePathToFront, imagePathToBack, point, frontCorners, backCorners,  new ArrayList<>(attachedResources));
-                startingDeck.addCard(card);
-                //System.out.println("" +card.getID() + ": " + card.getFrontCorner() + "; " + card.getBackCorner());
-                int i = attachedResources.size() - 1;
-                while (!attachedResources.isEmpty()) {
-                    attachedResources.remove(i);
-                    i--;
-                }
-                //startingCards.add(card);
-            }
-            //return startingCards;
-        } catch (IOException e) {
-            System.out.println("IOException.");
-            //return null;
-        }
-    }
-
-    /**
-     * Reads card data from a JSON file and initializes the starting deck with the parsed information.
-     * Each card is constructed based on the JSON data, including its ID, image paths, attached resources,
-     * points, front and back corners with associated resources or pieces.
-     */
-    private void createTargetCards() {
-        String path_to_jsonfile = "src/main/java/polimi/ingsw/json/decks/DeckTarget.json";
-        //List<AbstractCard> targetCards = new ArrayList<>();
-
-        try {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            JsonParser parser = new JsonParser();
-            JsonElement jsonElement = parser.parse(new FileReader(path_to_jsonfile));
-            JsonObject rootObject = jsonElement.getAsJsonObject();
-            JsonArray deckResources = rootObject.getAsJsonArray("DeckTarget");
-
-            for (JsonElement element : deckResources) {
-                JsonObject resourceObject = element.getAsJsonObject();
-                String ID = resourceObject.get("ID").getAsString();
-                String imagePathToFront = resourceObject.get("imagePathToFront").getAsString();
-                String imagePathToBack = resourceObject.get("imagePathToBack").getAsString();
-                String color = resourceObject.get("color").getAsString().toUpperCase();
-                int point = resourceObject.get("point").getAsInt();
-                String strategy = resourceObject.get("strategy").getAsString();
-
-                TargetCard card = new TargetCard(ID, imagePathToFront, imagePathToBack, point, null, null, color, strategy);
-                targetDeck.addCard(card);
-                //targetCards.add(card);
-            }
-            //return targetCards;
-        } catch (IOException e) {
-            System.out.println("IOException.");
-            //return null;
-        }
-    }
-
-    /**
-     * Applies the singleton pattern to this class.
-     *
-     * @return The instance of the game. Ensures that the instance of {@code Game} class is not null.
-     */
-    public static Game getGameInstance() {
-        if (gameInstance == null) {
-            gameInstance = new Game();
-        }
-        return gameInstance;
-    }
-
-    /**
-     * Reset the current game instance.
-     * Ensures that the instance of {@code Game} class is null.
-     */
-    public static void resetGameInstance() {
-        gameInstance = null;
+        return card.getPointStrategy().calculatePoint(p.getManuscript(), card);
     }
 
     /**
@@ -882,6 +689,7 @@ public class Game implements Serializable {
      */
     public void restorePreviousGame(Game previousGame) {
         this.players = previousGame.getPlayers();
+        this.playersByNickname = null;
         this.numPlayer = previousGame.getNumPlayer();
         this.commonTargetCard = previousGame.getCommonTargetCard();
     }
@@ -931,7 +739,9 @@ public class Game implements Serializable {
                 .collect(Collectors.toList());
     }
     public void removePlayer(Player player) {
-        players.remove(player);
+        if (players.remove(player)) {
+            playersIndex().remove(nicknameKey(player.getNickname()));
+        }
     }
     public int getNumConnectedPlayer() {
         return players.size();
@@ -943,4 +753,178 @@ public class Game implements Serializable {
         p.setSecretTargetCard(targetCard);
     }
 
+
+    /**
+     * Writes the state of the game in a compact binary layout, read back by {@link #readSnapshot(ByteBuffer)}.
+     * Cards are written as their catalog index and side, decks as the catalog indices of the cards left,
+     * and manuscripts as their list of placements, so that a game takes a few hundred bytes.
+     *
+     * @param buffer The buffer, positioned where the game is written.
+     * @throws java.nio.BufferOverflowException if the game does not fit in the buffer.
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(GAME_ID);
+        buffer.put((byte) numPlayer);
+        buffer.putLong(seed);
+        buffer.put((byte) (status == null ? -1 : status.ordinal()));
+        for (int[] order : getDeckOrders()) {
+            buffer.putShort((short) order.length);
+            for (int index : order) {
+                buffer.put((byte) index);
+            }
+        }
+        for (AbstractCard[] cards : new AbstractCard[][]{resourceExposedCard, goldExposedCard, commonTargetCard}) {
+            putCard(buffer, cards[0]);
+            putCard(buffer, cards[1]);
+        }
+        buffer.put((byte) players.size());
+        buffer.put((byte) players.indexOf(activePlayer));
+        for (Player player : players) {
+            putString(buffer, player.getNickname());
+            buffer.put((byte) (player.getColor() == null ? -1 : player.getColor().ordinal()));
+            buffer.putShort((short) player.getPoints());
+            buffer.put((byte) ((player.isOnlinePlayer() ? 1 : 0) | (player.isFirstPlayer() ? 2 : 0) | (player.isLastPlayer() ? 4 : 0)));
+            AbstractCard[] possibleTargets = player.getPossibleTargetCard();
+            putCard(buffer, possibleTargets[0]);
+            putCard(buffer, possibleTargets[1]);
+            int secret = -1;
+            for (int i = 0; i < possibleTargets.length; i++) {
+                if (possibleTargets[i] != null && possibleTargets[i] == player.getSecretTargetCard()) {
+                    secret = i;
+                }
+            }
+            buffer.put((byte) secret);
+            buffer.put((byte) player.getHandCards().size());
+            for (AbstractCard card : player.getHandCards()) {
+                putCard(buffer, card);
+            }
+            List<Placement> placements = player.getManuscript() == null ? List.of() : player.getManuscript().getPlacements();
+            buffer.putShort((short) placements.size());
+            for (Placement placement : placements) {
+                buffer.put((byte) placement.getDefinition());
+                buffer.put((byte) placement.getRow());
+                buffer.put((byte) placement.getColumn());
+                buffer.put((byte) (placement.isFront() ? 1 : 0));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a game written by {@link #writeSnapshot(ByteBuffer)}.
+     * The manuscripts are rebuilt by placing again their cards, the decks are left in the order they were written.
+     *
+     * @param buffer The buffer, positioned at the game.
+     * @return The game.
+     * @throws IllegalArgumentException if the bytes are not a game.
+     */
+    public static Game readSnapshot(ByteBuffer buffer) throws IllegalArgumentException {
+        try {
+            int gameId = buffer.getInt();
+            int numPlayer = buffer.get();
+            Game game = new Game(gameId, numPlayer, buffer.getLong());
+            int status = buffer.get();
+            game.status = status < 0 ? null : GameState.values()[status];
+            int[][] orders = new int[4][];
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] = new int[buffer.getShort()];
+                for (int j = 0; j < orders[i].length; j++) {
+                    orders[i][j] = buffer.get();
+                }
+            }
+            game.restoreDecks(orders);
+            for (AbstractCard[] cards : new AbstractCard[][]{game.resourceExposedCard, game.goldExposedCard, game.commonTargetCard}) {
+                cards[0] = game.getCard(buffer);
+                cards[1] = game.getCard(buffer);
+            }
+            int playerCount = buffer.get();
+            int active = buffer.get();
+            for (int i = 0; i < playerCount; i++) {
+                Player player = new Player(getString(buffer));
+                int color = buffer.get();
+                if (color >= 0) {
+                    player.setColor(Color.values()[color]);
+                    game.availableColors.remove(player.getColor());
+                }
+                player.addPoints(buffer.getShort());
+                int flags = buffer.get();
+                player.setOnlinePlayer((flags & 1) != 0);
+                player.setFirstPlayer((flags & 2) != 0);
+                if ((flags & 4) != 0) {
+                    player.setLastPlayer();
+                }
+                AbstractCard first = game.getCard(buffer);
+                AbstractCard second = game.getCard(buffer);
+                player.setPossibleTargetCard(first, second);
+                int secret = buffer.get();
+                if (secret >= 0) {
+                    player.setSecretTargetCard(secret == 0 ? first : second);
+                }
+                int handSize = buffer.get();
+                for (int j = 0; j < handSize; j++) {
+                    player.addCardToHand(game.getCard(buffer));
+                }
+                int placementCount = buffer.getShort();
+                if (placementCount > 0) {
+                    List<Placement> placements = new ArrayList<>(placementCount);
+                    for (int j = 0; j < placementCount; j++) {
+                        int definition = buffer.get();
+                        int row = buffer.get() & 0xFF;
+                        int column = buffer.get() & 0xFF;
+                        placements.add(new Placement(definition, buffer.get() == 1, row, column, 0));
+                    }
+                    player.setManuscript(Manuscript.fromPlacements(placements));
+                }
+                game.addPlayer(player);
+            }
+            game.activePlayer = active < 0 ? null : game.players.get(active);
+            return game;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or invalid game snapshot");
+        }
+    }
+
+    /**
+     * Writes a card as its catalog index and side, or one of the codes of the blank card and of no card.
+     */
+    private static void putCard(ByteBuffer buffer, AbstractCard card) {
+        if (card == null) {
+            buffer.putShort(NO_CARD);
+        } else if (BLANK_CARD_ID.equals(card.getID())) {
+            buffer.putShort(BLANK_CARD);
+        } else {
+            CardDefinition definition = CardCatalog.getInstance().get(card.getID());
+            buffer.putShort(definition == null ? NO_CARD : (short) (definition.getIndex() << 1 | (card.isFront() ? 1 : 0)));
+        }
+    }
+
+    /**
+     * Reads a card written by {@link #putCard(ByteBuffer, AbstractCard)}, creating it from the catalog.
+     */
+    private AbstractCard getCard(ByteBuffer buffer) {
+        int code = buffer.getShort();
+        if (code == NO_CARD) {
+            return null;
+        }
+        if (code == BLANK_CARD) {
+            return blankCard;
+        }
+        if ((code >> 1) >= CardCatalog.getInstance().size()) {
+            throw new IllegalArgumentException("Card " + (code >> 1) + " is not in the catalog!");
+        }
+        AbstractCard card = CardCatalog.getInstance().get(code >> 1).newCard();
+        card.setFront((code & 1) != 0);
+        return card;
+    }
+
+    private static void putString(ByteBuffer buffer, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
\ No newline at end of file
@@ -40,22 +40,27 @@ public class GoldCard extends AbstractCard {
      */
     @Override
     public boolean checkResourceRequested(Manuscript manuscript) {
-        if (!this.isFront()) {
-            return true;
-        } else {
-            AbstractCard[][] matrix = manuscript.getCompressedManuscript();
-
-            //Counts, for each resource, its number on the manuscript
-            int[] availableResources = Manuscript.getAvailableResource(matrix);
-
-            // Checks if there are enough resources for each resource type
-            for (int i = 0; i < numResourceRequested.length; i++) {
-                if (availableResources[i] < numResourceRequested[i]) {
-                    return false; // Not enough resources
-                }
+        return !this.isFront() || hasResourcesForFront(manuscript);
+    }
+
+    /**
+     * Checks if the requested resources are available in the manuscript, as if the card were facing its front side.
+     *
+     * @param manuscript the manuscript to check against
+     * @return true if there are enough available resources to satisfy the card's requests, false otherwise
+     */
+    @Override
+    boolean hasResourcesForFront(Manuscript manuscript) {
+        //Number of each resource visible on the manuscript
+        int[] availableResources = manuscript.getTotalResources();
+
+        // Checks if there are enough resources for each resource type
+        for (int i = 0; i < numResourceRequested.length; i++) {
+            if (availableResources[i] < numResourceRequested[i]) {
+                return false; // Not enough resources
             }
-            return true; // Enough resources
         }
+        return true; // Enough resources
     }
 
     /**
@@ -132,13 +137,11 @@ public class GoldCard extends AbstractCard {
     }
 
     public void ResourceStrategy(Manuscript m, int resources[]) {
-        AbstractCard[][] matrix = m.getCompressedManuscript();
-        int[] availableResources = Manuscript.getAvailableResource(matrix);;
+        int[] availableResources = m.getTotalResources();
     }
 
     public void PieceStrategy(Manuscript m, int piece[]) {
-        AbstractCard[][] matrix = m.getCompressedManuscript();
-        int[] availablePiece = calculateAvailablePiece(matrix);
+        int[] availablePiece = m.getTotalPiece();
     }
 
     public String getForEach() {
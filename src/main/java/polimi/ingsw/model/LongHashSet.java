@@ -0,0 +1,165 @@
+package polimi.ingsw.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A set of primitive long values backed by an open-addressing table with linear probing.
+ * Membership checks, insertions and removals run in constant time and never allocate,
+ * which makes it suitable for indexing manuscript cells by their packed coordinates.
+ */
+final class LongHashSet implements Serializable {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+    private int size;
+    // Long.MIN_VALUE marks empty slots, so it is tracked on its own
+    private boolean containsEmptyKey;
+
+    /**
+     * Constructs an empty set.
+     */
+    LongHashSet() {
+        table = new long[MIN_CAPACITY];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * @return the number of values in the set
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the set holds no values
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the given value is in the set.
+     *
+     * @param value the value to look for
+     * @return true if the value is in the set
+     */
+    boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+        return table[indexOf(value)] == value;
+    }
+
+    /**
+     * Adds the given value to the set.
+     *
+     * @param value the value to add
+     * @return true if the value was not already in the set
+     */
+    boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(value);
+        if (table[index] == value) {
+            return false;
+        }
+        table[index] = value;
+        size++;
+        // keep the load factor at or below one half
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given value from the set.
+     *
+     * @param value the value to remove
+     * @return true if the value was in the set
+     */
+    boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = false;
+            size--;
+            return true;
+        }
+        int mask = table.length - 1;
+        int index = indexOf(value);
+        if (table[index] != value) {
+            return false;
+        }
+        // shift back the following entries of the probe sequence so that no tombstone is needed
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = slot(table[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Copies the values of the set into a new array, in no particular order.
+     *
+     * @return the values of the set
+     */
+    long[] toArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsEmptyKey) {
+            values[i++] = EMPTY;
+        }
+        for (long value : table) {
+            if (value != EMPTY) {
+                values[i++] = value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Finds the slot holding the given value, or the empty slot where it would be inserted.
+     */
+    private int indexOf(long value) {
+        int mask = table.length - 1;
+        int index = slot(value, mask);
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        for (long value : old) {
+            if (value != EMPTY) {
+                table[indexOf(value)] = value;
+            }
+        }
+    }
+}
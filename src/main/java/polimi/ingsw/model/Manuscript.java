@@ -2,21 +2,42 @@ package polimi.ingsw.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
 /**
  * Represents a manuscript in the game.
+ * The board is sparse: only placed cards and the cells around them (available "SI" cells and
+ * blocked "NO" cells) are stored, indexed by their packed (row, column) coordinates.
+ * Cells whose indices sum to an odd number can never host a card and are reported as "NO" cells.
+ * The available cells are kept in a hash set of packed coordinates, so legality checks do not allocate.
  */
 public class Manuscript implements Serializable {
-    private final AbstractCard startingCard;
-    private final AbstractCard[][] manuscriptMatrix = new AbstractCard[81][81];
-    private final List<Cell> availableCells;
-
-    private int[] totalResources;   //plant, animal, insect, fungi : total manuscript's resources
+    /** Size of the legacy full matrix returned by {@link #getManuscript()}. */
+    public static final int MATRIX_SIZE = 81;
+    /** Row and column of the starting card. */
+    public static final int STARTING_POSITION = 40;
 
-    private int[] totalPiece;        //inkwell, quill, manuscript : total manuscript's resources
+    private final AbstractCard startingCard;
+    private final Map<Long, AbstractCard> board = new HashMap<>();
+    private final LongHashSet availableCells = new LongHashSet();
+    // sorted view of availableCells, rebuilt lazily after the frontier changes
+    private transient List<Cell> availableCellsView;
+    private final ManuscriptView view = new ManuscriptView(this);
+    // packed coordinates of the placed cards, in placement order
+    private long[] placedCells = new long[16];
+    private int placedCount;
+    // the same cards as placedCells, as compact records
+    private final List<Placement> placements = new ArrayList<>();
+
+    private final int[] totalResources;   //plant, animal, insect, fungi : total manuscript's resources
+
+    private final int[] totalPiece;        //inkwell, quill, manuscript : total manuscript's pieces
     private final AbstractCard noCard;
     private final AbstractCard yesCard;
     private int topRow;
@@ -32,51 +53,61 @@ public class Manuscript implements Serializable {
      */
     public Manuscript(AbstractCard startingCard) {
         this.startingCard = startingCard;
-        this.availableCells = new ArrayList<>();
-        initializeManuscriptMatrix();
         totalResources = new int[4];
-        for (int i = 0; i < totalResources.length; i++) {
-            totalResources[i] = 0;
-        }
         totalPiece = new int[3];
-        for (int i = 0; i < totalPiece.length; i++) {
-            totalPiece[i] = 0;
-        }
         Corner[] noCorners = new Corner[4];
         for (int i = 0; i < 4; i++) {
             noCorners[i] = new Corner("NO_" + i, false, null, null);
         }
         noCard = new ResourceCard("NO", "", "pathBack", 0, noCorners, noCorners, null);
         yesCard = new ResourceCard("SI", "", "pathBack", 0, noCorners, noCorners, null);
-        placeCard(startingCard, 40, 40);
+        initializeManuscriptMatrix();
+        placeCard(startingCard, STARTING_POSITION, STARTING_POSITION);
+    }
+
+    /**
+     * Rebuilds a manuscript by placing again, in the same order, the catalog cards of a list of placements.
+     * The first placement is the starting card.
+     *
+     * @param placements The placements, as returned by {@link #getPlacements()}.
+     * @return The rebuilt manuscript.
+     * @throws IllegalArgumentException if a card is not in the catalog or a placement is not valid.
+     */
+    public static Manuscript fromPlacements(List<Placement> placements) throws IllegalArgumentException {
+        if (placements.isEmpty()) {
+            throw new IllegalArgumentException("A manuscript needs its starting card!");
+        }
+        Manuscript manuscript = new Manuscript(newCard(placements.get(0)));
+        for (int i = 1; i < placements.size(); i++) {
+            Placement placement = placements.get(i);
+            manuscript.placeCard(newCard(placement), placement.getRow(), placement.getColumn());
+        }
+        return manuscript;
+    }
+
+    private static AbstractCard newCard(Placement placement) {
+        if (placement.getDefinition() < 0 || placement.getDefinition() >= CardCatalog.getInstance().size()) {
+            throw new IllegalArgumentException("Card " + placement.getDefinition() + " is not in the catalog!");
+        }
+        AbstractCard card = CardCatalog.getInstance().get(placement.getDefinition()).newCard();
+        card.setFront(placement.isFront());
+        return card;
     }
 
     /**
-     * Initializes the manuscript matrix with cards and sets initial parameters for printing.
-     * The matrix is populated with Card objects except for positions where indices sum to an odd number,
-     * which are initialized with a specific "NO" card.
-     * Additionally, places a "yesCard" at the starting position (row=40, column=40) and adds this position
+     * Initializes the board and sets initial parameters for printing.
+     * Places a "yesCard" at the starting position (row=40, column=40) and adds this position
      * to the list of available cells for further use.
      * Initializes topRow, bottomRow, leftColumn, and rightColumn to 40.
      */
     private void initializeManuscriptMatrix() {
-        // initialize the matrix with noCard
-        for (int i = 0; i < manuscriptMatrix.length; i++) {
-            for (int j = 0; j < manuscriptMatrix[i].length; j++) {
-                if ((i + j) % 2 != 0) {
-                    // add ID of the NO card
-                    manuscriptMatrix[i][j] = new ResourceCard("NO", "", "pathBack", 0, new Corner[4], new Corner[4], null);
-                }
-            }
-        }
-
         // place yes card in starting position row=40 and column=40
-        manuscriptMatrix[40][40] = yesCard;
-        // add starting Cell to @availableCells list
-        availableCells.add(new Cell(40, 40));
+        setCard(yesCard, STARTING_POSITION, STARTING_POSITION);
+        // add starting Cell to @availableCells set
+        addAvailableCell(STARTING_POSITION, STARTING_POSITION);
 
         //initialize printingVariable
-        topRow = bottomRow = leftColumn = rightColumn = 40;
+        topRow = bottomRow = leftColumn = rightColumn = STARTING_POSITION;
     }
 
     /**
@@ -90,33 +121,68 @@ public class Manuscript implements Serializable {
 
     /**
      * Sets the side of the starting card in the manuscript.
+     * While it is the only card, the cells around it are opened or closed again by the corners of the new side,
+     * so that the manuscript is the one {@link #fromPlacements(List)} rebuilds.
      *
      * @param side The side of the starting card.
      */
     public void setStartingCardSide(boolean side) {
+        updateTotals(startingCard, -1);
         startingCard.setFront(side);
+        updateTotals(startingCard, 1);
+        placements.set(0, placements.get(0).withFront(side));
+        if (placedCount > 1) {
+            // the corners of the starting card are covered or blocked by the cards placed since
+            return;
+        }
+
+        int row = STARTING_POSITION;
+        int column = STARTING_POSITION;
+        resetCorner(row - 1, column - 1);
+        resetCorner(row - 1, column + 1);
+        resetCorner(row + 1, column - 1);
+        resetCorner(row + 1, column + 1);
+        updateCorner(row, column, startingCard.existTopLeftCorner(), row - 1, column - 1);
+        updateCorner(row, column, startingCard.existTopRightCorner(), row - 1, column + 1);
+        updateCorner(row, column, startingCard.existBottomLeftCorner(), row + 1, column - 1);
+        updateCorner(row, column, startingCard.existBottomRightCorner(), row + 1, column + 1);
+    }
+
+    /**
+     * Empties a cell marked as available or blocked, so that its corner is checked again.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     */
+    private void resetCorner(int row, int column) {
+        board.remove(key(row, column));
+        removeAvailableCell(row, column);
     }
 
     /**
-     * Sets the specified AbstractCard object at the given row and column in the manuscript matrix.
+     * Sets the specified AbstractCard object at the given row and column of the board.
      *
      * @param card The AbstractCard object to set at the specified position.
      * @param row The row index where the card should be placed.
      * @param column The column index where the card should be placed.
      */
     private void setCard(AbstractCard card, int row, int column) {
-        manuscriptMatrix[row][column] = card;
+        board.put(key(row, column), card);
     }
 
     /**
-     * Retrieves the AbstractCard object located at the specified row and column in the manuscript matrix.
+     * Retrieves the AbstractCard object located at the specified row and column of the board.
+     * Cells whose indices sum to an odd number always hold the "NO" card.
      *
      * @param row The row index of the card to retrieve.
      * @param column The column index of the card to retrieve.
-     * @return The AbstractCard object at the specified position in the manuscript matrix.
+     * @return The AbstractCard object at the specified position, or null if the cell is still empty.
      */
     public AbstractCard getCard(int row, int column) {
-        return manuscriptMatrix[row][column];
+        if (((row + column) & 1) != 0) {
+            return noCard;
+        }
+        return board.get(key(row, column));
     }
 
     /**
@@ -145,14 +211,16 @@ public class Manuscript implements Serializable {
      * @throws IllegalStateException if the cell is not available
      */
     public void placeCard(AbstractCard card, int row, int column) throws IllegalArgumentException {
-        // Check if the cell is contained in availableCells
-        Cell currentCell = new Cell(row, column);
-        if (!availableCells.contains(currentCell)) {
+        // Check if the cell is contained in availableCells and remove it
+        if (!removeAvailableCell(row, column)) {
             throw new IllegalArgumentException("Cell [" + row + "," + column + "] is not available!");
         }
 
-        availableCells.remove(currentCell);
         setCard(card, row, column);
+        if (placedCount == placedCells.length) {
+            placedCells = Arrays.copyOf(placedCells, placedCount * 2);
+        }
+        placedCells[placedCount++] = key(row, column);
 
         // Checking and updating with YES or NO card
         updateCorner(row, column, card.existTopLeftCorner(), row - 1, column - 1);
@@ -161,10 +229,24 @@ public class Manuscript implements Serializable {
         updateCorner(row, column, card.existBottomRightCorner(), row + 1, column + 1);
 
         // Checking and link covered card with new placed one
-        updateAttachedCard(row - 1, column - 1, card, AbstractCard::setBottomRightCard, AbstractCard::existBottomRightCorner);
-        updateAttachedCard(row - 1, column + 1, card, AbstractCard::setBottomLeftCard, AbstractCard::existBottomLeftCorner);
-        updateAttachedCard(row + 1, column - 1, card, AbstractCard::setTopRightCard, AbstractCard::existTopRightCorner);
-        updateAttachedCard(row + 1, column + 1, card, AbstractCard::setTopLeftCard, AbstractCard::existTopLeftCorner);
+        int coveredCorners = 0;
+        if (updateAttachedCard(row - 1, column - 1, card, AbstractCard::setBottomRightCard, AbstractCard::existBottomRightCorner)) {
+            coveredCorners |= Placement.TOP_LEFT;
+        }
+        if (updateAttachedCard(row - 1, column + 1, card, AbstractCard::setBottomLeftCard, AbstractCard::existBottomLeftCorner)) {
+            coveredCorners |= Placement.TOP_RIGHT;
+        }
+        if (updateAttachedCard(row + 1, column - 1, card, AbstractCard::setTopRightCard, AbstractCard::existTopRightCorner)) {
+            coveredCorners |= Placement.BOTTOM_LEFT;
+        }
+        if (updateAttachedCard(row + 1, column + 1, card, AbstractCard::setTopLeftCard, AbstractCard::existTopLeftCorner)) {
+            coveredCorners |= Placement.BOTTOM_RIGHT;
+        }
+        CardDefinition definition = card.getDefinition();
+        placements.add(new Placement(definition == null ? -1 : definition.getIndex(), card.isFront(), row, column, coveredCorners));
+
+        // add the symbols visible on the new card, once its neighbours are linked
+        updateTotals(card, 1);
 
         // update printing variables for display compressed manuscript
         updatePrintingVariables(row, column);
@@ -185,12 +267,15 @@ public class Manuscript implements Serializable {
     private void updateCorner(int row, int column, boolean cornerExist, int checkRow, int checkColumn) {
         AbstractCard existingCard = getCard(checkRow, checkColumn);
         if (cornerExist && (existingCard == null || yesCard.equals(existingCard))) {
-            setCard(yesCard, checkRow, checkColumn);
-            availableCells.add(new Cell(checkRow, checkColumn));
+            if (existingCard == null) {
+                // a cell already marked as available must not be listed twice
+                setCard(yesCard, checkRow, checkColumn);
+                addAvailableCell(checkRow, checkColumn);
+            }
         } else {
             if (existingCard == null || yesCard.equals(existingCard)) {
                 setCard(noCard, checkRow, checkColumn);
-                availableCells.remove(new Cell(checkRow, checkColumn));
+                removeAvailableCell(checkRow, checkColumn);
             }
         }
     }
@@ -199,27 +284,158 @@ public class Manuscript implements Serializable {
      * Updates the attached card of a specific cell in the manuscript matrix based on the provided parameters.
      * Retrieves the current attached card at the specified row and column, and if it exists and satisfies
      * the given cornerChecker predicate, sets it using the provided BiConsumer setter function with the currentCard.
+     * The symbols hidden by covering the corner are removed from the manuscript totals.
      *
      * @param row The row index of the cell whose attached card is being updated.
      * @param column The column index of the cell whose attached card is being updated.
      * @param currentCard The new current card to set as attached.
      * @param setter The BiConsumer function used to set the attached card.
      * @param cornerChecker The predicate to check if the existing attached card satisfies the condition.
+     * @return true if a corner of the card in the cell has been covered.
      */
-    private void updateAttachedCard(int row, int column, AbstractCard currentCard, BiConsumer<AbstractCard, AbstractCard> setter, Predicate<AbstractCard> cornerChecker) {
+    private boolean updateAttachedCard(int row, int column, AbstractCard currentCard, BiConsumer<AbstractCard, AbstractCard> setter, Predicate<AbstractCard> cornerChecker) {
         AbstractCard attachedCard = getCard(row, column);
         if (attachedCard != null && cornerChecker.test(attachedCard)) {
+            updateTotals(attachedCard, -1);
             setter.accept(attachedCard, currentCard);
+            updateTotals(attachedCard, 1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds (or removes, with a negative sign) the resources and pieces currently visible on a card
+     * to the manuscript totals.
+     *
+     * @param card The card whose visible symbols are counted.
+     * @param sign 1 to add the symbols, -1 to remove them.
+     */
+    private void updateTotals(AbstractCard card, int sign) {
+        int[] resources = card.getActualResource();
+        for (int i = 0; i < totalResources.length; i++) {
+            totalResources[i] += sign * resources[i];
+        }
+        int[] pieces = card.getActualPiece();
+        for (int i = 0; i < totalPiece.length; i++) {
+            totalPiece[i] += sign * pieces[i];
+        }
+    }
+
+    private void addAvailableCell(int row, int column) {
+        if (availableCells.add(key(row, column))) {
+            availableCellsView = null;
+        }
+    }
+
+    private boolean removeAvailableCell(int row, int column) {
+        if (availableCells.remove(key(row, column))) {
+            availableCellsView = null;
+            return true;
         }
+        return false;
     }
 
     /**
-     * Gets the list of available cells in the manuscript.
+     * Checks whether a card can be placed on the specified cell.
+     *
+     * @param row The row index of the cell.
+     * @param column The column index of the cell.
+     * @return true if the cell is available.
+     */
+    public boolean isAvailable(int row, int column) {
+        return availableCells.contains(key(row, column));
+    }
+
+    /**
+     * Gets the number of available cells in the manuscript.
+     *
+     * @return The number of available cells.
+     */
+    public int getAvailableCellsCount() {
+        return availableCells.size();
+    }
+
+    /**
+     * Gets the list of available cells in the manuscript, ordered by row and then by column.
+     * The returned list is read-only and is rebuilt only after the available cells change.
      *
      * @return The list of available cells.
      */
     public List<Cell> getAvailableCells() {
-        return availableCells;
+        if (availableCellsView == null) {
+            long[] keys = availableCells.toArray();
+            Arrays.sort(keys);
+            List<Cell> cells = new ArrayList<>(keys.length);
+            for (long cellKey : keys) {
+                cells.add(new Cell(rowOf(cellKey), columnOf(cellKey)));
+            }
+            availableCellsView = Collections.unmodifiableList(cells);
+        }
+        return availableCellsView;
+    }
+
+    /**
+     * Gets the packed coordinates of the placed cards, starting card included, in placement order.
+     * Use {@link #rowOf(long)} and {@link #columnOf(long)} to unpack them.
+     *
+     * @return A new array with the coordinates of the placed cards.
+     */
+    public long[] getPlacedCells() {
+        return Arrays.copyOf(placedCells, placedCount);
+    }
+
+    /**
+     * Gets the placed cards, starting card included, in placement order.
+     *
+     * @return A read-only list of the placements.
+     */
+    public List<Placement> getPlacements() {
+        return Collections.unmodifiableList(placements);
+    }
+
+    /**
+     * @return The number of cards placed on the manuscript, starting card included.
+     */
+    public int getPlacedCount() {
+        return placedCount;
+    }
+
+    /**
+     * Packs a (row, column) pair into a single long, as used by {@link #getPlacedCells()}.
+     *
+     * @param row The row index.
+     * @param column The column index.
+     * @return The packed coordinates.
+     */
+    public static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param cellKey Packed coordinates.
+     * @return The row of the packed coordinates.
+     */
+    public static int rowOf(long cellKey) {
+        return (int) (cellKey >> 32);
+    }
+
+    /**
+     * @param cellKey Packed coordinates.
+     * @return The column of the packed coordinates.
+     */
+    public static int columnOf(long cellKey) {
+        return (int) cellKey;
+    }
+
+    /**
+     * Gets a read-only view over the used portion of the manuscript.
+     * The view reads the live board, so it always reflects the latest placements without copying.
+     *
+     * @return The view of the manuscript.
+     */
+    public ManuscriptView getView() {
+        return view;
     }
 
     /**
@@ -235,10 +451,11 @@ public class Manuscript implements Serializable {
         // Create a new matrix for the compressed matrix to return
         AbstractCard[][] compressedMatrix = new AbstractCard[compressedRows][compressedColumns];
 
-        // Copy the utilized cells from original manuscriptMatrix to compressedMatrix
+        // Copy the utilized cells from the board to compressedMatrix
         for (int i = bottomRow; i <= topRow; i++) {
-            if (rightColumn + 1 - leftColumn >= 0)
-                System.arraycopy(manuscriptMatrix[i], leftColumn, compressedMatrix[i - bottomRow], leftColumn - leftColumn, rightColumn + 1 - leftColumn);
+            for (int j = leftColumn; j <= rightColumn; j++) {
+                compressedMatrix[i - bottomRow][j - leftColumn] = getCard(i, j);
+            }
         }
         return compressedMatrix;
     }
@@ -265,13 +482,14 @@ public class Manuscript implements Serializable {
         for (int row = bottomRow; row <= topRow; row++) {
             result.append(String.format("%-5d", row)); // Row number
             for (int col = leftColumn; col <= rightColumn; col++) {
-                if (manuscriptMatrix[row][col] != null) {
-                    if (manuscriptMatrix[row][col].getID() == ("NO")) {
+                AbstractCard card = getCard(row, col);
+                if (card != null) {
+                    if (card == noCard) {
                         result.append(String.format("%-8s", '×'));
-                    } else if (manuscriptMatrix[row][col].getID() == ("SI")) {
+                    } else if (card == yesCard) {
                         result.append(String.format("%-8s", '✓'));
                     } else {
-                        result.append(String.format("%-8s", manuscriptMatrix[row][col].getID()));
+                        result.append(String.format("%-8s", card.getID()));
                     }
 
                 } else {
@@ -322,12 +540,20 @@ public class Manuscript implements Serializable {
     }
 
     /**
-     * Gets the matrix representing the manuscript.
+     * Gets the full 81x81 matrix representing the manuscript.
+     * The matrix is built from the sparse board on every call, so callers on a hot path
+     * should prefer {@link #getCard(int, int)} or {@link #getCompressedManuscript()}.
      *
      * @return The matrix representing the manuscript.
      */
     public AbstractCard[][] getManuscript() {
-        return manuscriptMatrix;
+        AbstractCard[][] matrix = new AbstractCard[MATRIX_SIZE][MATRIX_SIZE];
+        for (int row = 0; row < MATRIX_SIZE; row++) {
+            for (int col = 0; col < MATRIX_SIZE; col++) {
+                matrix[row][col] = getCard(row, col);
+            }
+        }
+        return matrix;
     }
 
     /**
@@ -426,39 +652,49 @@ public class Manuscript implements Serializable {
         return availablePiece;
     }
 
+    /**
+     * Gets the resources currently visible on the manuscript, kept up to date on every placement.
+     * The returned array must not be modified.
+     *
+     * @return The counts of plant, animal, insect and fungi resources.
+     */
     public int[] getTotalResources() {
         return totalResources;
     }
+
+    /**
+     * Gets the pieces currently visible on the manuscript, kept up to date on every placement.
+     * The returned array must not be modified.
+     *
+     * @return The counts of inkwell, quill and manuscript pieces.
+     */
     public int[] getTotalPiece() {
         return totalPiece;
     }
     public AbstractCard[][] getFullManuscript() {
-        return manuscriptMatrix;
+        return getManuscript();
     }
     public boolean placeCardCheck(AbstractCard card, int row, int column) throws IllegalStateException {
         // Check if the cell is contained in availableCells
-        Cell currentCell = new Cell(row, column);
-        if (!availableCells.contains(currentCell))
-            return true;
-        else
-            return false;
+        return !isAvailable(row, column);
     }
     public String toString() {
         StringBuilder result = new StringBuilder();
 
         // Add column headings
         result.append(String.format("%-5s", "")); // Room for row numbers
-        for (int col = 0; col < manuscriptMatrix[0].length; col++) {
+        for (int col = 0; col < MATRIX_SIZE; col++) {
             result.append(String.format("%-8d", col));
         }
         result.append("\n");
 
         // Add matrix data
-        for (int row = 0; row < manuscriptMatrix.length; row++) {
+        for (int row = 0; row < MATRIX_SIZE; row++) {
             result.append(String.format("%-5d", row)); // Row number
-            for (int col = 0; col < manuscriptMatrix[row].length; col++) {
-                if (manuscriptMatrix[row][col] != null) {
-                    result.append(String.format("%-8s", manuscriptMatrix[row][col].getID()));
+            for (int col = 0; col < MATRIX_SIZE; col++) {
+                AbstractCard card = getCard(row, col);
+                if (card != null) {
+                    result.append(String.format("%-8s", card.getID()));
                 } else {
                     result.append("        "); // 8 empty spaces to keep the same format
                 }
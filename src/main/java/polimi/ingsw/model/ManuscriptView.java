@@ -0,0 +1,89 @@
+package polimi.ingsw.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Read-only view over the used portion of a manuscript.
+ * Coordinates are relative to the bounding box of the placed cards, exactly as in
+ * {@link Manuscript#getCompressedManuscript()}, but cards are read straight from the live board
+ * instead of being copied into a new matrix.
+ * Reading outside the bounding box returns null.
+ */
+public final class ManuscriptView implements Serializable {
+    private final Manuscript manuscript;
+
+    /**
+     * Constructs a view over the given manuscript.
+     *
+     * @param manuscript The manuscript to read from.
+     */
+    ManuscriptView(Manuscript manuscript) {
+        this.manuscript = manuscript;
+    }
+
+    /**
+     * @return The number of rows of the bounding box.
+     */
+    public int getRows() {
+        return manuscript.getTopRow() - manuscript.getBottomRow() + 1;
+    }
+
+    /**
+     * @return The number of columns of the bounding box.
+     */
+    public int getColumns() {
+        return manuscript.getRightColumn() - manuscript.getLeftColumn() + 1;
+    }
+
+    /**
+     * @return The manuscript row corresponding to the first row of the view.
+     */
+    public int getFirstRow() {
+        return manuscript.getBottomRow();
+    }
+
+    /**
+     * @return The manuscript column corresponding to the first column of the view.
+     */
+    public int getFirstColumn() {
+        return manuscript.getLeftColumn();
+    }
+
+    /**
+     * Retrieves the card at the given position, relative to the bounding box.
+     *
+     * @param row The row index inside the view.
+     * @param column The column index inside the view.
+     * @return The card at the given position, or null if the cell is empty or outside the view.
+     */
+    public AbstractCard get(int row, int column) {
+        if (row < 0 || column < 0 || row >= getRows() || column >= getColumns()) {
+            return null;
+        }
+        return manuscript.getCard(manuscript.getBottomRow() + row, manuscript.getLeftColumn() + column);
+    }
+
+    /**
+     * @return The starting card of the manuscript.
+     */
+    public AbstractCard getStartingCard() {
+        return manuscript.getStartingCard();
+    }
+
+    /**
+     * @return The placed cards, starting card included, in placement order.
+     */
+    public List<Placement> getPlacements() {
+        return manuscript.getPlacements();
+    }
+
+    /**
+     * Copies the view into a new matrix, for callers that need an array.
+     *
+     * @return The compressed manuscript matrix.
+     */
+    public AbstractCard[][] toArray() {
+        return manuscript.getCompressedManuscript();
+    }
+}
@@ -0,0 +1,113 @@
+package polimi.ingsw.model;
+
+import java.io.Serializable;
+
+/**
+ * Compact, immutable record of a card placed on a manuscript.
+ * The card is identified by the index of its {@link CardDefinition} in the {@link CardCatalog},
+ * so a placement can be shared, hashed and sent over the network without the card itself.
+ * Replaying the placements of a manuscript in order rebuilds the manuscript.
+ */
+public final class Placement implements Serializable {
+    /** Bits of {@link #getCoveredCorners()}, one for each neighbour covered by the card. */
+    public static final int TOP_LEFT = 1;
+    public static final int TOP_RIGHT = 1 << 1;
+    public static final int BOTTOM_LEFT = 1 << 2;
+    public static final int BOTTOM_RIGHT = 1 << 3;
+
+    private final int definition;
+    private final boolean front;
+    private final int row;
+    private final int column;
+    private final byte coveredCorners;
+
+    /**
+     * Constructs a placement.
+     *
+     * @param definition     The catalog index of the card, or -1 for a card outside the catalog.
+     * @param front          true if the card was placed on its front side.
+     * @param row            The row of the card.
+     * @param column         The column of the card.
+     * @param coveredCorners The neighbours whose corner was covered by the card, as a mask of the bits of this class.
+     */
+    public Placement(int definition, boolean front, int row, int column, int coveredCorners) {
+        this.definition = definition;
+        this.front = front;
+        this.row = row;
+        this.column = column;
+        this.coveredCorners = (byte) coveredCorners;
+    }
+
+    /**
+     * @return The catalog index of the card, or -1 for a card outside the catalog.
+     */
+    public int getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return true if the card was placed on its front side.
+     */
+    public boolean isFront() {
+        return front;
+    }
+
+    /**
+     * @return The row of the card.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * @return The column of the card.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return The neighbours whose corner was covered by the card, as a mask of the bits of this class.
+     */
+    public int getCoveredCorners() {
+        return coveredCorners;
+    }
+
+    /**
+     * Creates a copy of this placement facing the given side.
+     *
+     * @param front true for the front side.
+     * @return The placement on the given side.
+     */
+    public Placement withFront(boolean front) {
+        return new Placement(definition, front, row, column, coveredCorners);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Placement that = (Placement) o;
+        return definition == that.definition && front == that.front && row == that.row
+                && column == that.column && coveredCorners == that.coveredCorners;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * definition + (front ? 1 : 0);
+        result = 31 * result + row;
+        result = 31 * result + column;
+        return 31 * result + coveredCorners;
+    }
+
+    @Override
+    public String toString() {
+        return "Placement{" +
+                "definition=" + definition +
+                ", front=" + front +
+                ", row=" + row +
+                ", column=" + column +
+                ", coveredCorners=" + coveredCorners +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package polimi.ingsw.model.strategy;
 
 import polimi.ingsw.model.AbstractCard;
 import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.ManuscriptView;
 
 /**
  * The AnglesCovered class implements the PointStrategy interface and calculates points for a given manuscript and card.
@@ -17,33 +18,33 @@ public class AnglesCovered implements PointStrategy {
      */
     public int calculatePoint(Manuscript m, AbstractCard c) {
 
-        AbstractCard[][] matrix = m.getCompressedManuscript();
-        int rows = matrix.length;
-        int col = matrix[0].length;
+        ManuscriptView matrix = m.getView();
+        int rows = matrix.getRows();
+        int col = matrix.getColumns();
         int points = 0;
 
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < col; j++) {
-                if(matrix[i][j] != null) {
+                if(matrix.get(i, j) != null) {
 
-                    if ( matrix[i][j].getID().equals(c.getID()) ) {
+                    if ( matrix.get(i, j).getID().equals(c.getID()) ) {
 
-                        if (!matrix[i +1 ][j +1 ].getID().equals("SI") && !matrix[i + 1][j +1].getID().equals("NO")) {
+                        if (!matrix.get(i +1, j +1).getID().equals("SI") && !matrix.get(i + 1, j +1).getID().equals("NO")) {
                             points += 2;
                         }
 
 
-                        if (!matrix[i +1 ][j -1].getID().equals("SI") && !matrix[i +1][j-1].getID().equals("NO")) {
+                        if (!matrix.get(i +1, j -1).getID().equals("SI") && !matrix.get(i +1, j-1).getID().equals("NO")) {
                             points += 2;
                         }
 
 
-                        if (!matrix[i -1 ][j +1].getID().equals("SI") && !matrix[i-1][j+1].getID().equals("NO")) {
+                        if (!matrix.get(i -1, j +1).getID().equals("SI") && !matrix.get(i-1, j+1).getID().equals("NO")) {
                            points += 2;
                         }
 
 
-                        if (!matrix[i-1][j-1].getID().equals("SI") && !matrix[i-1][j-1].getID().equals("NO")) {
+                        if (!matrix.get(i-1, j-1).getID().equals("SI") && !matrix.get(i-1, j-1).getID().equals("NO")) {
                             points += 2;
                         }
                     }
@@ -54,8 +55,8 @@ public class AnglesCovered implements PointStrategy {
     }
 
 
-    private boolean isValid(AbstractCard[][] matrix, int i, int j) {
-        return i >= 0 && i < matrix.length && j >= 0 && j < matrix[0].length && matrix[i][j].getID() != null;
+    private boolean isValid(ManuscriptView matrix, int i, int j) {
+        return matrix.get(i, j) != null && matrix.get(i, j).getID() != null;
     }
 }
 
@@ -0,0 +1,189 @@
+package polimi.ingsw.model.strategy;
+
+import polimi.ingsw.model.Resources;
+
+/**
+ * Shape descriptor of an objective, evaluated by the {@link PatternEngine}.
+ * An objective is either a pattern of cards with given resources at fixed offsets (diagonals, L-shapes),
+ * or a set of symbols that has to be visible on the manuscript (resources or pieces).
+ * New objectives only need a new descriptor: the engine does not depend on their shape.
+ */
+public final class Objective {
+    private final int points;
+    // pattern objectives: offsets from the anchor, which is the first card of the pattern in row-major order
+    private final int[] rowOffsets;
+    private final int[] columnOffsets;
+    private final Resources[] resources;
+    // symbol set objectives: symbols needed for every completed set
+    private final int[] resourcesPerSet;
+    private final int[] piecesPerSet;
+
+    private static final int FIRST_TARGET_ID = 87;
+    private static final int LAST_TARGET_ID = 102;
+
+    /** Three cards of the same resource on a diagonal going up to the right. */
+    private static final int[] RISING_ROWS = {0, 1, 2};
+    private static final int[] RISING_COLUMNS = {0, -1, -2};
+    /** Three cards of the same resource on a diagonal going down to the right. */
+    private static final int[] FALLING_ROWS = {0, 1, 2};
+    private static final int[] FALLING_COLUMNS = {0, 1, 2};
+
+    public static final Objective FUNGI_DIAGONAL = pattern(2, RISING_ROWS, RISING_COLUMNS, Resources.FUNGI, Resources.FUNGI, Resources.FUNGI);
+    public static final Objective PLANT_DIAGONAL = pattern(2, FALLING_ROWS, FALLING_COLUMNS, Resources.PLANT, Resources.PLANT, Resources.PLANT);
+    public static final Objective ANIMAL_DIAGONAL = pattern(2, RISING_ROWS, RISING_COLUMNS, Resources.ANIMAL, Resources.ANIMAL, Resources.ANIMAL);
+    public static final Objective INSECT_DIAGONAL = pattern(2, FALLING_ROWS, FALLING_COLUMNS, Resources.INSECT, Resources.INSECT, Resources.INSECT);
+
+    /** Two fungi in a column with a plant below on the right. */
+    public static final Objective L_CONFIGURATION_ONE = pattern(3, new int[]{0, 2, 3}, new int[]{0, 0, 1}, Resources.FUNGI, Resources.FUNGI, Resources.PLANT);
+    /** Two plants in a column with an insect below on the left. */
+    public static final Objective L_CONFIGURATION_TWO = pattern(3, new int[]{0, 2, 3}, new int[]{0, 0, -1}, Resources.PLANT, Resources.PLANT, Resources.INSECT);
+    /** Two animals in a column with a fungi above on the right. */
+    public static final Objective L_CONFIGURATION_THREE = pattern(3, new int[]{0, 1, 3}, new int[]{0, -1, -1}, Resources.FUNGI, Resources.ANIMAL, Resources.ANIMAL);
+    /** Two insects in a column with an animal above on the left. */
+    public static final Objective L_CONFIGURATION_FOUR = pattern(3, new int[]{0, 1, 3}, new int[]{0, 1, 1}, Resources.ANIMAL, Resources.INSECT, Resources.INSECT);
+
+    private static final Objective[] TARGET_OBJECTIVES = {
+            FUNGI_DIAGONAL,
+            PLANT_DIAGONAL,
+            ANIMAL_DIAGONAL,
+            INSECT_DIAGONAL,
+            L_CONFIGURATION_ONE,
+            L_CONFIGURATION_TWO,
+            L_CONFIGURATION_THREE,
+            L_CONFIGURATION_FOUR,
+            symbols(2, new int[]{0, 0, 0, 3}, new int[3]),
+            symbols(2, new int[]{3, 0, 0, 0}, new int[3]),
+            symbols(2, new int[]{0, 3, 0, 0}, new int[3]),
+            symbols(2, new int[]{0, 0, 3, 0}, new int[3]),
+            symbols(3, new int[4], new int[]{1, 1, 1}),
+            symbols(1, new int[4], new int[]{0, 0, 2}),
+            symbols(1, new int[4], new int[]{2, 0, 0}),
+            symbols(1, new int[4], new int[]{0, 2, 0}),
+    };
+
+    private Objective(int points, int[] rowOffsets, int[] columnOffsets, Resources[] resources, int[] resourcesPerSet, int[] piecesPerSet) {
+        this.points = points;
+        this.rowOffsets = rowOffsets;
+        this.columnOffsets = columnOffsets;
+        this.resources = resources;
+        this.resourcesPerSet = resourcesPerSet;
+        this.piecesPerSet = piecesPerSet;
+    }
+
+    /**
+     * Creates a pattern objective.
+     * The first offset must be (0, 0) and the cells must be listed in row-major order,
+     * so that matching from the top-left card of every pattern is deterministic.
+     *
+     * @param points        the points awarded for every occurrence of the pattern
+     * @param rowOffsets    the row offsets of the cards of the pattern
+     * @param columnOffsets the column offsets of the cards of the pattern
+     * @param resources     the resource required on each card of the pattern
+     * @return the objective
+     */
+    public static Objective pattern(int points, int[] rowOffsets, int[] columnOffsets, Resources... resources) {
+        if (rowOffsets.length != resources.length || columnOffsets.length != resources.length
+                || rowOffsets[0] != 0 || columnOffsets[0] != 0) {
+            throw new IllegalArgumentException("Invalid pattern");
+        }
+        return new Objective(points, rowOffsets, columnOffsets, resources, null, null);
+    }
+
+    /**
+     * Creates a symbol set objective.
+     *
+     * @param points          the points awarded for every completed set
+     * @param resourcesPerSet the plant, animal, insect and fungi resources needed for a set
+     * @param piecesPerSet    the inkwell, quill and manuscript pieces needed for a set
+     * @return the objective
+     */
+    public static Objective symbols(int points, int[] resourcesPerSet, int[] piecesPerSet) {
+        return new Objective(points, null, null, null, resourcesPerSet, piecesPerSet);
+    }
+
+    /**
+     * Gets the objective of a target card.
+     *
+     * @param cardId the ID of the target card
+     * @return the objective of the card, or null if the ID does not belong to a target card
+     */
+    public static Objective forTargetCard(int cardId) {
+        if (cardId < FIRST_TARGET_ID || cardId > LAST_TARGET_ID) {
+            return null;
+        }
+        return TARGET_OBJECTIVES[cardId - FIRST_TARGET_ID];
+    }
+
+    /**
+     * @return true if the objective is a pattern of cards
+     */
+    public boolean isPattern() {
+        return resources != null;
+    }
+
+    /**
+     * @return the points awarded for every occurrence
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Tells whether the objective counts the cards or the symbols of a kingdom, for the players seeking it.
+     *
+     * @param resource the kingdom
+     * @return true if the cards of the pattern or the symbols of a set belong to the kingdom
+     */
+    public boolean needs(Resources resource) {
+        if (isPattern()) {
+            for (Resources needed : resources) {
+                if (needed == resource) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return resource.ordinal() < resourcesPerSet.length && resourcesPerSet[resource.ordinal()] > 0;
+    }
+
+    /**
+     * @return the number of cards of the pattern
+     */
+    int size() {
+        return resources.length;
+    }
+
+    int rowOffset(int i) {
+        return rowOffsets[i];
+    }
+
+    int columnOffset(int i) {
+        return columnOffsets[i];
+    }
+
+    Resources resource(int i) {
+        return resources[i];
+    }
+
+    /**
+     * Counts how many sets of symbols can be formed with the given totals.
+     *
+     * @param totalResources the resources visible on the manuscript
+     * @param totalPiece     the pieces visible on the manuscript
+     * @return the number of completed sets
+     */
+    int countSets(int[] totalResources, int[] totalPiece) {
+        int sets = Integer.MAX_VALUE;
+        for (int i = 0; i < resourcesPerSet.length; i++) {
+            if (resourcesPerSet[i] > 0) {
+                sets = Math.min(sets, totalResources[i] / resourcesPerSet[i]);
+            }
+        }
+        for (int i = 0; i < piecesPerSet.length; i++) {
+            if (piecesPerSet[i] > 0) {
+                sets = Math.min(sets, totalPiece[i] / piecesPerSet[i]);
+            }
+        }
+        return sets == Integer.MAX_VALUE ? 0 : sets;
+    }
+}
@@ -0,0 +1,97 @@
+package polimi.ingsw.model.strategy;
+
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.Resources;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Evaluates objectives on a manuscript in a single pass over its placed cards.
+ * Placed cards are visited in row-major order and every pattern objective is matched with the visited card
+ * as its first card. Each objective keeps a bitset of the cards already used by one of its occurrences,
+ * so a card never counts twice for the same objective.
+ * Symbol set objectives are computed from the resource and piece totals kept by the manuscript.
+ */
+public final class PatternEngine {
+
+    private PatternEngine() {
+    }
+
+    /**
+     * Evaluates a single objective.
+     *
+     * @param manuscript the manuscript to evaluate
+     * @param objective  the objective to evaluate
+     * @return the points scored with the objective
+     */
+    public static int evaluate(Manuscript manuscript, Objective objective) {
+        return evaluate(manuscript, new Objective[]{objective})[0];
+    }
+
+    /**
+     * Evaluates all the given objectives on a manuscript.
+     *
+     * @param manuscript the manuscript to evaluate
+     * @param objectives the objectives to evaluate, null entries score nothing
+     * @return the points scored with each objective, in the same order
+     */
+    public static int[] evaluate(Manuscript manuscript, Objective[] objectives) {
+        int[] points = new int[objectives.length];
+        long[] cells = manuscript.getPlacedCells();
+        Arrays.sort(cells);
+        Resources[] kinds = new Resources[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            kinds[i] = manuscript.getCard(Manuscript.rowOf(cells[i]), Manuscript.columnOf(cells[i])).getAttachedResource();
+        }
+
+        BitSet[] used = new BitSet[objectives.length];
+        for (int o = 0; o < objectives.length; o++) {
+            Objective objective = objectives[o];
+            if (objective == null) {
+                continue;
+            }
+            if (objective.isPattern()) {
+                used[o] = new BitSet(cells.length);
+            } else {
+                points[o] = objective.getPoints() * objective.countSets(manuscript.getTotalResources(), manuscript.getTotalPiece());
+            }
+        }
+
+        for (int i = 0; i < cells.length; i++) {
+            for (int o = 0; o < objectives.length; o++) {
+                if (used[o] != null && match(objectives[o], cells, kinds, used[o], i)) {
+                    points[o] += objectives[o].getPoints();
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Checks whether the pattern occurs with the given card as its first card, using only unused cards.
+     * On success the cards of the occurrence are marked as used.
+     */
+    private static boolean match(Objective pattern, long[] cells, Resources[] kinds, BitSet used, int anchor) {
+        if (used.get(anchor) || kinds[anchor] != pattern.resource(0)) {
+            return false;
+        }
+        int row = Manuscript.rowOf(cells[anchor]);
+        int column = Manuscript.columnOf(cells[anchor]);
+        for (int k = 1; k < pattern.size(); k++) {
+            int index = indexOf(cells, row + pattern.rowOffset(k), column + pattern.columnOffset(k));
+            if (index < 0 || used.get(index) || kinds[index] != pattern.resource(k)) {
+                return false;
+            }
+        }
+        used.set(anchor);
+        for (int k = 1; k < pattern.size(); k++) {
+            used.set(indexOf(cells, row + pattern.rowOffset(k), column + pattern.columnOffset(k)));
+        }
+        return true;
+    }
+
+    private static int indexOf(long[] sortedCells, int row, int column) {
+        return Arrays.binarySearch(sortedCells, Manuscript.key(row, column));
+    }
+}
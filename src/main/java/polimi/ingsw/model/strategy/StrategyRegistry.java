@@ -0,0 +1,79 @@
+package polimi.ingsw.model.strategy;
+
+/**
+ * Registry of the point strategies of every card, indexed by the numeric card ID.
+ * Strategies are stateless, so one shared instance of each is enough for every game.
+ * The table is built once when the class is loaded:
+ *  - resource (1-40) and starting (81-86) cards score their printed points;
+ *  - gold cards (41-80) are chosen by the last digit of the ID: 1-3 count pieces, 4-6 count covered angles,
+ *    the others score their printed points;
+ *  - target cards (87-102) use the diagonal, L-shaped or symbol set strategies.
+ */
+public final class StrategyRegistry {
+    private static final int MAX_CARD_ID = 102;
+
+    private static final PointStrategy EMPTY = new EmptyStrategy();
+    private static final PointStrategy THREE_PIECE = new ThreePiece();
+    private static final PointStrategy ANGLES_COVERED = new AnglesCovered();
+    private static final PointStrategy DIAGONALS = new Diagonals();
+    private static final PointStrategy[] L_CONFIGURATIONS = {
+            new LconfigurationOne(),
+            new LconfigurationTwo(),
+            new LconfigurationThree(),
+            new LconfigurationFour()
+    };
+
+    private static final PointStrategy[] STRATEGIES = new PointStrategy[MAX_CARD_ID + 1];
+
+    static {
+        for (int id = 1; id <= 86; id++) {
+            STRATEGIES[id] = EMPTY;
+        }
+        for (int id = 41; id <= 80; id++) {
+            int check = id % 10;
+            if (check >= 1 && check <= 3) {
+                STRATEGIES[id] = THREE_PIECE;
+            } else if (check >= 4 && check <= 6) {
+                STRATEGIES[id] = ANGLES_COVERED;
+            }
+        }
+        for (int code = 1; code <= 16; code++) {
+            STRATEGIES[86 + code] = forTargetStrategy(code);
+        }
+    }
+
+    private StrategyRegistry() {
+    }
+
+    /**
+     * Gets the strategy of a card.
+     *
+     * @param cardId the numeric ID of the card
+     * @return the strategy of the card, or the empty strategy if the ID is unknown
+     */
+    public static PointStrategy forCard(int cardId) {
+        if (cardId < 0 || cardId > MAX_CARD_ID || STRATEGIES[cardId] == null) {
+            return EMPTY;
+        }
+        return STRATEGIES[cardId];
+    }
+
+    /**
+     * Gets the strategy of a target card from the strategy code found in the target deck,
+     * from 1 to 4 for the diagonals, 5 to 8 for the L-shapes and 9 to 16 for the symbol sets.
+     *
+     * @param code the strategy code of the target card
+     * @return the strategy of the target card
+     * @throws IllegalArgumentException if the code is unknown
+     */
+    public static PointStrategy forTargetStrategy(int code) {
+        if (code >= 1 && code <= 4) {
+            return DIAGONALS;
+        } else if (code >= 5 && code <= 8) {
+            return L_CONFIGURATIONS[code - 5];
+        } else if (code >= 9 && code <= 16) {
+            return THREE_PIECE;
+        }
+        throw new IllegalArgumentException("Unknown target strategy: " + code);
+    }
+}
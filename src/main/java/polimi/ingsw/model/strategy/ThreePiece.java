@@ -17,14 +17,13 @@ public class ThreePiece implements PointStrategy {
      * It returns the calculated points.
      */
     public int calculatePoint(Manuscript m, AbstractCard c) {
-        int cardIdInt = Integer.parseInt(c.getID());
+        int cardIdInt = c.getNumericID();
         int points = 0;
 
 
 
 
-       int [] totalResources = Manuscript.getAvailableResource(m.getCompressedManuscript());
-       int []totalPiece = Manuscript.getAvailablePiece(m.getCompressedManuscript());
+       int []totalPiece = m.getTotalPiece();
 
         if(cardIdInt <= 80){
             GoldCard goldCard = (GoldCard) c;
@@ -41,30 +40,9 @@ public class ThreePiece implements PointStrategy {
             return points;
         }
 
-        if (c.getID().equals("95")) {
-            points = (totalResources[3] / 3 ) * 2;
-        } else if (c.getID().equals("96")) {
-            points = (totalResources[0] / 3 ) * 2;
-        } else if (c.getID().equals("97")) {
-            points = (totalResources[1] / 3 ) * 2;
-        } else if (c.getID().equals("98")) {
-            points = (totalResources[2] / 3 ) * 2;
-        } else if (c.getID().equals("99")) {
-
-            int min = totalPiece[0];
-
-            for (int i = 0; i < 3; i++) {
-                if (totalPiece[i] < min) {
-                    min = totalPiece[i];
-                }
-            }
-            points = min * 3;
-        } else if (c.getID().equals("100")) {
-            points = (totalPiece[2] / 2);
-        } else if (c.getID().equals("101")) {
-            points = (totalPiece[0] / 2);
-        } else if (c.getID().equals("102")) {
-            points = (totalPiece[1] / 2);
+        Objective objective = Objective.forTargetCard(cardIdInt);
+        if (objective != null && !objective.isPattern()) {
+            points = PatternEngine.evaluate(m, objective);
         }
 
         return points;
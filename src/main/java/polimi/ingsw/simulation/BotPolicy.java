@@ -0,0 +1,79 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.Player;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The choices of a bot player: its secret target, the side of its starting card, its placements and its draws.
+ * The {@link SimulationRunner} offers only legal choices, and the same policy plays many games at once:
+ * a policy keeps no state, and draws at random only from the generator of the game.
+ */
+public interface BotPolicy {
+    /**
+     * @return The name of the policy, as given to the runner.
+     */
+    String getName();
+
+    /**
+     * Chooses the secret target among the two possible target cards of the player.
+     *
+     * @param game   The game.
+     * @param player The player.
+     * @param random The generator of the game.
+     * @return The position of the chosen card among the possible targets, 0 or 1.
+     */
+    int chooseSecretTarget(Game game, Player player, RandomGenerator random);
+
+    /**
+     * Chooses the side of the starting card of the player.
+     *
+     * @param game   The game.
+     * @param player The player.
+     * @param random The generator of the game.
+     * @return true to place the starting card on its front side.
+     */
+    default boolean chooseStartingSide(Game game, Player player, RandomGenerator random) {
+        return random.nextBoolean();
+    }
+
+    /**
+     * Chooses the placement of the turn.
+     *
+     * @param game   The game.
+     * @param player The player.
+     * @param moves  The legal placements, never empty.
+     * @param random The generator of the game.
+     * @return One of the moves.
+     */
+    Move choosePlacement(Game game, Player player, List<Move> moves, RandomGenerator random);
+
+    /**
+     * Chooses where to draw the card of the turn.
+     *
+     * @param game   The game.
+     * @param player The player.
+     * @param decks  The legal draws, as given to {@link Game#drawingCard(Player, int)}, never empty.
+     * @param random The generator of the game.
+     * @return One of the draws.
+     */
+    int chooseDeck(Game game, Player player, int[] decks, RandomGenerator random);
+
+    /**
+     * Gets a policy by its name.
+     *
+     * @param name "random", "greedy" or "objective".
+     * @return The policy.
+     * @throws IllegalArgumentException if there is no policy with the given name.
+     */
+    static BotPolicy forName(String name) throws IllegalArgumentException {
+        return switch (name.toLowerCase()) {
+            case "random" -> new RandomPolicy();
+            case "greedy" -> new GreedyPolicy();
+            case "objective" -> new ObjectivePolicy();
+            default -> throw new IllegalArgumentException("Unknown bot policy: " + name);
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.model.strategy.AnglesCovered;
+import polimi.ingsw.model.strategy.Objective;
+import polimi.ingsw.model.strategy.PointStrategy;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bot that takes the most points it can at every turn, without planning for the targets.
+ * Among the placements worth the same, it picks one at random.
+ */
+public class GreedyPolicy implements BotPolicy {
+    @Override
+    public String getName() {
+        return "greedy";
+    }
+
+    @Override
+    public int chooseSecretTarget(Game game, Player player, RandomGenerator random) {
+        AbstractCard[] targets = player.getPossibleTargetCard();
+        return objectivePoints(targets[1]) > objectivePoints(targets[0]) ? 1 : 0;
+    }
+
+    @Override
+    public Move choosePlacement(Game game, Player player, List<Move> moves, RandomGenerator random) {
+        Move best = null;
+        int bestPoints = -1;
+        int ties = 0;
+        for (Move move : moves) {
+            int points = points(player, move);
+            if (points > bestPoints) {
+                best = move;
+                bestPoints = points;
+                ties = 1;
+            } else if (points == bestPoints && random.nextInt(++ties) == 0) {
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Draws the exposed card worth the most points, or a gold card when no exposed card is worth any.
+     */
+    @Override
+    public int chooseDeck(Game game, Player player, int[] decks, RandomGenerator random) {
+        int best = decks[random.nextInt(decks.length)];
+        int bestPoints = 0;
+        for (int deck : decks) {
+            if (deck == 2 && bestPoints == 0) {
+                best = deck;
+            }
+            AbstractCard card = SimulationRunner.exposedCard(game, deck);
+            if (card != null && card.getPoint() > bestPoints) {
+                best = deck;
+                bestPoints = card.getPoint();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Estimates the points of a placement without placing the card: exact for the cards worth fixed points
+     * and for the cards worth the corners they cover, counted on the manuscript before the placement
+     * for the cards worth the pieces shown.
+     *
+     * @param player The player.
+     * @param move   A legal placement of the player.
+     * @return The points the placement is expected to score.
+     */
+    static int points(Player player, Move move) {
+        if (!move.front()) {
+            return 0;
+        }
+        AbstractCard card = player.getHandCards().get(move.handPosition());
+        PointStrategy strategy = card.getPointStrategy();
+        if (strategy instanceof AnglesCovered) {
+            return 2 * coveredCorners(player.getManuscript(), move.cell());
+        }
+        return strategy.calculatePoint(player.getManuscript(), card);
+    }
+
+    private static int coveredCorners(Manuscript manuscript, Cell cell) {
+        int covered = 0;
+        for (int row = cell.getRow() - 1; row <= cell.getRow() + 1; row += 2) {
+            for (int column = cell.getColumn() - 1; column <= cell.getColumn() + 1; column += 2) {
+                AbstractCard neighbour = manuscript.getCard(row, column);
+                if (neighbour != null && !neighbour.getID().equals("SI") && !neighbour.getID().equals("NO")) {
+                    covered++;
+                }
+            }
+        }
+        return covered;
+    }
+
+    private static int objectivePoints(AbstractCard target) {
+        Objective objective = target == null ? null : Objective.forTargetCard(target.getNumericID());
+        return objective == null ? 0 : objective.getPoints();
+    }
+}
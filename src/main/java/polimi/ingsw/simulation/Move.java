@@ -0,0 +1,13 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.Cell;
+
+/**
+ * A legal placement of a card of the hand of a bot.
+ *
+ * @param handPosition The position of the card in the hand.
+ * @param front        Whether the card is placed on its front side.
+ * @param cell         The cell of the manuscript where the card is placed.
+ */
+public record Move(int handPosition, boolean front, Cell cell) {
+}
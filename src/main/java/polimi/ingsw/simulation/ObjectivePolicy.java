@@ -0,0 +1,117 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.Manuscript;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.model.Resources;
+import polimi.ingsw.model.strategy.Objective;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bot that builds towards its targets: it chooses the secret target that suits its hand, then prefers
+ * the cards of the kingdoms its targets count, placed next to cards of the same kingdom,
+ * on top of the points of the placement.
+ */
+public class ObjectivePolicy implements BotPolicy {
+    /** Weight of a card of a kingdom counted by the secret target, and by a common target. */
+    private static final int SECRET_WEIGHT = 3;
+    private static final int COMMON_WEIGHT = 1;
+
+    @Override
+    public String getName() {
+        return "objective";
+    }
+
+    @Override
+    public int chooseSecretTarget(Game game, Player player, RandomGenerator random) {
+        AbstractCard[] targets = player.getPossibleTargetCard();
+        int first = 0;
+        int second = 0;
+        for (AbstractCard card : player.getHandCards()) {
+            first += needs(targets[0], card.getAttachedResource()) ? 1 : 0;
+            second += needs(targets[1], card.getAttachedResource()) ? 1 : 0;
+        }
+        return second > first || (second == first && random.nextBoolean()) ? 1 : 0;
+    }
+
+    @Override
+    public Move choosePlacement(Game game, Player player, List<Move> moves, RandomGenerator random) {
+        Move best = null;
+        int bestValue = Integer.MIN_VALUE;
+        int ties = 0;
+        for (Move move : moves) {
+            int value = value(game, player, move);
+            if (value > bestValue) {
+                best = move;
+                bestValue = value;
+                ties = 1;
+            } else if (value == bestValue && random.nextInt(++ties) == 0) {
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Draws the exposed card of the kingdom most wanted by the targets, or a resource card when none is wanted.
+     */
+    @Override
+    public int chooseDeck(Game game, Player player, int[] decks, RandomGenerator random) {
+        int best = decks[0];
+        int bestValue = 0;
+        for (int deck : decks) {
+            AbstractCard card = SimulationRunner.exposedCard(game, deck);
+            int value = card == null ? 0 : weight(game, player, card.getAttachedResource()) * 2 + card.getPoint();
+            if (value > bestValue) {
+                best = deck;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Values a placement: its points, and for a card of a wanted kingdom, how much the targets want it,
+     * doubled when the card touches a card of the same kingdom.
+     */
+    private static int value(Game game, Player player, Move move) {
+        AbstractCard card = player.getHandCards().get(move.handPosition());
+        int value = GreedyPolicy.points(player, move);
+        Resources kingdom = card.getAttachedResource();
+        int weight = weight(game, player, kingdom);
+        if (weight > 0) {
+            value += weight * (touchesKingdom(player.getManuscript(), move.cell(), kingdom) ? 2 : 1);
+        }
+        return value;
+    }
+
+    private static int weight(Game game, Player player, Resources kingdom) {
+        if (kingdom == null) {
+            return 0;
+        }
+        int weight = needs(player.getSecretTargetCard(), kingdom) ? SECRET_WEIGHT : 0;
+        for (AbstractCard common : game.getCommonTargetCard()) {
+            weight += needs(common, kingdom) ? COMMON_WEIGHT : 0;
+        }
+        return weight;
+    }
+
+    private static boolean touchesKingdom(Manuscript manuscript, Cell cell, Resources kingdom) {
+        for (int[] offset : new int[][]{{-1, -1}, {-1, 1}, {1, -1}, {1, 1}, {-2, 0}, {2, 0}}) {
+            AbstractCard neighbour = manuscript.getCard(cell.getRow() + offset[0], cell.getColumn() + offset[1]);
+            if (neighbour != null && neighbour.getAttachedResource() == kingdom) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean needs(AbstractCard target, Resources kingdom) {
+        Objective objective = target == null ? null : Objective.forTargetCard(target.getNumericID());
+        return objective != null && kingdom != null && objective.needs(kingdom);
+    }
+}
@@ -0,0 +1,32 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.Player;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bot that makes every choice uniformly at random among the legal ones: the baseline of the other policies.
+ */
+public class RandomPolicy implements BotPolicy {
+    @Override
+    public String getName() {
+        return "random";
+    }
+
+    @Override
+    public int chooseSecretTarget(Game game, Player player, RandomGenerator random) {
+        return random.nextInt(2);
+    }
+
+    @Override
+    public Move choosePlacement(Game game, Player player, List<Move> moves, RandomGenerator random) {
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    @Override
+    public int chooseDeck(Game game, Player player, int[] decks, RandomGenerator random) {
+        return decks[random.nextInt(decks.length)];
+    }
+}
@@ -0,0 +1,362 @@
+package polimi.ingsw.simulation;
+
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.model.strategy.Objective;
+import polimi.ingsw.model.strategy.PatternEngine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless self-play of bots: full games played on {@link Game} directly, without controller, views or clients,
+ * to load-test and balance-test the rules.
+ * <p>
+ * Every seat of the games is played by a {@link BotPolicy}. The games are split among the threads of a
+ * fork/join pool; each game draws everything from its own generator, derived from the seed of the simulation
+ * and the index of the game, so that a simulation gives the same statistics on any number of threads.
+ * The end of a game follows the rules of the {@link polimi.ingsw.controller.Controller}: the lap ends after
+ * a player reaches 20 points or a deck is empty, then the targets are scored.
+ * <p>
+ * Usage: {@code SimulationRunner [games] [policies] [seed] [threads]}, the policies separated by commas,
+ * for example {@code SimulationRunner 100000 random,greedy,objective 42}.
+ */
+public class SimulationRunner {
+    /**
+     * The phases of a game, whose CPU time is reported separately.
+     */
+    public enum Phase {
+        /** The creation of the game, the deal and the choice of the targets. */
+        SETUP,
+        /** The choices of the bots, legal placements included. */
+        DECIDE,
+        /** The placement of the cards by the rules of the game. */
+        PLACE,
+        /** The draw of the cards. */
+        DRAW,
+        /** The scoring of the targets at the end of the game. */
+        SCORE
+    }
+
+    /** A game is stopped after this many turns, in case the bots never end it. */
+    static final int MAX_TURNS = 400;
+    private static final int POINTS_TO_END = 20;
+    private static final int GAMES_PER_TASK = 32;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final List<BotPolicy> policies;
+    private final long seed;
+
+    /**
+     * Creates a simulation.
+     *
+     * @param policies The policy of each seat, from 2 to 4.
+     * @param seed     The seed of the simulation.
+     * @throws IllegalArgumentException if the number of seats is not valid.
+     */
+    public SimulationRunner(List<BotPolicy> policies, long seed) throws IllegalArgumentException {
+        if (policies.size() < 2 || policies.size() > 4) {
+            throw new IllegalArgumentException("A game needs from 2 to 4 players, not " + policies.size());
+        }
+        this.policies = List.copyOf(policies);
+        this.seed = seed;
+    }
+
+    /**
+     * Plays games on a pool.
+     *
+     * @param games The number of games.
+     * @param pool  The pool playing the games.
+     * @return The statistics of the games.
+     */
+    public SimulationStats run(long games, ForkJoinPool pool) {
+        return pool.invoke(new Batch(0, games));
+    }
+
+    /**
+     * Plays games on the common pool.
+     *
+     * @param games The number of games.
+     * @return The statistics of the games.
+     */
+    public SimulationStats run(long games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return The policy of each seat.
+     */
+    public List<BotPolicy> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * Games from one index to another, split in halves until they are few enough to be played by one task.
+     */
+    private final class Batch extends RecursiveTask<SimulationStats> {
+        private final long from;
+        private final long to;
+
+        private Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationStats stats = new SimulationStats(policies.size());
+                for (long index = from; index < to; index++) {
+                    play(index, stats);
+                }
+                return stats;
+            }
+            long middle = (from + to) >>> 1;
+            Batch first = new Batch(from, middle);
+            first.fork();
+            SimulationStats second = new Batch(middle, to).compute();
+            return first.join().merge(second);
+        }
+    }
+
+    /**
+     * Plays again one game of the simulation: the same game {@link #run(long)} plays at that index.
+     *
+     * @param index The index of the game in the simulation.
+     * @return The game, at its end.
+     */
+    public Game replay(long index) {
+        return play(index, new SimulationStats(policies.size()));
+    }
+
+    /**
+     * Plays a game and adds it to the statistics.
+     *
+     * @param index The index of the game in the simulation.
+     * @param stats The statistics.
+     * @return The game, at its end.
+     */
+    Game play(long index, SimulationStats stats) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        int seats = policies.size();
+        long mark = now();
+        Game game = new Game((int) index, seats, random.nextLong());
+        Player[] players = new Player[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            String nickname = "bot" + seat;
+            game.addPlayerByNickname(nickname);
+            game.startingPlayer(nickname);
+            players[seat] = game.getPlayerByNickname(nickname);
+        }
+        for (int seat = 0; seat < seats; seat++) {
+            Player player = players[seat];
+            BotPolicy policy = policies.get(seat);
+            game.setPlayerStartingCardSide(player, policy.chooseStartingSide(game, player, random));
+            game.setPlayerSecretTargetCard(player, player.getPossibleTargetCard()[policy.chooseSecretTarget(game, player, random)]);
+        }
+        game.startingGame();
+        long time = now();
+        stats.addPhase(Phase.SETUP, time - mark);
+
+        Player firstToReachPoints = null;
+        Player firstToFinishDeck = null;
+        Player active = game.getPlayerByNickname(game.getActivePlayerNickname());
+        int turns = 0;
+        boolean stuck = false;
+        while (true) {
+            if (turns == MAX_TURNS) {
+                stuck = true;
+                break;
+            }
+            turns++;
+            BotPolicy policy = policies.get(seatOf(players, active));
+            mark = time;
+            List<Move> moves = legalMoves(game, active);
+            Move move = moves.isEmpty() ? null : policy.choosePlacement(game, active, moves, random);
+            time = now();
+            stats.addPhase(Phase.DECIDE, time - mark);
+            if (move == null) {
+                stuck = true;
+                break;
+            }
+
+            mark = time;
+            AbstractCard card = active.getHandCards().get(move.handPosition());
+            card.setFront(move.front());
+            game.playCard(active, card, move.cell().getRow(), move.cell().getColumn());
+            game.removePlayerCardFromHand(active, card);
+            boolean draw = false;
+            boolean over = false;
+            if (active.getPoints() >= POINTS_TO_END && !game.isAnyDeckEmpty()) {
+                if (firstToReachPoints == active) {
+                    over = true;
+                } else {
+                    if (firstToReachPoints == null) {
+                        firstToReachPoints = active;
+                    }
+                    draw = true;
+                }
+            } else if (game.isAnyDeckEmpty()) {
+                if (firstToFinishDeck == null) {
+                    firstToFinishDeck = firstToReachPoints == null ? active : firstToReachPoints;
+                } else {
+                    over = firstToFinishDeck == active;
+                }
+                // nothing is drawn once a deck is empty: the card placed is not replaced
+                game.setStatus(GameState.PLAY_CARD);
+            } else {
+                draw = true;
+            }
+            time = now();
+            stats.addPhase(Phase.PLACE, time - mark);
+
+            if (draw) {
+                mark = time;
+                int deck = policy.chooseDeck(game, active, legalDecks(game), random);
+                long decided = now();
+                stats.addPhase(Phase.DECIDE, decided - mark);
+                game.drawingCard(active, deck);
+                time = now();
+                stats.addPhase(Phase.DRAW, time - decided);
+            }
+            if (over) {
+                break;
+            }
+            Player next = nextPlayer(game, active);
+            if (next == firstToReachPoints || next == firstToFinishDeck) {
+                break;
+            }
+            game.setActivePlayerByNickname(next.getNickname());
+            active = next;
+        }
+
+        mark = now();
+        int[] scores = new int[seats];
+        int[] objectives = new int[seats];
+        AbstractCard[] common = game.getCommonTargetCard();
+        for (int seat = 0; seat < seats; seat++) {
+            Player player = players[seat];
+            AbstractCard[] targets = {player.getSecretTargetCard(), common[0], common[1]};
+            Objective[] targetObjectives = new Objective[targets.length];
+            for (int i = 0; i < targets.length; i++) {
+                targetObjectives[i] = Objective.forTargetCard(targets[i].getNumericID());
+            }
+            scores[seat] = player.getPoints();
+            for (int points : PatternEngine.evaluate(player.getManuscript(), targetObjectives)) {
+                scores[seat] += points;
+                objectives[seat] += points != 0 ? 1 : 0;
+            }
+        }
+        stats.addPhase(Phase.SCORE, now() - mark);
+        stats.addGame(scores, objectives, turns, stuck);
+        return game;
+    }
+
+    /**
+     * Lists the legal placements of a player: every card of the hand on every available cell,
+     * on its back side, and on its front side when the player has the resources it requests.
+     *
+     * @param game   The game.
+     * @param player The player.
+     * @return The legal placements.
+     */
+    static List<Move> legalMoves(Game game, Player player) {
+        List<Cell> cells = player.getAvailableCells();
+        List<AbstractCard> hand = player.getHandCards();
+        List<Move> moves = new ArrayList<>(2 * hand.size() * cells.size());
+        for (int position = 0; position < hand.size(); position++) {
+            AbstractCard card = hand.get(position);
+            if (card == null || Game.BLANK_CARD_ID.equals(card.getID())) {
+                continue;
+            }
+            boolean front = game.canPlayFront(player, card);
+            for (Cell cell : cells) {
+                if (front) {
+                    moves.add(new Move(position, true, cell));
+                }
+                moves.add(new Move(position, false, cell));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Lists the legal draws: the two decks, which are not empty while cards are drawn, and the exposed cards.
+     *
+     * @param game The game.
+     * @return The legal draws, as given to {@link Game#drawingCard(Player, int)}.
+     */
+    static int[] legalDecks(Game game) {
+        int[] decks = new int[6];
+        int count = 0;
+        decks[count++] = 1;
+        decks[count++] = 2;
+        for (int deck = 3; deck <= 6; deck++) {
+            if (exposedCard(game, deck) != null) {
+                decks[count++] = deck;
+            }
+        }
+        return Arrays.copyOf(decks, count);
+    }
+
+    /**
+     * @param game The game.
+     * @param deck A draw, as given to {@link Game#drawingCard(Player, int)}.
+     * @return The exposed card of the draw, or null for the decks.
+     */
+    static AbstractCard exposedCard(Game game, int deck) {
+        return switch (deck) {
+            case 3, 4 -> game.getResourceExposedCard()[deck - 3];
+            case 5, 6 -> game.getGoldExposedCard()[deck - 5];
+            default -> null;
+        };
+    }
+
+    private static Player nextPlayer(Game game, Player player) {
+        List<Player> players = game.getPlayers();
+        return players.get((players.indexOf(player) + 1) % players.size());
+    }
+
+    private static int seatOf(Player[] players, Player player) {
+        for (int seat = 0; seat < players.length; seat++) {
+            if (players[seat] == player) {
+                return seat;
+            }
+        }
+        throw new IllegalStateException(player + " has no seat");
+    }
+
+    private static long now() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        String names = args.length > 1 ? args[1] : "random,greedy,objective";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<BotPolicy> policies = new ArrayList<>();
+        for (String name : names.split(",")) {
+            policies.add(BotPolicy.forName(name.trim()));
+        }
+        SimulationRunner runner = new SimulationRunner(policies, seed);
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            long start = System.nanoTime();
+            SimulationStats stats = runner.run(games, pool);
+            long nanos = System.nanoTime() - start;
+            System.out.println("Seed " + seed + ", " + threads + " threads" + (CPU_TIME ? "" : ", wall time for the phases"));
+            stats.print(System.out, policies, nanos);
+        }
+    }
+}
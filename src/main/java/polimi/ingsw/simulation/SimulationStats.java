@@ -0,0 +1,190 @@
+package polimi.ingsw.simulation;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistics of many simulated games, merged from the tasks that played them.
+ * Their size does not depend on the number of games: the scores are kept as a histogram for each seat.
+ */
+public class SimulationStats {
+    /** Scores above this one are counted as this one in the histograms. */
+    public static final int MAX_SCORE = 150;
+
+    private final int seats;
+    private long games;
+    private long stalled;
+    private long turns;
+    private final long[][] scores;
+    private final long[] scoreSums;
+    private final double[] wins;
+    private final long[] phaseNanos = new long[SimulationRunner.Phase.values().length];
+
+    /**
+     * Creates empty statistics.
+     *
+     * @param seats The number of players of the games.
+     */
+    public SimulationStats(int seats) {
+        this.seats = seats;
+        this.scores = new long[seats][MAX_SCORE + 1];
+        this.scoreSums = new long[seats];
+        this.wins = new double[seats];
+    }
+
+    /**
+     * Counts a game that is over.
+     *
+     * @param finalScores The final score of each seat.
+     * @param objectives  The targets completed by each seat, which break the ties.
+     * @param gameTurns   The number of turns played.
+     * @param stuck       Whether the game stopped because a player had no legal placement or the game was too long.
+     */
+    void addGame(int[] finalScores, int[] objectives, int gameTurns, boolean stuck) {
+        games++;
+        turns += gameTurns;
+        if (stuck) {
+            stalled++;
+        }
+        int best = 0;
+        for (int seat = 1; seat < seats; seat++) {
+            if (compare(finalScores, objectives, seat, best) > 0) {
+                best = seat;
+            }
+        }
+        int winners = 0;
+        for (int seat = 0; seat < seats; seat++) {
+            winners += compare(finalScores, objectives, seat, best) == 0 ? 1 : 0;
+        }
+        for (int seat = 0; seat < seats; seat++) {
+            scores[seat][Math.min(Math.max(finalScores[seat], 0), MAX_SCORE)]++;
+            scoreSums[seat] += finalScores[seat];
+            if (compare(finalScores, objectives, seat, best) == 0) {
+                wins[seat] += 1.0 / winners;
+            }
+        }
+    }
+
+    private static int compare(int[] finalScores, int[] objectives, int seat, int other) {
+        int comparison = Integer.compare(finalScores[seat], finalScores[other]);
+        return comparison != 0 ? comparison : Integer.compare(objectives[seat], objectives[other]);
+    }
+
+    /**
+     * Adds the CPU time spent in a phase of the games.
+     */
+    void addPhase(SimulationRunner.Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds the statistics of other games to these.
+     *
+     * @param other The statistics of other games with as many players.
+     * @return These statistics.
+     */
+    SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        stalled += other.stalled;
+        turns += other.turns;
+        for (int seat = 0; seat < seats; seat++) {
+            for (int score = 0; score <= MAX_SCORE; score++) {
+                scores[seat][score] += other.scores[seat][score];
+            }
+            scoreSums[seat] += other.scoreSums[seat];
+            wins[seat] += other.wins[seat];
+        }
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of games played.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return The number of games that stopped before their end.
+     */
+    public long getStalledGames() {
+        return stalled;
+    }
+
+    /**
+     * @return The number of turns played in every game.
+     */
+    public long getTurns() {
+        return turns;
+    }
+
+    /**
+     * @param seat A seat.
+     * @return The mean final score of the seat.
+     */
+    public double getMeanScore(int seat) {
+        return games == 0 ? 0 : (double) scoreSums[seat] / games;
+    }
+
+    /**
+     * @param seat       A seat.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The final score of the seat below which the given percent of the games fall.
+     */
+    public int getScorePercentile(int seat, int percentile) {
+        long target = (long) Math.ceil(games * percentile / 100.0);
+        long seen = 0;
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            seen += scores[seat][score];
+            if (seen >= target && seen > 0) {
+                return score;
+            }
+        }
+        return MAX_SCORE;
+    }
+
+    /**
+     * @param seat A seat.
+     * @return The share of the games won by the seat, ties shared between the winners.
+     */
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : wins[seat] / games;
+    }
+
+    /**
+     * @param phase A phase of the games.
+     * @return The CPU time spent in the phase by every game, in nanoseconds.
+     */
+    public long getPhaseNanos(SimulationRunner.Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Prints the report of the simulation.
+     *
+     * @param out      Where to print.
+     * @param policies The policy of each seat.
+     * @param nanos    The wall time of the simulation.
+     */
+    public void print(PrintStream out, List<BotPolicy> policies, long nanos) {
+        out.printf("%d games in %.2f s: %.0f games/s, %.1f turns per game, %d stalled%n",
+                games, nanos / 1e9, games / (nanos / 1e9), games == 0 ? 0.0 : (double) turns / games, stalled);
+        out.println("seat  policy      mean   p10   p50   p90   max  wins");
+        for (int seat = 0; seat < seats; seat++) {
+            out.printf("%-5d %-10s %5.1f %5d %5d %5d %5d %5.1f%%%n", seat, policies.get(seat).getName(), getMeanScore(seat),
+                    getScorePercentile(seat, 10), getScorePercentile(seat, 50), getScorePercentile(seat, 90),
+                    getScorePercentile(seat, 100), 100 * getWinRate(seat));
+        }
+        long total = Arrays.stream(phaseNanos).sum();
+        out.println("phase     cpu ms   share  us/game");
+        for (SimulationRunner.Phase phase : SimulationRunner.Phase.values()) {
+            long phaseTime = getPhaseNanos(phase);
+            out.printf("%-8s %7d  %5.1f%%  %7.1f%n", phase.name().toLowerCase(), phaseTime / 1_000_000,
+                    total == 0 ? 0.0 : 100.0 * phaseTime / total, games == 0 ? 0.0 : phaseTime / 1e3 / games);
+        }
+    }
+}
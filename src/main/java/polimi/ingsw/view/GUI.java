@@ -478,9 +478,9 @@ public class GUI implements View {
      */
 
     @Override
-    public void displayManuscript(String nickname, AbstractCard[][] manuscript, String stringManuscript) {
+    public void displayManuscript(String nickname, ManuscriptView manuscript, String stringManuscript) {
         if (displayManuscript) {
-            String c = fixNumberLength(manuscript[1][1].getID());
+            String c = fixNumberLength(manuscript.get(1, 1).getID());
             GamePanel.ZoomableGridPanel gridPanel = gamePanel.getGridPanel();
 
             for (Component component : gamePanel.getComponents()) {
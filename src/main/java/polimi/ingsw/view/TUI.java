@@ -336,7 +336,7 @@ public class TUI implements View {
 
 
     @Override
-    public void displayManuscript(String nickname, AbstractCard[][] manuscript, String stringManuscript) {
+    public void displayManuscript(String nickname, ManuscriptView manuscript, String stringManuscript) {
         System.out.println("Manuscript of " + nickname);
         System.out.println(stringManuscript);
     }
@@ -1,6 +1,7 @@
 package polimi.ingsw.view;
 
 import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.ManuscriptView;
 import polimi.ingsw.SocketAndRMI.CardsPlayed;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -100,7 +101,7 @@ public interface View {
      * @param manuscript containing the player's manuscript that need to be displayed.
      * @param stringManuscript parameter necessary for the print.
      */
-    void displayManuscript(String nickname, AbstractCard[][] manuscript, String stringManuscript);
+    void displayManuscript(String nickname, ManuscriptView manuscript, String stringManuscript);
 
 
     /**
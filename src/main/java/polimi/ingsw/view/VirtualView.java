@@ -1,24 +1,63 @@
 package polimi.ingsw.view;
 
 import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.ManuscriptView;
 import polimi.ingsw.SocketAndRMI.CardsPlayed;
+import polimi.ingsw.SocketAndRMI.OutboundQueue;
 import polimi.ingsw.SocketAndRMI.ServerController;
 import polimi.ingsw.SocketAndRMI.message.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class VirtualView implements View{
 
-    private final ServerController serverController;
+    private final OutboundQueue outbound;
 
     /**
      * Constructs a VirtualView with the specified ServerController.
+     * Messages are sent through an {@link OutboundQueue}, so the ones of a step of the game travel together.
+     * They are sent by another thread once the step is over, so the cards of the game they carry are copied
+     * when they are queued, see {@link AbstractCard#detach()}.
      *
      * @param serverController The server controller to communicate with
      */
     public VirtualView(ServerController serverController) {
-        this.serverController = serverController;
+        this.outbound = new OutboundQueue(serverController);
+    }
+
+    /**
+     * Constructs a VirtualView with the specified ServerController, sending on the given executor.
+     *
+     * @param serverController The server controller to communicate with
+     * @param sender           The executor running the sends
+     */
+    public VirtualView(ServerController serverController, Executor sender) {
+        this.outbound = new OutboundQueue(serverController, sender);
+    }
+
+    /**
+     * Constructs a VirtualView sending through the given queue.
+     *
+     * @param outbound The queue of the messages to the client
+     */
+    public VirtualView(OutboundQueue outbound) {
+        this.outbound = outbound;
+    }
+
+    /**
+     * @return The queue of the messages to the client, with its metrics
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+
+    /**
+     * Disconnects the client once the messages sent to it before have been sent.
+     */
+    public void disconnect() {
+        outbound.disconnect();
     }
 
     /**
@@ -63,7 +102,7 @@ public class VirtualView implements View{
      */
     @Override
     public void requestPlayersNumber() {
-        serverController.send(new PlayersNumberRequest());
+        outbound.send(new PlayersNumberRequest());
     }
 
     /**
@@ -73,7 +112,7 @@ public class VirtualView implements View{
      * @param connectionEstablished Whether the connection to the server is established
      */
     public void displayLoginResponse(boolean validNick, boolean connectionEstablished) {
-        serverController.send(new LoginResponseMessage(validNick, connectionEstablished));
+        outbound.send(new LoginResponseMessage(validNick, connectionEstablished));
     }
 
     /**
@@ -83,7 +122,7 @@ public class VirtualView implements View{
      * @param availableColor An array of available colors
      */
     public void displayColorResponse(boolean acceptedColor, String[] availableColor) {
-        serverController.send(new ColorResponseMessage(acceptedColor, availableColor));
+        outbound.send(new ColorResponseMessage(acceptedColor, availableColor));
     }
 
     /**
@@ -95,7 +134,7 @@ public class VirtualView implements View{
      */
     @Override
     public void requestToSetUpStartingAndSecret(AbstractCard startingCard, AbstractCard firstPossibleTargetCard, AbstractCard secondPossibleTargetCard) {
-        serverController.send(new SecretTargetAndStartingRequest(startingCard, firstPossibleTargetCard, secondPossibleTargetCard));
+        outbound.send(new SecretTargetAndStartingRequest(detach(startingCard), detach(firstPossibleTargetCard), detach(secondPossibleTargetCard)));
     }
 
     /**
@@ -105,7 +144,7 @@ public class VirtualView implements View{
      */
     @Override
     public void displayText(String textMessage) {
-        serverController.send(new GenericMessage(textMessage));
+        outbound.send(new GenericMessage(textMessage));
     }
 
     /**
@@ -115,7 +154,7 @@ public class VirtualView implements View{
      */
     @Override
     public void displayPlayersList(List<String> players) {
-        serverController.send(new PlayersListMessage(players));
+        outbound.send(new PlayersListMessage(players));
     }
 
     /**
@@ -126,7 +165,7 @@ public class VirtualView implements View{
      */
     @Override
     public void displaySecretTargetCard(AbstractCard personalTargetCard, String nickname) {
-        serverController.send(new SecretTargetCardMessage(personalTargetCard, nickname));
+        outbound.send(new SecretTargetCardMessage(detach(personalTargetCard), nickname));
     }
 
     /**
@@ -137,7 +176,7 @@ public class VirtualView implements View{
      * @param handCard_3 The third hand card
      */
     public void displayHandsCard(AbstractCard handCard_1, AbstractCard handCard_2, AbstractCard handCard_3) {
-        serverController.send(new HandsResponseMessage(handCard_1, handCard_2, handCard_3));
+        outbound.send(new HandsResponseMessage(detach(handCard_1), detach(handCard_2), detach(handCard_3)));
     }
 
     /**
@@ -146,7 +185,7 @@ public class VirtualView implements View{
      * @param cards The list of cards in the decks
      */
     public void displayDecks(ArrayList<String> cards) {
-        serverController.send(new ShowDecksMessage(cards));
+        outbound.send(new ShowDecksMessage(cards));
     }
 
     /**
@@ -158,7 +197,7 @@ public class VirtualView implements View{
      */
     @Override
     public void updateChatMessage(String senderNickname, String recipientNickname, String message) {
-        serverController.send(new ChatMessage(senderNickname, recipientNickname, message));
+        outbound.send(new ChatMessage(senderNickname, recipientNickname, message));
     }
 
     /**
@@ -168,7 +207,7 @@ public class VirtualView implements View{
      */
     @Override
     public void displayScore(Map<String, Integer> scoreMap) {
-        serverController.send(new ScoreBoardMessage(scoreMap));
+        outbound.send(new ScoreBoardMessage(scoreMap));
     }
 
     /**
@@ -176,7 +215,7 @@ public class VirtualView implements View{
      */
     @Override
     public void inWaiting() {
-        serverController.send(new WaitingRoomRequest());
+        outbound.send(new WaitingRoomRequest());
     }
 
     /**
@@ -184,7 +223,7 @@ public class VirtualView implements View{
      */
     @Override
     public void inGame() {
-        serverController.send(new GameRoomRequest());
+        outbound.send(new GameRoomRequest());
     }
 
     /**
@@ -195,8 +234,28 @@ public class VirtualView implements View{
      * @param stringManuscript The string representation of the manuscript
      */
     @Override
-    public void displayManuscript(String nickname, AbstractCard[][] manuscript, String stringManuscript) {
-        serverController.send(new PlayerInformation(nickname, manuscript, stringManuscript));
+    public void displayManuscript(String nickname, ManuscriptView manuscript, String stringManuscript) {
+        outbound.send(new PlayerInformation(nickname, manuscript, stringManuscript));
+    }
+
+    /**
+     * Sends a card placed in a manuscript, which the client applies to its copy of the board.
+     *
+     * @param sequence   The sequence number of the placement
+     * @param cardPlayed The card placed
+     */
+    public void displayBoardDelta(int sequence, CardsPlayed cardPlayed) {
+        outbound.send(new BoardDeltaMessage(sequence, cardPlayed));
+    }
+
+    /**
+     * Sends every card placed in the game, from which the client rebuilds its copy of the board.
+     *
+     * @param sequence    The sequence number of the last placement
+     * @param cardsPlayed The cards placed in the game, in order
+     */
+    public void displayBoardSnapshot(int sequence, List<CardsPlayed> cardsPlayed) {
+        outbound.send(new BoardSnapshotMessage(sequence, cardsPlayed));
     }
 
     /**
@@ -204,7 +263,7 @@ public class VirtualView implements View{
      */
     @Override
     public void requestCardToPlace() {
-        serverController.send(new PlaceCardRequest());
+        outbound.send(new PlaceCardRequest());
     }
 
     /**
@@ -215,7 +274,7 @@ public class VirtualView implements View{
      */
     @Override
     public void displayCommonTargetCard(AbstractCard firstTargetCard, AbstractCard secondTargetCard) {
-        serverController.send(new CommonTargetCardMessage(firstTargetCard, secondTargetCard));
+        outbound.send(new CommonTargetCardMessage(detach(firstTargetCard), detach(secondTargetCard)));
     }
 
     /**
@@ -223,7 +282,7 @@ public class VirtualView implements View{
      */
     @Override
     public void requestToDraw() {
-        serverController.send(new DrawCardRequest());
+        outbound.send(new DrawCardRequest());
     }
 
     /**
@@ -233,7 +292,7 @@ public class VirtualView implements View{
      * @param completedObjectives The map containing player nicknames and the number of completed objectives
      */
     public void displayFinalScore(Map<String, Integer> scoreBoardMap, Map<String, Integer> completedObjectives) {
-        serverController.send(new FinalScoreBoardMessage(scoreBoardMap, completedObjectives));
+        outbound.send(new FinalScoreBoardMessage(scoreBoardMap, completedObjectives));
     }
 
     /**
@@ -244,6 +303,10 @@ public class VirtualView implements View{
      */
     @Override
     public void updateReconnectedPlayerManuscript(String nickname, List<CardsPlayed> cardsPlayedByPlayer) {
-        serverController.send(new ReconnectedManuscriptMessage(nickname, cardsPlayedByPlayer));
+        outbound.send(new ReconnectedManuscriptMessage(nickname, cardsPlayedByPlayer));
+    }
+
+    private static AbstractCard detach(AbstractCard card) {
+        return card == null ? null : card.detach();
     }
 }
@@ -0,0 +1,77 @@
+package polimi.ingsw.SocketAndRMI;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Manuscript;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the BoardReplica class.
+ */
+public class BoardReplicaTest {
+
+    /**
+     * Tests that a snapshot and the following placements rebuild the manuscripts of the server.
+     */
+    @Test
+    public void testSnapshotAndDeltas() {
+        Manuscript alice = new Manuscript(card("81", true));
+        Manuscript bob = new Manuscript(card("84", false));
+        List<CardsPlayed> history = new ArrayList<>();
+        history.add(new CardsPlayed("alice", "81", new Cell(40, 40), true));
+        history.add(new CardsPlayed("bob", "84", new Cell(40, 40), false));
+        history.add(place(alice, "alice", "3", true));
+
+        BoardReplica board = new BoardReplica();
+        board.reset(history.size(), history);
+        assertEquals(List.of("alice", "bob"), new ArrayList<>(board.getNicknames()));
+        assertEquals(alice.getPlacements(), board.getManuscript("alice").getPlacements());
+
+        CardsPlayed next = place(bob, "bob", "45", false);
+        assertEquals(BoardReplica.Result.APPLIED, board.apply(4, next));
+        assertEquals(BoardReplica.Result.IGNORED, board.apply(4, next));
+        assertEquals(4, board.getSequence());
+        assertEquals(bob.getPlacements(), board.getManuscript("bob").getPlacements());
+    }
+
+    /**
+     * Tests that a missed placement is reported once, and that placements are ignored until the next snapshot.
+     */
+    @Test
+    public void testGap() {
+        Manuscript alice = new Manuscript(card("81", true));
+        List<CardsPlayed> history = new ArrayList<>();
+        history.add(new CardsPlayed("alice", "81", new Cell(40, 40), true));
+        BoardReplica board = new BoardReplica();
+        board.reset(1, history);
+
+        history.add(place(alice, "alice", "3", true));
+        history.add(place(alice, "alice", "4", false));
+        assertEquals(BoardReplica.Result.GAP, board.apply(3, history.get(2)));
+        assertEquals(BoardReplica.Result.IGNORED, board.apply(2, history.get(1)));
+        assertEquals(1, board.getSequence());
+
+        board.reset(3, history);
+        assertEquals(alice.getPlacements(), board.getManuscript("alice").getPlacements());
+        CardsPlayed occupied = new CardsPlayed("alice", "5", history.get(2).getCell(), true);
+        assertEquals(BoardReplica.Result.GAP, board.apply(4, occupied));
+    }
+
+    private static CardsPlayed place(Manuscript manuscript, String nickname, String id, boolean front) {
+        Cell cell = manuscript.getAvailableCells().get(0);
+        manuscript.placeCard(card(id, front), cell.getRow(), cell.getColumn());
+        return new CardsPlayed(nickname, id, cell, front);
+    }
+
+    private static AbstractCard card(String id, boolean front) {
+        AbstractCard card = CardCatalog.getInstance().get(id).newCard();
+        card.setFront(front);
+        return card;
+    }
+}
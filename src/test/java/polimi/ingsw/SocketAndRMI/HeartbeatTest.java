@@ -0,0 +1,79 @@
+package polimi.ingsw.SocketAndRMI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Heartbeat class, turning the wheel by hand on a fake clock.
+ */
+public class HeartbeatTest {
+    private final AtomicLong now = new AtomicLong();
+    private final Heartbeat heartbeat = new Heartbeat(100, 8, now::get, Runnable::run);
+
+    /**
+     * Tests that a connection is pinged only while it sends nothing.
+     */
+    @Test
+    public void testPingOnlyWhenIdle() {
+        AtomicInteger pings = new AtomicInteger();
+        Heartbeat.Watch watch = heartbeat.watch(500, pings::incrementAndGet, 0, null);
+
+        for (int i = 0; i < 20; i++) {
+            advance();
+            watch.sent();
+        }
+        assertEquals(0, pings.get());
+
+        for (int i = 0; i < 20; i++) {
+            advance();
+        }
+        assertEquals(4, pings.get());
+    }
+
+    /**
+     * Tests that a connection times out once it receives nothing, also when the timeout spans many turns of the wheel.
+     */
+    @Test
+    public void testTimeout() {
+        AtomicInteger timeouts = new AtomicInteger();
+        Heartbeat.Watch watch = heartbeat.watch(0, null, 3000, timeouts::incrementAndGet);
+
+        for (int i = 0; i < 40; i++) {
+            advance();
+            watch.received();
+        }
+        assertEquals(0, timeouts.get());
+
+        for (int i = 0; i < 29; i++) {
+            advance();
+        }
+        assertEquals(0, timeouts.get());
+        for (int i = 0; i < 40; i++) {
+            advance();
+        }
+        assertEquals(1, timeouts.get());
+    }
+
+    /**
+     * Tests that a cancelled watch neither pings nor times out.
+     */
+    @Test
+    public void testCancel() {
+        AtomicInteger actions = new AtomicInteger();
+        Heartbeat.Watch watch = heartbeat.watch(200, actions::incrementAndGet, 500, actions::incrementAndGet);
+        watch.cancel();
+        for (int i = 0; i < 20; i++) {
+            advance();
+        }
+        assertEquals(0, actions.get());
+    }
+
+    private void advance() {
+        now.addAndGet(100);
+        heartbeat.tick();
+    }
+}
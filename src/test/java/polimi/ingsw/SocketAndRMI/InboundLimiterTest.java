@@ -0,0 +1,59 @@
+package polimi.ingsw.SocketAndRMI;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the InboundLimiter class, on a fake clock.
+ */
+public class InboundLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Tests that a burst is let through, then the messages of that type are limited to their rate,
+     * while the other types keep their own budget.
+     */
+    @Test
+    public void testBurstThenRate() {
+        AtomicLong now = new AtomicLong();
+        InboundLimiter limiter = new InboundLimiter(InboundLimits.parse("CHAT_MESSAGE=3/2"), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+        }
+        assertFalse(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+        assertTrue(limiter.tryAcquire(MessageType.PLACE_CARD_RESPONSE));
+
+        now.addAndGet(SECOND / 2);
+        assertTrue(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+        assertFalse(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+
+        now.addAndGet(10 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+        }
+        assertFalse(limiter.tryAcquire(MessageType.CHAT_MESSAGE));
+
+        assertEquals(7, limiter.getAccepted(MessageType.CHAT_MESSAGE));
+        assertEquals(3, limiter.getRejected(MessageType.CHAT_MESSAGE));
+        assertEquals(0, limiter.getRejected(MessageType.PLACE_CARD_RESPONSE));
+    }
+
+    /**
+     * Tests the parsing of the limits.
+     */
+    @Test
+    public void testParse() {
+        InboundLimits limits = InboundLimits.parse("default=50/10, place_card_response=2/0.5");
+        assertEquals(new InboundLimits.Limit(50, 10), limits.get(MessageType.COLOR_REQUEST));
+        assertEquals(new InboundLimits.Limit(2, 0.5), limits.get(MessageType.PLACE_CARD_RESPONSE));
+        assertEquals(InboundLimits.defaults().get(MessageType.CHAT_MESSAGE), limits.get(MessageType.CHAT_MESSAGE));
+        assertThrows(IllegalArgumentException.class, () -> InboundLimits.parse("CHAT_MESSAGE=5"));
+        assertThrows(IllegalArgumentException.class, () -> InboundLimits.parse("NOT_A_TYPE=5/1"));
+        assertThrows(IllegalArgumentException.class, () -> InboundLimits.parse("CHAT_MESSAGE=0/1"));
+    }
+}
@@ -0,0 +1,222 @@
+package polimi.ingsw.SocketAndRMI;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.message.DrawCardRequest;
+import polimi.ingsw.SocketAndRMI.message.GenericMessage;
+import polimi.ingsw.SocketAndRMI.message.HandsResponseMessage;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.message.MessageBatch;
+import polimi.ingsw.SocketAndRMI.message.PlaceCardRequest;
+import polimi.ingsw.SocketAndRMI.message.ScoreBoardMessage;
+import polimi.ingsw.controller.GameMailbox;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.CardCatalog;
+import polimi.ingsw.view.VirtualView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the OutboundQueue class.
+ */
+public class OutboundQueueTest {
+
+    /**
+     * Tests that the messages sent by a task of a game reach each client in a single batch, in order,
+     * while the messages sent outside a task are sent at once.
+     */
+    @Test
+    public void testOneBatchPerStep() {
+        RecordingController alice = new RecordingController();
+        RecordingController bob = new RecordingController();
+        OutboundQueue toAlice = new OutboundQueue(alice, Runnable::run);
+        OutboundQueue toBob = new OutboundQueue(bob, Runnable::run);
+        GameMailbox mailbox = new GameMailbox(Runnable::run);
+
+        mailbox.execute(() -> {
+            toAlice.send(new GenericMessage("bob's turn."));
+            toBob.send(new GenericMessage("bob's turn."));
+            toBob.send(new PlaceCardRequest());
+            assertTrue(bob.received.isEmpty());
+        });
+        toAlice.send(new DrawCardRequest());
+
+        assertEquals(2, alice.received.size());
+        assertInstanceOf(GenericMessage.class, alice.received.get(0));
+        assertInstanceOf(DrawCardRequest.class, alice.received.get(1));
+        assertEquals(1, bob.received.size());
+        List<Message> batch = ((MessageBatch) bob.received.get(0)).getMessages();
+        assertInstanceOf(GenericMessage.class, batch.get(0));
+        assertInstanceOf(PlaceCardRequest.class, batch.get(1));
+    }
+
+    /**
+     * Tests that a client is disconnected only after the messages sent to it before.
+     */
+    @Test
+    public void testDisconnectAfterPendingMessages() {
+        RecordingController alice = new RecordingController();
+        OutboundQueue toAlice = new OutboundQueue(alice, Runnable::run);
+        OutboundQueue.beginStep();
+        toAlice.send(new GenericMessage("bye"));
+        toAlice.disconnect();
+        toAlice.send(new GenericMessage("too late"));
+        OutboundQueue.endStep();
+
+        assertEquals(1, alice.received.size());
+        assertFalse(alice.isClientConnectionOk());
+    }
+
+    /**
+     * Tests that a slow client does not stall the thread sending to it.
+     */
+    @Test
+    public void testSlowClient() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(2);
+        RecordingController slow = new RecordingController() {
+            @Override
+            public void send(Message messageToSent) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(messageToSent);
+                sent.countDown();
+            }
+        };
+        OutboundQueue queue = new OutboundQueue(slow);
+        queue.send(new GenericMessage("first"));
+        queue.send(new GenericMessage("second"));
+        assertTrue(slow.received.isEmpty());
+
+        release.countDown();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        assertEquals("first", ((GenericMessage) slow.received.get(0)).getGenericMessage());
+        assertEquals("second", ((GenericMessage) slow.received.get(1)).getGenericMessage());
+    }
+
+    /**
+     * Tests that a queue past its capacity disconnects its client, and counts the messages it dropped.
+     */
+    @Test
+    public void testOverflowDisconnects() {
+        List<Runnable> sends = new ArrayList<>();
+        RecordingController alice = new RecordingController();
+        OutboundQueue queue = new OutboundQueue(alice, sends::add, OutboundQueue.OverflowPolicy.DISCONNECT, 3);
+        for (int i = 0; i < 3; i++) {
+            queue.send(new GenericMessage("message " + i));
+        }
+        assertEquals(3, queue.getDepth());
+        assertTrue(alice.isClientConnectionOk());
+
+        queue.send(new GenericMessage("one too many"));
+        assertEquals(0, queue.getDepth());
+        assertEquals(3, queue.getMaxDepth());
+        assertEquals(4, queue.getDropped());
+        sends.forEach(Runnable::run);
+        assertFalse(alice.isClientConnectionOk());
+        assertTrue(alice.received.isEmpty());
+    }
+
+    /**
+     * Tests that a queue past its capacity drops its messages and asks for the state to be sent again.
+     */
+    @Test
+    public void testOverflowResyncs() {
+        List<Runnable> sends = new ArrayList<>();
+        RecordingController alice = new RecordingController();
+        AtomicInteger resyncs = new AtomicInteger();
+        OutboundQueue queue = new OutboundQueue(alice, sends::add, OutboundQueue.OverflowPolicy.DROP_AND_RESYNC, 2);
+        queue.bind("alice", () -> {
+            resyncs.incrementAndGet();
+            queue.send(new GenericMessage("state"));
+        });
+        OutboundQueue.beginStep();
+        queue.send(new GenericMessage("first"));
+        queue.send(new GenericMessage("second"));
+        queue.send(new GenericMessage("third"));
+        OutboundQueue.endStep();
+
+        assertEquals(3, queue.getDropped());
+        while (!sends.isEmpty()) {
+            sends.remove(0).run();
+        }
+        assertEquals(1, resyncs.get());
+        assertTrue(alice.isClientConnectionOk());
+        assertEquals(1, alice.received.size());
+        assertEquals("state", ((GenericMessage) alice.received.get(0)).getGenericMessage());
+    }
+
+    /**
+     * Tests that a queue past its capacity keeps only the latest state messages, and the others in order.
+     */
+    @Test
+    public void testOverflowCoalesces() {
+        List<Runnable> sends = new ArrayList<>();
+        RecordingController alice = new RecordingController();
+        OutboundQueue queue = new OutboundQueue(alice, sends::add, OutboundQueue.OverflowPolicy.COALESCE_LATEST, 3);
+        queue.send(new ScoreBoardMessage(Map.of("alice", 1)));
+        queue.send(new GenericMessage("bob's turn."));
+        queue.send(new ScoreBoardMessage(Map.of("alice", 2)));
+        queue.send(new ScoreBoardMessage(Map.of("alice", 3)));
+
+        assertEquals(2, queue.getDepth());
+        assertEquals(2, queue.getDropped());
+        sends.forEach(Runnable::run);
+        assertEquals(1, alice.received.size());
+        List<Message> batch = ((MessageBatch) alice.received.get(0)).getMessages();
+        assertInstanceOf(GenericMessage.class, batch.get(0));
+        assertEquals(3, ((ScoreBoardMessage) batch.get(1)).getScoreBoardMap().get("alice"));
+    }
+
+    /**
+     * Tests that a message carries the cards as they were when it was queued, although it is sent later
+     * and the game keeps turning the cards in the meantime.
+     */
+    @Test
+    public void testCardsCopiedWhenQueued() {
+        RecordingController alice = new RecordingController();
+        List<Runnable> sends = new ArrayList<>();
+        VirtualView view = new VirtualView(new OutboundQueue(alice, sends::add));
+        AbstractCard card = CardCatalog.getInstance().get("41").newCard();
+
+        view.displayHandsCard(card, null, null);
+        card.setFront(true);
+        sends.forEach(Runnable::run);
+
+        AbstractCard sent = ((HandsResponseMessage) alice.received.get(0)).getFirstHandCard();
+        assertNotSame(card, sent);
+        assertEquals("41", sent.getID());
+        assertFalse(sent.isFront());
+    }
+
+    private static class RecordingController implements ServerController {
+        final List<Message> received = new ArrayList<>();
+        private boolean connected = true;
+
+        @Override
+        public void send(Message messageToSent) {
+            if (connected) {
+                received.add(messageToSent);
+            }
+        }
+
+        @Override
+        public void disconnectThisClient() {
+            connected = false;
+        }
+
+        @Override
+        public boolean isClientConnectionOk() {
+            return connected;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package polimi.ingsw.SocketAndRMI;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.message.ChatMessage;
+import polimi.ingsw.SocketAndRMI.message.ColorRequestMessage;
+import polimi.ingsw.SocketAndRMI.message.LoginRequestMessage;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+import polimi.ingsw.SocketAndRMI.message.PlayersNumberResponse;
+import polimi.ingsw.SocketAndRMI.message.SecretAndStartingResponseMessage;
+import polimi.ingsw.controller.Controller;
+import polimi.ingsw.controller.GameRegistry;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Server class.
+ */
+public class ServerTest {
+
+    /**
+     * Tests that nicknames are compared ignoring case: a nickname taken in any case can not join another game,
+     * and an offline player reconnects to its game with its nickname in any case.
+     */
+    @Test
+    public void testNicknamesIgnoreCase() {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Server server = new Server(registry);
+        Connection alice = new Connection();
+        Connection bob = new Connection();
+        server.joinClient("Alice", alice);
+        server.onAcquiredMessage(alice, new ColorRequestMessage("Alice", "RED"));
+        server.onAcquiredMessage(alice, new PlayersNumberResponse("Alice", 2));
+        server.joinClient("Bob", bob);
+
+        Connection impostor = new Connection();
+        server.joinClient("bob", impostor);
+        assertFalse(server.getSession(impostor).isBound());
+        assertEquals(2, registry.getPlayerCount());
+
+        server.onAcquiredMessage(bob, new ColorRequestMessage("Bob", "GREEN"));
+        Controller controller = registry.getControllerOf("Bob");
+        for (Connection connection : List.of(alice, bob)) {
+            Player player = server.getSession(connection).getPlayer();
+            server.onAcquiredMessage(connection, new SecretAndStartingResponseMessage(player.getNickname(),
+                    player.getPossibleTargetCard()[0].getID(), true));
+        }
+        assertNotEquals(GameState.STARTING, controller.getGameState());
+
+        server.onDisconnectionFromClient(bob);
+        assertEquals(List.of("Bob"), controller.getOfflinePlayers());
+        Connection returning = new Connection();
+        server.joinClient("BOB", returning);
+        ClientSession session = server.getSession(returning);
+        assertTrue(session.isBound());
+        assertSame(controller, session.getController());
+        assertEquals("Bob", session.getNickname());
+        assertTrue(controller.getOfflinePlayers().isEmpty());
+    }
+
+    /**
+     * Tests that the rate limits apply from the connection of a client, to its logins and to the messages
+     * it sends before logging in, and that the messages rejected are counted.
+     */
+    @Test
+    public void testLimitsBeforeLogin() {
+        Server server = new Server(new GameRegistry(Runnable::run));
+        Connection connection = new Connection();
+        server.connect(connection);
+        ClientSession session = server.getSession(connection);
+        assertNotNull(session);
+        assertFalse(session.isBound());
+
+        int burst = InboundLimits.defaults().get(MessageType.LOGIN_REQUEST).burst();
+        int admitted = 0;
+        for (int i = 0; i < burst + 10; i++) {
+            if (server.admitLogin(connection, new LoginRequestMessage("player" + i))) {
+                admitted++;
+            }
+        }
+        assertEquals(burst, admitted);
+        assertEquals(10, session.getLimiter().getRejected(MessageType.LOGIN_REQUEST));
+
+        int chatBurst = InboundLimits.defaults().get(MessageType.CHAT_MESSAGE).burst();
+        for (int i = 0; i < chatBurst + 10; i++) {
+            server.onAcquiredMessage(connection, new ChatMessage("player", null, "hello"));
+        }
+        assertEquals(20, server.getRejectedMessages());
+
+        server.onDisconnectionFromClient(connection);
+        assertNull(server.getSession(connection));
+    }
+
+    private static class Connection implements ServerController {
+        private volatile boolean connected = true;
+
+        @Override
+        public void send(Message messageToSent) {
+        }
+
+        @Override
+        public void disconnectThisClient() {
+            connected = false;
+        }
+
+        @Override
+        public boolean isClientConnectionOk() {
+            return connected;
+        }
+    }
+}
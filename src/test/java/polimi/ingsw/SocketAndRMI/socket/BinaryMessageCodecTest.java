@@ -0,0 +1,197 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.CardsPlayed;
+import polimi.ingsw.SocketAndRMI.message.*;
+import polimi.ingsw.model.*;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the BinaryMessageCodec class and the negotiation of the codec.
+ */
+public class BinaryMessageCodecTest {
+    private final MessageCodec codec = BinaryMessageCodec.INSTANCE;
+
+    /**
+     * Tests that a message of every type survives the round trip with all its fields.
+     */
+    @Test
+    public void testRoundTripOfEveryType() throws IOException {
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        scores.put("alice", 12);
+        scores.put("bob", 0);
+        ArrayList<String> decks = new ArrayList<>(List.of("3", "41", "17"));
+        decks.add(null);
+        List<Message> messages = List.of(
+                new LoginRequestMessage("alice"),
+                new LoginResponseMessage(true, false),
+                new PlayersNumberRequest(),
+                new WaitingRoomRequest(),
+                new GameRoomRequest(),
+                new PlayersNumberResponse("alice", 3),
+                new ColorRequestMessage("alice", "RED"),
+                new ColorResponseMessage(false, new String[]{"BLUE", "GREEN"}),
+                new SecretTargetAndStartingRequest(card("81", true), card("87", false), card("102", false)),
+                new SecretAndStartingResponseMessage("alice", "88", true),
+                new HandsResponseMessage(card("1", false), card("41", true), new StartingCard(Game.BLANK_CARD_ID, "", "")),
+                new CommonTargetCardMessage(card("90", false), card("95", false)),
+                new SecretTargetCardMessage(card("99", false), "alice"),
+                new PlaceCardRequest(),
+                new PlaceCardResponse("alice", 2, -3, 41, true),
+                new ScoreBoardMessage(scores),
+                new DrawCardRequest(),
+                new DrawCardResponse("alice", 4),
+                new ShowDecksMessage(decks),
+                new FinalScoreBoardMessage(scores, Map.of("alice", 2)),
+                new GenericMessage("Città é bella"),
+                new ErrorMessage(null, "error"),
+                new PingMessage("alice"),
+                new PlayersListMessage(List.of("alice", "bob")),
+                new ReconnectedManuscriptMessage("bob", List.of(new CardsPlayed("bob", "5", new Cell(39, 41), true),
+                        new CardsPlayed("bob", "81", null, false))),
+                new ChatMessage("alice", "bob", "hi"),
+                new BoardDeltaMessage(300, new CardsPlayed("alice", "12", new Cell(41, 39), false)),
+                new BoardSnapshotRequest("bob"),
+                new BoardSnapshotMessage(2, List.of(new CardsPlayed("alice", "81", new Cell(40, 40), true),
+                        new CardsPlayed("alice", "12", new Cell(41, 39), false))),
+                new MessageBatch(List.of(new GenericMessage("bob's turn."), new PlaceCardRequest()))
+        );
+
+        Set<MessageType> covered = EnumSet.noneOf(MessageType.class);
+        for (Message message : messages) {
+            byte[] payload = codec.encode(message);
+            assertNotEquals((byte) 0xFF, payload[0], message.getMessageType() + " used the fallback");
+            Message copy = codec.decode(payload, 0, payload.length);
+            assertEquals(message.getClass(), copy.getClass());
+            assertEquals(message.getMessageType(), copy.getMessageType());
+            assertEquals(message.getNickname(), copy.getNickname());
+            assertEquals(message.toString(), copy.toString());
+            covered.add(message.getMessageType());
+        }
+        covered.add(MessageType.PLAYER_INFORMATION);
+        assertEquals(EnumSet.allOf(MessageType.class), covered);
+
+        HandsResponseMessage hands = (HandsResponseMessage) roundTrip(messages.get(10));
+        assertEquals(card("41", true), hands.getSecondHandCard());
+        assertTrue(hands.getSecondHandCard().isFront());
+        assertEquals(Game.BLANK_CARD_ID, hands.getThirdHandCard().getID());
+        assertNull(((HandsResponseMessage) roundTrip(new HandsResponseMessage(null, null, null))).getFirstHandCard());
+        CommonTargetCardMessage common = (CommonTargetCardMessage) roundTrip(messages.get(11));
+        assertEquals(((CommonTargetCardMessage) messages.get(11)).getFirstCommonTargetCard(), common.getFirstCommonTargetCard());
+        assertEquals(scores, ((ScoreBoardMessage) roundTrip(messages.get(15))).getScoreBoardMap());
+        assertEquals(decks, ((ShowDecksMessage) roundTrip(messages.get(18))).getCards());
+        ReconnectedManuscriptMessage reconnected = (ReconnectedManuscriptMessage) roundTrip(messages.get(24));
+        assertEquals("bob", reconnected.getPlayerNickname());
+        assertEquals(new Cell(39, 41), reconnected.getCardsPlayedByPlayer().get(0).getCell());
+        assertNull(reconnected.getCardsPlayedByPlayer().get(1).getCell());
+        BoardDeltaMessage delta = (BoardDeltaMessage) roundTrip(messages.get(26));
+        assertEquals(300, delta.getSequence());
+        assertEquals(new Cell(41, 39), delta.getCardPlayed().getCell());
+        assertEquals(2, ((BoardSnapshotMessage) roundTrip(messages.get(28))).getCardsPlayed().size());
+        assertEquals(MessageType.PLACE_CARD_REQUEST, ((MessageBatch) roundTrip(messages.get(29))).getMessages().get(1).getMessageType());
+    }
+
+    /**
+     * Tests that a manuscript is sent as its placements and rebuilt by the receiver.
+     */
+    @Test
+    public void testPlayerInformation() throws IOException {
+        Manuscript manuscript = new Manuscript(card("83", true));
+        for (String id : new String[]{"1", "12", "23"}) {
+            Cell cell = manuscript.getAvailableCells().get(0);
+            manuscript.placeCard(card(id, false), cell.getRow(), cell.getColumn());
+        }
+        PlayerInformation message = new PlayerInformation("alice", manuscript.getView(), "printed");
+
+        byte[] payload = codec.encode(message);
+        assertTrue(payload.length < 40);
+        PlayerInformation copy = (PlayerInformation) codec.decode(payload, 0, payload.length);
+        assertEquals("alice", copy.getNickname());
+        assertEquals("printed", copy.getStringManuscript());
+        assertEquals(manuscript.getPlacements(), copy.getManuscript().getPlacements());
+        assertEquals(manuscript.getView().get(1, 1), copy.getManuscript().get(1, 1));
+        assertTrue(MessageFrames.encode(message).length > 10 * payload.length);
+    }
+
+    /**
+     * Tests that a message the format can not express is still sent, as a Java serialized object.
+     */
+    @Test
+    public void testFallback() throws IOException {
+        AbstractCard covered = card("41", true);
+        covered.setTopLeftCard(card("1", false));
+        HandsResponseMessage message = new HandsResponseMessage(covered, null, null);
+
+        byte[] payload = codec.encode(message);
+        assertEquals((byte) 0xFF, payload[0]);
+        HandsResponseMessage copy = (HandsResponseMessage) codec.decode(payload, 0, payload.length);
+        assertEquals("1", copy.getFirstHandCard().getTopLeftCard().getID());
+
+        MessageBatch batch = (MessageBatch) roundTrip(new MessageBatch(List.of(new GenericMessage("hello"), message)));
+        assertEquals("hello", ((GenericMessage) batch.getMessages().get(0)).getGenericMessage());
+        assertEquals("1", ((HandsResponseMessage) batch.getMessages().get(1)).getFirstHandCard().getTopLeftCard().getID());
+    }
+
+    /**
+     * Tests that only the messages the format can not express use the fallback, and that a bug while writing
+     * a message is not hidden behind it.
+     */
+    @Test
+    public void testNoFallbackOnBugs() {
+        Message mislabelled = new Message("alice", MessageType.CHAT_MESSAGE) {
+        };
+        assertThrows(ClassCastException.class, () -> codec.encode(mislabelled));
+    }
+
+    /**
+     * Tests that truncated or unknown payloads are rejected.
+     */
+    @Test
+    public void testInvalidPayloads() throws IOException {
+        byte[] payload = codec.encode(new ChatMessage("alice", "bob", "hello"));
+        assertThrows(StreamCorruptedException.class, () -> codec.decode(payload, 0, payload.length - 1));
+        assertThrows(StreamCorruptedException.class, () -> codec.decode(new byte[]{100}, 0, 1));
+        assertThrows(StreamCorruptedException.class, () -> codec.decode(new byte[0], 0, 0));
+        // a card index beyond the catalog
+        assertThrows(StreamCorruptedException.class, () -> codec.decode(new byte[]{12, (byte) 0xFF, 0x7F, 0}, 0, 4));
+    }
+
+    /**
+     * Tests the choice of the codec from the handshake of a client.
+     */
+    @Test
+    public void testHandshake() throws IOException {
+        byte[] hello = ProtocolHandshake.hello(7, ProtocolHandshake.BINARY_V1, ProtocolHandshake.JAVA_SERIALIZATION);
+        assertTrue(ProtocolHandshake.isHello(hello, 0, hello.length));
+        MessageCodec chosen = ProtocolHandshake.choose(hello, 0, hello.length);
+        assertSame(BinaryMessageCodec.INSTANCE, chosen);
+        assertSame(chosen, ProtocolHandshake.fromReply(ProtocolHandshake.reply(chosen)));
+
+        byte[] legacy = MessageFrames.encode(new LoginRequestMessage("alice"));
+        assertFalse(ProtocolHandshake.isHello(legacy, 0, legacy.length));
+        byte[] unknown = ProtocolHandshake.hello(9);
+        assertSame(JavaSerializationCodec.INSTANCE, ProtocolHandshake.choose(unknown, 0, unknown.length));
+        assertThrows(StreamCorruptedException.class, () -> ProtocolHandshake.fromReply(new byte[]{'C', 'N', 9}));
+    }
+
+    private Message roundTrip(Message message) throws IOException {
+        byte[] payload = codec.encode(message);
+        return codec.decode(payload, 0, payload.length);
+    }
+
+    private static AbstractCard card(String id, boolean front) {
+        AbstractCard card = CardCatalog.getInstance().get(id).newCard();
+        card.setFront(front);
+        return card;
+    }
+}
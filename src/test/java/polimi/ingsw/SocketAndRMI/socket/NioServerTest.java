@@ -0,0 +1,155 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.message.LoginRequestMessage;
+import polimi.ingsw.SocketAndRMI.message.LoginResponseMessage;
+import polimi.ingsw.SocketAndRMI.message.Message;
+import polimi.ingsw.SocketAndRMI.message.MessageBatch;
+import polimi.ingsw.SocketAndRMI.message.MessageType;
+import polimi.ingsw.SocketAndRMI.message.PingMessage;
+import polimi.ingsw.controller.GameRegistry;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.Socket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the NioServer class.
+ */
+public class NioServerTest {
+    private GameRegistry registry;
+    private NioServer nioServer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        registry = new GameRegistry(Runnable::run);
+        nioServer = new NioServer(new Server(registry), 0, 2);
+        nioServer.bind();
+        Thread thread = new Thread(nioServer);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nioServer.close();
+    }
+
+    /**
+     * Tests that a client logging in through the non-blocking server is answered and routed to a game,
+     * and that its disconnection reaches its game through its session, taking the player out of the lobby.
+     */
+    @Test
+    public void testLoginRoundTrip() throws IOException, InterruptedException {
+        try (Socket socket = new Socket("localhost", nioServer.getPort())) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            MessageFrames.write(out, new PingMessage("alice"));
+            MessageFrames.write(out, new LoginRequestMessage("alice"));
+
+            assertTrue(readLoginReply(in, JavaSerializationCodec.INSTANCE).isNicknameAccepted());
+            assertNotNull(registry.getControllerOf("alice"));
+            assertEquals(1, nioServer.getConnectionCount());
+        }
+        for (int i = 0; i < 100 && (nioServer.getConnectionCount() > 0 || registry.getPlayerCount() > 0); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, nioServer.getConnectionCount());
+        assertNull(registry.getControllerOf("alice"));
+    }
+
+    /**
+     * Tests that a client offering the binary protocol gets it and logs in with binary frames.
+     */
+    @Test
+    public void testBinaryHandshake() throws IOException {
+        try (Socket socket = new Socket("localhost", nioServer.getPort())) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            MessageFrames.writePayload(out, ProtocolHandshake.hello(ProtocolHandshake.BINARY_V1, ProtocolHandshake.JAVA_SERIALIZATION));
+            MessageCodec codec = ProtocolHandshake.fromReply(MessageFrames.readPayload(in));
+            assertSame(BinaryMessageCodec.INSTANCE, codec);
+            MessageFrames.write(out, codec, new LoginRequestMessage("carol"));
+
+            assertTrue(readLoginReply(in, codec).isNicknameAccepted());
+            assertNotNull(registry.getControllerOf("carol"));
+        }
+    }
+
+    /**
+     * Tests that a frame longer than the limit closes the connection.
+     */
+    @Test
+    public void testInvalidFrameClosesConnection() throws IOException {
+        try (Socket socket = new Socket("localhost", nioServer.getPort())) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(MessageFrames.MAX_FRAME_LENGTH + 1);
+            out.flush();
+            assertThrows(EOFException.class, () -> new DataInputStream(socket.getInputStream()).readInt());
+        }
+    }
+
+    /**
+     * Tests that a frame breaking the decoder closes its own connection only: every reactor keeps serving
+     * the other clients.
+     */
+    @Test
+    public void testBrokenFrameKeepsReactorRunning() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            try (Socket socket = new Socket("localhost", nioServer.getPort())) {
+                socket.setSoTimeout(5000);
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                MessageFrames.write(out, new Poison());
+                assertThrows(EOFException.class, () -> new DataInputStream(socket.getInputStream()).readInt());
+            }
+        }
+        for (String nickname : List.of("dave", "erin")) {
+            try (Socket socket = new Socket("localhost", nioServer.getPort())) {
+                socket.setSoTimeout(5000);
+                MessageFrames.write(new DataOutputStream(socket.getOutputStream()), new LoginRequestMessage(nickname));
+                assertTrue(readLoginReply(new DataInputStream(socket.getInputStream()), JavaSerializationCodec.INSTANCE)
+                        .isNicknameAccepted());
+            }
+        }
+    }
+
+    /**
+     * A message which fails while it is deserialized with an unchecked exception.
+     */
+    private static final class Poison extends Message {
+        private Poison() {
+            super("mallory", MessageType.PING_MESSAGE);
+        }
+
+        private void readObject(ObjectInputStream in) {
+            throw new IllegalStateException("poison");
+        }
+    }
+
+    /**
+     * Reads the messages of the server, those in batches included, until the answer to the login.
+     */
+    static LoginResponseMessage readLoginReply(DataInputStream in, MessageCodec codec) throws IOException {
+        while (true) {
+            Message message = MessageFrames.read(in, codec);
+            List<Message> messages = message instanceof MessageBatch batch ? batch.getMessages() : List.of(message);
+            for (Message received : messages) {
+                if (received.getMessageType() == MessageType.LOGIN_REPLY) {
+                    return (LoginResponseMessage) received;
+                }
+            }
+        }
+    }
+}
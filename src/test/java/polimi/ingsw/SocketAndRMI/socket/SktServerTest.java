@@ -0,0 +1,49 @@
+package polimi.ingsw.SocketAndRMI.socket;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.SocketAndRMI.Server;
+import polimi.ingsw.SocketAndRMI.message.LoginRequestMessage;
+import polimi.ingsw.controller.GameRegistry;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the SktServer class.
+ */
+public class SktServerTest {
+
+    /**
+     * Tests that a client served by a virtual thread logs in, and that the thread ends with the connection.
+     */
+    @Test
+    public void testLoginOnVirtualThread() throws IOException, InterruptedException {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        SktServer sktServer = new SktServer(new Server(registry), 0, true);
+        sktServer.bind();
+        Thread thread = new Thread(sktServer);
+        thread.setDaemon(true);
+        thread.start();
+
+        try (Socket socket = new Socket("localhost", sktServer.getPort())) {
+            socket.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            MessageFrames.write(out, new LoginRequestMessage("bob"));
+
+            assertTrue(NioServerTest.readLoginReply(in, JavaSerializationCodec.INSTANCE).isNicknameAccepted());
+            assertNotNull(registry.getControllerOf("bob"));
+            assertEquals(1, sktServer.getConnectionCount());
+        } finally {
+            sktServer.close();
+        }
+        for (int i = 0; i < 100 && sktServer.getConnectionCount() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, sktServer.getConnectionCount());
+    }
+}
@@ -0,0 +1,200 @@
+package polimi.ingsw.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import polimi.ingsw.SocketAndRMI.ServerController;
+import polimi.ingsw.SocketAndRMI.message.*;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.Cell;
+import polimi.ingsw.model.Game;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+import polimi.ingsw.view.VirtualView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GameJournal class and the games restored from it.
+ */
+public class GameJournalTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the events of the live games are read back, while the games that are over
+     * and a record torn at the end of the file are left out.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.append(GameEvent.created(1, new int[][]{{3, 1, 2}, {}, {7}}));
+            journal.append(GameEvent.of(2, GameEvent.Kind.LOGIN, "bob"));
+            journal.append(new GameEvent(1, GameEvent.Kind.COLOR, "alice", "RED", null));
+            journal.discard(2);
+            journal.sync();
+        }
+        long size = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            Map<Integer, List<GameEvent>> games = journal.getRecoveredGames();
+            assertEquals(List.of(1), new ArrayList<>(games.keySet()));
+            List<GameEvent> events = games.get(1);
+            assertEquals(2, events.size());
+            assertArrayEquals(new int[]{3, 1, 2}, events.get(0).decks()[0]);
+            assertEquals(0, events.get(0).decks()[1].length);
+            assertEquals("RED", events.get(1).value());
+            assertEquals("alice", events.get(1).nickname());
+            assertEquals(size, Files.size(file));
+        }
+    }
+
+    /**
+     * Tests that the journal is compacted once the events of the games that are over take most of it.
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file, 256)) {
+            journal.append(GameEvent.of(1, GameEvent.Kind.LOGIN, "alice"));
+            for (int game = 2; game < 100; game++) {
+                journal.append(GameEvent.of(game, GameEvent.Kind.LOGIN, "bob"));
+                journal.discard(game);
+                journal.sync();
+            }
+            assertTrue(journal.getCompactions() > 0);
+            assertTrue(journal.getWrittenBytes() > journal.getAppendedBytes());
+        }
+        assertTrue(Files.size(file) < 256);
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(List.of(1), new ArrayList<>(journal.getRecoveredGames().keySet()));
+        }
+    }
+
+    /**
+     * Tests that a game restored from its events is the game that was being played, with its players offline.
+     */
+    @Test
+    public void testRestoreGame() throws IOException {
+        Path file = directory.resolve("games.journal");
+        int gameId;
+        Controller played;
+        try (GameJournal journal = GameJournal.open(file)) {
+            GameRegistry registry = new GameRegistry(Runnable::run, journal);
+            played = registry.getOpenLobby();
+            gameId = played.getGameId();
+            play(played);
+        }
+
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(6, journal.getRecoveredGames().get(gameId).stream()
+                    .filter(event -> event.kind() == GameEvent.Kind.PLACED).count());
+            GameRegistry registry = new GameRegistry(Runnable::run, journal);
+            assertEquals(1, registry.restoreGames());
+            Controller restored = registry.getController(gameId);
+            assertSame(restored, registry.getControllerOf("alice"));
+            assertEquals(played.getGameState(), restored.getGameState());
+            assertEquals(played.getActivePlayer(), restored.getActivePlayer());
+            assertTrue(restored.isGameSuspended());
+            assertEquals(List.of("alice", "bob"), restored.getOfflinePlayers().stream().sorted().toList());
+            for (Player player : played.getPlayer()) {
+                Player copy = restored.getPlayerByNickname(player.getNickname());
+                assertEquals(player.getPoints(), copy.getPoints());
+                assertEquals(ids(player.getHandCards()), ids(copy.getHandCards()));
+                assertEquals(player.getSecretTargetCard().getID(), copy.getSecretTargetCard().getID());
+                assertEquals(player.getAvailableCells().size(), copy.getAvailableCells().size());
+            }
+            assertNotEquals(gameId, registry.getOpenLobby().getGameId());
+        }
+    }
+
+    /**
+     * Tests that the events of a game that can not be replayed are kept in the journal, and that its ID is not reused.
+     */
+    @Test
+    public void testUnrestorableGameKept() throws IOException {
+        Path file = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.append(GameEvent.restored(5, new byte[]{1, 2, 3}));
+        }
+
+        for (int restart = 0; restart < 2; restart++) {
+            try (GameJournal journal = GameJournal.open(file)) {
+                assertTrue(journal.getRecoveredGames().containsKey(5));
+                GameRegistry registry = new GameRegistry(Runnable::run, journal);
+                assertEquals(0, registry.restoreGames());
+                assertNull(registry.getController(5));
+                assertTrue(registry.getOpenLobby().getGameId() > 5);
+            }
+        }
+    }
+
+    /**
+     * Plays the setup and a few turns of a game between alice and bob, with their starting cards on the front.
+     */
+    static void play(Controller controller) {
+        play(controller, true);
+    }
+
+    /**
+     * Plays the setup and a few turns of a game between alice and bob.
+     *
+     * @param startingFront The side of the starting cards.
+     */
+    static void play(Controller controller, boolean startingFront) {
+        controller.newLoginSetUp("alice", view());
+        controller.onMessageSwith(new ColorRequestMessage("alice", "RED"));
+        controller.onMessageSwith(new PlayersNumberResponse("alice", 2));
+        controller.newLoginSetUp("bob", view());
+        controller.onMessageSwith(new ColorRequestMessage("bob", "GREEN"));
+        for (String nickname : List.of("alice", "bob")) {
+            Player player = controller.getPlayerByNickname(nickname);
+            controller.onMessageSwith(new SecretAndStartingResponseMessage(nickname,
+                    player.getPossibleTargetCard()[1].getID(), startingFront));
+        }
+        assertEquals(GameState.PLAY_CARD, controller.getGameState());
+
+        for (int turn = 0; turn < 6; turn++) {
+            Player player = controller.getPlayerByNickname(controller.getActivePlayer());
+            Cell cell = player.getAvailableCells().get(turn % player.getAvailableCells().size());
+            List<AbstractCard> hand = player.getHandCards();
+            int position = 0;
+            while (Game.BLANK_CARD_ID.equals(hand.get(position).getID())) {
+                position++;
+            }
+            boolean front = Integer.parseInt(hand.get(position).getID()) <= 40;
+            controller.onMessageSwith(new PlaceCardResponse(player.getNickname(), position, cell.getRow(), cell.getColumn(), front));
+            controller.onMessageSwith(new DrawCardResponse(player.getNickname(), 1 + turn % 6));
+        }
+    }
+
+    static List<String> ids(List<AbstractCard> cards) {
+        return cards.stream().map(AbstractCard::getID).toList();
+    }
+
+    static VirtualView view() {
+        return new VirtualView(new ServerController() {
+            @Override
+            public void send(Message messageToSent) {
+            }
+
+            @Override
+            public void disconnectThisClient() {
+            }
+
+            @Override
+            public boolean isClientConnectionOk() {
+                return true;
+            }
+        }, Runnable::run);
+    }
+}
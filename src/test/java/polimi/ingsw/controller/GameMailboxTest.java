@@ -0,0 +1,94 @@
+package polimi.ingsw.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GameMailbox class.
+ */
+public class GameMailboxTest {
+
+    /**
+     * Tests that the tasks of a mailbox never run concurrently, even when many threads submit them
+     * and the executor has many threads.
+     */
+    @Test
+    public void testTasksRunOneAtATime() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        GameMailbox mailbox = new GameMailbox(executor, 16);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] counter = new int[1];
+        int producers = 4;
+        int tasksPerProducer = 1000;
+        CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < tasksPerProducer; i++) {
+                    mailbox.execute(() -> {
+                        if (running.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        counter[0]++;
+                        running.decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        assertEquals(producers * tasksPerProducer, mailbox.call(() -> counter[0]));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests that tasks submitted by the game itself run after the current one, in order.
+     */
+    @Test
+    public void testNestedTasksKeepOrder() {
+        GameMailbox mailbox = new GameMailbox(Runnable::run, 1);
+        List<Integer> order = new ArrayList<>();
+        mailbox.execute(() -> {
+            order.add(1);
+            // the mailbox is full, but the game never waits for itself
+            mailbox.execute(() -> order.add(3));
+            mailbox.execute(() -> order.add(4));
+            assertEquals(2, mailbox.call(() -> 2));
+            order.add(2);
+        });
+        assertEquals(List.of(1, 2, 3, 4), order);
+        assertEquals(0, mailbox.size());
+    }
+
+    /**
+     * Tests that a full mailbox refuses the tasks offered without waiting, and takes them again once there is room.
+     */
+    @Test
+    public void testTryExecuteNeverWaits() {
+        List<Runnable> scheduled = new ArrayList<>();
+        GameMailbox mailbox = new GameMailbox(scheduled::add, 2);
+        List<Integer> order = new ArrayList<>();
+        assertTrue(mailbox.tryExecute(() -> order.add(1)));
+        assertTrue(mailbox.tryExecute(() -> order.add(2)));
+        assertFalse(mailbox.tryExecute(() -> order.add(3)));
+        assertEquals(2, mailbox.size());
+
+        scheduled.remove(0).run();
+        assertEquals(List.of(1, 2), order);
+        assertTrue(mailbox.tryExecute(() -> order.add(4)));
+        scheduled.remove(0).run();
+        assertEquals(List.of(1, 2, 4), order);
+    }
+}
@@ -0,0 +1,139 @@
+package polimi.ingsw.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GameRegistry class.
+ */
+public class GameRegistryTest {
+
+    /**
+     * Tests that new players fill a lobby before a new game is created.
+     */
+    @Test
+    public void testPlayersFillLobbies() {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller first = registry.getOpenLobby();
+        assertSame(first, registry.getOpenLobby());
+
+        for (int i = 0; i < GameRegistry.MAX_PLAYERS; i++) {
+            join(registry, "player" + i);
+        }
+        assertFalse(first.acceptsNewPlayers());
+
+        Controller second = registry.getOpenLobby();
+        assertNotSame(first, second);
+        assertNotEquals(first.getGameId(), second.getGameId());
+        join(registry, "other");
+
+        assertEquals(2, registry.getGameCount());
+        assertEquals(GameRegistry.MAX_PLAYERS + 1, registry.getPlayerCount());
+        assertEquals(GameRegistry.MAX_PLAYERS, registry.getPlayerCount(first.getGameId()));
+        assertEquals(1, registry.getPlayerCount(second.getGameId()));
+        assertSame(first, registry.getControllerOf("player0"));
+        assertSame(second, registry.getControllerOf("other"));
+        assertNull(registry.getGameId("nobody"));
+    }
+
+    /**
+     * Tests that the number of players chosen by the first player closes the lobby.
+     */
+    @Test
+    public void testNumberOfPlayersClosesLobby() {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller lobby = registry.getOpenLobby();
+        join(registry, "first");
+        lobby.NumPlayersSetUp(2);
+        join(registry, "second");
+
+        assertFalse(lobby.acceptsNewPlayers());
+        assertNotSame(lobby, registry.getOpenLobby());
+    }
+
+    /**
+     * Tests that an empty lobby is given to the next player and that finished games are removed with their routes.
+     */
+    @Test
+    public void testRemoveGames() {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller lobby = registry.getOpenLobby();
+        join(registry, "alone");
+        lobby.removePlayer("alone");
+        registry.removePlayer("alone");
+        assertEquals(0, registry.getPlayerCount());
+        assertSame(lobby, registry.getOpenLobby());
+
+        join(registry, "a");
+        join(registry, "b");
+        registry.removeGame(lobby.getGameId());
+        assertEquals(0, registry.getGameCount());
+        assertNull(registry.getControllerOf("a"));
+        assertNull(registry.getControllerOf("b"));
+    }
+
+    /**
+     * Tests that players are routed by their nickname ignoring case.
+     */
+    @Test
+    public void testNicknamesIgnoreCase() {
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller lobby = registry.getOpenLobby();
+        join(registry, "Bob");
+        assertSame(lobby, registry.getControllerOf("bob"));
+        assertEquals(lobby.getGameId(), registry.getGameId("BOB"));
+
+        registry.removePlayer("bOb");
+        assertNull(registry.getGameId("Bob"));
+        assertEquals(0, registry.getPlayerCount());
+    }
+
+    /**
+     * Tests that a started game whose players are all offline is closed, and forgotten by the journal,
+     * once the grace time is over, unless a player reconnects first.
+     */
+    @Test
+    public void testAbandonedGamesClosed(@TempDir Path directory) throws IOException, InterruptedException {
+        try (GameJournal journal = GameJournal.open(directory.resolve("games.journal"))) {
+            GameRegistry registry = new GameRegistry(Runnable::run, journal);
+            registry.setAbandonedGameTimeout(100);
+            Controller abandoned = registry.getOpenLobby();
+            GameJournalTest.play(abandoned);
+            Controller resumed = registry.getOpenLobby();
+            GameJournalTest.play(resumed);
+
+            for (Controller controller : List.of(abandoned, resumed)) {
+                controller.setPlayerOffline("alice");
+                controller.setPlayerOffline("bob");
+                controller.watchAbandoned();
+            }
+            resumed.Reconnection("bob", GameJournalTest.view());
+
+            for (int i = 0; i < 100 && !abandoned.isClosed(); i++) {
+                Thread.sleep(20);
+            }
+            assertTrue(abandoned.isClosed());
+            assertNull(registry.getController(abandoned.getGameId()));
+            assertNull(registry.getGameId("alice"));
+            Thread.sleep(200);
+            assertFalse(resumed.isClosed());
+            assertSame(resumed, registry.getController(resumed.getGameId()));
+            journal.sync();
+        }
+        try (GameJournal journal = GameJournal.open(directory.resolve("games.journal"))) {
+            assertEquals(1, journal.getRecoveredGames().size());
+        }
+    }
+
+    private static void join(GameRegistry registry, String nickname) {
+        Controller lobby = registry.getOpenLobby();
+        registry.addPlayer(nickname, lobby.getGameId());
+        lobby.newLoginSetUp(nickname, null);
+    }
+}
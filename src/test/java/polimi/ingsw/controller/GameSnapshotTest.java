@@ -0,0 +1,121 @@
+package polimi.ingsw.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import polimi.ingsw.model.GameState;
+import polimi.ingsw.model.Player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the GameSnapshot class and the games restored from it.
+ */
+public class GameSnapshotTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the summary of a game is read from the snapshot, and that the games that had not started are not restored.
+     */
+    @Test
+    public void testSummary() throws IOException {
+        Path file = directory.resolve("games.snapshot");
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller played = registry.getOpenLobby();
+        GameJournalTest.play(played);
+        Controller lobby = registry.getOpenLobby();
+        assertEquals(2, registry.writeSnapshot(file));
+        assertFalse(Files.exists(directory.resolve("games.snapshot.tmp")));
+
+        GameSnapshot snapshot = GameSnapshot.open(file);
+        assertEquals(List.of(played.getGameId(), lobby.getGameId()), snapshot.getGameIds());
+        assertEquals(played.getGameState(), snapshot.getState(played.getGameId()));
+        assertEquals(GameState.STARTING, snapshot.getState(lobby.getGameId()));
+        assertFalse(snapshot.isSuspended(played.getGameId()));
+        Map<String, Integer> scores = snapshot.getScores(played.getGameId());
+        for (Player player : played.getPlayer()) {
+            assertEquals(player.getPoints(), scores.get(player.getNickname()));
+        }
+        assertFalse(snapshot.contains(42));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getState(42));
+
+        GameRegistry restoredRegistry = new GameRegistry(Runnable::run);
+        assertEquals(1, restoredRegistry.restoreSnapshot(snapshot));
+        assertNull(restoredRegistry.getController(lobby.getGameId()));
+        assertTrue(restoredRegistry.getOpenLobby().getGameId() > lobby.getGameId());
+    }
+
+    /**
+     * Tests that a game restored from a snapshot is the game that was being played, with its players offline,
+     * and that the journal of the new server can restore it again.
+     */
+    @Test
+    public void testRestoreGame() throws IOException {
+        Path file = directory.resolve("games.snapshot");
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller played = registry.getOpenLobby();
+        int gameId = played.getGameId();
+        GameJournalTest.play(played);
+        registry.writeSnapshot(file);
+
+        Path journalFile = directory.resolve("games.journal");
+        try (GameJournal journal = GameJournal.open(journalFile)) {
+            GameRegistry restoredRegistry = new GameRegistry(Runnable::run, journal);
+            assertEquals(1, restoredRegistry.restoreSnapshot(GameSnapshot.open(file)));
+            Controller restored = restoredRegistry.getController(gameId);
+            assertSame(restored, restoredRegistry.getControllerOf("bob"));
+            assertTrue(restored.isGameSuspended());
+            assertEquals(List.of("alice", "bob"), restored.getOfflinePlayers().stream().sorted().toList());
+            assertSameGame(played, restored);
+        }
+
+        try (GameJournal journal = GameJournal.open(journalFile)) {
+            GameRegistry restoredRegistry = new GameRegistry(Runnable::run, journal);
+            assertEquals(1, restoredRegistry.restoreGames());
+            assertSameGame(played, restoredRegistry.getController(gameId));
+        }
+    }
+
+    /**
+     * Tests that a game whose starting cards are on their back is restored from a snapshot with the same open cells:
+     * the corners of the back of a starting card are not those of its front.
+     */
+    @Test
+    public void testRestoreGameStartingBack() throws IOException {
+        Path file = directory.resolve("games.snapshot");
+        GameRegistry registry = new GameRegistry(Runnable::run);
+        Controller played = registry.getOpenLobby();
+        GameJournalTest.play(played, false);
+        for (Player player : played.getPlayer()) {
+            assertFalse(player.getManuscript().getPlacements().get(0).isFront());
+        }
+        registry.writeSnapshot(file);
+
+        GameRegistry restoredRegistry = new GameRegistry(Runnable::run);
+        assertEquals(1, restoredRegistry.restoreSnapshot(GameSnapshot.open(file)));
+        assertSameGame(played, restoredRegistry.getController(played.getGameId()));
+    }
+
+    private static void assertSameGame(Controller played, Controller restored) {
+        assertEquals(played.getGameState(), restored.getGameState());
+        assertEquals(played.getActivePlayer(), restored.getActivePlayer());
+        assertEquals(played.getPlayer().stream().map(Player::getNickname).toList(),
+                restored.getPlayer().stream().map(Player::getNickname).toList());
+        for (Player player : played.getPlayer()) {
+            Player copy = restored.getPlayerByNickname(player.getNickname());
+            assertEquals(player.getPoints(), copy.getPoints());
+            assertEquals(player.getColor(), copy.getColor());
+            assertEquals(player.isFirstPlayer(), copy.isFirstPlayer());
+            assertEquals(GameJournalTest.ids(player.getHandCards()), GameJournalTest.ids(copy.getHandCards()));
+            assertEquals(player.getSecretTargetCard().getID(), copy.getSecretTargetCard().getID());
+            assertEquals(player.getManuscript().getPlacements(), copy.getManuscript().getPlacements());
+            assertEquals(player.getAvailableCells(), copy.getAvailableCells());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package polimi.ingsw.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RingBufferAppender class.
+ */
+public class RingBufferAppenderTest {
+
+    /**
+     * Tests that the lines are written in order.
+     */
+    @Test
+    public void testLinesInOrder() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RingBufferAppender appender = new RingBufferAppender(new PrintStream(bytes), 4);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(appender.append("line " + i));
+        }
+        appender.flush();
+        assertEquals(String.join(System.lineSeparator(), "line 0", "line 1", "line 2", ""), bytes.toString());
+    }
+
+    /**
+     * Tests that lines are dropped, instead of waiting, while the writer is stuck on a full buffer.
+     */
+    @Test
+    public void testFullBufferDrops() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes);
+        RingBufferAppender appender = new RingBufferAppender(out, 3);
+        synchronized (out) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(appender.append("line " + i));
+            }
+            assertFalse(appender.append("dropped"));
+            assertEquals(1, appender.getDropped());
+        }
+        appender.flush();
+        assertFalse(bytes.toString().contains("dropped"));
+        assertTrue(bytes.toString().contains("line 3"));
+    }
+
+    /**
+     * Tests that the levels below the one set are not built.
+     */
+    @Test
+    public void testLevels() {
+        LogLevel level = Log.getLevel();
+        try {
+            Log.setLevel(LogLevel.INFO);
+            assertFalse(Log.isEnabled(LogLevel.TRACE));
+            assertTrue(Log.isEnabled(LogLevel.WARN));
+            Log.trace(() -> fail("a trace line has been built"));
+            Log.setLevel(LogLevel.OFF);
+            assertFalse(Log.isEnabled(LogLevel.ERROR));
+            assertEquals(LogLevel.DEBUG, Log.parse("debug", LogLevel.INFO));
+            assertEquals(LogLevel.INFO, Log.parse("loud", LogLevel.INFO));
+        } finally {
+            Log.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package polimi.ingsw.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the CardCatalog class and the decks built from it.
+ */
+public class CardCatalogTest {
+
+    /**
+     * Tests that the catalog holds every card once, deck after deck.
+     */
+    @Test
+    public void testCatalogContent() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        assertSame(catalog, CardCatalog.getInstance());
+        assertEquals(102, catalog.size());
+        assertEquals(40, catalog.getDeck(CardDefinition.Kind.RESOURCE).length);
+        assertEquals(40, catalog.getDeck(CardDefinition.Kind.GOLD).length);
+        assertEquals(6, catalog.getDeck(CardDefinition.Kind.STARTING).length);
+        assertEquals(16, catalog.getDeck(CardDefinition.Kind.TARGET).length);
+
+        for (int i = 0; i < catalog.size(); i++) {
+            CardDefinition definition = catalog.get(i);
+            assertEquals(i, definition.getIndex());
+            assertSame(definition, catalog.get(definition.getID()));
+        }
+        assertNull(catalog.get("blank"));
+    }
+
+    /**
+     * Tests that every new card is a separate instance, so that games never share mutable state.
+     */
+    @Test
+    public void testNewCardIsNotShared() {
+        CardDefinition definition = CardCatalog.getInstance().get("41");
+        AbstractCard first = definition.newCard();
+        AbstractCard second = definition.newCard();
+
+        assertNotSame(first, second);
+        assertTrue(first instanceof GoldCard);
+        assertNotSame(first.getFrontCorner()[0], second.getFrontCorner()[0]);
+
+        first.setFront(true);
+        first.setTopLeftCard(second);
+        assertFalse(second.isFront());
+        assertNull(second.getFrontCorner()[0].getAttachedCard());
+        assertEquals(first.getFrontCorner()[1].existCorner(), second.getFrontCorner()[1].existCorner());
+    }
+
+    /**
+     * Tests that a deck of catalog indices draws every card of the deck exactly once.
+     */
+    @Test
+    public void testCatalogDeck() {
+        AbstractDeck deck = new DeckResources(CardCatalog.getInstance().getDeck(CardDefinition.Kind.RESOURCE), 40);
+        deck.shuffle();
+        assertEquals(40, deck.getSize());
+
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            String top = deck.getTopCardID();
+            AbstractCard card = deck.drawCard();
+            assertEquals(top, card.getID());
+            assertTrue(drawn.add(card.getID()));
+        }
+        assertEquals(30, deck.getSize());
+
+        // the remaining cards are created when the whole list is needed
+        for (AbstractCard card : deck.getCards()) {
+            assertTrue(drawn.add(card.getID()));
+        }
+        assertEquals(40, drawn.size());
+        assertEquals(30, deck.getSize());
+        assertFalse(deck.isEmpty());
+    }
+
+    /**
+     * Tests that cards with the same definition and side are equal and share the hash code.
+     */
+    @Test
+    public void testEqualsAndHashCode() {
+        CardDefinition definition = CardCatalog.getInstance().get("12");
+        AbstractCard first = definition.newCard();
+        AbstractCard second = definition.newCard();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        second.setFront(true);
+        assertNotEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, CardCatalog.getInstance().get("13").newCard());
+    }
+
+    /**
+     * Tests that a card which is not on a manuscript is sent as a reference to its definition.
+     */
+    @Test
+    public void testSerializedCardReference() throws IOException, ClassNotFoundException {
+        AbstractCard card = CardCatalog.getInstance().get("55").newCard();
+        card.setFront(true);
+
+        byte[] bytes = serialize(card);
+        AbstractCard copy = (AbstractCard) deserialize(bytes);
+        assertEquals(card, copy);
+        assertSame(card.getDefinition(), copy.getDefinition());
+        assertTrue(copy.isFront());
+        assertEquals(card.getPointStrategy(), copy.getPointStrategy());
+
+        // a covered card keeps its own state
+        card.setTopLeftCard(CardCatalog.getInstance().get("1").newCard());
+        byte[] coveredBytes = serialize(card);
+        assertTrue(bytes.length < coveredBytes.length);
+        AbstractCard coveredCopy = (AbstractCard) deserialize(coveredBytes);
+        assertEquals("1", coveredCopy.getTopLeftCard().getID());
+        assertSame(card.getDefinition(), coveredCopy.getDefinition());
+    }
+
+    /**
+     * Tests that a reference to a card outside the catalog, as a peer could send, is rejected while it is read.
+     */
+    @Test
+    public void testInvalidCardReference() throws IOException {
+        assertThrows(InvalidObjectException.class, () -> deserialize(serialize(new CardDefinition.CardReference(9999, true))));
+        assertThrows(InvalidObjectException.class, () -> deserialize(serialize(new CardDefinition.CardReference(-1, false))));
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
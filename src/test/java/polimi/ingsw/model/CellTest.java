@@ -46,4 +46,11 @@ public class CellTest extends TestCase {
         Cell cell2 = new Cell(1, 1);
         assertTrue(cell1.equals(cell2));
     }
+
+    /**
+     * Tests if equal cells have the same hash code.
+     */
+    public void testHashCode() {
+        assertEquals(new Cell(39, 41).hashCode(), new Cell(39, 41).hashCode());
+    }
 }
@@ -7,6 +7,8 @@ import polimi.ingsw.exception.DuplicatePlayerException;
 import polimi.ingsw.exception.NotPlayerTurnException;
 import polimi.ingsw.main.App;
 
+import java.util.Arrays;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +48,46 @@ public class GameTest {
         goldCard = new GoldCard("TestCard", "/path/to/image", "pathBack", 1, App.createCornerArray(), App.createCornerArray(), array, Resources.FUNGI, "Quill");
     }
 
+    /**
+     * Tests that players are found by nickname whatever its case, and no longer once removed.
+     */
+    @Test
+    public void testPlayerByNickname() {
+        assertSame(player1, game.getPlayerByNickname("player1"));
+        assertSame(player2, game.getPlayerByNickname("PLAYER2"));
+        assertTrue(game.isNicknameTaken("pLaYeR1"));
+        assertNull(game.getPlayerByNickname(null));
+
+        game.removePlayer(player1);
+        assertNull(game.getPlayerByNickname("Player1"));
+        assertFalse(game.isNicknameTaken("Player1"));
+    }
+
+    /**
+     * Tests that games with the same seed draw the same decks and the same first player, and other seeds do not.
+     */
+    @Test
+    public void testSeed() {
+        Game first = seededGame(42);
+        Game second = seededGame(42);
+        assertEquals(42, first.getSeed());
+        assertArrayEquals(first.getDeckOrders(), second.getDeckOrders());
+        assertEquals(first.getActivePlayerNickname(), second.getActivePlayerNickname());
+        assertEquals(first.getCommonTargetCard()[0].getID(), second.getCommonTargetCard()[0].getID());
+
+        assertFalse(Arrays.deepEquals(first.getDeckOrders(), seededGame(43).getDeckOrders()));
+    }
+
+    private static Game seededGame(long seed) {
+        Game seeded = new Game(1, 4, seed);
+        for (int i = 0; i < 4; i++) {
+            seeded.addPlayerByNickname("player" + i);
+            seeded.startingPlayer("player" + i);
+        }
+        seeded.startingGame();
+        return seeded;
+    }
+
     /**
      * Tests the creation of the game.
      * Verifies that the game is correctly initialized with the provided ID and number of players.
@@ -56,6 +56,24 @@ public class GoldCardTest {
         assertTrue(result, "Una carta sul retro dovrebbe sempre restituire true.");
     }
 
+    /**
+     * Tests that the resources requested by the front side are checked whatever the side the card is facing,
+     * and without turning the card.
+     */
+    @Test
+    public void testHasResourcesForFront() {
+        GoldCard expensive = new GoldCard("G2", "pathFront", "pathBack", 5, new Corner[]{}, new Corner[]{}, new int[]{9, 9, 9, 9}, Resources.PLANT, "example");
+        expensive.setFront(false);
+        assertTrue(expensive.checkResourceRequested(manuscript));
+        assertFalse(expensive.hasResourcesForFront(manuscript));
+        assertFalse(expensive.isFront());
+
+        GoldCard free = new GoldCard("G3", "pathFront", "pathBack", 5, new Corner[]{}, new Corner[]{}, numResourceRequested, Resources.PLANT, "example");
+        free.setFront(false);
+        assertTrue(free.hasResourcesForFront(manuscript));
+        assertFalse(free.isFront());
+    }
+
     @Test
     public void testCalculateAvailablePiece() {
 
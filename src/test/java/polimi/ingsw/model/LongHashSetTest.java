@@ -0,0 +1,67 @@
+package polimi.ingsw.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the LongHashSet class.
+ */
+public class LongHashSetTest {
+
+    /**
+     * Tests basic insertion, lookup and removal, including the value used to mark empty slots.
+     */
+    @Test
+    public void testAddContainsRemove() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(Manuscript.key(40, 40)));
+        assertFalse(set.add(Manuscript.key(40, 40)));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(Manuscript.key(40, 40)));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(2, set.size());
+
+        assertTrue(set.remove(Long.MIN_VALUE));
+        assertFalse(set.remove(Long.MIN_VALUE));
+        assertTrue(set.remove(Manuscript.key(40, 40)));
+        assertFalse(set.contains(Manuscript.key(40, 40)));
+        assertTrue(set.isEmpty());
+    }
+
+    /**
+     * Tests the set against a HashSet with a long sequence of random operations on a small key space,
+     * so that probe sequences collide and removals have to shift entries back.
+     */
+    @Test
+    public void testMatchesHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 20000; i++) {
+            long value = Manuscript.key(random.nextInt(30), random.nextInt(30));
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long value : set.toArray()) {
+            assertTrue(expected.contains(value));
+        }
+        assertEquals(expected.size(), Arrays.stream(set.toArray()).distinct().count());
+        for (int row = 0; row < 30; row++) {
+            for (int col = 0; col < 30; col++) {
+                assertEquals(expected.contains(Manuscript.key(row, col)), set.contains(Manuscript.key(row, col)));
+            }
+        }
+    }
+}
@@ -2,6 +2,11 @@ package polimi.ingsw.model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -94,6 +99,33 @@ public class ManuscriptTest {
         assertEquals(newCard, compressedManuscript[1][1]);
     }
 
+    /**
+     * Tests that the view reads the same cards as the compressed manuscript, follows later placements
+     * and returns null outside its bounds.
+     */
+    @Test
+    public void testViewMatchesCompressedManuscript() {
+        ManuscriptView view = manuscript.getView();
+        Corner[] frontCorner = new Corner[4];
+        for (int i = 0; i < frontCorner.length; i++) {
+            frontCorner[i] = new Corner("1", true, null, null);
+        }
+        AbstractCard newCard = new ResourceCard("New Card", "Description", "pathBack", 2, frontCorner, frontCorner, null);
+        manuscript.placeCard(newCard, 39, 39);
+
+        AbstractCard[][] compressedManuscript = manuscript.getCompressedManuscript();
+        assertEquals(compressedManuscript.length, view.getRows());
+        assertEquals(compressedManuscript[0].length, view.getColumns());
+        for (int row = 0; row < view.getRows(); row++) {
+            for (int col = 0; col < view.getColumns(); col++) {
+                assertSame(compressedManuscript[row][col], view.get(row, col));
+            }
+        }
+        assertSame(newCard, view.get(39 - view.getFirstRow(), 39 - view.getFirstColumn()));
+        assertNull(view.get(-1, 0));
+        assertNull(view.get(0, view.getColumns()));
+    }
+
     /**
      * Tests if the manuscript can be printed without throwing an exception.
      */
@@ -119,9 +151,151 @@ public class ManuscriptTest {
         assertEquals(34, manuscript.getLeftColumn());
         assertEquals(41, manuscript.getRightColumn());
     }
-}
 
+    /**
+     * Tests that odd-parity cells are reported as "NO" cells and untouched even cells as empty.
+     */
+    @Test
+    public void testSparseBoardCells() {
+        assertEquals("NO", manuscript.getCard(40, 41).getID());
+        assertEquals("NO", manuscript.getCard(0, 1).getID());
+        assertEquals("SI", manuscript.getCard(39, 39).getID());
+        assertNull(manuscript.getCard(10, 10));
+    }
+
+    /**
+     * Tests that the full matrix built from the sparse board matches the single cell lookups.
+     */
+    @Test
+    public void testFullManuscriptMatchesBoard() {
+        AbstractCard[][] matrix = manuscript.getManuscript();
+        assertEquals(Manuscript.MATRIX_SIZE, matrix.length);
+        assertEquals(Manuscript.MATRIX_SIZE, matrix[0].length);
+        for (int row = 0; row < matrix.length; row++) {
+            for (int col = 0; col < matrix[row].length; col++) {
+                assertSame(manuscript.getCard(row, col), matrix[row][col]);
+            }
+        }
+    }
+
+    /**
+     * Tests that every placement is recorded with the neighbours it covers.
+     */
+    @Test
+    public void testPlacementsRecordCoveredCorners() {
+        Corner[] corners = new Corner[4];
+        for (int i = 0; i < corners.length; i++) {
+            corners[i] = new Corner("2", true, null, null);
+        }
+        AbstractCard card = new ResourceCard("2", "", "pathBack", 0, corners, corners, null);
+        card.setFront(true);
+        manuscript.placeCard(card, 39, 39);
+
+        List<Placement> placements = manuscript.getPlacements();
+        assertEquals(2, placements.size());
+        assertEquals(new Placement(-1, false, 40, 40, 0), placements.get(0));
+        assertEquals(new Placement(-1, true, 39, 39, Placement.BOTTOM_RIGHT), placements.get(1));
 
+        manuscript.setStartingCardSide(true);
+        assertTrue(manuscript.getPlacements().get(0).isFront());
+    }
+
+    /**
+     * Plays random legal moves with the real decks and checks after every placement that the
+     * incrementally maintained resource and piece counters match a full rescan of the manuscript.
+     */
+    @Test
+    public void testTotalsMatchFullRescan() {
+        for (long seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Game game = new Game(1, 1);
+            game.addPlayerByNickname("player");
+            game.startingPlayer("player");
+            Player player = game.getPlayerByNickname("player");
+            game.setPlayerStartingCardSide(player, random.nextBoolean());
+            game.startingGame();
+            Manuscript m = player.getManuscript();
+            assertTotalsMatchRescan(m);
 
+            for (int turn = 0; turn < 30; turn++) {
+                List<AbstractCard> playable = new ArrayList<>();
+                for (AbstractCard card : player.getHandCards()) {
+                    card.setFront(random.nextBoolean());
+                    if (card.checkResourceRequested(m)) {
+                        playable.add(card);
+                    }
+                }
+                List<Cell> cells = m.getAvailableCells();
+                if (playable.isEmpty() || cells.isEmpty()) {
+                    break;
+                }
+                AbstractCard card = playable.get(random.nextInt(playable.size()));
+                Cell cell = cells.get(random.nextInt(cells.size()));
 
+                game.playCard(player, card, cell.getRow(), cell.getColumn());
+                game.removePlayerCardFromHand(player, card);
+                game.drawingCard(player, 1 + random.nextInt(2));
+                assertTotalsMatchRescan(m);
+            }
+        }
+    }
 
+    /**
+     * Tests that placing again the placements of a played manuscript rebuilds the same manuscript.
+     */
+    @Test
+    public void testFromPlacements() {
+        Random random = new Random(7);
+        Game game = new Game(1, 1);
+        game.addPlayerByNickname("player");
+        game.startingPlayer("player");
+        Player player = game.getPlayerByNickname("player");
+        game.setPlayerStartingCardSide(player, true);
+        game.startingGame();
+        Manuscript m = player.getManuscript();
+        for (int turn = 0; turn < 15; turn++) {
+            AbstractCard card = player.getHandCards().get(0);
+            card.setFront(false);
+            List<Cell> cells = m.getAvailableCells();
+            Cell cell = cells.get(random.nextInt(cells.size()));
+            game.playCard(player, card, cell.getRow(), cell.getColumn());
+            game.removePlayerCardFromHand(player, card);
+            game.drawingCard(player, 1 + random.nextInt(2));
+        }
+
+        Manuscript copy = Manuscript.fromPlacements(m.getPlacements());
+        assertEquals(m.getPlacements(), copy.getPlacements());
+        assertArrayEquals(m.getTotalResources(), copy.getTotalResources());
+        assertArrayEquals(m.getTotalPiece(), copy.getTotalPiece());
+        assertEquals(m.getAvailableCellsCount(), copy.getAvailableCellsCount());
+        assertEquals(m.getCompressedManuscriptWithIndexToString(), copy.getCompressedManuscriptWithIndexToString());
+        assertThrows(IllegalArgumentException.class, () -> Manuscript.fromPlacements(manuscript.getPlacements()));
+    }
+
+    /**
+     * Tests that turning the starting card opens the cells of the corners of its new side,
+     * as the manuscript rebuilt from its placements does.
+     */
+    @Test
+    public void testStartingCardSide() {
+        for (int index : CardCatalog.getInstance().getDeck(CardDefinition.Kind.STARTING)) {
+            for (boolean side : new boolean[]{true, false}) {
+                AbstractCard card = CardCatalog.getInstance().get(index).newCard();
+                card.setFront(true);
+                Manuscript m = new Manuscript(card);
+                m.setStartingCardSide(side);
+
+                Manuscript copy = Manuscript.fromPlacements(m.getPlacements());
+                assertEquals(copy.getAvailableCells(), m.getAvailableCells(), "card " + card.getID() + ", front " + side);
+                assertArrayEquals(copy.getTotalResources(), m.getTotalResources());
+                assertEquals(copy.getCompressedManuscriptWithIndexToString(), m.getCompressedManuscriptWithIndexToString());
+            }
+        }
+    }
+
+    private static void assertTotalsMatchRescan(Manuscript m) {
+        AbstractCard[][] matrix = m.getCompressedManuscript();
+        assertArrayEquals(Manuscript.getAvailableResource(matrix), m.getTotalResources());
+        assertArrayEquals(Manuscript.getAvailablePiece(matrix), m.getTotalPiece());
+    }
+}
@@ -0,0 +1,84 @@
+package polimi.ingsw.model.strategy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.model.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static polimi.ingsw.main.App.createCornerArray;
+
+/**
+ * Test class for the PatternEngine class.
+ */
+public class PatternEngineTest {
+    private Manuscript m;
+
+    @BeforeEach
+    public void setUp() {
+        AbstractCard startingCard = new StartingCard("START", "1", "pathBack", 1, createCornerArray(), createCornerArray(), null);
+        m = new Manuscript(startingCard);
+    }
+
+    private static AbstractCard card(Resources resource) {
+        return new ResourceCard("1", "1", "pathBack", 0, createCornerArray(), createCornerArray(), resource);
+    }
+
+    /**
+     * Tests that cards on a long diagonal are grouped in disjoint triples.
+     */
+    @Test
+    public void testDiagonalCardsAreUsedOnce() {
+        for (int i = 1; i <= 4; i++) {
+            m.placeCard(card(Resources.PLANT), 40 - i, 40 - i);
+        }
+        assertEquals(2, PatternEngine.evaluate(m, Objective.PLANT_DIAGONAL));
+
+        m.placeCard(card(Resources.PLANT), 35, 35);
+        m.placeCard(card(Resources.PLANT), 34, 34);
+        assertEquals(4, PatternEngine.evaluate(m, Objective.PLANT_DIAGONAL));
+    }
+
+    /**
+     * Tests the rising fungi diagonal, which was read from the wrong column before.
+     */
+    @Test
+    public void testFungiDiagonal() {
+        m.placeCard(card(Resources.FUNGI), 39, 41);
+        m.placeCard(card(Resources.FUNGI), 38, 42);
+        m.placeCard(card(Resources.FUNGI), 37, 43);
+        assertEquals(2, PatternEngine.evaluate(m, Objective.forTargetCard(87)));
+        assertEquals(0, PatternEngine.evaluate(m, Objective.forTargetCard(89)));
+    }
+
+    /**
+     * Tests that several objectives are evaluated together and independently.
+     */
+    @Test
+    public void testEvaluateSeveralObjectives() {
+        m.placeCard(card(Resources.FUNGI), 39, 41);
+        m.placeCard(card(Resources.FUNGI), 41, 41);
+        m.placeCard(card(Resources.PLANT), 42, 42);
+        m.placeCard(card(Resources.FUNGI), 38, 42);
+
+        Objective[] objectives = {
+                Objective.forTargetCard(91),
+                Objective.forTargetCard(87),
+                Objective.forTargetCard(95),
+                null
+        };
+        // the fungi at (39, 41) belongs to both the L-shape and the diagonal candidates
+        assertArrayEquals(new int[]{3, 0, 2, 0}, PatternEngine.evaluate(m, objectives));
+    }
+
+    /**
+     * Tests that IDs outside the target deck have no objective.
+     */
+    @Test
+    public void testForTargetCard() {
+        assertNull(Objective.forTargetCard(86));
+        assertNull(Objective.forTargetCard(103));
+        assertEquals(Objective.L_CONFIGURATION_ONE, Objective.forTargetCard(91));
+    }
+}
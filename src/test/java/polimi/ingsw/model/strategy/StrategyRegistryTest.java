@@ -0,0 +1,56 @@
+package polimi.ingsw.model.strategy;
+
+import org.junit.jupiter.api.Test;
+import polimi.ingsw.model.AbstractCard;
+import polimi.ingsw.model.ResourceCard;
+import polimi.ingsw.model.Resources;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static polimi.ingsw.main.App.createCornerArray;
+
+/**
+ * Test class for the StrategyRegistry class.
+ */
+public class StrategyRegistryTest {
+
+    /**
+     * Tests the strategies chosen for the resource, gold, starting and target cards.
+     */
+    @Test
+    public void testForCard() {
+        assertTrue(StrategyRegistry.forCard(1) instanceof EmptyStrategy);
+        assertTrue(StrategyRegistry.forCard(41) instanceof ThreePiece);
+        assertTrue(StrategyRegistry.forCard(45) instanceof AnglesCovered);
+        assertTrue(StrategyRegistry.forCard(48) instanceof EmptyStrategy);
+        assertTrue(StrategyRegistry.forCard(81) instanceof EmptyStrategy);
+        assertTrue(StrategyRegistry.forCard(87) instanceof Diagonals);
+        assertTrue(StrategyRegistry.forCard(92) instanceof LconfigurationTwo);
+        assertTrue(StrategyRegistry.forCard(102) instanceof ThreePiece);
+        assertTrue(StrategyRegistry.forCard(-1) instanceof EmptyStrategy);
+        assertSame(StrategyRegistry.forCard(41), StrategyRegistry.forCard(42));
+    }
+
+    /**
+     * Tests that the target strategy codes match the card IDs.
+     */
+    @Test
+    public void testForTargetStrategy() {
+        for (int code = 1; code <= 16; code++) {
+            assertSame(StrategyRegistry.forCard(86 + code), StrategyRegistry.forTargetStrategy(code));
+        }
+        assertThrows(IllegalArgumentException.class, () -> StrategyRegistry.forTargetStrategy(17));
+    }
+
+    /**
+     * Tests that cards resolve their numeric ID and strategy without a deck.
+     */
+    @Test
+    public void testCardStrategy() {
+        AbstractCard card = new ResourceCard("44", "1", "pathBack", 1, createCornerArray(), createCornerArray(), Resources.FUNGI);
+        assertEquals(44, card.getNumericID());
+        assertTrue(card.getPointStrategy() instanceof AnglesCovered);
+        AbstractCard named = new ResourceCard("NO", "1", "pathBack", 1, createCornerArray(), createCornerArray(), null);
+        assertEquals(-1, named.getNumericID());
+        assertTrue(named.getPointStrategy() instanceof EmptyStrategy);
+    }
+}
@@ -0,0 +1,49 @@
+package polimi.ingsw.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the SimulationRunner class and the bot policies.
+ */
+public class SimulationRunnerTest {
+    private static final List<BotPolicy> POLICIES = List.of(BotPolicy.forName("random"), BotPolicy.forName("greedy"),
+            BotPolicy.forName("objective"));
+
+    /**
+     * Tests that the bots play their games to the end, and that the greedy bot beats the random one.
+     */
+    @Test
+    public void testGamesEnd() {
+        SimulationStats stats = new SimulationRunner(POLICIES, 1).run(40);
+        assertEquals(40, stats.getGames());
+        assertEquals(0, stats.getStalledGames());
+        assertTrue(stats.getTurns() > 40 * POLICIES.size());
+        assertTrue(stats.getMeanScore(1) > stats.getMeanScore(0));
+        assertEquals(1.0, stats.getWinRate(0) + stats.getWinRate(1) + stats.getWinRate(2), 1e-9);
+        assertTrue(stats.getScorePercentile(1, 10) <= stats.getScorePercentile(1, 90));
+        assertTrue(stats.getPhaseNanos(SimulationRunner.Phase.PLACE) > 0);
+    }
+
+    /**
+     * Tests that a simulation gives the same games whatever the number of threads playing them.
+     */
+    @Test
+    public void testSeed() {
+        try (ForkJoinPool one = new ForkJoinPool(1); ForkJoinPool two = new ForkJoinPool(2)) {
+            SimulationStats first = new SimulationRunner(POLICIES, 7).run(70, one);
+            SimulationStats second = new SimulationRunner(POLICIES, 7).run(70, two);
+            assertEquals(first.getTurns(), second.getTurns());
+            for (int seat = 0; seat < POLICIES.size(); seat++) {
+                assertEquals(first.getMeanScore(seat), second.getMeanScore(seat));
+                assertEquals(first.getWinRate(seat), second.getWinRate(seat));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SimulationRunner(POLICIES.subList(0, 1), 7));
+        assertThrows(IllegalArgumentException.class, () -> BotPolicy.forName("cheater"));
+    }
+}